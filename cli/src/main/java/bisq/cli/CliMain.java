@@ -64,6 +64,7 @@ import bisq.cli.opts.GetBTCMarketPriceOptionParser;
 import bisq.cli.opts.GetBalanceOptionParser;
 import bisq.cli.opts.GetOffersOptionParser;
 import bisq.cli.opts.GetPaymentAcctFormOptionParser;
+import bisq.cli.opts.GetTaskStatisticsOptionParser;
 import bisq.cli.opts.GetTradeOptionParser;
 import bisq.cli.opts.GetTradesOptionParser;
 import bisq.cli.opts.GetTransactionOptionParser;
@@ -374,6 +375,33 @@ public class CliMain {
                     }
                     return;
                 }
+                case gettaskstats: {
+                    var opts = new GetTaskStatisticsOptionParser(args).parse();
+                    if (opts.isForHelp()) {
+                        out.println(client.getMethodHelp(method));
+                        return;
+                    }
+                    var tradeId = opts.getTradeId();
+                    var reply = client.getTaskStatistics(tradeId);
+                    var latencyFormat = "%-45s %-22s %8s %10s %8s %8s %8s %8s%n";
+                    out.printf(latencyFormat, "Task", "Phase", "Count", "Total ms", "p50 ms", "p90 ms", "p99 ms", "Max ms");
+                    reply.getTaskLatenciesList().forEach(l -> out.printf(latencyFormat,
+                            l.getTaskName(), l.getPhase(), l.getCount(), l.getTotalMs(),
+                            l.getP50Ms(), l.getP90Ms(), l.getP99Ms(), l.getMaxMs()));
+                    if (!tradeId.isEmpty()) {
+                        out.println();
+                        if (reply.getTraceList().isEmpty()) {
+                            out.printf("no task trace found for trade %s%n", tradeId);
+                        } else {
+                            var traceFormat = "%-45s %-22s %14s %10s %-9s%n";
+                            out.printf(traceFormat, "Task", "Phase", "Start", "Duration", "Succeeded");
+                            reply.getTraceList().forEach(t -> out.printf(traceFormat,
+                                    t.getTaskName(), t.getPhase(), t.getStartTime(),
+                                    t.getEndTime() - t.getStartTime(), t.getSucceeded()));
+                        }
+                    }
+                    return;
+                }
                 case confirmpaymentstarted: {
                     var opts = new GetTradeOptionParser(args).parse();
                     if (opts.isForHelp()) {
@@ -700,6 +728,8 @@ public class CliMain {
             stream.println();
             stream.format(rowFormat, gettrades.name(), "[--category=<open|closed|failed>]", "Get open (default), closed, or failed trades");
             stream.println();
+            stream.format(rowFormat, gettaskstats.name(), "[--trade-id=<trade-id>]", "Get protocol task latencies and trade task trace");
+            stream.println();
             stream.format(rowFormat, confirmpaymentstarted.name(), "--trade-id=<trade-id>", "Confirm payment started");
             stream.println();
             stream.format(rowFormat, confirmpaymentreceived.name(), "--trade-id=<trade-id>", "Confirm payment received");
@@ -21,6 +21,7 @@ import bisq.proto.grpc.AddressBalanceInfo;
 import bisq.proto.grpc.BalancesInfo;
 import bisq.proto.grpc.BtcBalanceInfo;
 import bisq.proto.grpc.GetMethodHelpRequest;
+import bisq.proto.grpc.GetTaskStatisticsReply;
 import bisq.proto.grpc.GetTradesRequest;
 import bisq.proto.grpc.GetVersionRequest;
 import bisq.proto.grpc.OfferInfo;
@@ -211,6 +212,10 @@ public final class GrpcClient {
         return tradesServiceRequest.getTradeHistory(category);
     }
 
+    public GetTaskStatisticsReply getTaskStatistics(String tradeId) {
+        return tradesServiceRequest.getTaskStatistics(tradeId);
+    }
+
     public void confirmPaymentStarted(String tradeId) {
         tradesServiceRequest.confirmPaymentStarted(tradeId);
     }
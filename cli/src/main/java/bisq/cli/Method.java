@@ -41,6 +41,7 @@ public enum Method {
     getpaymentacctform,
     getpaymentaccts,
     getpaymentmethods,
+    gettaskstats,
     gettrade,
     gettrades,
     failtrade,
@@ -0,0 +1,52 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.cli.opts;
+
+
+import joptsimple.OptionSpec;
+
+import static bisq.cli.opts.OptLabel.OPT_TRADE_ID;
+
+public class GetTaskStatisticsOptionParser extends AbstractMethodOptionParser implements MethodOpts {
+
+    final OptionSpec<String> tradeIdOpt = parser.accepts(OPT_TRADE_ID, "id of trade to show the task trace for")
+            .withRequiredArg()
+            .defaultsTo("");
+
+    public GetTaskStatisticsOptionParser(String[] args) {
+        super(args);
+    }
+
+    public GetTaskStatisticsOptionParser parse() {
+        super.parse();
+
+        // Short circuit opt validation if user just wants help.
+        if (options.has(helpOpt))
+            return this;
+
+        if (options.has(tradeIdOpt) && options.valueOf(tradeIdOpt).isEmpty())
+            throw new IllegalArgumentException("no trade id specified");
+
+        return this;
+    }
+
+    public String getTradeId() {
+        return options.valueOf(tradeIdOpt);
+    }
+}
@@ -19,6 +19,8 @@ package bisq.cli.request;
 
 import bisq.proto.grpc.ConfirmPaymentReceivedRequest;
 import bisq.proto.grpc.ConfirmPaymentStartedRequest;
+import bisq.proto.grpc.GetTaskStatisticsReply;
+import bisq.proto.grpc.GetTaskStatisticsRequest;
 import bisq.proto.grpc.GetTradeRequest;
 import bisq.proto.grpc.GetTradesRequest;
 import bisq.proto.grpc.TakeOfferReply;
@@ -82,6 +84,13 @@ public class TradesServiceRequest {
         return grpcStubs.tradesService.getTrades(request).getTradesList();
     }
 
+    public GetTaskStatisticsReply getTaskStatistics(String tradeId) {
+        var request = GetTaskStatisticsRequest.newBuilder()
+                .setTradeId(tradeId)
+                .build();
+        return grpcStubs.tradesService.getTaskStatistics(request);
+    }
+
     public void confirmPaymentStarted(String tradeId) {
         var request = ConfirmPaymentStartedRequest.newBuilder()
                 .setTradeId(tradeId)
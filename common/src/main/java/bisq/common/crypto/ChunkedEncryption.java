@@ -0,0 +1,329 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.common.crypto;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.util.Arrays;
+
+/**
+ * Streaming authenticated encryption for persisted data. The plaintext is split into chunks which are encrypted
+ * independently with AES-GCM, so neither writing nor reading needs the whole plaintext or ciphertext in memory.
+ *
+ * Layout: MAGIC (7 bytes), VERSION (1 byte), chunk size (int), nonce prefix (7 random bytes), then records of
+ * [final flag byte][ciphertext length int][ciphertext incl. tag].
+ *
+ * The nonce of a chunk is the nonce prefix, the chunk index and the final flag, and the header is used as additional
+ * authenticated data of each chunk. Reordered, truncated or extended streams therefore fail authentication.
+ */
+public class ChunkedEncryption {
+    public static final byte[] MAGIC = "HVNOENC".getBytes(StandardCharsets.US_ASCII);
+    public static final byte VERSION = 1;
+    public static final int HEADER_SIZE = MAGIC.length + 1 + 4 + 7;
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int TAG_LENGTH = 16;
+    private static final int NONCE_PREFIX_LENGTH = 7;
+    private static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * Returns true if the given bytes start with the header of the current or a former version of the format.
+     */
+    public static boolean isChunkedEncryption(byte[] header) {
+        return header.length >= MAGIC.length + 1 && Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC);
+    }
+
+    public static EncryptingOutputStream newOutputStream(OutputStream outputStream, SecretKey secretKey) throws IOException {
+        return new EncryptingOutputStream(outputStream, secretKey, DEFAULT_CHUNK_SIZE);
+    }
+
+    public static EncryptingOutputStream newOutputStream(OutputStream outputStream,
+                                                         SecretKey secretKey,
+                                                         int chunkSize) throws IOException {
+        return new EncryptingOutputStream(outputStream, secretKey, chunkSize);
+    }
+
+    /**
+     * Reads and verifies the header from the given stream and returns a stream of the decrypted data. Reading throws
+     * an IOException with a {@link CryptoException} as cause if authentication of a chunk fails.
+     */
+    public static InputStream newInputStream(InputStream inputStream, SecretKey secretKey) throws IOException {
+        return new DecryptingInputStream(inputStream, secretKey);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // EncryptingOutputStream
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Chunks are written once they are full and more data follows, so the last chunk can be marked as final in
+     * {@link #finish()}. Closing the stream finishes it and closes the underlying stream.
+     */
+    public static class EncryptingOutputStream extends FilterOutputStream {
+        private final SecretKey secretKey;
+        private final byte[] header;
+        private final byte[] noncePrefix;
+        private final byte[] buffer;
+        private final Cipher cipher;
+        private int position;
+        private long chunkIndex;
+        private boolean finished;
+
+        private EncryptingOutputStream(OutputStream outputStream, SecretKey secretKey, int chunkSize) throws IOException {
+            super(outputStream);
+            if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+                throw new IllegalArgumentException("Invalid chunk size " + chunkSize);
+            }
+            this.secretKey = secretKey;
+            noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+            RANDOM.nextBytes(noncePrefix);
+            header = createHeader(VERSION, chunkSize, noncePrefix);
+            buffer = new byte[chunkSize];
+            try {
+                cipher = Cipher.getInstance(CIPHER);
+            } catch (GeneralSecurityException e) {
+                throw new IOException(new CryptoException(e));
+            }
+            out.write(header);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (finished) {
+                throw new IOException("Stream is already finished");
+            }
+            while (length > 0) {
+                if (position == buffer.length) {
+                    writeChunk(false);
+                }
+                int toCopy = Math.min(length, buffer.length - position);
+                System.arraycopy(bytes, offset, buffer, position, toCopy);
+                position += toCopy;
+                offset += toCopy;
+                length -= toCopy;
+            }
+        }
+
+        /**
+         * Writes the final chunk without closing the underlying stream.
+         */
+        public void finish() throws IOException {
+            if (!finished) {
+                writeChunk(true);
+                finished = true;
+                out.flush();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Chunks are only written when full, so there is nothing to flush before finish
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+            } finally {
+                out.close();
+            }
+        }
+
+        private void writeChunk(boolean isFinal) throws IOException {
+            byte[] encrypted;
+            try {
+                cipher.init(Cipher.ENCRYPT_MODE, secretKey, getParameterSpec(noncePrefix, chunkIndex, isFinal));
+                cipher.updateAAD(header);
+                encrypted = cipher.doFinal(buffer, 0, position);
+            } catch (GeneralSecurityException e) {
+                throw new IOException(new CryptoException(e));
+            }
+            out.write(isFinal ? 1 : 0);
+            out.write(ByteBuffer.allocate(4).putInt(encrypted.length).array());
+            out.write(encrypted);
+            position = 0;
+            chunkIndex++;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // DecryptingInputStream
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static class DecryptingInputStream extends InputStream {
+        private final DataInputStream in;
+        private final SecretKey secretKey;
+        private final byte[] header;
+        private final byte[] noncePrefix;
+        private final int chunkSize;
+        private final Cipher cipher;
+        private byte[] chunk = new byte[0];
+        private int position;
+        private long chunkIndex;
+        private boolean finalChunkRead;
+
+        private DecryptingInputStream(InputStream inputStream, SecretKey secretKey) throws IOException {
+            in = new DataInputStream(inputStream);
+            this.secretKey = secretKey;
+            header = new byte[HEADER_SIZE];
+            in.readFully(header);
+            if (!isChunkedEncryption(header)) {
+                throw new IOException("Data is not in the chunked encryption format");
+            }
+            byte version = header[MAGIC.length];
+            if (version != VERSION) {
+                throw new IOException("Unsupported chunked encryption version " + version);
+            }
+            chunkSize = ByteBuffer.wrap(header, MAGIC.length + 1, 4).getInt();
+            if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+                throw new IOException("Invalid chunk size " + chunkSize);
+            }
+            noncePrefix = Arrays.copyOfRange(header, MAGIC.length + 5, HEADER_SIZE);
+            try {
+                cipher = Cipher.getInstance(CIPHER);
+            } catch (GeneralSecurityException e) {
+                throw new IOException(new CryptoException(e));
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureAvailable()) {
+                return -1;
+            }
+            return chunk[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!ensureAvailable()) {
+                return -1;
+            }
+            int toCopy = Math.min(length, chunk.length - position);
+            System.arraycopy(chunk, position, bytes, offset, toCopy);
+            position += toCopy;
+            return toCopy;
+        }
+
+        @Override
+        public int available() {
+            return chunk.length - position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private boolean ensureAvailable() throws IOException {
+            while (position == chunk.length) {
+                if (finalChunkRead) {
+                    if (in.read() != -1) {
+                        throw new IOException("Unexpected data after final chunk");
+                    }
+                    return false;
+                }
+                readChunk();
+            }
+            return true;
+        }
+
+        private void readChunk() throws IOException {
+            int flag = in.read();
+            if (flag == -1) {
+                throw new EOFException("Encrypted data is truncated");
+            }
+            if (flag > 1) {
+                throw new IOException("Invalid chunk flag " + flag);
+            }
+            int length = in.readInt();
+            if (length < TAG_LENGTH || length > chunkSize + TAG_LENGTH) {
+                throw new IOException("Invalid chunk length " + length);
+            }
+            byte[] encrypted = new byte[length];
+            in.readFully(encrypted);
+            boolean isFinal = flag == 1;
+            try {
+                cipher.init(Cipher.DECRYPT_MODE, secretKey, getParameterSpec(noncePrefix, chunkIndex, isFinal));
+                cipher.updateAAD(header);
+                chunk = cipher.doFinal(encrypted);
+            } catch (GeneralSecurityException e) {
+                throw new IOException(new CryptoException(e));
+            }
+            position = 0;
+            chunkIndex++;
+            finalChunkRead = isFinal;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static byte[] createHeader(byte version, int chunkSize, byte[] noncePrefix) {
+        return ByteBuffer.allocate(HEADER_SIZE)
+                .put(MAGIC)
+                .put(version)
+                .putInt(chunkSize)
+                .put(noncePrefix)
+                .array();
+    }
+
+    private static GCMParameterSpec getParameterSpec(byte[] noncePrefix, long chunkIndex, boolean isFinal)
+            throws GeneralSecurityException {
+        if (chunkIndex > 0xffffffffL) {
+            throw new GeneralSecurityException("Too many chunks");
+        }
+        byte[] nonce = ByteBuffer.allocate(12)
+                .put(noncePrefix)
+                .putInt((int) chunkIndex)
+                .put((byte) (isFinal ? 1 : 0))
+                .array();
+        return new GCMParameterSpec(TAG_LENGTH * 8, nonce);
+    }
+}
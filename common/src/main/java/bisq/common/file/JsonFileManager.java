@@ -17,16 +17,27 @@
 
 package bisq.common.file;
 
-import bisq.common.util.Utilities;
+import bisq.common.Timer;
+import bisq.common.UserThread;
+import bisq.common.util.KeyedSerialExecutor;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Writer;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -36,15 +47,35 @@ import org.jetbrains.annotations.Nullable;
 @Slf4j
 public class JsonFileManager {
     private final static List<JsonFileManager> INSTANCES = new ArrayList<>();
+    private static final String JSON_EXTENSION = ".json";
+    // Newline delimited json, one compact json object per line
+    private static final String NDJSON_EXTENSION = ".ndjson";
+    // Time we let submitted writes complete at shut down, for all instances together
+    private static final long SHUT_DOWN_TIMEOUT_MS = 5_000;
 
     public static void shutDownAllInstances() {
-        INSTANCES.forEach(JsonFileManager::shutDown);
+        // We let the writes of all instances complete in parallel, so shut down does not take the timeout per instance
+        INSTANCES.forEach(JsonFileManager::beginShutDown);
+        long deadline = System.currentTimeMillis() + SHUT_DOWN_TIMEOUT_MS;
+        INSTANCES.forEach(jsonFileManager -> jsonFileManager.awaitTermination(deadline));
+    }
+
+    /**
+     * Streams json to the writer, so we do not need to build the whole json string in memory.
+     */
+    public interface JsonContentWriter {
+        void writeTo(Writer writer) throws IOException;
     }
 
 
+    // Writes to the same file are run in the order they got submitted
     @Nullable
-    private ThreadPoolExecutor executor;
+    private KeyedSerialExecutor executor;
     private final File dir;
+    // Only accessed from the UserThread
+    private final Map<String, Timer> pendingWriteTimers = new HashMap<>();
+    private final Map<String, Supplier<JsonContentWriter>> pendingSnapshotSuppliers = new HashMap<>();
+    private volatile boolean isShutDown;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -62,25 +93,101 @@ public class JsonFileManager {
     }
 
     @NotNull
-    protected ThreadPoolExecutor getExecutor() {
+    protected synchronized KeyedSerialExecutor getExecutor() {
         if (executor == null) {
-            executor = Utilities.getThreadPoolExecutor("JsonFileManagerExecutor", 5, 50, 60);
+            executor = new KeyedSerialExecutor("JsonFileManagerExecutor", 2);
         }
         return executor;
     }
 
+    // Like the other shut down code it must be called on the UserThread, as pending debounced writes are flushed
     public void shutDown() {
+        beginShutDown();
+        awaitTermination(System.currentTimeMillis() + SHUT_DOWN_TIMEOUT_MS);
+    }
+
+    private void beginShutDown() {
+        if (isShutDown) {
+            return;
+        }
+
+        // We do not want to lose the pending debounced writes, so we submit them before we stop the executor
+        pendingWriteTimers.values().forEach(Timer::stop);
+        pendingWriteTimers.clear();
+        new HashMap<>(pendingSnapshotSuppliers).forEach(this::writeSnapshot);
+        pendingSnapshotSuppliers.clear();
+
+        isShutDown = true;
+        KeyedSerialExecutor executor = getExecutorIfCreated();
         if (executor != null) {
-            executor.shutdown();
+            // Lets already submitted writes complete
+            executor.beginShutDown();
         }
     }
 
+    private void awaitTermination(long deadline) {
+        KeyedSerialExecutor executor = getExecutorIfCreated();
+        if (executor != null) {
+            executor.awaitTermination(deadline);
+        }
+    }
+
+    @Nullable
+    private synchronized KeyedSerialExecutor getExecutorIfCreated() {
+        return executor;
+    }
+
     public void writeToDiscThreaded(String json, String fileName) {
-        getExecutor().execute(() -> writeToDisc(json, fileName));
+        execute(fileName + JSON_EXTENSION, () -> writeToDisc(json, fileName));
+    }
+
+    public void writeToDiscThreaded(JsonContentWriter contentWriter, String fileName) {
+        // Like writeToDisc we terminate the json with a line separator
+        JsonContentWriter jsonWriter = writer -> {
+            contentWriter.writeTo(writer);
+            writer.write(System.lineSeparator());
+        };
+        execute(fileName + JSON_EXTENSION, () -> writeToFile(jsonWriter, fileName + JSON_EXTENSION));
+    }
+
+    /**
+     * Coalesces frequent updates of a file. The first call schedules a write after the delay, further calls until
+     * then are covered by that write. The snapshotSupplier is called at write time on the UserThread, so it sees the
+     * latest data and can safely access it. It can return null to skip the write. Serialization to the file is done
+     * on the file's writer thread. A pending write is done at shut down. Must be called on the UserThread.
+     */
+    public void writeToDiscDebounced(Supplier<JsonContentWriter> snapshotSupplier, String fileName, long delayInSec) {
+        if (isShutDown || pendingWriteTimers.containsKey(fileName)) {
+            return;
+        }
+
+        pendingSnapshotSuppliers.put(fileName, snapshotSupplier);
+        pendingWriteTimers.put(fileName, UserThread.runAfter(() -> {
+            pendingWriteTimers.remove(fileName);
+            pendingSnapshotSuppliers.remove(fileName);
+            writeSnapshot(fileName, snapshotSupplier);
+        }, delayInSec, TimeUnit.SECONDS));
+    }
+
+    private void writeSnapshot(String fileName, Supplier<JsonContentWriter> snapshotSupplier) {
+        JsonContentWriter contentWriter = snapshotSupplier.get();
+        if (contentWriter != null) {
+            writeToDiscThreaded(contentWriter, fileName);
+        }
+    }
+
+    // Replaces the content of the ndjson file
+    public void writeNdjsonToDiscThreaded(JsonContentWriter contentWriter, String fileName) {
+        execute(fileName + NDJSON_EXTENSION, () -> writeToFile(contentWriter, fileName + NDJSON_EXTENSION));
+    }
+
+    // Appends to the ndjson file. Appends are run after previously submitted writes of the same file.
+    public void appendNdjsonToDiscThreaded(JsonContentWriter contentWriter, String fileName) {
+        execute(fileName + NDJSON_EXTENSION, () -> appendToFile(contentWriter, fileName + NDJSON_EXTENSION));
     }
 
     public void writeToDisc(String json, String fileName) {
-        File jsonFile = new File(Paths.get(dir.getAbsolutePath(), fileName + ".json").toString());
+        File jsonFile = new File(Paths.get(dir.getAbsolutePath(), fileName + JSON_EXTENSION).toString());
         File tempFile = null;
         PrintWriter printWriter = null;
         try {
@@ -112,4 +219,50 @@ public class JsonFileManager {
                 printWriter.close();
         }
     }
+
+    private void execute(String fileName, Runnable task) {
+        if (isShutDown) {
+            log.warn("We got called to write {} after shutdown. We ignore that.", fileName);
+            return;
+        }
+        getExecutor().execute(fileName, task);
+    }
+
+    private void writeToFile(JsonContentWriter contentWriter, String fileName) {
+        File file = new File(Paths.get(dir.getAbsolutePath(), fileName).toString());
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile("temp", null, dir);
+            tempFile.deleteOnExit();
+
+            // Close resources before replacing file with temp file because otherwise it causes problems on windows
+            // when rename temp file
+            try (Writer writer = newWriter(tempFile, false)) {
+                contentWriter.writeTo(writer);
+            }
+
+            FileUtil.renameFile(tempFile, file);
+        } catch (Throwable t) {
+            log.error("Writing {} failed", file, t);
+        } finally {
+            if (tempFile != null && tempFile.exists()) {
+                log.warn("Temp file still exists after failed save. We will delete it now. storageFile=" + fileName);
+                if (!tempFile.delete())
+                    log.error("Cannot delete temp file.");
+            }
+        }
+    }
+
+    private void appendToFile(JsonContentWriter contentWriter, String fileName) {
+        File file = new File(Paths.get(dir.getAbsolutePath(), fileName).toString());
+        try (Writer writer = newWriter(file, true)) {
+            contentWriter.writeTo(writer);
+        } catch (Throwable t) {
+            log.error("Appending to {} failed", file, t);
+        }
+    }
+
+    private static Writer newWriter(File file, boolean append) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append), StandardCharsets.UTF_8));
+    }
 }
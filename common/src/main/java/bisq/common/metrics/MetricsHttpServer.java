@@ -0,0 +1,146 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.metrics;
+
+import bisq.common.config.Config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import java.nio.charset.StandardCharsets;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Serves the metrics of a {@link MetricsRegistry} in the Prometheus text format at
+ * {@code http://127.0.0.1:<port>/metrics}.  The server only binds to the loopback
+ * interface; it is started if the metricsPort option is set.
+ */
+@Slf4j
+public class MetricsHttpServer {
+    private static final String PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry metricsRegistry;
+    private final int port;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MetricsHttpServer(MetricsRegistry metricsRegistry, int port) {
+        this.metricsRegistry = metricsRegistry;
+        this.port = port;
+    }
+
+    /**
+     * Starts a server for the default registry if a port is set.  Exposing metrics is
+     * optional, so a failed start is only logged.
+     *
+     * @return The started server or null
+     */
+    @Nullable
+    public static MetricsHttpServer maybeStart(int port) {
+        if (port == Config.UNSPECIFIED_PORT)
+            return null;
+
+        MetricsHttpServer metricsHttpServer = new MetricsHttpServer(MetricsRegistry.getInstance(), port);
+        try {
+            metricsHttpServer.start();
+            return metricsHttpServer;
+        } catch (UncheckedIOException e) {
+            log.error("Could not start metrics server at port {}", port, e);
+            return null;
+        }
+    }
+
+    public void start() {
+        try {
+            registerJvmGauges();
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext(PATH, this::handle);
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "MetricsHttpServer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            server.setExecutor(executor);
+            server.start();
+            log.info("Metrics available at http://{}:{}{}", server.getAddress().getHostString(),
+                    server.getAddress().getPort(), PATH);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void shutDown() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = metricsRegistry.toPrometheusText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        } catch (RuntimeException e) {
+            log.error("Writing metrics failed", e);
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void registerJvmGauges() {
+        MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        metricsRegistry.gauge("jvm_heap_used_bytes", "Used heap memory",
+                () -> memoryMXBean.getHeapMemoryUsage().getUsed());
+        metricsRegistry.gauge("jvm_heap_max_bytes", "Max. heap memory",
+                () -> memoryMXBean.getHeapMemoryUsage().getMax());
+        metricsRegistry.gauge("jvm_threads", "Number of live threads",
+                () -> ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.metrics;
+
+import bisq.common.util.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+
+/**
+ * Registry of counters, gauges and latency histograms.  A metric is identified by its
+ * name and optional label name/value pairs, e.g. {@code counter("p2p_messages_received",
+ * "...", "type", "Ping")}.  Asking for an already registered metric returns the existing
+ * instance, so metrics should be looked up once, e.g. into a field, and then recorded
+ * without allocation on hot paths.
+ * <p>
+ * The registry is exported in the Prometheus text format by {@link #writeTo(Appendable)},
+ * see {@link MetricsHttpServer}.
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    private enum Type {
+        COUNTER, GAUGE, HISTOGRAM
+    }
+
+    private static class Family {
+        private final String name;
+        private final String help;
+        private final Type type;
+        // Keys are the formatted labels, e.g. '{type="Ping"}' or an empty string
+        private final Map<String, Object> metricsByLabels = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private final Map<String, Family> familiesByName = new ConcurrentHashMap<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return Counter which is exported with a '_total' suffix added to its name
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) getFamily(name, help, Type.COUNTER).metricsByLabels
+                .computeIfAbsent(formatLabels(labels), key -> new Counter());
+    }
+
+    /**
+     * @return Histogram of durations; by convention the name ends with the unit, e.g. '_ms'
+     */
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return (LatencyHistogram) getFamily(name, help, Type.HISTOGRAM).metricsByLabels
+                .computeIfAbsent(formatLabels(labels), key -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers a gauge whose value is read from the supplier at export time.  A gauge
+     * registered again with the same name and labels replaces the former one.
+     */
+    public void gauge(String name, String help, DoubleSupplier valueSupplier, String... labels) {
+        getFamily(name, help, Type.GAUGE).metricsByLabels.put(formatLabels(labels), valueSupplier);
+    }
+
+    public void remove(String name, String... labels) {
+        Family family = familiesByName.get(name);
+        if (family != null)
+            family.metricsByLabels.remove(formatLabels(labels));
+    }
+
+    /**
+     * Writes all metrics in the Prometheus text exposition format (version 0.0.4),
+     * sorted by name and labels.
+     */
+    public void writeTo(Appendable out) throws IOException {
+        for (Family family : new TreeMap<>(familiesByName).values()) {
+            Map<String, Object> metricsByLabels = new TreeMap<>(family.metricsByLabels);
+            if (metricsByLabels.isEmpty())
+                continue;
+
+            out.append("# HELP ").append(family.name).append(' ').append(escapeHelp(family.help)).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.name().toLowerCase()).append('\n');
+            for (Map.Entry<String, Object> entry : metricsByLabels.entrySet()) {
+                String labels = entry.getKey();
+                switch (family.type) {
+                    case COUNTER:
+                        writeSample(out, family.name + "_total", labels, ((Counter) entry.getValue()).get());
+                        break;
+                    case GAUGE:
+                        writeSample(out, family.name, labels, ((DoubleSupplier) entry.getValue()).getAsDouble());
+                        break;
+                    case HISTOGRAM:
+                        writeHistogram(out, family.name, labels, (LatencyHistogram) entry.getValue());
+                        break;
+                }
+            }
+        }
+    }
+
+    public String toPrometheusText() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeTo(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Family getFamily(String name, String help, Type type) {
+        Family family = familiesByName.get(name);
+        if (family == null) {
+            checkArgument(NAME_PATTERN.matcher(name).matches(), "Invalid metric name %s", name);
+            family = familiesByName.computeIfAbsent(name, key -> new Family(name, help, type));
+        }
+        checkArgument(family.type == type, "Metric %s is already registered as %s", name, family.type);
+        return family;
+    }
+
+    private static void writeHistogram(Appendable out, String name, String labels, LatencyHistogram histogram)
+            throws IOException {
+        long[] bucketCounts = histogram.getBucketCounts();
+        int lastBucket = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            if (bucketCounts[i] > 0)
+                lastBucket = i;
+        }
+
+        // Prometheus buckets are cumulative, we leave out the empty buckets above the highest value.
+        long cumulativeCount = 0;
+        for (int i = 0; i <= lastBucket; i++) {
+            cumulativeCount += bucketCounts[i];
+            String le = String.valueOf(LatencyHistogram.getBucketUpperBound(i));
+            writeSample(out, name + "_bucket", addLabel(labels, "le", le), cumulativeCount);
+        }
+        writeSample(out, name + "_bucket", addLabel(labels, "le", "+Inf"), cumulativeCount);
+        writeSample(out, name + "_sum", labels, histogram.getSum());
+        writeSample(out, name + "_count", labels, cumulativeCount);
+    }
+
+    private static void writeSample(Appendable out, String name, String labels, long value) throws IOException {
+        out.append(name).append(labels).append(' ').append(String.valueOf(value)).append('\n');
+    }
+
+    private static void writeSample(Appendable out, String name, String labels, double value) throws IOException {
+        String formatted;
+        if (Double.isNaN(value))
+            formatted = "NaN";
+        else if (Double.isInfinite(value))
+            formatted = value > 0 ? "+Inf" : "-Inf";
+        else if (value == Math.rint(value) && Math.abs(value) < 1e15)
+            formatted = String.valueOf((long) value);
+        else
+            formatted = String.valueOf(value);
+        out.append(name).append(labels).append(' ').append(formatted).append('\n');
+    }
+
+    private static String formatLabels(String... labels) {
+        if (labels.length == 0)
+            return "";
+
+        checkArgument(labels.length % 2 == 0, "Labels must be name/value pairs");
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            checkArgument(NAME_PATTERN.matcher(labels[i]).matches(), "Invalid label name %s", labels[i]);
+            if (i > 0)
+                sb.append(',');
+            sb.append(labels[i]).append("=\"").append(escapeLabelValue(labels[i + 1])).append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String addLabel(String labels, String name, String value) {
+        String label = format("%s=\"%s\"", name, value);
+        return labels.isEmpty() ? "{" + label + "}" : labels.substring(0, labels.length() - 1) + "," + label + "}";
+    }
+
+    private static String escapeLabelValue(String value) {
+        return String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeHelp(String help) {
+        return String.valueOf(help).replace("\\", "\\\\").replace("\n", "\\n");
+    }
+}
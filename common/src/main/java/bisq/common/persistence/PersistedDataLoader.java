@@ -0,0 +1,274 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import bisq.common.UserThread;
+import bisq.common.proto.persistable.PersistedDataHost;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Loads persisted stores at startup in the order given by their declared dependencies. Independent stores are
+ * loaded in parallel, the reads themselves run on the bounded read executor of the PersistenceManager.
+ *
+ * The complete handler is called once all critical stores are loaded. Deferred stores are not needed for the UI or
+ * API to be usable and get loaded after that.
+ *
+ * At the end we log the timeline of all loads, so slow stores are visible at each startup.
+ */
+@Slf4j
+public class PersistedDataLoader {
+    @Value
+    public static class TimelineEntry {
+        String name;
+        boolean deferred;
+        // Relative to the start of the loader
+        long startMs;
+        long durationMs;
+    }
+
+    private static class Task {
+        final String name;
+        final Consumer<Runnable> loader;
+        final boolean deferred;
+        final Set<String> dependencies = new HashSet<>();
+        long startTs;
+        long endTs;
+
+        Task(String name, Consumer<Runnable> loader, boolean deferred) {
+            this.name = name;
+            this.loader = loader;
+            this.deferred = deferred;
+        }
+
+        boolean isStarted() {
+            return startTs > 0;
+        }
+
+        boolean isCompleted() {
+            return endTs > 0;
+        }
+    }
+
+    private final String name;
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+    private long loaderStartTs;
+    private Runnable completeHandler;
+    private boolean completeHandlerCalled;
+
+    public PersistedDataLoader(String name) {
+        this.name = name;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Declaration
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public synchronized PersistedDataLoader add(PersistedDataHost host) {
+        return add(getName(host), host::readPersisted);
+    }
+
+    /**
+     * @param name      Unique name of the store, used for dependencies and the timeline.
+     * @param loader    Loads the store and calls the given handler once done (usually from the UserThread).
+     */
+    public synchronized PersistedDataLoader add(String name, Consumer<Runnable> loader) {
+        return add(name, loader, false);
+    }
+
+    // Deferred stores must not be a dependency of a critical store.
+    public synchronized PersistedDataLoader addDeferred(String name, Consumer<Runnable> loader) {
+        return add(name, loader, true);
+    }
+
+    public synchronized PersistedDataLoader addDependency(PersistedDataHost host, PersistedDataHost dependency) {
+        return addDependency(getName(host), getName(dependency));
+    }
+
+    public synchronized PersistedDataLoader addDependency(String name, String dependency) {
+        checkArgument(tasks.containsKey(name), "Unknown store " + name);
+        checkArgument(tasks.containsKey(dependency), "Unknown dependency " + dependency + " of " + name);
+        checkArgument(tasks.get(name).deferred || !tasks.get(dependency).deferred,
+                "Critical store " + name + " must not depend on deferred store " + dependency);
+        tasks.get(name).dependencies.add(dependency);
+        return this;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Load
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public void load(Runnable completeHandler) {
+        List<Task> readyTasks;
+        synchronized (this) {
+            checkArgument(loaderStartTs == 0, "load must be called only once");
+            checkNoCycles();
+            this.completeHandler = completeHandler;
+            loaderStartTs = System.currentTimeMillis();
+            readyTasks = getReadyTasks();
+        }
+        if (readyTasks.isEmpty()) {
+            maybeComplete();
+        } else {
+            readyTasks.forEach(this::start);
+        }
+    }
+
+    public synchronized List<TimelineEntry> getTimeline() {
+        return tasks.values().stream()
+                .filter(Task::isStarted)
+                .sorted(Comparator.comparingLong(task -> task.startTs))
+                .map(task -> new TimelineEntry(task.name,
+                        task.deferred,
+                        task.startTs - loaderStartTs,
+                        task.isCompleted() ? task.endTs - task.startTs : -1))
+                .collect(Collectors.toList());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void start(Task task) {
+        try {
+            task.loader.accept(() -> onCompleted(task));
+        } catch (Throwable t) {
+            // We treat it as loaded so that startup continues. The store handles a failed read with its defaults.
+            log.error("Loading {} failed", task.name, t);
+            onCompleted(task);
+        }
+    }
+
+    private void onCompleted(Task task) {
+        List<Task> readyTasks;
+        synchronized (this) {
+            if (task.isCompleted()) {
+                log.warn("Complete handler of {} was called more than once", task.name);
+                return;
+            }
+            task.endTs = System.currentTimeMillis();
+            readyTasks = getReadyTasks();
+        }
+        readyTasks.forEach(this::start);
+        maybeComplete();
+    }
+
+    private void maybeComplete() {
+        boolean criticalCompleted;
+        boolean allCompleted;
+        synchronized (this) {
+            criticalCompleted = !completeHandlerCalled && tasks.values().stream()
+                    .filter(task -> !task.deferred)
+                    .allMatch(Task::isCompleted);
+            if (criticalCompleted) {
+                completeHandlerCalled = true;
+            }
+            allCompleted = tasks.values().stream().allMatch(Task::isCompleted);
+        }
+
+        if (criticalCompleted) {
+            log.info("{}: All critical stores loaded after {} ms.{}",
+                    name, System.currentTimeMillis() - loaderStartTs, getTimelineAsString(false));
+            UserThread.execute(completeHandler);
+            // Deferred stores start after the complete handler so they do not delay the startup
+            UserThread.execute(this::startDeferredTasks);
+        } else if (allCompleted && tasks.values().stream().anyMatch(task -> task.deferred)) {
+            log.info("{}: All deferred stores loaded after {} ms.{}",
+                    name, System.currentTimeMillis() - loaderStartTs, getTimelineAsString(true));
+        }
+    }
+
+    private void startDeferredTasks() {
+        List<Task> readyTasks;
+        synchronized (this) {
+            readyTasks = getReadyTasks();
+        }
+        readyTasks.forEach(this::start);
+    }
+
+    // Critical tasks whose dependencies are completed and, once the complete handler was called, deferred ones as well.
+    private List<Task> getReadyTasks() {
+        List<Task> readyTasks = tasks.values().stream()
+                .filter(task -> !task.isStarted())
+                .filter(task -> !task.deferred || completeHandlerCalled)
+                .filter(task -> task.dependencies.stream().allMatch(dependency -> tasks.get(dependency).isCompleted()))
+                .collect(Collectors.toList());
+        // We mark them as started here already so that concurrent completions do not start them twice
+        long now = System.currentTimeMillis();
+        readyTasks.forEach(task -> task.startTs = now);
+        return readyTasks;
+    }
+
+    private void checkNoCycles() {
+        Set<String> resolved = new HashSet<>();
+        boolean progress = true;
+        while (progress) {
+            progress = false;
+            for (Task task : tasks.values()) {
+                if (!resolved.contains(task.name) && resolved.containsAll(task.dependencies)) {
+                    resolved.add(task.name);
+                    progress = true;
+                }
+            }
+        }
+        checkArgument(resolved.size() == tasks.size(), "Cyclic dependencies between stores: " +
+                tasks.keySet().stream().filter(e -> !resolved.contains(e)).collect(Collectors.toList()));
+    }
+
+    private String getTimelineAsString(boolean includeDeferred) {
+        StringBuilder sb = new StringBuilder();
+        getTimeline().stream()
+                .filter(entry -> includeDeferred || !entry.isDeferred())
+                .forEach(entry -> sb.append("\n    +")
+                        .append(entry.getStartMs())
+                        .append(" ms ")
+                        .append(entry.getName())
+                        .append(entry.isDeferred() ? " (deferred)" : "")
+                        .append(" took ")
+                        .append(entry.getDurationMs())
+                        .append(" ms"));
+        return sb.toString();
+    }
+
+    private synchronized PersistedDataLoader add(String name, Consumer<Runnable> loader, boolean deferred) {
+        checkArgument(loaderStartTs == 0, "Stores must be added before load is called");
+        checkArgument(!tasks.containsKey(name), "Store " + name + " was already added");
+        tasks.put(name, new Task(name, loader, deferred));
+        return this;
+    }
+
+    private static String getName(PersistedDataHost host) {
+        return host.getClass().getSimpleName();
+    }
+}
@@ -21,33 +21,47 @@ import bisq.common.Timer;
 import bisq.common.UserThread;
 import bisq.common.app.DevEnv;
 import bisq.common.config.Config;
+import bisq.common.crypto.ChunkedEncryption;
 import bisq.common.crypto.CryptoException;
 import bisq.common.crypto.Encryption;
 import bisq.common.crypto.KeyRing;
 import bisq.common.file.CorruptedStorageFileHandler;
 import bisq.common.file.FileUtil;
 import bisq.common.handlers.ResultHandler;
+import bisq.common.metrics.Counter;
+import bisq.common.metrics.MetricsRegistry;
 import bisq.common.proto.persistable.PersistableEnvelope;
+import bisq.common.proto.persistable.PersistableRecordEnvelope;
 import bisq.common.proto.persistable.PersistenceProtoResolver;
-import bisq.common.util.GcUtil;
+import bisq.common.util.LatencyHistogram;
+import bisq.common.util.MemoryGovernor;
 import bisq.common.util.Utilities;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Message;
+
 import com.google.inject.Inject;
 
 import javax.inject.Named;
 
 import java.nio.file.Path;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -59,6 +73,7 @@ import lombok.extern.slf4j.Slf4j;
 import javax.annotation.Nullable;
 
 import static bisq.common.util.Preconditions.checkDir;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -87,6 +102,16 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     public static final Map<String, PersistenceManager<?>> ALL_PERSISTENCE_MANAGERS = new HashMap<>();
     private static boolean flushAtShutdownCalled;
     private static final AtomicBoolean allServicesInitialized = new AtomicBoolean(false);
+    // Persisted files are read on a bounded pool instead of a thread per file. Reading is mostly I/O with parsing on
+    // top, so we use a few more threads than cores but cap it so that the stores do not compete for a slow disk.
+    private static final int NUM_READ_THREADS = Math.max(2, Math.min(2 * Runtime.getRuntime().availableProcessors(), 6));
+    private static final ExecutorService READ_EXECUTOR = Utilities.getListeningExecutorService("PersistenceManager-read-%d",
+            NUM_READ_THREADS, NUM_READ_THREADS, 60, new LinkedBlockingQueue<>());
+
+    // Used for other reads at startup (e.g. historical stores) so that they share the same bound.
+    public static Executor getReadExecutor() {
+        return READ_EXECUTOR;
+    }
 
     public static void onAllServicesInitialized() {
         allServicesInitialized.set(true);
@@ -211,6 +236,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private final File dir;
+    @Getter
     private final PersistenceProtoResolver persistenceProtoResolver;
     private final CorruptedStorageFileHandler corruptedStorageFileHandler;
     @Nullable
@@ -224,6 +250,13 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     @Nullable
     private Timer timer;
     private ExecutorService writeToDiskExecutor;
+    @Nullable
+    private RecordStore recordStore;
+    // Looked up once the file name is known, so reads and writes do not look them up in the MetricsRegistry
+    private LatencyHistogram readDuration;
+    private LatencyHistogram serializeDuration;
+    private LatencyHistogram writeDuration;
+    private Counter writeFailures;
     public final AtomicBoolean initCalled = new AtomicBoolean(false);
     public final AtomicBoolean readCalled = new AtomicBoolean(false);
 
@@ -279,9 +312,25 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         this.fileName = fileName;
         this.source = source;
         storageFile = new File(dir, fileName);
+        initMetrics();
         ALL_PERSISTENCE_MANAGERS.put(fileName, this);
     }
 
+    /**
+     * Persists the {@link PersistableRecordEnvelope} record by record, so that only changed records are written.
+     * Must be called after initialize and before reading. The file of the whole envelope is only used for reading
+     * data written before and is removed at the first write.
+     */
+    public void useRecordStore() {
+        if (!initCalled.get()) {
+            log.warn("useRecordStore() called before init. Ignoring request");
+            return;
+        }
+        checkArgument(persistable instanceof PersistableRecordEnvelope,
+                "Persistable must be a PersistableRecordEnvelope to use a record store");
+        recordStore = new RecordStore(new File(dir, fileName + RecordStore.FILE_SUFFIX), source.getNumMaxBackupFiles());
+    }
+
     public void shutdown() {
         ALL_PERSISTENCE_MANAGERS.remove(fileName);
 
@@ -323,18 +372,18 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             return;
         }
 
-        new Thread(() -> {
+        READ_EXECUTOR.execute(() -> {
             T persisted = getPersisted(fileName);
             if (persisted != null) {
                 UserThread.execute(() -> {
                     resultHandler.accept(persisted);
 
-                    GcUtil.maybeReleaseMemory();
+                    MemoryGovernor.onStoreLoaded(fileName);
                 });
             } else {
                 UserThread.execute(orElse);
             }
-        }, "PersistenceManager-read-" + fileName).start();
+        });
     }
 
     // API for synchronous reading of data. Not recommended to be used in application code.
@@ -358,36 +407,40 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         readCalled.set(true);
 
         File storageFile = new File(dir, fileName);
+        boolean isRecordStore = recordStore != null && fileName.equals(this.fileName) &&
+                new File(dir, fileName + RecordStore.FILE_SUFFIX).exists();
+        if (isRecordStore) {
+            storageFile = new File(dir, fileName + RecordStore.FILE_SUFFIX);
+        }
         if (!storageFile.exists()) {
             return null;
         }
 
         long ts = System.currentTimeMillis();
-        try (FileInputStream fileInputStream = new FileInputStream(storageFile)) {
-            protobuf.PersistableEnvelope proto;
-            if (keyRing != null) {
-                byte[] encryptedBytes = fileInputStream.readAllBytes();
-                try {
-                    byte[] decryptedBytes = Encryption.decryptPayloadWithHmac(encryptedBytes, keyRing.getSymmetricKey());
-                    proto = protobuf.PersistableEnvelope.parseFrom(decryptedBytes);
-                } catch (CryptoException ce) {
-                    log.warn("Expected encrypted persisted file, attempting to getPersisted without decryption");
-                    ByteArrayInputStream bs = new ByteArrayInputStream(encryptedBytes);
-                    proto = protobuf.PersistableEnvelope.parseDelimitedFrom(bs);
-                }
-            } else {
-                proto = protobuf.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
+        try {
+            protobuf.PersistableEnvelope proto = isRecordStore ?
+                    recordStore.read(keyRing != null ? keyRing.getSymmetricKey() : null) :
+                    readFile(storageFile);
+
+            if (proto == null) {
+                // A record store written without any record, we treat it like a missing file
+                log.info("{} has no records", fileName);
+                return null;
             }
 
             //noinspection unchecked
             T persistableEnvelope = (T) persistenceProtoResolver.fromProto(proto);
             log.info("Reading {} completed in {} ms", fileName, System.currentTimeMillis() - ts);
+            // Stores can be read before initialize got called, then we have no metrics yet
+            if (readDuration != null) {
+                readDuration.record(System.currentTimeMillis() - ts);
+            }
             return persistableEnvelope;
         } catch (Throwable t) {
             log.error("Reading {} failed with {}.", fileName, t.getMessage());
             try {
                 // We keep a backup which might be used for recovery
-                FileUtil.removeAndBackupFile(dir, storageFile, fileName, "backup_of_corrupted_data");
+                FileUtil.removeAndBackupFile(dir, storageFile, storageFile.getName(), "backup_of_corrupted_data");
                 DevEnv.logErrorAndThrowIfDevMode(t.toString());
             } catch (IOException e1) {
                 e1.printStackTrace();
@@ -401,6 +454,44 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         return null;
     }
 
+    private protobuf.PersistableEnvelope readFile(File storageFile) throws IOException {
+        try (FileInputStream fileInputStream = new FileInputStream(storageFile)) {
+            if (keyRing != null) {
+                BufferedInputStream bufferedInputStream = new BufferedInputStream(fileInputStream);
+                bufferedInputStream.mark(ChunkedEncryption.HEADER_SIZE);
+                byte[] header = bufferedInputStream.readNBytes(ChunkedEncryption.HEADER_SIZE);
+                bufferedInputStream.reset();
+                if (ChunkedEncryption.isChunkedEncryption(header)) {
+                    return readChunkedEncrypted(bufferedInputStream);
+                } else {
+                    return readLegacyEncrypted(bufferedInputStream.readAllBytes());
+                }
+            } else {
+                return protobuf.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
+            }
+        }
+    }
+
+    // Decrypts and parses the file chunk by chunk, so we do not need the encrypted and decrypted bytes in memory
+    private protobuf.PersistableEnvelope readChunkedEncrypted(InputStream inputStream) throws IOException {
+        InputStream decryptedInputStream = ChunkedEncryption.newInputStream(inputStream, keyRing.getSymmetricKey());
+        CodedInputStream codedInputStream = CodedInputStream.newInstance(decryptedInputStream);
+        codedInputStream.setSizeLimit(Integer.MAX_VALUE);
+        return protobuf.PersistableEnvelope.parseFrom(codedInputStream);
+    }
+
+    // Files written before we used ChunkedEncryption
+    private protobuf.PersistableEnvelope readLegacyEncrypted(byte[] encryptedBytes) throws IOException {
+        try {
+            byte[] decryptedBytes = Encryption.decryptPayloadWithHmac(encryptedBytes, keyRing.getSymmetricKey());
+            return protobuf.PersistableEnvelope.parseFrom(decryptedBytes);
+        } catch (CryptoException ce) {
+            log.warn("Expected encrypted persisted file, attempting to getPersisted without decryption");
+            ByteArrayInputStream bs = new ByteArrayInputStream(encryptedBytes);
+            return protobuf.PersistableEnvelope.parseDelimitedFrom(bs);
+        }
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Write file to disk
@@ -453,17 +544,23 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         try {
             // The serialisation is done on the user thread to avoid threading issue with potential mutations of the
             // persistable object. Keeping it on the user thread we are in a synchronize model.
-            protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) persistable.toPersistableMessage();
+            if (recordStore != null) {
+                Map<String, Message> records = getRecordMessages();
+                getWriteToDiskExecutor().execute(() -> writeRecordsToDisk(records, completeHandler, force));
+            } else {
+                protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) persistable.toPersistableMessage();
 
-            // For the write to disk task we use a thread. We do not have any issues anymore if the persistable objects
-            // gets mutated while the thread is running as we have serialized it already and do not operate on the
-            // reference to the persistable object.
-            getWriteToDiskExecutor().execute(() -> writeToDisk(serialized, completeHandler, force));
+                // For the write to disk task we use a thread. We do not have any issues anymore if the persistable objects
+                // gets mutated while the thread is running as we have serialized it already and do not operate on the
+                // reference to the persistable object.
+                getWriteToDiskExecutor().execute(() -> writeToDisk(serialized, completeHandler, force));
+            }
 
             long duration = System.currentTimeMillis() - ts;
             if (duration > 100) {
                 log.info("Serializing {} took {} msec", fileName, duration);
             }
+            serializeDuration.record(duration);
         } catch (Throwable e) {
             log.error("Error in saveToFile toProtoMessage: {}, {}", persistable.getClass().getSimpleName(), fileName);
             e.printStackTrace();
@@ -471,19 +568,70 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
     }
 
-    private void writeToDisk(protobuf.PersistableEnvelope serialized, @Nullable Runnable completeHandler, boolean force) {
+    private Map<String, Message> getRecordMessages() {
+        Map<String, Message> records = ((PersistableRecordEnvelope) persistable).toRecordMessages();
+        if (records.isEmpty()) {
+            // Without records the store would not know its envelope type, so we write the empty envelope
+            return Map.of(RecordStore.EMPTY_ENVELOPE_KEY, persistable.toPersistableMessage());
+        }
+        return records;
+    }
+
+    private boolean isWriteToDiskPermitted(@Nullable Runnable completeHandler, boolean force) {
         if (!allServicesInitialized.get() && !force) {
             log.warn("Application has not completed start up yet so we do not permit writing data to disk.");
             if (completeHandler != null) {
                 UserThread.execute(completeHandler);
             }
-            return;
+            return false;
         }
         if (keyRing != null && !keyRing.isUnlocked()) {
             log.warn("Account is not open, ignoring writeToDisk.");
             if (completeHandler != null) {
                 UserThread.execute(completeHandler);
             }
+            return false;
+        }
+        return true;
+    }
+
+    // Only the changed records get written, so we do not make a backup of the whole file at each write as in writeToDisk.
+    // The record store makes a backup when it rewrites its file.
+    private void writeRecordsToDisk(Map<String, Message> records, @Nullable Runnable completeHandler, boolean force) {
+        if (!isWriteToDiskPermitted(completeHandler, force)) {
+            return;
+        }
+
+        long ts = System.currentTimeMillis();
+        try {
+            if (!dir.exists() && !dir.mkdir())
+                log.warn("make dir failed {}", fileName);
+
+            checkNotNull(recordStore).write(records, keyRing != null ? keyRing.getSymmetricKey() : null);
+
+            // Once the records are written we do not need the file of the whole envelope anymore
+            if (storageFile.exists()) {
+                FileUtil.rollingBackup(dir, fileName, source.getNumMaxBackupFiles());
+                FileUtil.deleteFileIfExists(storageFile);
+            }
+        } catch (Throwable t) {
+            log.error("Error at writing records, storageFile={}", fileName, t);
+            writeFailures.increment();
+        } finally {
+            long duration = System.currentTimeMillis() - ts;
+            if (duration > 100) {
+                log.info("Writing the records of {} completed in {} msec", fileName, duration);
+            }
+            writeDuration.record(duration);
+            persistenceRequested = false;
+            if (completeHandler != null) {
+                UserThread.execute(completeHandler);
+            }
+        }
+    }
+
+    private void writeToDisk(protobuf.PersistableEnvelope serialized, @Nullable Runnable completeHandler, boolean force) {
+        if (!isWriteToDiskPermitted(completeHandler, force)) {
             return;
         }
 
@@ -507,8 +655,13 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             fileOutputStream = new FileOutputStream(tempFile);
 
             if (keyRing != null) {
-                byte[] encryptedBytes = Encryption.encryptPayloadWithHmac(serialized.toByteArray(), keyRing.getSymmetricKey());
-                fileOutputStream.write(encryptedBytes);
+                // We encrypt while serializing, so we do not need the serialized and encrypted bytes in memory
+                ChunkedEncryption.EncryptingOutputStream encryptingOutputStream = ChunkedEncryption.newOutputStream(
+                        new BufferedOutputStream(fileOutputStream), keyRing.getSymmetricKey());
+                CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(encryptingOutputStream);
+                serialized.writeTo(codedOutputStream);
+                codedOutputStream.flush();
+                encryptingOutputStream.finish();
             } else {
                 serialized.writeDelimitedTo(fileOutputStream);
             }
@@ -528,6 +681,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             // If an error occurred, don't attempt to reuse this path again, in case temp file cleanup fails.
             usedTempFilePath = null;
             log.error("Error at saveToFile, storageFile={}", fileName, t);
+            writeFailures.increment();
         } finally {
             if (tempFile != null && tempFile.exists()) {
                 log.warn("Temp file still exists after failed save. We will delete it now. storageFile={}", fileName);
@@ -549,6 +703,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             if (duration > 100) {
                 log.info("Writing the serialized {} completed in {} msec", fileName, duration);
             }
+            writeDuration.record(duration);
             persistenceRequested = false;
             if (completeHandler != null) {
                 UserThread.execute(completeHandler);
@@ -556,6 +711,18 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
     }
 
+    private void initMetrics() {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        readDuration = registry.histogram("persistence_read_ms",
+                "Time for reading a persisted store", "file", fileName);
+        serializeDuration = registry.histogram("persistence_serialize_ms",
+                "Time for serializing a store on the user thread", "file", fileName);
+        writeDuration = registry.histogram("persistence_write_ms",
+                "Time for writing a store to disk", "file", fileName);
+        writeFailures = registry.counter("persistence_write_failures",
+                "Failed writes of a store to disk", "file", fileName);
+    }
+
     private ExecutorService getWriteToDiskExecutor() {
         if (writeToDiskExecutor == null) {
             String name = "Write-" + fileName + "_to-disk";
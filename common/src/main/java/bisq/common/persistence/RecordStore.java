@@ -0,0 +1,475 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.common.persistence;
+
+import bisq.common.crypto.ChunkedEncryption;
+import bisq.common.crypto.Hash;
+import bisq.common.file.FileUtil;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Message;
+
+import javax.crypto.SecretKey;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Log structured store for {@link bisq.common.proto.persistable.PersistableRecordEnvelope} data. Only records which
+ * have changed since the last write are appended, each encrypted on its own if a key is given.
+ *
+ * Layout: MAGIC, then batches of PUT [type][key UTF][length int][body] and DELETE [type][key UTF] entries, each batch
+ * terminated by a COMMIT [type][number of entries int] entry. The entries of a batch are synced to disk before the
+ * COMMIT entry is written, so a batch without COMMIT entry is the result of an interrupted write and is discarded.
+ * If the log grows beyond twice the size of the live records it is compacted into a new file.
+ *
+ * Reading only scans the entry headers to build the index. The bodies are decrypted one by one while the envelope is
+ * parsed, so the whole file is never in memory.
+ *
+ * An envelope without records, e.g. an empty list, is written as a single record with the key
+ * {@link #EMPTY_ENVELOPE_KEY} holding the empty envelope, so it is read back as an envelope of its own type.
+ */
+@Slf4j
+class RecordStore {
+    static final String FILE_SUFFIX = ".records";
+    // Record keys are never empty
+    static final String EMPTY_ENVELOPE_KEY = "";
+
+    private static final byte[] MAGIC = "HVNOREC1".getBytes(StandardCharsets.US_ASCII);
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte COMMIT = 3;
+    // We do not compact small logs
+    private static final long MIN_COMPACTION_SIZE = 256 * 1024;
+
+    private static class Record {
+        private final long offset;
+        private final int length;
+        // Sha256 of the serialized record, used to detect changed records
+        @Nullable
+        private byte[] digest;
+
+        private Record(long offset, int length, @Nullable byte[] digest) {
+            this.offset = offset;
+            this.length = length;
+            this.digest = digest;
+        }
+    }
+
+    private final File file;
+    private final int numMaxBackupFiles;
+    private final Map<String, Record> index = new LinkedHashMap<>();
+    // Position after the last committed batch
+    private long validLength;
+    private boolean indexLoaded;
+
+    RecordStore(File file, int numMaxBackupFiles) {
+        this.file = file;
+        this.numMaxBackupFiles = numMaxBackupFiles;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Read
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return The envelope or null if the store has no records
+     */
+    @Nullable
+    synchronized protobuf.PersistableEnvelope read(@Nullable SecretKey secretKey) throws IOException {
+        loadIndex();
+        if (index.isEmpty()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Iterator<Record> iterator = new ArrayList<>(index.values()).iterator();
+            // The records are decrypted one by one when the parser reaches them
+            InputStream records = new SequenceInputStream(new Enumeration<>() {
+                @Override
+                public boolean hasMoreElements() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public InputStream nextElement() {
+                    Record record = iterator.next();
+                    try {
+                        byte[] serialized = decrypt(readBody(channel, record), secretKey);
+                        record.digest = Hash.getSha256Hash(serialized);
+                        return new ByteArrayInputStream(serialized);
+                    } catch (IOException e) {
+                        throw new RecordStoreException(e);
+                    }
+                }
+            });
+            CodedInputStream codedInputStream = CodedInputStream.newInstance(records);
+            codedInputStream.setSizeLimit(Integer.MAX_VALUE);
+            return protobuf.PersistableEnvelope.parseFrom(codedInputStream);
+        } catch (RecordStoreException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        index.clear();
+        validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(file + " is not a record store");
+            }
+            long position = MAGIC.length;
+            validLength = position;
+            Map<String, Record> puts = new LinkedHashMap<>();
+            List<String> deletes = new ArrayList<>();
+            int numEntries = 0;
+            try {
+                while (true) {
+                    int type = in.read();
+                    if (type == -1) {
+                        break;
+                    }
+                    position++;
+                    if (type == PUT) {
+                        String key = in.readUTF();
+                        int length = in.readInt();
+                        position += utfLength(key) + 4;
+                        skipFully(in, length);
+                        deletes.remove(key);
+                        puts.remove(key);
+                        puts.put(key, new Record(position, length, null));
+                        position += length;
+                        numEntries++;
+                    } else if (type == DELETE) {
+                        String key = in.readUTF();
+                        position += utfLength(key);
+                        puts.remove(key);
+                        deletes.add(key);
+                        numEntries++;
+                    } else if (type == COMMIT) {
+                        int expectedEntries = in.readInt();
+                        position += 4;
+                        if (expectedEntries != numEntries) {
+                            throw new IOException("Commit does not match the number of entries");
+                        }
+                        deletes.forEach(index::remove);
+                        // Replacing a value keeps the position in the LinkedHashMap, so the list order is kept
+                        index.putAll(puts);
+                        puts.clear();
+                        deletes.clear();
+                        numEntries = 0;
+                        validLength = position;
+                    } else {
+                        throw new IOException("Unknown entry type " + type);
+                    }
+                }
+            } catch (EOFException e) {
+                // Handled below
+            }
+            if (numEntries > 0 || position > validLength) {
+                log.warn("{} ends with an incomplete batch which we ignore. It will be overwritten with the next write.",
+                        file.getName());
+            }
+        }
+        indexLoaded = true;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Write
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Writes the records which have changed since the last read or write and removes the records which are not
+     * contained anymore.
+     */
+    synchronized void write(Map<String, Message> records, @Nullable SecretKey secretKey) throws IOException {
+        if (!file.exists()) {
+            index.clear();
+            indexLoaded = false;
+        } else if (!indexLoaded) {
+            try {
+                loadIndex();
+            } catch (IOException e) {
+                log.warn("Could not read index of {}. We write a new file.", file.getName(), e);
+                index.clear();
+            }
+        }
+
+        Map<String, byte[]> serializedRecords = new LinkedHashMap<>();
+        Map<String, byte[]> digests = new LinkedHashMap<>();
+        Map<String, byte[]> changed = new LinkedHashMap<>();
+        records.forEach((key, message) -> {
+            byte[] serialized = message.toByteArray();
+            byte[] digest = Hash.getSha256Hash(serialized);
+            serializedRecords.put(key, serialized);
+            digests.put(key, digest);
+            Record record = index.get(key);
+            if (record == null || record.digest == null || !Arrays.equals(record.digest, digest)) {
+                changed.put(key, serialized);
+            }
+        });
+        List<String> deleted = index.keySet().stream()
+                .filter(key -> !records.containsKey(key))
+                .collect(Collectors.toList());
+
+        if (!indexLoaded || !isSameOrder(records)) {
+            compact(serializedRecords, digests, secretKey);
+            return;
+        }
+        if (changed.isEmpty() && deleted.isEmpty()) {
+            return;
+        }
+
+        Map<String, byte[]> bodies = new LinkedHashMap<>();
+        long appendedLength = 0;
+        for (Map.Entry<String, byte[]> entry : changed.entrySet()) {
+            byte[] body = encrypt(entry.getValue(), secretKey);
+            bodies.put(entry.getKey(), body);
+            appendedLength += 1 + utfLength(entry.getKey()) + 4 + body.length;
+        }
+        long liveLength = MAGIC.length;
+        for (Map.Entry<String, byte[]> entry : serializedRecords.entrySet()) {
+            String key = entry.getKey();
+            long bodyLength = bodies.containsKey(key) ? bodies.get(key).length : index.get(key).length;
+            liveLength += 1 + utfLength(key) + 4 + bodyLength;
+        }
+        long projectedLength = validLength + appendedLength + deleted.size() * 3L + 5;
+        if (projectedLength > MIN_COMPACTION_SIZE && projectedLength > 2 * liveLength) {
+            compact(serializedRecords, digests, secretKey);
+            return;
+        }
+
+        append(bodies, deleted, digests);
+    }
+
+    private void append(Map<String, byte[]> bodies, List<String> deleted, Map<String, byte[]> digests) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            // Removes an incomplete batch of an interrupted write
+            channel.truncate(validLength);
+            channel.position(validLength);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            long position = validLength;
+            Map<String, Record> newRecords = new LinkedHashMap<>();
+            for (Map.Entry<String, byte[]> entry : bodies.entrySet()) {
+                String key = entry.getKey();
+                byte[] body = entry.getValue();
+                out.writeByte(PUT);
+                out.writeUTF(key);
+                out.writeInt(body.length);
+                position += 1 + utfLength(key) + 4;
+                newRecords.put(key, new Record(position, body.length, digests.get(key)));
+                out.write(body);
+                position += body.length;
+            }
+            for (String key : deleted) {
+                out.writeByte(DELETE);
+                out.writeUTF(key);
+                position += 1 + utfLength(key);
+            }
+            out.flush();
+            channel.force(false);
+
+            out.writeByte(COMMIT);
+            out.writeInt(bodies.size() + deleted.size());
+            out.flush();
+            channel.force(false);
+            position += 5;
+
+            deleted.forEach(index::remove);
+            index.putAll(newRecords);
+            validLength = position;
+        }
+    }
+
+    // Writes all records to a new file. Bodies of unchanged records are copied without decrypting them.
+    private void compact(Map<String, byte[]> serializedRecords,
+                         Map<String, byte[]> digests,
+                         @Nullable SecretKey secretKey) throws IOException {
+        long ts = System.currentTimeMillis();
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        Map<String, Record> newIndex = new LinkedHashMap<>();
+        long position;
+        FileChannel oldChannel = indexLoaded && file.exists() ?
+                FileChannel.open(file.toPath(), StandardOpenOption.READ) :
+                null;
+        try (FileChannel channel = FileChannel.open(tempFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.write(MAGIC);
+            position = MAGIC.length;
+            for (Map.Entry<String, byte[]> entry : serializedRecords.entrySet()) {
+                String key = entry.getKey();
+                byte[] digest = digests.get(key);
+                Record record = index.get(key);
+                byte[] body = oldChannel != null && record != null && Arrays.equals(record.digest, digest) ?
+                        readBody(oldChannel, record) :
+                        encrypt(entry.getValue(), secretKey);
+                out.writeByte(PUT);
+                out.writeUTF(key);
+                out.writeInt(body.length);
+                position += 1 + utfLength(key) + 4;
+                newIndex.put(key, new Record(position, body.length, digest));
+                out.write(body);
+                position += body.length;
+            }
+            out.writeByte(COMMIT);
+            out.writeInt(serializedRecords.size());
+            out.flush();
+            channel.force(false);
+            position += 5;
+        } finally {
+            if (oldChannel != null) {
+                oldChannel.close();
+            }
+        }
+
+        FileUtil.rollingBackup(file.getParentFile(), file.getName(), numMaxBackupFiles);
+        FileUtil.renameFile(tempFile, file);
+        index.clear();
+        index.putAll(newIndex);
+        validLength = position;
+        indexLoaded = true;
+        log.info("Writing all {} records of {} took {} ms",
+                serializedRecords.size(), file.getName(), System.currentTimeMillis() - ts);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // New records are appended at the end, so we only need to check that the existing records keep their order
+    private boolean isSameOrder(Map<String, Message> records) {
+        Iterator<String> existing = index.keySet().stream()
+                .filter(records::containsKey)
+                .iterator();
+        for (String key : records.keySet()) {
+            if (index.containsKey(key)) {
+                if (!existing.hasNext() || !existing.next().equals(key)) {
+                    return false;
+                }
+            } else if (existing.hasNext()) {
+                // A new record before an existing one
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] readBody(FileChannel channel, Record record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(record.length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, record.offset + buffer.position()) == -1) {
+                throw new EOFException("Record body is truncated");
+            }
+        }
+        return buffer.array();
+    }
+
+    private static byte[] encrypt(byte[] serialized, @Nullable SecretKey secretKey) throws IOException {
+        if (secretKey == null) {
+            return serialized;
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(serialized.length + 64);
+        try (ChunkedEncryption.EncryptingOutputStream encryptingOutputStream =
+                     ChunkedEncryption.newOutputStream(outputStream, secretKey)) {
+            encryptingOutputStream.write(serialized);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] decrypt(byte[] body, @Nullable SecretKey secretKey) throws IOException {
+        if (secretKey == null) {
+            return body;
+        }
+        try (InputStream inputStream = ChunkedEncryption.newInputStream(new ByteArrayInputStream(body), secretKey)) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private static void skipFully(DataInputStream in, int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            int skipped = in.skipBytes(remaining);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private static int utfLength(String key) {
+        // DataOutput.writeUTF writes a 2 byte length followed by modified UTF-8
+        int length = 2;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                length++;
+            } else if (c > 0x07FF) {
+                length += 3;
+            } else {
+                length += 2;
+            }
+        }
+        return length;
+    }
+
+    private static class RecordStoreException extends RuntimeException {
+        private RecordStoreException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.common.proto.persistable;
+
+import com.google.protobuf.Message;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Envelope which can be persisted record by record, so that a change of one record does not require to write the whole
+ * envelope. Each record is an envelope of the same type holding only that record. As protobuf appends repeated fields
+ * when merging, the concatenation of all serialized records is the serialized envelope.
+ */
+public interface PersistableRecordEnvelope extends PersistableEnvelope {
+
+    /**
+     * Returns the records keyed by a key which is stable across changes of the record, in list order.
+     */
+    Map<String, Message> toRecordMessages();
+
+    /**
+     * Creates the records of the given list. If keys are not unique the occurrences are numbered.
+     */
+    static <T> Map<String, Message> toRecordMessages(List<T> list,
+                                                     Function<T, String> keyFunction,
+                                                     Function<T, Message> recordFunction) {
+        Map<String, Message> records = new LinkedHashMap<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (T item : list) {
+            String key = keyFunction.apply(item);
+            int occurrence = occurrences.merge(key, 1, Integer::sum);
+            records.put(occurrence == 1 ? key : key + "#" + occurrence, recordFunction.apply(item));
+        }
+        return records;
+    }
+}
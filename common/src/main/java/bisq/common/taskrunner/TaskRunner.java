@@ -20,14 +20,24 @@ package bisq.common.taskrunner;
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.ResultHandler;
 
+import java.lang.reflect.Constructor;
+
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 @Slf4j
 public class TaskRunner<T extends Model> {
+    // Task constructors are resolved once per task class instead of reflectively at each step.
+    private static final Map<Class<?>, Constructor<?>> TASK_CONSTRUCTORS = new ConcurrentHashMap<>();
+
     private final Queue<Class<? extends Task<T>>> tasks = new LinkedBlockingQueue<>();
     private final T sharedModel;
     private final Class<T> sharedModelClass;
@@ -37,7 +47,15 @@ public class TaskRunner<T extends Model> {
     private boolean isCanceled;
 
     private Class<? extends Task<T>> currentTask;
+    private long currentTaskStartTime;
 
+    // Optional context used for the task statistics, e.g. the trade id and the trade phase
+    @Nullable
+    @Setter
+    private String traceId;
+    @Nullable
+    @Setter
+    private String phase;
 
     public TaskRunner(T sharedModel, ResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
         //noinspection unchecked
@@ -66,7 +84,8 @@ public class TaskRunner<T extends Model> {
                 try {
                     currentTask = tasks.poll();
                     log.info("Run task: " + currentTask.getSimpleName());
-                    currentTask.getDeclaredConstructor(TaskRunner.class, sharedModelClass).newInstance(this, sharedModel).run();
+                    currentTaskStartTime = System.currentTimeMillis();
+                    getConstructor(currentTask).newInstance(this, sharedModel).run();
                 } catch (Throwable throwable) {
                     throwable.printStackTrace();
                     handleErrorMessage("Error at taskRunner: " + throwable.getMessage());
@@ -77,16 +96,37 @@ public class TaskRunner<T extends Model> {
         }
     }
 
+    private Constructor<? extends Task<T>> getConstructor(Class<? extends Task<T>> taskClass) throws NoSuchMethodException {
+        Constructor<?> constructor = TASK_CONSTRUCTORS.get(taskClass);
+        if (constructor == null || constructor.getParameterTypes()[1] != sharedModelClass) {
+            constructor = taskClass.getDeclaredConstructor(TaskRunner.class, sharedModelClass);
+            TASK_CONSTRUCTORS.put(taskClass, constructor);
+        }
+        //noinspection unchecked
+        return (Constructor<? extends Task<T>>) constructor;
+    }
+
+    private void recordCurrentTask(boolean succeeded) {
+        if (currentTask == null)
+            return;
+        long endTime = System.currentTimeMillis();
+        log.debug("Task {} {} after {} ms", currentTask.getSimpleName(), succeeded ? "completed" : "failed",
+                endTime - currentTaskStartTime);
+        TaskStatistics.record(traceId, phase, currentTask, currentTaskStartTime, endTime, succeeded);
+    }
+
     public void cancel() {
         isCanceled = true;
     }
 
     void handleComplete() {
+        recordCurrentTask(true);
         next();
     }
 
     void handleErrorMessage(String errorMessage) {
         log.error("Task failed: " + currentTask.getSimpleName() + " / errorMessage: " + errorMessage);
+        recordCurrentTask(false);
         failed = true;
         errorMessageHandler.handleErrorMessage(errorMessage);
     }
@@ -0,0 +1,137 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.common.taskrunner;
+
+import bisq.common.util.LatencyHistogram;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+
+/**
+ * Collects the durations of the tasks executed by all {@link TaskRunner} instances.
+ * Latencies are aggregated per task class and phase; runners which have a trace id assigned
+ * (e.g. the trade id) additionally keep a bounded trace of their individual task executions.
+ */
+public class TaskStatistics {
+    private static final int MAX_TRACES = 500;
+    private static final int MAX_ENTRIES_PER_TRACE = 200;
+    private static final String NO_PHASE = "";
+
+    private static final Map<Key, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, Deque<TaskTiming>> TRACES = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Deque<TaskTiming>> eldest) {
+                    return size() > MAX_TRACES;
+                }
+            });
+
+    @Value
+    private static class Key {
+        String taskName;
+        String phase;
+    }
+
+    @Value
+    public static class TaskTiming {
+        String traceId;
+        String taskName;
+        String phase;
+        long startTime;
+        long endTime;
+        boolean succeeded;
+
+        public long getDuration() {
+            return endTime - startTime;
+        }
+    }
+
+    @Value
+    public static class TaskLatency {
+        String taskName;
+        String phase;
+        long count;
+        long totalMs;
+        long p50Ms;
+        long p90Ms;
+        long p99Ms;
+        long maxMs;
+    }
+
+    private TaskStatistics() {
+    }
+
+    static void record(@Nullable String traceId,
+                       @Nullable String phase,
+                       Class<?> taskClass,
+                       long startTime,
+                       long endTime,
+                       boolean succeeded) {
+        String taskName = taskClass.getSimpleName();
+        String phaseName = phase == null ? NO_PHASE : phase;
+        HISTOGRAMS.computeIfAbsent(new Key(taskName, phaseName), key -> new LatencyHistogram())
+                .record(endTime - startTime);
+
+        if (traceId != null) {
+            TaskTiming timing = new TaskTiming(traceId, taskName, phaseName, startTime, endTime, succeeded);
+            synchronized (TRACES) {
+                Deque<TaskTiming> trace = TRACES.computeIfAbsent(traceId, id -> new ArrayDeque<>());
+                trace.addLast(timing);
+                if (trace.size() > MAX_ENTRIES_PER_TRACE)
+                    trace.removeFirst();
+            }
+        }
+    }
+
+    public static List<TaskLatency> getTaskLatencies() {
+        List<TaskLatency> latencies = new ArrayList<>();
+        HISTOGRAMS.forEach((key, histogram) -> latencies.add(new TaskLatency(key.getTaskName(),
+                key.getPhase(),
+                histogram.getCount(),
+                histogram.getSum(),
+                histogram.getPercentile(50),
+                histogram.getPercentile(90),
+                histogram.getPercentile(99),
+                histogram.getMax())));
+        latencies.sort((o1, o2) -> Long.compare(o2.getTotalMs(), o1.getTotalMs()));
+        return latencies;
+    }
+
+    public static List<TaskTiming> getTrace(String traceId) {
+        synchronized (TRACES) {
+            Deque<TaskTiming> trace = TRACES.get(traceId);
+            return trace == null ? new ArrayList<>() : new ArrayList<>(trace);
+        }
+    }
+
+    public static void clear() {
+        HISTOGRAMS.clear();
+        TRACES.clear();
+    }
+}
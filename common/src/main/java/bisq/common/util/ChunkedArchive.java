@@ -0,0 +1,317 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.common.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import lombok.extern.slf4j.Slf4j;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Archive format for backing up a directory with parallel compression.
+ *
+ * Files are split into fixed size chunks which are compressed independently on a thread pool.
+ * Chunks of already compressed or encrypted files, and chunks which do not shrink when deflated,
+ * are stored uncompressed. Every chunk carries its file path and offset, so an archive can be
+ * produced on demand chunk by chunk (see {@link Writer#next()}) and chunks can be written to
+ * their target files independently of each other when extracting.
+ *
+ * Layout: MAGIC, then records of
+ * [type byte][path UTF][file offset long][raw length int][compression byte][data length int][crc32 int][data],
+ * terminated by a record of type END.
+ */
+@Slf4j
+public class ChunkedArchive {
+    public static final byte[] MAGIC = "HVNOBAK1".getBytes(StandardCharsets.US_ASCII);
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    // Upper bound of the chunk size so a corrupted or malicious archive cannot make the reader allocate huge buffers
+    public static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private static final byte RECORD_CHUNK = 1;
+    private static final byte RECORD_END = 0;
+    private static final byte STORED = 0;
+    private static final byte DEFLATED = 1;
+
+    // store chunks uncompressed if deflate does not save at least 10%
+    private static final double MIN_COMPRESSION_RATIO = 0.9;
+    private static final Set<String> INCOMPRESSIBLE_EXTENSIONS = Set.of(
+            "zip", "gz", "bz2", "xz", "7z", "jpg", "jpeg", "png", "gif", "webp", "mp4", "keys");
+
+    public static boolean isChunkedArchive(byte[] header) {
+        return header.length >= MAGIC.length && Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Writer
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Produces the archive of a directory as a sequence of byte arrays. Upcoming chunks are compressed
+     * in parallel while the caller sends the current one, bounded by the number of pending chunks.
+     */
+    public static class Writer implements Closeable {
+        private final File dir;
+        private final int chunkSize;
+        private final int maxPendingChunks;
+        private final ExecutorService pool;
+        private final Deque<ChunkRef> chunkRefs = new ArrayDeque<>();
+        private final Deque<Future<byte[]>> pendingChunks = new ArrayDeque<>();
+        private boolean magicWritten;
+        private boolean endWritten;
+
+        private static class ChunkRef {
+            private final File file;
+            private final long offset;
+            private final int length;
+
+            private ChunkRef(File file, long offset, int length) {
+                this.file = file;
+                this.offset = offset;
+                this.length = length;
+            }
+        }
+
+        public Writer(File dir, int chunkSize) {
+            checkArgument(chunkSize > 0 && chunkSize <= MAX_CHUNK_SIZE, "Invalid chunk size: " + chunkSize);
+            this.dir = dir;
+            this.chunkSize = chunkSize;
+            int numThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+            this.maxPendingChunks = numThreads * 2;
+            this.pool = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder()
+                    .setNameFormat("ChunkedArchiveWriter-%d")
+                    .setDaemon(true)
+                    .build());
+
+            List<String> fileList = new ArrayList<>();
+            ZipUtils.getFilesRecursive(dir, fileList);
+            for (String filePath : fileList) {
+                File file = new File(filePath);
+                long length = file.length();
+                if (length == 0) {
+                    chunkRefs.add(new ChunkRef(file, 0, 0));
+                    continue;
+                }
+                for (long offset = 0; offset < length; offset += chunkSize) {
+                    chunkRefs.add(new ChunkRef(file, offset, (int) Math.min(chunkSize, length - offset)));
+                }
+            }
+        }
+
+        /**
+         * @return The next bytes of the archive or null if the archive is complete.
+         */
+        public byte[] next() throws IOException {
+            if (!magicWritten) {
+                magicWritten = true;
+                return MAGIC.clone();
+            }
+            while (pendingChunks.size() < maxPendingChunks && !chunkRefs.isEmpty()) {
+                ChunkRef chunkRef = chunkRefs.poll();
+                pendingChunks.add(pool.submit(() -> encodeChunk(chunkRef)));
+            }
+            if (!pendingChunks.isEmpty()) {
+                try {
+                    return pendingChunks.poll().get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                } catch (ExecutionException e) {
+                    throw new IOException(e.getCause());
+                }
+            }
+            if (!endWritten) {
+                endWritten = true;
+                return new byte[]{RECORD_END};
+            }
+            return null;
+        }
+
+        private byte[] encodeChunk(ChunkRef chunkRef) throws IOException {
+            byte[] raw = new byte[chunkRef.length];
+            try (RandomAccessFile file = new RandomAccessFile(chunkRef.file, "r")) {
+                file.seek(chunkRef.offset);
+                file.readFully(raw);
+            }
+            CRC32 crc32 = new CRC32();
+            crc32.update(raw);
+
+            byte compression = STORED;
+            byte[] data = raw;
+            int dataLength = raw.length;
+            if (raw.length > 0 && isCompressible(chunkRef.file)) {
+                Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+                try {
+                    deflater.setInput(raw);
+                    deflater.finish();
+                    byte[] compressed = new byte[(int) (raw.length * MIN_COMPRESSION_RATIO)];
+                    int compressedLength = deflater.deflate(compressed);
+                    if (deflater.finished()) {
+                        compression = DEFLATED;
+                        data = compressed;
+                        dataLength = compressedLength;
+                    }
+                } finally {
+                    deflater.end();
+                }
+            }
+
+            String path = dir.toPath().relativize(chunkRef.file.toPath()).toString().replace(File.separatorChar, '/');
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(dataLength + path.length() + 32);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeByte(RECORD_CHUNK);
+                out.writeUTF(path);
+                out.writeLong(chunkRef.offset);
+                out.writeInt(raw.length);
+                out.writeByte(compression);
+                out.writeInt(dataLength);
+                out.writeInt((int) crc32.getValue());
+                out.write(data, 0, dataLength);
+            }
+            return bytes.toByteArray();
+        }
+
+        private static boolean isCompressible(File file) {
+            String name = file.getName();
+            int index = name.lastIndexOf('.');
+            return index < 0 || !INCOMPRESSIBLE_EXTENSIONS.contains(name.substring(index + 1).toLowerCase(Locale.ROOT));
+        }
+
+        @Override
+        public void close() {
+            pendingChunks.forEach(future -> future.cancel(true));
+            pendingChunks.clear();
+            chunkRefs.clear();
+            pool.shutdownNow();
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Reader
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Extracts the archive read from the input stream into the given directory, overwriting any files.
+     */
+    public static void extractToDir(File dir, InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!isChunkedArchive(magic)) throw new IOException("Input is not a chunked archive");
+
+        String canonicalDir = dir.getCanonicalPath() + File.separator;
+        while (true) {
+            byte type;
+            try {
+                type = in.readByte();
+            } catch (EOFException e) {
+                throw new IOException("Chunked archive is truncated", e);
+            }
+            if (type == RECORD_END) break;
+            if (type != RECORD_CHUNK) throw new IOException("Unknown record type in chunked archive: " + type);
+
+            String path = in.readUTF();
+            long offset = in.readLong();
+            int rawLength = in.readInt();
+            byte compression = in.readByte();
+            int dataLength = in.readInt();
+            int crc = in.readInt();
+            if (offset < 0 || rawLength < 0 || rawLength > MAX_CHUNK_SIZE)
+                throw new IOException("Invalid chunk of " + path + " at offset " + offset + " with length " + rawLength);
+            if (compression != STORED && compression != DEFLATED)
+                throw new IOException("Unknown compression of chunk of " + path + ": " + compression);
+            if (dataLength < 0 || dataLength > rawLength || compression == STORED && dataLength != rawLength)
+                throw new IOException("Invalid data length of chunk of " + path + ": " + dataLength);
+            byte[] data = new byte[dataLength];
+            in.readFully(data);
+
+            byte[] raw = compression == DEFLATED ? inflate(data, rawLength) : data;
+            CRC32 crc32 = new CRC32();
+            crc32.update(raw);
+            if ((int) crc32.getValue() != crc) throw new IOException("Checksum mismatch for " + path + " at offset " + offset);
+
+            File file = new File(dir, path);
+            if (!file.getCanonicalPath().startsWith(canonicalDir))
+                throw new IOException("Invalid path in chunked archive: " + path);
+            file.getParentFile().mkdirs();
+
+            // Don't overwrite the current logs
+            if ("bisq.log".equals(file.getName())) {
+                file = new File(file.getParent(), "bisq.backup.log");
+            }
+
+            try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+                if (offset == 0) out.setLength(0);
+                out.seek(offset);
+                out.write(raw);
+            }
+            if (offset == 0) log.info("Extracted file: " + file.getAbsolutePath());
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int rawLength) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                length += inflated;
+            }
+            if (length != rawLength) throw new IOException("Unexpected length of inflated chunk");
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.common.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs tasks on a bounded shared thread pool while guaranteeing that tasks submitted with the same key
+ * (e.g. a trade id) run one after another in submission order. Tasks with different keys run in parallel.
+ *
+ * Only one task per key is handed to the pool at a time, so a burst of messages for one key cannot occupy
+ * more than one pool thread and does not build a convoy of threads blocked on the same lock.
+ */
+@Slf4j
+public class KeyedSerialExecutor {
+    private static final long WAIT_TIME_WARN_THRESHOLD_MS = 10_000;
+    private static final long SHUT_DOWN_TIMEOUT_MS = 5_000;
+
+    private final String name;
+    private final ExecutorService pool;
+    private final Map<String, Queue<QueuedTask>> queues = new HashMap<>();
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LatencyHistogram runTimes = new LatencyHistogram();
+    private int numPendingTasks;
+    private int maxPendingTasks;
+    private boolean isShutDown;
+
+    private static class QueuedTask {
+        private final Runnable runnable;
+        private final long enqueueTime = System.currentTimeMillis();
+
+        private QueuedTask(Runnable runnable) {
+            this.runnable = runnable;
+        }
+    }
+
+    public KeyedSerialExecutor(String name, int poolSize) {
+        this.name = name;
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat(name + "-%d")
+                .setDaemon(true)
+                .build();
+        this.pool = Executors.newFixedThreadPool(poolSize, threadFactory);
+    }
+
+    public void execute(String key, Runnable runnable) {
+        QueuedTask task = new QueuedTask(runnable);
+        synchronized (queues) {
+            if (isShutDown) {
+                log.warn("{}: We got a task for {} after shut down. We ignore it.", name, key);
+                return;
+            }
+            numPendingTasks++;
+            maxPendingTasks = Math.max(maxPendingTasks, numPendingTasks);
+            Queue<QueuedTask> queue = queues.get(key);
+            if (queue != null) {
+                // a task for this key is running, it will pick up the new task when done
+                queue.add(task);
+                return;
+            }
+            queue = new ArrayDeque<>();
+            queue.add(task);
+            queues.put(key, queue);
+            // We hand the task to the pool while holding the lock, so the pool cannot get shut down in between
+            pool.execute(() -> runNext(key));
+        }
+    }
+
+    private void runNext(String key) {
+        while (true) {
+            QueuedTask task;
+            synchronized (queues) {
+                task = queues.get(key).peek();
+            }
+
+            long startTime = System.currentTimeMillis();
+            long waitTime = startTime - task.enqueueTime;
+            waitTimes.record(waitTime);
+            if (waitTime > WAIT_TIME_WARN_THRESHOLD_MS)
+                log.warn("{}: Task for {} waited {} ms in queue", name, key, waitTime);
+            try {
+                task.runnable.run();
+            } catch (Throwable t) {
+                log.error("{}: Task for {} failed: {}", name, key, t.toString(), t);
+            } finally {
+                runTimes.record(System.currentTimeMillis() - startTime);
+            }
+
+            boolean hasMore;
+            synchronized (queues) {
+                numPendingTasks--;
+                Queue<QueuedTask> queue = queues.get(key);
+                queue.poll();
+                hasMore = !queue.isEmpty();
+                if (!hasMore)
+                    queues.remove(key);
+            }
+
+            if (!hasMore)
+                return;
+
+            // resubmit instead of looping so tasks of other keys are not starved
+            try {
+                pool.execute(() -> runNext(key));
+                return;
+            } catch (RejectedExecutionException e) {
+                // After shutDown the pool does not accept tasks anymore. We complete the tasks queued for that key
+                // in this thread, so they do not get lost.
+            }
+        }
+    }
+
+    public int getNumPendingTasks() {
+        synchronized (queues) {
+            return numPendingTasks;
+        }
+    }
+
+    public int getMaxPendingTasks() {
+        synchronized (queues) {
+            return maxPendingTasks;
+        }
+    }
+
+    public int getNumActiveKeys() {
+        synchronized (queues) {
+            return queues.size();
+        }
+    }
+
+    public int getQueueDepth(String key) {
+        synchronized (queues) {
+            Queue<QueuedTask> queue = queues.get(key);
+            return queue == null ? 0 : queue.size();
+        }
+    }
+
+    // Time in ms tasks waited before they were run
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    // Time in ms tasks took to run
+    public LatencyHistogram getRunTimes() {
+        return runTimes;
+    }
+
+    /**
+     * Stops accepting tasks and waits up to 5 seconds for the queued tasks to complete.
+     */
+    public void shutDown() {
+        beginShutDown();
+        awaitTermination(System.currentTimeMillis() + SHUT_DOWN_TIMEOUT_MS);
+    }
+
+    /**
+     * Stops accepting tasks without waiting. Tasks submitted afterwards are ignored, already queued tasks are still
+     * run. Use {@link #awaitTermination(long)} to wait for them, e.g. with one deadline for several executors.
+     */
+    public void beginShutDown() {
+        synchronized (queues) {
+            isShutDown = true;
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Waits for the queued tasks to complete until the deadline. If they did not complete, the running tasks get
+     * interrupted.
+     *
+     * @param deadline  the time in ms since the epoch until which we wait
+     * @return true if all tasks completed
+     */
+    public boolean awaitTermination(long deadline) {
+        try {
+            if (pool.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            log.warn("{}: {} tasks did not complete at shut down", name, getNumPendingTasks());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.shutdownNow();
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return name + "{" +
+                "numPendingTasks=" + getNumPendingTasks() +
+                ", maxPendingTasks=" + getMaxPendingTasks() +
+                ", numActiveKeys=" + getNumActiveKeys() +
+                ", waitTimes=" + waitTimes +
+                ", runTimes=" + runTimes +
+                "}";
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.common.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram with power-of-two buckets. Recording is allocation free so it can be used on
+ * hot paths; percentiles are approximated by interpolating inside the matching bucket.
+ * Values are unit-less, callers decide whether they record millis, micros or nanos.
+ */
+public class LatencyHistogram {
+    // Bucket i holds values in [2^(i-1), 2^i), bucket 0 holds 0 (and negative values).
+    private static final int NUM_BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        buckets.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        long currentMax;
+        while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value)) {
+            // retry
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getSum() / count;
+    }
+
+    /**
+     * @param percentile Value between 0 and 100
+     * @return Approximated value at the given percentile or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = getBucketCounts();
+        long total = 0;
+        for (long bucketCount : snapshot)
+            total += bucketCount;
+        if (total == 0)
+            return 0;
+
+        double rank = Math.max(1, Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100d));
+        long cumulative = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            if (snapshot[i] == 0)
+                continue;
+            if (cumulative + snapshot[i] >= rank) {
+                long lower = getBucketLowerBound(i);
+                long upper = Math.min(getBucketUpperBound(i), getMax());
+                double fraction = (rank - cumulative) / snapshot[i];
+                return Math.max(lower, lower + Math.round((upper - lower) * fraction));
+            }
+            cumulative += snapshot[i];
+        }
+        return getMax();
+    }
+
+    public long[] getBucketCounts() {
+        long[] result = new long[NUM_BUCKETS];
+        for (int i = 0; i < NUM_BUCKETS; i++)
+            result[i] = buckets.get(i);
+        return result;
+    }
+
+    public static long getBucketLowerBound(int index) {
+        return index == 0 ? 0 : 1L << (index - 1);
+    }
+
+    // Inclusive upper bound
+    public static long getBucketUpperBound(int index) {
+        return index == 0 ? 0 : index == NUM_BUCKETS - 1 ? Long.MAX_VALUE : (1L << index) - 1;
+    }
+
+    public void reset() {
+        for (int i = 0; i < NUM_BUCKETS; i++)
+            buckets.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    private static int bucketIndex(long value) {
+        return Math.min(NUM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{" +
+                "count=" + getCount() +
+                ", mean=" + String.format("%.2f", getMean()) +
+                ", p50=" + getPercentile(50) +
+                ", p99=" + getPercentile(99) +
+                ", max=" + getMax() +
+                "}";
+    }
+}
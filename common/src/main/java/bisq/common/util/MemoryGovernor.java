@@ -0,0 +1,295 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.util;
+
+import bisq.common.Timer;
+import bisq.common.UserThread;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps track of the approximate heap footprint of our major stores and applies pressure policies if the live heap
+ * gets close to the limit. Replaces the explicit System.gc() calls we used to do after reading persisted data, which
+ * caused long pauses but did not reduce the live data set.
+ *
+ * The live heap is taken from the memory pool usage after the last collection, so it reflects the retained data and
+ * not the garbage which the JVM would collect anyway.
+ */
+@Slf4j
+public class MemoryGovernor {
+    public enum Pressure {
+        NORMAL,
+        // Caches get dropped
+        ELEVATED,
+        // Stores get compacted and low priority work is refused
+        CRITICAL
+    }
+
+    @Value
+    private static class PressureHandler {
+        Pressure minPressure;
+        Runnable handler;
+    }
+
+    @VisibleForTesting
+    static final double ELEVATED_THRESHOLD = 0.7;
+    @VisibleForTesting
+    static final double CRITICAL_THRESHOLD = 0.85;
+    // Protobuf encoding is compact compared to the object graph on the heap (object headers, references, boxed
+    // values, hash map entries). The factor is a rough average of what we measured for our payloads.
+    private static final int HEAP_TO_SERIALIZED_FACTOR = 3;
+    private static final int MAP_ENTRY_OVERHEAD = 64;
+    private static final int MAX_SAMPLES = 64;
+
+    private static final Map<String, LongSupplier> footprintSuppliers = new ConcurrentHashMap<>();
+    private static final List<PressureHandler> pressureHandlers = new CopyOnWriteArrayList<>();
+    private static volatile Pressure pressure = Pressure.NORMAL;
+    private static volatile long maxMemoryInBytes = Runtime.getRuntime().maxMemory();
+    private static LongSupplier liveHeapSupplier = MemoryGovernor::readLiveHeapInBytes;
+    @Nullable
+    private static Timer periodicCheckTimer;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Registration
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param name                  Unique name of the store. A later registration with the same name replaces the
+     *                              former one.
+     * @param footprintSupplier     Returns the approximate heap footprint of the store in bytes. Gets called from the
+     *                              UserThread.
+     */
+    public static void registerStore(String name, LongSupplier footprintSupplier) {
+        footprintSuppliers.put(name, footprintSupplier);
+    }
+
+    public static void unregisterStore(String name) {
+        footprintSuppliers.remove(name);
+    }
+
+    /**
+     * @param minPressure   The handler is called at each check while the pressure is at least at that level.
+     * @param handler       Drops caches or compacts data. Gets called from the UserThread.
+     */
+    public static void addPressureHandler(Pressure minPressure, Runnable handler) {
+        pressureHandlers.add(new PressureHandler(minPressure, handler));
+    }
+
+    public static void setMaxMemoryInMB(long maxMemoryInMB) {
+        maxMemoryInBytes = Math.min(maxMemoryInMB * 1024 * 1024, Runtime.getRuntime().maxMemory());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Checks
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static void startPeriodicCheck(long intervalSec) {
+        if (periodicCheckTimer != null)
+            periodicCheckTimer.stop();
+        periodicCheckTimer = UserThread.runPeriodically(MemoryGovernor::check, intervalSec);
+    }
+
+    public static void stopPeriodicCheck() {
+        if (periodicCheckTimer != null) {
+            periodicCheckTimer.stop();
+            periodicCheckTimer = null;
+        }
+    }
+
+    // Called after a persisted store has been read, as those are the moments where the live heap grows the most.
+    public static void onStoreLoaded(String fileName) {
+        Pressure current = check();
+        if (current != Pressure.NORMAL) {
+            log.info("After reading {} the live heap is {} ({} pressure)",
+                    fileName, Utilities.readableFileSize(getLiveHeapInBytes()), current);
+        }
+    }
+
+    /**
+     * Evaluates the current pressure and applies the policies of all handlers registered for that level.
+     */
+    public static Pressure check() {
+        Pressure previous = pressure;
+        Pressure current = evaluatePressure(getLiveHeapInBytes(), maxMemoryInBytes);
+        pressure = current;
+        if (current != previous) {
+            log.info("Memory pressure changed from {} to {}. Live heap: {}. Max memory: {}. Footprints: {}",
+                    previous, current,
+                    Utilities.readableFileSize(getLiveHeapInBytes()),
+                    Utilities.readableFileSize(maxMemoryInBytes),
+                    getFootprintsAsString());
+        }
+        if (current != Pressure.NORMAL) {
+            pressureHandlers.stream()
+                    .filter(e -> current.compareTo(e.getMinPressure()) >= 0)
+                    .forEach(e -> {
+                        try {
+                            e.getHandler().run();
+                        } catch (Throwable t) {
+                            log.error("Pressure handler failed", t);
+                        }
+                    });
+        }
+        return current;
+    }
+
+    @VisibleForTesting
+    static Pressure evaluatePressure(long liveHeapInBytes, long maxMemoryInBytes) {
+        if (maxMemoryInBytes <= 0)
+            return Pressure.NORMAL;
+
+        double ratio = (double) liveHeapInBytes / maxMemoryInBytes;
+        if (ratio >= CRITICAL_THRESHOLD)
+            return Pressure.CRITICAL;
+        else if (ratio >= ELEVATED_THRESHOLD)
+            return Pressure.ELEVATED;
+        else
+            return Pressure.NORMAL;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Getters
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static Pressure getPressure() {
+        return pressure;
+    }
+
+    // Work which can be postponed or skipped (e.g. statistics exports) should check that before it starts.
+    public static boolean isLowPriorityWorkAllowed() {
+        return pressure != Pressure.CRITICAL;
+    }
+
+    public static long getLiveHeapInBytes() {
+        return liveHeapSupplier.getAsLong();
+    }
+
+    public static long getMaxMemoryInBytes() {
+        return maxMemoryInBytes;
+    }
+
+    // Sorted by name
+    public static Map<String, Long> getFootprints() {
+        Map<String, Long> footprints = new TreeMap<>();
+        footprintSuppliers.forEach((name, supplier) -> {
+            try {
+                footprints.put(name, supplier.getAsLong());
+            } catch (Throwable t) {
+                log.warn("Could not get footprint of {}: {}", name, t.toString());
+            }
+        });
+        return footprints;
+    }
+
+    public static String getFootprintsAsString() {
+        StringBuilder sb = new StringBuilder();
+        getFootprints().forEach((name, footprint) -> {
+            if (sb.length() > 0)
+                sb.append(", ");
+            sb.append(name).append(": ").append(Utilities.readableFileSize(footprint));
+        });
+        return sb.toString();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Estimation
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Estimates the heap footprint of the items of a map or collection from the serialized size of a sample of
+     * them. Only a few items get serialized so it is cheap enough to be called periodically.
+     *
+     * @param items                 The items of the store.
+     * @param serializedSizeOf      Returns the serialized size of an item, usually toProtoMessage().getSerializedSize().
+     */
+    public static <T> long estimateFootprint(Collection<T> items, ToIntFunction<T> serializedSizeOf) {
+        int size = items.size();
+        if (size == 0)
+            return 0;
+
+        long sampledBytes = 0;
+        int numSamples = 0;
+        Iterator<T> iterator = items.iterator();
+        while (numSamples < MAX_SAMPLES && iterator.hasNext()) {
+            sampledBytes += serializedSizeOf.applyAsInt(iterator.next());
+            numSamples++;
+        }
+        if (numSamples == 0)
+            return 0;
+
+        long averageBytes = sampledBytes / numSamples * HEAP_TO_SERIALIZED_FACTOR + MAP_ENTRY_OVERHEAD;
+        return averageBytes * size;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static long readLiveHeapInBytes() {
+        long usedAfterLastCollection = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP)
+                continue;
+            MemoryUsage collectionUsage = pool.getCollectionUsage();
+            if (collectionUsage != null)
+                usedAfterLastCollection += collectionUsage.getUsed();
+        }
+        // Before the first collection we do not have any data, so we use the current usage.
+        return usedAfterLastCollection > 0 ? usedAfterLastCollection : Profiler.getUsedMemoryInBytes();
+    }
+
+    @VisibleForTesting
+    static void setLiveHeapSupplier(LongSupplier supplier) {
+        liveHeapSupplier = supplier;
+    }
+
+    @VisibleForTesting
+    static void reset() {
+        stopPeriodicCheck();
+        footprintSuppliers.clear();
+        pressureHandlers.clear();
+        pressure = Pressure.NORMAL;
+        maxMemoryInBytes = Runtime.getRuntime().maxMemory();
+        liveHeapSupplier = MemoryGovernor::readLiveHeapInBytes;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.crypto;
+
+import javax.crypto.SecretKey;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ChunkedEncryptionTest {
+    private SecretKey secretKey;
+
+    @Before
+    public void setUp() {
+        secretKey = Encryption.generateSecretKey(256);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (int size : new int[]{0, 1, 99, 100, 101, 1000, 12345}) {
+            byte[] data = randomBytes(size);
+            byte[] encrypted = encrypt(data, 100);
+            assertTrue(ChunkedEncryption.isChunkedEncryption(encrypted));
+            assertArrayEquals(data, decrypt(encrypted, secretKey));
+        }
+    }
+
+    @Test
+    public void testLegacyDataIsNotDetected() throws CryptoException {
+        byte[] legacy = Encryption.encryptPayloadWithHmac(randomBytes(1000), secretKey);
+        assertFalse(ChunkedEncryption.isChunkedEncryption(legacy));
+    }
+
+    @Test
+    public void testWrongKeyFails() throws IOException {
+        byte[] encrypted = encrypt(randomBytes(1000), 100);
+        assertFails(encrypted, Encryption.generateSecretKey(256));
+    }
+
+    @Test
+    public void testModifiedDataFails() throws IOException {
+        byte[] encrypted = encrypt(randomBytes(1000), 100);
+        // modified header, flag and ciphertext
+        for (int index : new int[]{ChunkedEncryption.HEADER_SIZE - 1, ChunkedEncryption.HEADER_SIZE, encrypted.length - 1}) {
+            byte[] modified = encrypted.clone();
+            modified[index] ^= 1;
+            assertFails(modified, secretKey);
+        }
+    }
+
+    @Test
+    public void testTruncatedDataFails() throws IOException {
+        byte[] encrypted = encrypt(randomBytes(1000), 100);
+        // Each record has a flag, a length and the chunk with a 16 byte tag. The final chunk is a full one here.
+        int recordSize = 1 + 4 + 100 + 16;
+        int lastRecordStart = encrypted.length - recordSize;
+        assertFails(Arrays.copyOf(encrypted, lastRecordStart), secretKey);
+        assertFails(Arrays.copyOf(encrypted, lastRecordStart - recordSize), secretKey);
+        assertFails(Arrays.copyOf(encrypted, encrypted.length - 1), secretKey);
+    }
+
+    @Test
+    public void testAppendedDataFails() throws IOException {
+        byte[] encrypted = encrypt(randomBytes(1000), 100);
+        assertFails(Arrays.copyOf(encrypted, encrypted.length + 1), secretKey);
+    }
+
+    private byte[] encrypt(byte[] data, int chunkSize) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ChunkedEncryption.EncryptingOutputStream encryptingOutputStream =
+                     ChunkedEncryption.newOutputStream(outputStream, secretKey, chunkSize)) {
+            // We write in odd sized pieces to cover partially filled chunks
+            for (int offset = 0; offset < data.length; offset += 37) {
+                encryptingOutputStream.write(data, offset, Math.min(37, data.length - offset));
+            }
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] decrypt(byte[] encrypted, SecretKey secretKey) throws IOException {
+        try (InputStream inputStream = ChunkedEncryption.newInputStream(new ByteArrayInputStream(encrypted), secretKey)) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private static void assertFails(byte[] encrypted, SecretKey secretKey) {
+        try {
+            decrypt(encrypted, secretKey);
+            fail("Expected decryption to fail");
+        } catch (IOException ignore) {
+        }
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
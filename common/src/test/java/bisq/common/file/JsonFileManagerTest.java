@@ -0,0 +1,107 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.common.file;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class JsonFileManagerTest {
+    private File dir;
+    private JsonFileManager jsonFileManager;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("json-file-manager").toFile();
+        jsonFileManager = new JsonFileManager(dir);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        jsonFileManager.shutDown();
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testStreamedWriteReplacesFile() throws IOException {
+        jsonFileManager.writeToDiscThreaded(writer -> writer.write("[1]"), "test");
+        jsonFileManager.writeToDiscThreaded(writer -> writer.write("[1, 2]"), "test");
+        // Waits for the submitted writes
+        jsonFileManager.shutDown();
+
+        assertEquals(List.of("[1, 2]"), readLines("test.json"));
+    }
+
+    @Test
+    public void testNdjsonAppendsAreOrderedAfterWrite() throws IOException {
+        jsonFileManager.writeNdjsonToDiscThreaded(writer -> writer.write("{\"a\":1}\n{\"a\":2}\n"), "feed");
+        for (int i = 3; i <= 100; i++) {
+            String line = "{\"a\":" + i + "}\n";
+            jsonFileManager.appendNdjsonToDiscThreaded(writer -> writer.write(line), "feed");
+        }
+        jsonFileManager.shutDown();
+
+        List<String> lines = readLines("feed.ndjson");
+        assertEquals(100, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals("{\"a\":" + (i + 1) + "}", lines.get(i));
+        }
+    }
+
+    @Test
+    public void testPendingDebouncedWriteIsDoneAtShutDown() throws IOException {
+        List<Integer> data = new ArrayList<>(List.of(1));
+        jsonFileManager.writeToDiscDebounced(() -> writer -> writer.write(data.toString()), "test", 3600);
+        data.add(2);
+        jsonFileManager.writeToDiscDebounced(() -> writer -> writer.write("ignored"), "test", 3600);
+        jsonFileManager.shutDown();
+
+        // The snapshot is taken at shut down, so it contains the latest data
+        assertEquals(List.of("[1, 2]"), readLines("test.json"));
+    }
+
+    @Test
+    public void testWritesAfterShutDownAreIgnored() throws IOException {
+        jsonFileManager.shutDown();
+        jsonFileManager.writeToDiscThreaded(writer -> writer.write("[1]"), "test");
+
+        assertFalse(new File(dir, "test.json").exists());
+    }
+
+    private List<String> readLines(String fileName) throws IOException {
+        return Files.readAllLines(new File(dir, fileName).toPath(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.metrics;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import java.nio.charset.StandardCharsets;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsHttpServerTest {
+    private MetricsHttpServer metricsHttpServer;
+
+    @Before
+    public void setUp() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("requests", "Requests").increment();
+        // Port 0 lets the OS pick a free port
+        metricsHttpServer = new MetricsHttpServer(registry, 0);
+        metricsHttpServer.start();
+    }
+
+    @After
+    public void tearDown() {
+        metricsHttpServer.shutDown();
+    }
+
+    @Test
+    public void testScrape() throws IOException {
+        HttpURLConnection connection = openConnection();
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(connection.getContentType().startsWith("text/plain"));
+        try (InputStream inputStream = connection.getInputStream()) {
+            String body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(body.contains("requests_total 1\n"));
+            assertTrue(body.contains("jvm_threads "));
+        }
+    }
+
+    @Test
+    public void testPostIsNotAllowed() throws IOException {
+        HttpURLConnection connection = openConnection();
+        connection.setRequestMethod("POST");
+        assertEquals(405, connection.getResponseCode());
+    }
+
+    private HttpURLConnection openConnection() throws IOException {
+        URL url = new URL("http://127.0.0.1:" + metricsHttpServer.getPort() + "/metrics");
+        return (HttpURLConnection) url.openConnection();
+    }
+}
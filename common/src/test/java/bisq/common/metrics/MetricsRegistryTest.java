@@ -0,0 +1,109 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.metrics;
+
+import bisq.common.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+    private MetricsRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new MetricsRegistry();
+    }
+
+    @Test
+    public void testCounter() {
+        Counter ping = registry.counter("messages", "Received messages", "type", "Ping");
+        assertSame(ping, registry.counter("messages", "Received messages", "type", "Ping"));
+        ping.increment();
+        ping.add(2);
+        registry.counter("messages", "Received messages", "type", "Pong").increment();
+
+        assertEquals("# HELP messages Received messages\n" +
+                        "# TYPE messages counter\n" +
+                        "messages_total{type=\"Ping\"} 3\n" +
+                        "messages_total{type=\"Pong\"} 1\n",
+                registry.toPrometheusText());
+    }
+
+    @Test
+    public void testGauge() {
+        AtomicLong value = new AtomicLong(5);
+        registry.gauge("connections", "Open connections", value::get);
+        value.set(7);
+        registry.gauge("ratio", "A ratio", () -> 0.25);
+
+        assertEquals("# HELP connections Open connections\n" +
+                        "# TYPE connections gauge\n" +
+                        "connections 7\n" +
+                        "# HELP ratio A ratio\n" +
+                        "# TYPE ratio gauge\n" +
+                        "ratio 0.25\n",
+                registry.toPrometheusText());
+
+        registry.remove("connections");
+        assertFalse(registry.toPrometheusText().contains("connections"));
+    }
+
+    @Test
+    public void testHistogram() {
+        LatencyHistogram histogram = registry.histogram("read_ms", "Read time", "file", "Store");
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(5);
+
+        assertEquals("# HELP read_ms Read time\n" +
+                        "# TYPE read_ms histogram\n" +
+                        "read_ms_bucket{file=\"Store\",le=\"0\"} 1\n" +
+                        "read_ms_bucket{file=\"Store\",le=\"1\"} 2\n" +
+                        "read_ms_bucket{file=\"Store\",le=\"3\"} 2\n" +
+                        "read_ms_bucket{file=\"Store\",le=\"7\"} 3\n" +
+                        "read_ms_bucket{file=\"Store\",le=\"+Inf\"} 3\n" +
+                        "read_ms_sum{file=\"Store\"} 6\n" +
+                        "read_ms_count{file=\"Store\"} 3\n",
+                registry.toPrometheusText());
+    }
+
+    @Test
+    public void testLabelValuesAreEscaped() {
+        registry.counter("errors", "Errors", "message", "a \"quoted\"\nvalue\\").increment();
+        assertTrue(registry.toPrometheusText().contains("errors_total{message=\"a \\\"quoted\\\"\\nvalue\\\\\"} 1\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTypeMismatchFails() {
+        registry.counter("calls", "Calls");
+        registry.histogram("calls", "Calls");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNameFails() {
+        registry.counter("invalid-name", "Invalid");
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PersistedDataLoaderTest {
+    // Loads complete only when we call the stored handler
+    private final Map<String, Runnable> pendingHandlers = new HashMap<>();
+    private final List<String> startedLoads = new ArrayList<>();
+
+    private Consumer<Runnable> pendingLoad(String name) {
+        return handler -> {
+            startedLoads.add(name);
+            pendingHandlers.put(name, handler);
+        };
+    }
+
+    private void complete(String name) {
+        pendingHandlers.remove(name).run();
+    }
+
+    @Test
+    public void testIndependentStoresStartTogether() {
+        PersistedDataLoader loader = new PersistedDataLoader("test")
+                .add("a", pendingLoad("a"))
+                .add("b", pendingLoad("b"))
+                .add("c", pendingLoad("c"));
+        AtomicInteger completed = new AtomicInteger();
+        loader.load(completed::incrementAndGet);
+
+        assertEquals(List.of("a", "b", "c"), startedLoads);
+        complete("b");
+        complete("a");
+        assertEquals(0, completed.get());
+        complete("c");
+        assertEquals(1, completed.get());
+    }
+
+    @Test
+    public void testDependenciesAreLoadedFirst() {
+        PersistedDataLoader loader = new PersistedDataLoader("test")
+                .add("a", pendingLoad("a"))
+                .add("b", pendingLoad("b"))
+                .add("c", pendingLoad("c"))
+                .addDependency("c", "a")
+                .addDependency("c", "b");
+        loader.load(() -> {
+        });
+
+        assertEquals(List.of("a", "b"), startedLoads);
+        complete("a");
+        assertEquals(List.of("a", "b"), startedLoads);
+        complete("b");
+        assertEquals(List.of("a", "b", "c"), startedLoads);
+    }
+
+    @Test
+    public void testDeferredStoresStartAfterCompleteHandler() {
+        List<String> events = new ArrayList<>();
+        PersistedDataLoader loader = new PersistedDataLoader("test")
+                .add("a", pendingLoad("a"))
+                .addDeferred("deferred", handler -> {
+                    events.add("deferred started");
+                    handler.run();
+                });
+        loader.load(() -> events.add("complete"));
+
+        assertTrue(events.isEmpty());
+        complete("a");
+        assertEquals(List.of("complete", "deferred started"), events);
+
+        List<PersistedDataLoader.TimelineEntry> timeline = loader.getTimeline();
+        assertEquals(List.of("a", "deferred"), timeline.stream()
+                .map(PersistedDataLoader.TimelineEntry::getName)
+                .collect(Collectors.toList()));
+        assertTrue(timeline.get(1).isDeferred());
+        assertTrue(timeline.stream().allMatch(entry -> entry.getDurationMs() >= 0));
+    }
+
+    @Test
+    public void testEmptyLoaderCompletes() {
+        AtomicInteger completed = new AtomicInteger();
+        new PersistedDataLoader("test").load(completed::incrementAndGet);
+        assertEquals(1, completed.get());
+    }
+
+    @Test
+    public void testFailingLoadDoesNotBlockStartup() {
+        AtomicInteger completed = new AtomicInteger();
+        new PersistedDataLoader("test")
+                .add("a", handler -> {
+                    throw new IllegalStateException("test");
+                })
+                .add("b", Runnable::run)
+                .addDependency("b", "a")
+                .load(completed::incrementAndGet);
+        assertEquals(1, completed.get());
+    }
+
+    @Test
+    public void testHandlerCalledTwiceIsIgnored() {
+        AtomicInteger completed = new AtomicInteger();
+        new PersistedDataLoader("test")
+                .add("a", handler -> {
+                    handler.run();
+                    handler.run();
+                })
+                .load(completed::incrementAndGet);
+        assertEquals(1, completed.get());
+    }
+
+    @Test
+    public void testInvalidDependencies() {
+        PersistedDataLoader cyclic = new PersistedDataLoader("test")
+                .add("a", Runnable::run)
+                .add("b", Runnable::run)
+                .addDependency("a", "b")
+                .addDependency("b", "a");
+        try {
+            cyclic.load(() -> {
+            });
+            fail("Expected cyclic dependencies to fail");
+        } catch (IllegalArgumentException ignore) {
+        }
+
+        PersistedDataLoader criticalOnDeferred = new PersistedDataLoader("test")
+                .add("a", Runnable::run)
+                .addDeferred("b", Runnable::run);
+        try {
+            criticalOnDeferred.addDependency("a", "b");
+            fail("Expected a critical store depending on a deferred store to fail");
+        } catch (IllegalArgumentException ignore) {
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.common.persistence;
+
+import bisq.common.crypto.Encryption;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+
+import javax.crypto.SecretKey;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RecordStoreTest {
+    private File dir;
+    private File file;
+    private SecretKey secretKey;
+    private Map<String, Message> records;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("record-store").toFile();
+        file = new File(dir, "Test" + RecordStore.FILE_SUFFIX);
+        secretKey = Encryption.generateSecretKey(256);
+        records = new LinkedHashMap<>();
+        records.put("a", record("a", 1));
+        records.put("b", record("b", 1));
+        records.put("c", record("c", 1));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        new RecordStore(file, 1).write(records, secretKey);
+        assertEquals(List.of("a:1", "b:1", "c:1"), read(new RecordStore(file, 1), secretKey));
+    }
+
+    @Test
+    public void testOnlyChangedRecordsAreAppended() throws IOException {
+        RecordStore store = new RecordStore(file, 1);
+        store.write(records, secretKey);
+        long length = file.length();
+
+        store.write(records, secretKey);
+        assertEquals(length, file.length());
+
+        records.put("b", record("b", 2));
+        store.write(records, secretKey);
+        assertTrue(file.length() < 2 * length);
+        assertEquals(List.of("a:1", "b:2", "c:1"), read(new RecordStore(file, 1), secretKey));
+    }
+
+    @Test
+    public void testRemovedAndAddedRecords() throws IOException {
+        RecordStore store = new RecordStore(file, 1);
+        store.write(records, secretKey);
+        records.remove("a");
+        records.put("d", record("d", 1));
+        store.write(records, secretKey);
+        assertEquals(List.of("b:1", "c:1", "d:1"), read(new RecordStore(file, 1), secretKey));
+
+        // A changed order is written as a new file
+        Map<String, Message> reordered = new LinkedHashMap<>();
+        reordered.put("d", records.get("d"));
+        reordered.putAll(records);
+        store.write(reordered, secretKey);
+        assertEquals(List.of("d:1", "b:1", "c:1"), read(new RecordStore(file, 1), secretKey));
+    }
+
+    @Test
+    public void testIncompleteBatchIsIgnored() throws IOException {
+        RecordStore store = new RecordStore(file, 1);
+        store.write(records, secretKey);
+        // PUT entry of an interrupted write without COMMIT entry
+        try (FileOutputStream outputStream = new FileOutputStream(file, true)) {
+            outputStream.write(new byte[]{1, 0, 1, 'x', 0, 0, 0, 50, 1, 2});
+        }
+
+        RecordStore reopened = new RecordStore(file, 1);
+        assertEquals(List.of("a:1", "b:1", "c:1"), read(reopened, secretKey));
+        records.put("e", record("e", 1));
+        reopened.write(records, secretKey);
+        assertEquals(List.of("a:1", "b:1", "c:1", "e:1"), read(new RecordStore(file, 1), secretKey));
+    }
+
+    @Test
+    public void testWrongKeyFails() throws IOException {
+        new RecordStore(file, 1).write(records, secretKey);
+        try {
+            read(new RecordStore(file, 1), Encryption.generateSecretKey(256));
+            fail("Expected reading with a wrong key to fail");
+        } catch (IOException ignore) {
+        }
+    }
+
+    @Test
+    public void testWithoutEncryption() throws IOException {
+        new RecordStore(file, 1).write(records, null);
+        assertEquals(List.of("a:1", "b:1", "c:1"), read(new RecordStore(file, 1), null));
+    }
+
+    @Test
+    public void testEmptyEnvelope() throws IOException {
+        RecordStore store = new RecordStore(file, 1);
+        store.write(records, secretKey);
+        protobuf.PersistableEnvelope emptyEnvelope = protobuf.PersistableEnvelope.newBuilder()
+                .setAccountAgeWitnessStore(protobuf.AccountAgeWitnessStore.newBuilder())
+                .build();
+        store.write(Map.of(RecordStore.EMPTY_ENVELOPE_KEY, emptyEnvelope), secretKey);
+
+        protobuf.PersistableEnvelope envelope = new RecordStore(file, 1).read(secretKey);
+        assertEquals(protobuf.PersistableEnvelope.MessageCase.ACCOUNT_AGE_WITNESS_STORE, envelope.getMessageCase());
+        assertEquals(List.of(), read(new RecordStore(file, 1), secretKey));
+
+        // Records added later replace the empty envelope
+        store.write(records, secretKey);
+        assertEquals(List.of("a:1", "b:1", "c:1"), read(new RecordStore(file, 1), secretKey));
+    }
+
+    @Test
+    public void testStoreWithoutRecords() throws IOException {
+        new RecordStore(file, 1).write(Map.of(), secretKey);
+        assertNull(new RecordStore(file, 1).read(secretKey));
+    }
+
+    // We use a simple envelope with a repeated field as record type
+    private static Message record(String hash, long date) {
+        return protobuf.PersistableEnvelope.newBuilder()
+                .setAccountAgeWitnessStore(protobuf.AccountAgeWitnessStore.newBuilder()
+                        .addItems(protobuf.AccountAgeWitness.newBuilder()
+                                .setHash(ByteString.copyFromUtf8(hash))
+                                .setDate(date)))
+                .build();
+    }
+
+    private static List<String> read(RecordStore store, SecretKey secretKey) throws IOException {
+        return store.read(secretKey).getAccountAgeWitnessStore().getItemsList().stream()
+                .map(item -> item.getHash().toStringUtf8() + ":" + item.getDate())
+                .collect(Collectors.toList());
+    }
+}
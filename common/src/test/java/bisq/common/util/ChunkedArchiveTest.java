@@ -0,0 +1,128 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkedArchiveTest {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        File srcDir = tempFolder.newFolder("src");
+        File dstDir = tempFolder.newFolder("dst");
+        byte[] randomBytes = new byte[CHUNK_SIZE * 3 + 17];
+        new Random(1).nextBytes(randomBytes);
+        byte[] textBytes = "compressible text\n".repeat(20_000).getBytes(StandardCharsets.UTF_8);
+        Path srcPath = srcDir.toPath();
+        Files.createDirectories(srcPath.resolve("wallet/sub"));
+        Files.write(srcPath.resolve("wallet/sub/random.bin"), randomBytes);
+        Files.write(srcPath.resolve("text.txt"), textBytes);
+        Files.write(srcPath.resolve("empty"), new byte[0]);
+
+        byte[] archive = writeArchive(srcDir);
+        assertTrue(ChunkedArchive.isChunkedArchive(archive));
+        // text is deflated, random bytes are stored
+        assertTrue(archive.length < randomBytes.length + textBytes.length / 2);
+
+        ChunkedArchive.extractToDir(dstDir, new ByteArrayInputStream(archive));
+        Path dstPath = dstDir.toPath();
+        assertArrayEquals(randomBytes, Files.readAllBytes(dstPath.resolve("wallet/sub/random.bin")));
+        assertArrayEquals(textBytes, Files.readAllBytes(dstPath.resolve("text.txt")));
+        assertArrayEquals(new byte[0], Files.readAllBytes(dstPath.resolve("empty")));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedArchiveFails() throws IOException {
+        File srcDir = tempFolder.newFolder("src");
+        Files.write(srcDir.toPath().resolve("text.txt"), "text".getBytes(StandardCharsets.UTF_8));
+        byte[] archive = writeArchive(srcDir);
+        byte[] truncated = Arrays.copyOf(archive, archive.length - 1);
+        ChunkedArchive.extractToDir(tempFolder.newFolder("dst"), new ByteArrayInputStream(truncated));
+    }
+
+    @Test(expected = IOException.class)
+    public void testOversizedChunkFails() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(ChunkedArchive.MAGIC);
+            out.writeByte(1);
+            out.writeUTF("text.txt");
+            out.writeLong(0);
+            out.writeInt(Integer.MAX_VALUE);
+            out.writeByte(0);
+            out.writeInt(Integer.MAX_VALUE);
+            out.writeInt(0);
+        }
+        ChunkedArchive.extractToDir(tempFolder.newFolder("dst"), new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testNegativeDataLengthFails() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(ChunkedArchive.MAGIC);
+            out.writeByte(1);
+            out.writeUTF("text.txt");
+            out.writeLong(0);
+            out.writeInt(4);
+            out.writeByte(1);
+            out.writeInt(-1);
+            out.writeInt(0);
+        }
+        ChunkedArchive.extractToDir(tempFolder.newFolder("dst"), new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test
+    public void testZipIsNotChunkedArchive() {
+        assertFalse(ChunkedArchive.isChunkedArchive(new byte[]{0x50, 0x4b, 0x03, 0x04, 0, 0, 0, 0}));
+    }
+
+    private static byte[] writeArchive(File dir) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ChunkedArchive.Writer writer = new ChunkedArchive.Writer(dir, CHUNK_SIZE)) {
+            byte[] bytes;
+            while ((bytes = writer.next()) != null)
+                out.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
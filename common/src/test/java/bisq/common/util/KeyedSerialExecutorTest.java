@@ -0,0 +1,148 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.common.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KeyedSerialExecutorTest {
+    private KeyedSerialExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new KeyedSerialExecutor("KeyedSerialExecutorTest", 4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutDown();
+    }
+
+    @Test
+    public void testTasksWithSameKeyRunInOrder() throws InterruptedException {
+        int numTasks = 200;
+        List<Integer> results = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger concurrentRuns = new AtomicInteger();
+        AtomicInteger maxConcurrentRuns = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(numTasks);
+        for (int i = 0; i < numTasks; i++) {
+            int index = i;
+            executor.execute("trade", () -> {
+                maxConcurrentRuns.accumulateAndGet(concurrentRuns.incrementAndGet(), Math::max);
+                results.add(index);
+                concurrentRuns.decrementAndGet();
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(1, maxConcurrentRuns.get());
+        for (int i = 0; i < numTasks; i++)
+            assertEquals(i, (int) results.get(i));
+    }
+
+    @Test
+    public void testTasksWithDifferentKeysRunInParallel() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        for (String key : new String[]{"trade1", "trade2"}) {
+            executor.execute(key, () -> {
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ignore) {
+                }
+                done.countDown();
+            });
+        }
+        // both tasks must be running at the same time to pass the first latch
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertEquals(2, executor.getNumActiveKeys());
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailingTaskDoesNotBlockQueue() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        executor.execute("trade", () -> {
+            throw new IllegalStateException("test");
+        });
+        executor.execute("trade", latch::countDown);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(2, executor.getWaitTimes().getCount());
+    }
+
+    @Test
+    public void testShutDownCompletesQueuedTasks() {
+        List<Integer> results = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 100; i++) {
+            int index = i;
+            executor.execute("trade", () -> results.add(index));
+        }
+        executor.shutDown();
+
+        assertEquals(100, results.size());
+        assertEquals(0, executor.getNumPendingTasks());
+    }
+
+    @Test
+    public void testTaskAfterShutDownIsIgnored() {
+        executor.shutDown();
+        AtomicInteger runs = new AtomicInteger();
+        executor.execute("trade", runs::incrementAndGet);
+
+        assertEquals(0, runs.get());
+        assertEquals(0, executor.getNumPendingTasks());
+        assertEquals(0, executor.getNumActiveKeys());
+    }
+
+    @Test
+    public void testAwaitTerminationReturnsAtDeadline() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        executor.execute("trade", () -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        executor.beginShutDown();
+        long ts = System.currentTimeMillis();
+        assertFalse(executor.awaitTermination(ts + 100));
+        assertTrue(System.currentTimeMillis() - ts < TimeUnit.SECONDS.toMillis(5));
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    }
+}
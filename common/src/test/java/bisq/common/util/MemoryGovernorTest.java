@@ -0,0 +1,127 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryGovernorTest {
+    private static final long MB = 1024 * 1024;
+
+    private long liveHeap;
+
+    @Before
+    public void setUp() {
+        MemoryGovernor.reset();
+        MemoryGovernor.setLiveHeapSupplier(() -> liveHeap);
+        MemoryGovernor.setMaxMemoryInMB(100);
+    }
+
+    @After
+    public void tearDown() {
+        MemoryGovernor.reset();
+    }
+
+    @Test
+    public void testEvaluatePressure() {
+        assertEquals(MemoryGovernor.Pressure.NORMAL, MemoryGovernor.evaluatePressure(69 * MB, 100 * MB));
+        assertEquals(MemoryGovernor.Pressure.ELEVATED, MemoryGovernor.evaluatePressure(70 * MB, 100 * MB));
+        assertEquals(MemoryGovernor.Pressure.CRITICAL, MemoryGovernor.evaluatePressure(85 * MB, 100 * MB));
+        assertEquals(MemoryGovernor.Pressure.NORMAL, MemoryGovernor.evaluatePressure(85 * MB, 0));
+    }
+
+    @Test
+    public void testHandlersAreCalledByPressure() {
+        AtomicInteger dropCacheCalls = new AtomicInteger();
+        AtomicInteger compactCalls = new AtomicInteger();
+        MemoryGovernor.addPressureHandler(MemoryGovernor.Pressure.ELEVATED, dropCacheCalls::incrementAndGet);
+        MemoryGovernor.addPressureHandler(MemoryGovernor.Pressure.CRITICAL, compactCalls::incrementAndGet);
+
+        liveHeap = 10 * MB;
+        assertEquals(MemoryGovernor.Pressure.NORMAL, MemoryGovernor.check());
+        assertEquals(0, dropCacheCalls.get());
+        assertEquals(0, compactCalls.get());
+        assertTrue(MemoryGovernor.isLowPriorityWorkAllowed());
+
+        liveHeap = 75 * MB;
+        assertEquals(MemoryGovernor.Pressure.ELEVATED, MemoryGovernor.check());
+        assertEquals(1, dropCacheCalls.get());
+        assertEquals(0, compactCalls.get());
+        assertTrue(MemoryGovernor.isLowPriorityWorkAllowed());
+
+        liveHeap = 90 * MB;
+        assertEquals(MemoryGovernor.Pressure.CRITICAL, MemoryGovernor.check());
+        assertEquals(2, dropCacheCalls.get());
+        assertEquals(1, compactCalls.get());
+        assertFalse(MemoryGovernor.isLowPriorityWorkAllowed());
+
+        liveHeap = 10 * MB;
+        assertEquals(MemoryGovernor.Pressure.NORMAL, MemoryGovernor.check());
+        assertTrue(MemoryGovernor.isLowPriorityWorkAllowed());
+    }
+
+    @Test
+    public void testFailingHandlerDoesNotStopOthers() {
+        AtomicInteger calls = new AtomicInteger();
+        MemoryGovernor.addPressureHandler(MemoryGovernor.Pressure.ELEVATED, () -> {
+            throw new IllegalStateException("test");
+        });
+        MemoryGovernor.addPressureHandler(MemoryGovernor.Pressure.ELEVATED, calls::incrementAndGet);
+
+        liveHeap = 75 * MB;
+        MemoryGovernor.check();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testFootprints() {
+        MemoryGovernor.registerStore("b", () -> 2);
+        MemoryGovernor.registerStore("a", () -> 1);
+        MemoryGovernor.registerStore("failing", () -> {
+            throw new IllegalStateException("test");
+        });
+        MemoryGovernor.registerStore("a", () -> 3);
+
+        Map<String, Long> footprints = MemoryGovernor.getFootprints();
+        assertEquals(List.of("a", "b"), List.copyOf(footprints.keySet()));
+        assertEquals(3, (long) footprints.get("a"));
+
+        MemoryGovernor.unregisterStore("b");
+        assertEquals(1, MemoryGovernor.getFootprints().size());
+    }
+
+    @Test
+    public void testEstimateFootprint() {
+        assertEquals(0, MemoryGovernor.estimateFootprint(List.of(), String::length));
+
+        long small = MemoryGovernor.estimateFootprint(List.of("a", "b"), String::length);
+        long large = MemoryGovernor.estimateFootprint(List.of("aaaa", "bbbb"), String::length);
+        long many = MemoryGovernor.estimateFootprint(List.of("a", "b", "c", "d"), String::length);
+        assertTrue(large > small);
+        assertEquals(2 * small, many);
+    }
+}
@@ -60,6 +60,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -94,6 +95,9 @@ public class SignedWitnessService {
     private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithDSAKeyResultCache = new HashMap<>();
     private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithECKeyResultCache = new HashMap<>();
 
+    // Incremented at each change of the signed witnesses, so results derived from them can be invalidated
+    private final AtomicInteger signedWitnessMapVersion = new AtomicInteger();
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -163,6 +167,10 @@ public class SignedWitnessService {
         return signedWitnessMap.values();
     }
 
+    public int getSignedWitnessMapVersion() {
+        return signedWitnessMapVersion.get();
+    }
+
     /**
      * List of dates as long when accountAgeWitness was signed
      *
@@ -524,7 +532,9 @@ public class SignedWitnessService {
 
     @VisibleForTesting
     public void addToMap(SignedWitness signedWitness) {
-        signedWitnessMap.putIfAbsent(signedWitness.getHashAsByteArray(), signedWitness);
+        if (signedWitnessMap.putIfAbsent(signedWitness.getHashAsByteArray(), signedWitness) == null) {
+            signedWitnessMapVersion.incrementAndGet();
+        }
 
         P2PDataStorage.ByteArray accountAgeWitnessHash = new P2PDataStorage.ByteArray(signedWitness.getAccountAgeWitnessHash());
         signedWitnessSetByAccountAgeWitnessHash.putIfAbsent(accountAgeWitnessHash, new HashSet<>());
@@ -551,7 +561,9 @@ public class SignedWitnessService {
 
     @VisibleForTesting
     public void removeSignedWitness(SignedWitness signedWitness) {
-        signedWitnessMap.remove(signedWitness.getHashAsByteArray());
+        if (signedWitnessMap.remove(signedWitness.getHashAsByteArray()) != null) {
+            signedWitnessMapVersion.incrementAndGet();
+        }
 
         P2PDataStorage.ByteArray accountAgeWitnessHash = new P2PDataStorage.ByteArray(signedWitness.getAccountAgeWitnessHash());
         if (signedWitnessSetByAccountAgeWitnessHash.containsKey(accountAgeWitnessHash)) {
@@ -39,7 +39,6 @@ import bisq.core.user.User;
 
 import bisq.network.p2p.BootstrapListener;
 import bisq.network.p2p.P2PService;
-import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
 
 import bisq.common.UserThread;
@@ -50,6 +49,7 @@ import bisq.common.crypto.PubKeyRing;
 import bisq.common.crypto.Sig;
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.util.MathUtils;
+import bisq.common.util.MemoryGovernor;
 import bisq.common.util.Tuple2;
 import bisq.common.util.Utilities;
 
@@ -68,14 +68,11 @@ import java.time.Clock;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.GregorianCalendar;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -147,12 +144,10 @@ public class AccountAgeWitnessService {
     @Getter
     private final AccountAgeWitnessUtils accountAgeWitnessUtils;
 
-    private final Map<P2PDataStorage.ByteArray, AccountAgeWitness> accountAgeWitnessMap = new HashMap<>();
-
-    // The accountAgeWitnessMap is very large (70k items) and access is a bit expensive. We usually only access less
-    // than 100 items, those who have offers online. So we use a cache for a fast lookup and only if
-    // not found there we use the accountAgeWitnessMap and put then the new item into our cache.
-    private final Map<P2PDataStorage.ByteArray, AccountAgeWitness> accountAgeWitnessCache = new ConcurrentHashMap<>();
+    // The map is very large (several 100k items), so we keep the witnesses in a compact form and only create the
+    // AccountAgeWitness objects on lookup.
+    private final CompactAccountAgeWitnessMap accountAgeWitnessMap = new CompactAccountAgeWitnessMap();
+    private final WitnessVerdictCache witnessVerdictCache;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -179,6 +174,7 @@ public class AccountAgeWitnessService {
         this.clock = clock;
         this.filterManager = filterManager;
 
+        witnessVerdictCache = new WitnessVerdictCache(signedWitnessService::getSignedWitnessMapVersion);
         accountAgeWitnessUtils = new AccountAgeWitnessUtils(
                 this,
                 signedWitnessService,
@@ -186,6 +182,10 @@ public class AccountAgeWitnessService {
 
         // We need to add that early (before onAllServicesInitialized) as it will be used at startup.
         appendOnlyDataStoreService.addService(accountAgeWitnessStorageService);
+
+        MemoryGovernor.registerStore("AccountAgeWitnessMap", accountAgeWitnessMap::getFootprint);
+        // The verdicts get recomputed on demand
+        MemoryGovernor.addPressureHandler(MemoryGovernor.Pressure.ELEVATED, witnessVerdictCache::invalidateAll);
     }
 
 
@@ -198,9 +198,13 @@ public class AccountAgeWitnessService {
             if (payload instanceof AccountAgeWitness)
                 addToMap((AccountAgeWitness) payload);
         });
+        // New signed witnesses invalidate the verdicts by the version of the signed witness map
+        filterManager.filterProperty().addListener((observable, oldValue, newValue) ->
+                witnessVerdictCache.invalidateAll());
 
         // At startup the P2PDataStorage initializes earlier, otherwise we get the listener called.
-        accountAgeWitnessStorageService.getMapOfAllData().values().stream()
+        accountAgeWitnessMap.ensureCapacity(accountAgeWitnessStorageService.getMapOfAllDataView().size());
+        accountAgeWitnessStorageService.getMapOfAllDataView().values().stream()
                 .filter(e -> e instanceof AccountAgeWitness)
                 .map(e -> (AccountAgeWitness) e)
                 .forEach(this::addToMap);
@@ -244,7 +248,9 @@ public class AccountAgeWitnessService {
 
     @VisibleForTesting
     public void addToMap(AccountAgeWitness accountAgeWitness) {
-        accountAgeWitnessMap.putIfAbsent(accountAgeWitness.getHashAsByteArray(), accountAgeWitness);
+        if (accountAgeWitnessMap.putIfAbsent(accountAgeWitness)) {
+            witnessVerdictCache.invalidate(accountAgeWitness.getHash());
+        }
     }
 
 
@@ -254,15 +260,7 @@ public class AccountAgeWitnessService {
 
     public void publishMyAccountAgeWitness(PaymentAccountPayload paymentAccountPayload) {
         AccountAgeWitness accountAgeWitness = getMyWitness(paymentAccountPayload);
-        P2PDataStorage.ByteArray hash = accountAgeWitness.getHashAsByteArray();
-
-        // We use first our fast lookup cache. If its in accountAgeWitnessCache it is also in accountAgeWitnessMap
-        // and we do not publish.
-        if (accountAgeWitnessCache.containsKey(hash)) {
-            return;
-        }
-
-        if (!accountAgeWitnessMap.containsKey(hash)) {
+        if (!accountAgeWitnessMap.contains(accountAgeWitness.getHash())) {
             p2PService.addPersistableNetworkPayload(accountAgeWitness, false);
         }
     }
@@ -317,23 +315,7 @@ public class AccountAgeWitnessService {
     }
 
     private Optional<AccountAgeWitness> getWitnessByHash(byte[] hash) {
-        P2PDataStorage.ByteArray hashAsByteArray = new P2PDataStorage.ByteArray(hash);
-
-        // First we look up in our fast lookup cache
-        if (accountAgeWitnessCache.containsKey(hashAsByteArray)) {
-            return Optional.of(accountAgeWitnessCache.get(hashAsByteArray));
-        }
-
-        if (accountAgeWitnessMap.containsKey(hashAsByteArray)) {
-            AccountAgeWitness accountAgeWitness = accountAgeWitnessMap.get(hashAsByteArray);
-
-            // We add it to our fast lookup cache
-            accountAgeWitnessCache.put(hashAsByteArray, accountAgeWitness);
-
-            return Optional.of(accountAgeWitness);
-        }
-
-        return Optional.empty();
+        return accountAgeWitnessMap.get(hash);
     }
 
     private Optional<AccountAgeWitness> getWitnessByHashAsHex(String hashAsHex) {
@@ -374,7 +356,7 @@ public class AccountAgeWitnessService {
 
     // Return -1 if not signed
     public long getWitnessSignAge(AccountAgeWitness accountAgeWitness, Date now) {
-        List<Long> dates = signedWitnessService.getVerifiedWitnessDateList(accountAgeWitness);
+        List<Long> dates = getVerdict(accountAgeWitness).getVerifiedWitnessDates();
         if (dates.isEmpty()) {
             return -1L;
         } else {
@@ -475,7 +457,7 @@ public class AccountAgeWitnessService {
     // - are mature
     // - were signed by an arbitrator
     private boolean hasTradeLimitException(AccountAgeWitness accountAgeWitness) {
-        return !isImmature(accountAgeWitness) || signedWitnessService.isSignedByArbitrator(accountAgeWitness);
+        return !isImmature(accountAgeWitness) || getVerdict(accountAgeWitness).isSignedByArbitrator();
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -855,10 +837,11 @@ public class AccountAgeWitnessService {
         // Add hash to sign state info when running in debug mode
         String hash = log.isDebugEnabled() ? Utilities.bytesAsHexString(accountAgeWitness.getHash()) + "\n" +
                 signedWitnessService.ownerPubKeyAsString(accountAgeWitness) : "";
-        if (signedWitnessService.isFilteredWitness(accountAgeWitness)) {
+        WitnessVerdictCache.Verdict verdict = getVerdict(accountAgeWitness);
+        if (verdict.isFiltered()) {
             return SignState.BANNED.addHash(hash);
         }
-        if (signedWitnessService.isSignedByArbitrator(accountAgeWitness)) {
+        if (verdict.isSignedByArbitrator()) {
             return SignState.ARBITRATOR.addHash(hash);
         } else {
             final long accountSignAge = getWitnessSignAge(accountAgeWitness, new Date());
@@ -876,6 +859,13 @@ public class AccountAgeWitnessService {
         }
     }
 
+    private WitnessVerdictCache.Verdict getVerdict(AccountAgeWitness accountAgeWitness) {
+        return witnessVerdictCache.get(accountAgeWitness, () -> new WitnessVerdictCache.Verdict(
+                signedWitnessService.isFilteredWitness(accountAgeWitness),
+                signedWitnessService.isSignedByArbitrator(accountAgeWitness),
+                signedWitnessService.getVerifiedWitnessDateList(accountAgeWitness)));
+    }
+
     public Set<AccountAgeWitness> getOrphanSignedWitnesses() {
         return signedWitnessService.getRootSignedWitnessSet(false).stream()
                 .map(signedWitness -> getWitnessByHash(signedWitness.getAccountAgeWitnessHash()).orElse(null))
@@ -0,0 +1,219 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.core.account.witness;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import java.security.SecureRandom;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Compact map of account age witnesses by hash. The network has several 100k witnesses, and holding each as an
+ * AccountAgeWitness object keyed by a ByteArray in a HashMap costs more than 100 bytes per entry for 28 bytes of data. We
+ * pack the 20 byte hashes and the dates into primitive arrays of an open addressing table with linear probing and
+ * only create the AccountAgeWitness objects on lookup.
+ *
+ * The hash code mixes all 20 bytes of the hash into a random seed, so peers cannot predict which hashes collide in our
+ * table and publish such witnesses to degrade the lookups. The mixing is not a cryptographic MAC, but colliding in a
+ * prefix of the hash is not enough anymore. Witnesses with a hash of another size (invalid, but not rejected by
+ * AccountAgeWitness.fromProto) are held in a small fallback map.
+ */
+public final class CompactAccountAgeWitnessMap {
+    private static final int HASH_SIZE = 20;
+    private static final int INITIAL_CAPACITY = 1024;
+    // Linear probing needs about 2.5 probes for a hit at that load factor
+    private static final int MAX_LOAD_PERCENT = 75;
+
+    private final long seed = new SecureRandom().nextLong();
+    private byte[] hashes;
+    private long[] dates;
+    private boolean[] used;
+    private int size;
+    private final Map<P2PDataStorage.ByteArray, AccountAgeWitness> otherWitnesses = new HashMap<>();
+
+    public CompactAccountAgeWitnessMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Grows the table to hold at least the given number of witnesses without further resizing.
+     */
+    public synchronized void ensureCapacity(int numWitnesses) {
+        int capacity = capacityFor(numWitnesses);
+        if (capacity > used.length) {
+            rehash(capacity);
+        }
+    }
+
+    /**
+     * @return true if the witness was added, false if a witness with the same hash is already contained
+     */
+    public synchronized boolean putIfAbsent(AccountAgeWitness accountAgeWitness) {
+        byte[] hash = accountAgeWitness.getHash();
+        if (hash.length != HASH_SIZE) {
+            return otherWitnesses.putIfAbsent(new P2PDataStorage.ByteArray(hash), accountAgeWitness) == null;
+        }
+        int slot = findSlot(hash);
+        if (used[slot]) {
+            return false;
+        }
+        insert(slot, hash, 0, accountAgeWitness.getDate());
+        if (++size * 100L > (long) used.length * MAX_LOAD_PERCENT) {
+            rehash(used.length * 2);
+        }
+        return true;
+    }
+
+    public synchronized boolean contains(byte[] hash) {
+        if (hash.length != HASH_SIZE) {
+            return otherWitnesses.containsKey(new P2PDataStorage.ByteArray(hash));
+        }
+        return used[findSlot(hash)];
+    }
+
+    public synchronized Optional<AccountAgeWitness> get(byte[] hash) {
+        if (hash.length != HASH_SIZE) {
+            return Optional.ofNullable(otherWitnesses.get(new P2PDataStorage.ByteArray(hash)));
+        }
+        int slot = findSlot(hash);
+        if (!used[slot]) {
+            return Optional.empty();
+        }
+        return Optional.of(new AccountAgeWitness(Arrays.copyOfRange(hashes, slot * HASH_SIZE, (slot + 1) * HASH_SIZE),
+                dates[slot]));
+    }
+
+    public synchronized int size() {
+        return size + otherWitnesses.size();
+    }
+
+    /**
+     * @return the size of the arrays of the table in bytes, not counting the fallback map
+     */
+    public synchronized long getFootprint() {
+        return (long) hashes.length + (long) dates.length * Long.BYTES + used.length;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void allocate(int capacity) {
+        hashes = new byte[capacity * HASH_SIZE];
+        dates = new long[capacity];
+        used = new boolean[capacity];
+    }
+
+    private static int capacityFor(int numWitnesses) {
+        long minCapacity = (long) numWitnesses * 100 / MAX_LOAD_PERCENT + 1;
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < minCapacity) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // Returns the slot holding the hash or the empty slot where it would be inserted
+    private int findSlot(byte[] hash) {
+        int mask = used.length - 1;
+        int slot = hashCode(hash, 0) & mask;
+        while (used[slot] && !equalsAt(slot, hash, 0)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, byte[] source, int offset, long date) {
+        System.arraycopy(source, offset, hashes, slot * HASH_SIZE, HASH_SIZE);
+        dates[slot] = date;
+        used[slot] = true;
+    }
+
+    private void rehash(int capacity) {
+        byte[] oldHashes = hashes;
+        long[] oldDates = dates;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int slot = hashCode(oldHashes, i * HASH_SIZE) & mask;
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                insert(slot, oldHashes, i * HASH_SIZE, oldDates[i]);
+            }
+        }
+    }
+
+    private boolean equalsAt(int slot, byte[] hash, int offset) {
+        int start = slot * HASH_SIZE;
+        for (int i = 0; i < HASH_SIZE; i++) {
+            if (hashes[start + i] != hash[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hashCode(byte[] bytes, int offset) {
+        long hash = seed;
+        hash = mix(hash, readLong(bytes, offset));
+        hash = mix(hash, readLong(bytes, offset + Long.BYTES));
+        hash = mix(hash, readInt(bytes, offset + 2 * Long.BYTES));
+        // Final avalanche of Murmur3, so the bits used by the mask depend on all bytes
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value * 0x9E3779B97F4A7C15L;
+        return Long.rotateLeft(hash, 31) * 0xBF58476D1CE4E5B9L;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = value << 8 | (bytes[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+    private static long readInt(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            value = value << 8 | (bytes[offset + i] & 0xff);
+        }
+        return value;
+    }
+}
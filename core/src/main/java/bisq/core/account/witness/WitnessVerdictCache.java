@@ -0,0 +1,91 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.core.account.witness;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import lombok.Value;
+
+/**
+ * Caches the results of the signed witness checks per account age witness hash. Those checks verify the signatures
+ * along the signer chain and are requested for each offer at filtering and rendering the offer book.
+ *
+ * Entries are invalidated by changes of the signed witnesses (tracked by the version of the signed witness map), by
+ * new account age witnesses and by filter changes. As the validity of a signer chain also depends on the time, entries
+ * expire after MAX_AGE.
+ */
+class WitnessVerdictCache {
+    private static final long MAX_AGE = TimeUnit.MINUTES.toMillis(10);
+    // We only query the witnesses of offers and trades, but the arbitrator views can query all, so we cap the size
+    private static final int MAX_SIZE = 10_000;
+
+    @Value
+    static class Verdict {
+        boolean filtered;
+        boolean signedByArbitrator;
+        // Sorted dates of the valid signatures of the witness, empty if not signed
+        List<Long> verifiedWitnessDates;
+    }
+
+    @Value
+    private static class Entry {
+        Verdict verdict;
+        int signedWitnessMapVersion;
+        long creationTime;
+    }
+
+    private final IntSupplier signedWitnessMapVersionSupplier;
+    private final Map<P2PDataStorage.ByteArray, Entry> entries = new ConcurrentHashMap<>();
+
+    WitnessVerdictCache(IntSupplier signedWitnessMapVersionSupplier) {
+        this.signedWitnessMapVersionSupplier = signedWitnessMapVersionSupplier;
+    }
+
+    Verdict get(AccountAgeWitness accountAgeWitness, Supplier<Verdict> verdictSupplier) {
+        P2PDataStorage.ByteArray key = new P2PDataStorage.ByteArray(accountAgeWitness.getHash());
+        int version = signedWitnessMapVersionSupplier.getAsInt();
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.getSignedWitnessMapVersion() == version && now - entry.getCreationTime() < MAX_AGE) {
+            return entry.getVerdict();
+        }
+
+        Verdict verdict = verdictSupplier.get();
+        if (entries.size() >= MAX_SIZE) {
+            entries.clear();
+        }
+        entries.put(key, new Entry(verdict, version, now));
+        return verdict;
+    }
+
+    void invalidate(byte[] accountAgeWitnessHash) {
+        entries.remove(new P2PDataStorage.ByteArray(accountAgeWitnessHash));
+    }
+
+    void invalidateAll() {
+        entries.clear();
+    }
+}
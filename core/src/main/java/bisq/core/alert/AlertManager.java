@@ -79,7 +79,7 @@ public class AlertManager {
         this.user = user;
 
         if (!ignoreDevMsg) {
-            p2PService.addHashSetChangedListener(new HashMapChangedListener() {
+            p2PService.addHashSetChangedListener(Alert.class, new HashMapChangedListener() {
                 @Override
                 public void onAdded(Collection<ProtectedStorageEntry> protectedStorageEntries) {
                     protectedStorageEntries.forEach(protectedStorageEntry -> {
@@ -25,7 +25,9 @@ import bisq.common.crypto.KeyRing;
 import bisq.common.crypto.KeyStorage;
 import bisq.common.file.FileUtil;
 import bisq.common.persistence.PersistenceManager;
+import bisq.common.util.ChunkedArchive;
 import bisq.common.util.ZipUtils;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.io.PipedInputStream;
@@ -45,7 +47,7 @@ import lombok.extern.slf4j.Slf4j;
  * persisted. It is possible to persist the objects without a password (legacy).
  *
  * Backup and restore flushes the persistence objects in the app folder and sends or
- * restores a zip stream.
+ * restores a zip stream or a {@link ChunkedArchive}.
  */
 @Singleton
 @Slf4j
@@ -143,10 +145,37 @@ public class CoreAccountService {
         });
     }
 
+    /**
+     * Backup the account as a {@link ChunkedArchive} which compresses the files in parallel and
+     * produces the archive on demand, so the caller can pull chunks as fast as it can send them.
+     * The consumer must close the writer.
+     */
+    public void backupAccountChunked(int chunkSize, Consumer<ChunkedArchive.Writer> consume, Consumer<Exception> error) {
+        if (!accountExists()) throw new IllegalStateException("Cannot backup non existing account");
+
+        // flush all known persistence objects to disk
+        PersistenceManager.flushAllDataToDiskAtBackup(() -> {
+            try {
+                File dataDir = new File(config.appDataDir.getPath());
+                log.info("Archiving directory " + dataDir);
+                consume.accept(new ChunkedArchive.Writer(dataDir, chunkSize));
+            } catch (Exception ex) {
+                error.accept(ex);
+            }
+        });
+    }
+
     public void restoreAccount(InputStream inputStream, int bufferSize, Runnable onShutdown) throws Exception {
         if (accountExists()) throw new IllegalStateException("Cannot restore account if there is an existing account");
         File dataDir = new File(config.appDataDir.getPath());
-        ZipUtils.unzipToDir(dataDir, inputStream, bufferSize);
+
+        // detect backup format
+        BufferedInputStream bufferedStream = new BufferedInputStream(inputStream, bufferSize);
+        bufferedStream.mark(ChunkedArchive.MAGIC.length);
+        byte[] header = bufferedStream.readNBytes(ChunkedArchive.MAGIC.length);
+        bufferedStream.reset();
+        if (ChunkedArchive.isChunkedArchive(header)) ChunkedArchive.extractToDir(dataDir, bufferedStream);
+        else ZipUtils.unzipToDir(dataDir, bufferedStream, bufferSize);
         for (AccountServiceListener listener : listeners) listener.onAccountRestored(onShutdown);
     }
 
@@ -45,6 +45,8 @@ import bisq.common.crypto.IncorrectPasswordException;
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.FaultHandler;
 import bisq.common.handlers.ResultHandler;
+import bisq.common.taskrunner.TaskStatistics;
+import bisq.common.util.ChunkedArchive;
 
 import bisq.proto.grpc.NotificationMessage;
 
@@ -186,6 +188,10 @@ public class CoreApi {
         coreAccountService.backupAccount(bufferSize, consume, error);
     }
 
+    public void backupAccountChunked(int chunkSize, Consumer<ChunkedArchive.Writer> consume, Consumer<Exception> error) {
+        coreAccountService.backupAccountChunked(chunkSize, consume, error);
+    }
+
     public void restoreAccount(InputStream zipStream, int bufferSize, Runnable onShutdown) throws Exception {
         coreAccountService.restoreAccount(zipStream, bufferSize, onShutdown);
     }
@@ -383,6 +389,10 @@ public class CoreApi {
         coreDisputeService.sendDisputeChatMessage(disputeId, message, attachments);
     }
 
+    public InputStream openDisputeAttachment(byte[] hash) throws IOException {
+        return coreDisputeService.openDisputeAttachment(hash);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Dispute Agents
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -580,4 +590,12 @@ public class CoreApi {
     public void sendChatMessage(String tradeId, String message) {
         coreTradesService.sendChatMessage(tradeId, message);
     }
+
+    public List<TaskStatistics.TaskLatency> getTaskLatencies() {
+        return coreTradesService.getTaskLatencies();
+    }
+
+    public List<TaskStatistics.TaskTiming> getTaskTrace(String tradeId) {
+        return coreTradesService.getTaskTrace(tradeId);
+    }
 }
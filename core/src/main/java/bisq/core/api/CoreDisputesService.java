@@ -6,6 +6,7 @@ import bisq.core.offer.Offer;
 import bisq.core.offer.OfferDirection;
 import bisq.core.support.SupportType;
 import bisq.core.support.dispute.Attachment;
+import bisq.core.support.dispute.AttachmentStore;
 import bisq.core.support.dispute.Dispute;
 import bisq.core.support.dispute.DisputeManager;
 import bisq.core.support.dispute.DisputeResult;
@@ -29,6 +30,9 @@ import com.google.inject.name.Named;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -54,6 +58,7 @@ public class CoreDisputesService {
     }
 
     private final ArbitrationManager arbitrationManager;
+    private final AttachmentStore attachmentStore;
     private final CoinFormatter formatter;
     private final KeyRing keyRing;
     private final TradeManager tradeManager;
@@ -61,11 +66,13 @@ public class CoreDisputesService {
 
     @Inject
     public CoreDisputesService(ArbitrationManager arbitrationManager,
+                               AttachmentStore attachmentStore,
                                @Named(FormattingUtils.BTC_FORMATTER_KEY) CoinFormatter formatter, // TODO: XMR?
                                KeyRing keyRing,
                                TradeManager tradeManager,
                                XmrWalletService xmrWalletService) {
         this.arbitrationManager = arbitrationManager;
+        this.attachmentStore = attachmentStore;
         this.formatter = formatter;
         this.keyRing = keyRing;
         this.tradeManager = tradeManager;
@@ -298,4 +305,8 @@ public class CoreDisputesService {
         dispute.addAndPersistChatMessage(chatMessage);
         arbitrationManager.sendChatMessage(chatMessage);
     }
+
+    public InputStream openDisputeAttachment(byte[] hash) throws IOException {
+        return attachmentStore.openStream(hash);
+    }
 }
@@ -36,6 +36,7 @@ import bisq.core.util.validation.BtcAddressValidator;
 
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.ResultHandler;
+import bisq.common.taskrunner.TaskStatistics;
 import org.bitcoinj.core.Coin;
 
 import javax.inject.Inject;
@@ -265,6 +266,14 @@ class CoreTradesService {
         traderChatManager.sendChatMessage(chatMessage);
     }
 
+    List<TaskStatistics.TaskLatency> getTaskLatencies() {
+        return TaskStatistics.getTaskLatencies();
+    }
+
+    List<TaskStatistics.TaskTiming> getTaskTrace(String tradeId) {
+        return TaskStatistics.getTrace(tradeId);
+    }
+
     private boolean isFollowingBuyerProtocol(Trade trade) {
         return tradeManager.getTradeProtocol(trade) instanceof BuyerProtocol;
     }
@@ -29,6 +29,7 @@ import bisq.core.btc.model.AddressEntry;
 import bisq.core.btc.setup.WalletsSetup;
 import bisq.core.btc.wallet.BtcWalletService;
 import bisq.core.btc.wallet.WalletsManager;
+import bisq.core.btc.wallet.XmrWalletRpcMetrics;
 import bisq.core.btc.wallet.XmrWalletService;
 import bisq.core.user.Preferences;
 import bisq.core.util.FormattingUtils;
@@ -181,8 +182,12 @@ class CoreWalletsService {
         verifyWalletsAreAvailable();
         verifyEncryptedWalletIsUnlocked();
         try {
-            return xmrWalletService.getWallet().relayTx(metadata);
+            long ts = System.currentTimeMillis();
+            String txHash = xmrWalletService.getWallet().relayTx(metadata);
+            XmrWalletRpcMetrics.RELAY_TX.recordDuration(ts);
+            return txHash;
         } catch (Exception ex) {
+            XmrWalletRpcMetrics.RELAY_TX.recordFailure();
             log.error("", ex);
             throw new IllegalStateException(ex);
         }
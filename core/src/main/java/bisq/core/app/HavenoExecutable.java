@@ -39,17 +39,18 @@ import bisq.common.config.Config;
 import bisq.common.config.ConfigException;
 import bisq.common.crypto.IncorrectPasswordException;
 import bisq.common.handlers.ResultHandler;
+import bisq.common.persistence.PersistedDataLoader;
 import bisq.common.persistence.PersistenceManager;
 import bisq.common.proto.persistable.PersistedDataHost;
 import bisq.common.setup.CommonSetup;
 import bisq.common.setup.GracefulShutDownHandler;
 import bisq.common.setup.UncaughtExceptionHandler;
+import bisq.common.util.MemoryGovernor;
 import bisq.common.util.Utilities;
 
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -133,6 +134,7 @@ public abstract class HavenoExecutable implements GracefulShutDownHandler, Haven
     protected void onApplicationLaunched() {
         configUserThread();
         CommonSetup.printSystemLoadPeriodically(10);
+        MemoryGovernor.startPeriodicCheck(60);
         // As the handler method might be overwritten by subclasses and they use the application as handler
         // we need to setup the handler after the application is created.
         CommonSetup.setupUncaughtExceptionHandler(this);
@@ -224,14 +226,10 @@ public abstract class HavenoExecutable implements GracefulShutDownHandler, Haven
             hosts.addAll(additionalHosts);
         }
 
-        AtomicInteger remaining = new AtomicInteger(hosts.size());
-        hosts.forEach(host -> {
-            host.readPersisted(() -> {
-                if (remaining.decrementAndGet() == 0) {
-                    UserThread.execute(completeHandler);
-                }
-            });
-        });
+        PersistedDataLoader loader = new PersistedDataLoader("Persisted data");
+        hosts.forEach(loader::add);
+        CorePersistedDataHost.addDependencies(loader, injector);
+        loader.load(completeHandler);
     }
 
     protected void setupAvoidStandbyMode() {
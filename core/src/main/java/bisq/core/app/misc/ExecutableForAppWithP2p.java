@@ -35,6 +35,7 @@ import bisq.common.file.JsonFileManager;
 import bisq.common.handlers.ResultHandler;
 import bisq.common.persistence.PersistenceManager;
 import bisq.common.setup.GracefulShutDownHandler;
+import bisq.common.util.MemoryGovernor;
 import bisq.common.util.Profiler;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -199,35 +200,28 @@ public abstract class ExecutableForAppWithP2p extends HavenoExecutable {
 
     protected void checkMemory(Config config, GracefulShutDownHandler gracefulShutDownHandler) {
         int maxMemory = config.maxMemory;
+        MemoryGovernor.setMaxMemoryInMB(maxMemory);
         UserThread.runPeriodically(() -> {
             Profiler.printSystemLoad();
             if (!stopped) {
-                long usedMemoryInMB = Profiler.getUsedMemoryInMB();
-                double warningTrigger = maxMemory * 0.8;
-                if (usedMemoryInMB > warningTrigger) {
+                // We do not call the GC here. The governor uses the heap usage after the last collection, which is
+                // what we actually retain, and lets the stores drop caches or compact if we get close to the limit.
+                MemoryGovernor.Pressure pressure = MemoryGovernor.check();
+                long liveHeapInMB = MemoryGovernor.getLiveHeapInBytes() / 1024 / 1024;
+                if (pressure != MemoryGovernor.Pressure.NORMAL) {
                     log.warn("\n\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n" +
-                                    "We are over 80% of our memory limit ({}) and call the GC. usedMemory: {} MB. freeMemory: {} MB" +
+                                    "Memory pressure is {}. Live heap: {} MB. Memory limit: {} MB. Footprints: {}" +
                                     "\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n\n",
-                            (int) warningTrigger, usedMemoryInMB, Profiler.getFreeMemoryInMB());
-                    System.gc();
-                    Profiler.printSystemLoad();
+                            pressure, liveHeapInMB, maxMemory, MemoryGovernor.getFootprintsAsString());
                 }
 
-                UserThread.runAfter(() -> {
-                    log.info("Memory 2 sec. after calling the GC. usedMemory: {} MB. freeMemory: {} MB",
-                            Profiler.getUsedMemoryInMB(), Profiler.getFreeMemoryInMB());
-                }, 2);
-
-                UserThread.runAfter(() -> {
-                    long usedMemory = Profiler.getUsedMemoryInMB();
-                    if (usedMemory > maxMemory) {
-                        log.warn("\n\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n" +
-                                        "We are over our memory limit ({}) and trigger a shutdown. usedMemory: {} MB. freeMemory: {} MB" +
-                                        "\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n\n",
-                                maxMemory, usedMemory, Profiler.getFreeMemoryInMB());
-                        shutDown(gracefulShutDownHandler);
-                    }
-                }, 5);
+                if (liveHeapInMB > maxMemory) {
+                    log.warn("\n\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n" +
+                                    "We are over our memory limit ({}) and trigger a shutdown. Live heap: {} MB. freeMemory: {} MB" +
+                                    "\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n\n",
+                            maxMemory, liveHeapInMB, Profiler.getFreeMemoryInMB());
+                    shutDown(gracefulShutDownHandler);
+                }
             }
         }, CHECK_MEMORY_PERIOD_SEC);
     }
@@ -1,13 +1,27 @@
 package bisq.core.btc.wallet;
 
+import bisq.common.metrics.Counter;
+import bisq.common.metrics.MetricsRegistry;
+import bisq.common.util.LatencyHistogram;
+import bisq.common.util.Utilities;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import lombok.extern.slf4j.Slf4j;
 import monero.common.MoneroError;
@@ -17,23 +31,46 @@ import monero.daemon.model.MoneroKeyImageSpentStatus;
 
 /**
  * Poll for changes to the spent status of key images.
+ *
+ * Spent statuses can only change with a new block or a change of the tx pool, so each refresh period we only
+ * check the daemon height and the tx pool and query the key images if one of them changed. Key images which were
+ * added since the last query are queried at the next refresh period. Large sets of key images are queried in
+ * concurrent chunks.
  */
 @Slf4j
 public class MoneroKeyImagePoller {
+    private static final int CHUNK_SIZE = 100;
+    private static final int MAX_CONCURRENT_CHUNKS = 4;
+    private static final ListeningExecutorService CHUNK_EXECUTOR = Utilities.getListeningExecutorService(
+            "MoneroKeyImagePoller-%d", MAX_CONCURRENT_CHUNKS, MAX_CONCURRENT_CHUNKS, 60, new LinkedBlockingQueue<>());
+
+    // Exported by the MetricsRegistry, so they count the polls of all pollers
+    private static final MetricsRegistry REGISTRY = MetricsRegistry.getInstance();
+    private static final LatencyHistogram POLL_LATENCY = REGISTRY.histogram("xmr_key_image_poll_ms",
+            "Time to query the spent statuses of key images from the daemon");
+    private static final Counter NUM_POLLS = REGISTRY.counter("xmr_key_image_polls",
+            "Key image polls, including the ones skipped because the chain state did not change");
+    private static final Counter NUM_SKIPPED_POLLS = REGISTRY.counter("xmr_key_image_skipped_polls",
+            "Key image polls skipped because the chain state did not change");
+    private static final Counter NUM_QUERIED_KEY_IMAGES = REGISTRY.counter("xmr_key_image_queried",
+            "Key images queried from the daemon");
 
     private MoneroDaemon daemon;
     private long refreshPeriodMs;
-    private List<String> keyImages = new ArrayList<String>();
-    private Set<MoneroKeyImageListener> listeners = new HashSet<MoneroKeyImageListener>();
+    private final Set<String> keyImages = new LinkedHashSet<String>();
+    // Key images added since the last query
+    private final Set<String> uncheckedKeyImages = new HashSet<String>();
+    private Set<MoneroKeyImageListener> listeners = new CopyOnWriteArraySet<MoneroKeyImageListener>();
     private TaskLooper looper;
-    private Map<String, MoneroKeyImageSpentStatus> lastStatuses = new HashMap<String, MoneroKeyImageSpentStatus>();
+    private Map<String, MoneroKeyImageSpentStatus> lastStatuses = new ConcurrentHashMap<String, MoneroKeyImageSpentStatus>();
     private boolean isPolling = false;
 
+    // Chain state at the last successful query, null if we need to query all key images
+    private Long lastHeight;
+    private Set<String> lastTxPoolHashes;
+
     /**
      * Construct the listener.
-     * 
-     * @param refreshPeriodMs - refresh period in milliseconds
-     * @param keyImages - key images to listen to
      */
     public MoneroKeyImagePoller() {
         looper = new TaskLooper(() -> poll());
@@ -79,7 +116,11 @@ public class MoneroKeyImagePoller {
      * @param daemon - the daemon to fetch key images from
      */
     public void setDaemon(MoneroDaemon daemon) {
-        this.daemon = daemon;
+        synchronized (keyImages) {
+            this.daemon = daemon;
+            // The new daemon might be on another chain state, so we query all key images again
+            resetChainState();
+        }
     }
 
     /**
@@ -115,7 +156,9 @@ public class MoneroKeyImagePoller {
      * @return the key images to listen to
      */
     public Collection<String> getKeyImages() {
-        return new ArrayList<String>(keyImages);
+        synchronized (keyImages) {
+            return new ArrayList<String>(keyImages);
+        }
     }
 
     /**
@@ -126,6 +169,8 @@ public class MoneroKeyImagePoller {
     public void setKeyImages(String... keyImages) {
         synchronized (this.keyImages) {
             this.keyImages.clear();
+            this.uncheckedKeyImages.clear();
+            this.lastStatuses.clear();
             addKeyImages(keyImages);
         }
     }
@@ -155,7 +200,9 @@ public class MoneroKeyImagePoller {
      */
     public void addKeyImages(Collection<String> keyImages) {
         synchronized (this.keyImages) {
-            for (String keyImage : keyImages) if (!this.keyImages.contains(keyImage)) this.keyImages.add(keyImage);
+            for (String keyImage : keyImages) {
+                if (this.keyImages.add(keyImage)) uncheckedKeyImages.add(keyImage);
+            }
             refreshPolling();
         }
     }
@@ -185,10 +232,11 @@ public class MoneroKeyImagePoller {
      */
     public void removeKeyImages(Collection<String> keyImages) {
         synchronized (this.keyImages) {
-            Set<String> containedKeyImages = new HashSet<String>(keyImages);
-            containedKeyImages.retainAll(this.keyImages);
-            this.keyImages.removeAll(containedKeyImages);
-            for (String lastKeyImage : new HashSet<>(lastStatuses.keySet())) lastStatuses.remove(lastKeyImage);
+            for (String keyImage : keyImages) {
+                this.keyImages.remove(keyImage);
+                this.uncheckedKeyImages.remove(keyImage);
+                this.lastStatuses.remove(keyImage);
+            }
             refreshPolling();
         }
     }
@@ -200,8 +248,45 @@ public class MoneroKeyImagePoller {
      * @return true if the key is spent, false if unspent, null if unknown
      */
     public Boolean isSpent(String keyImage) {
-        if (!lastStatuses.containsKey(keyImage)) return null;
-        return lastStatuses.get(keyImage) != MoneroKeyImageSpentStatus.NOT_SPENT;
+        MoneroKeyImageSpentStatus status = lastStatuses.get(keyImage);
+        if (status == null) return null;
+        return status != MoneroKeyImageSpentStatus.NOT_SPENT;
+    }
+
+    /**
+     * Get the latency of the polls of all pollers which queried key images in milliseconds.
+     *
+     * @return the latency histogram
+     */
+    public static LatencyHistogram getPollLatency() {
+        return POLL_LATENCY;
+    }
+
+    /**
+     * Get the number of polls of all pollers, including the ones skipped because the chain state did not change.
+     *
+     * @return the number of polls
+     */
+    public static long getNumPolls() {
+        return NUM_POLLS.get();
+    }
+
+    /**
+     * Get the number of polls of all pollers skipped because the chain state did not change.
+     *
+     * @return the number of skipped polls
+     */
+    public static long getNumSkippedPolls() {
+        return NUM_SKIPPED_POLLS.get();
+    }
+
+    /**
+     * Get the total number of key images queried from the daemon by all pollers.
+     *
+     * @return the number of queried key images
+     */
+    public static long getNumQueriedKeyImages() {
+        return NUM_QUERIED_KEY_IMAGES.get();
     }
 
     public void poll() {
@@ -210,23 +295,43 @@ public class MoneroKeyImagePoller {
                 log.warn("Cannot poll key images because daemon is null");
                 return;
             }
+            NUM_POLLS.increment();
             try {
-                
+
+                // check if the chain state changed since the last query
+                long height = daemon.getHeight();
+                Set<String> txPoolHashes = new HashSet<String>(daemon.getTxPoolHashes());
+                boolean chainStateChanged = lastHeight == null || lastHeight != height || !txPoolHashes.equals(lastTxPoolHashes);
+                List<String> keyImagesToQuery = new ArrayList<String>(chainStateChanged ? keyImages : uncheckedKeyImages);
+                if (keyImagesToQuery.isEmpty()) {
+                    NUM_SKIPPED_POLLS.increment();
+                    lastHeight = height;
+                    lastTxPoolHashes = txPoolHashes;
+                    return;
+                }
+
                 // fetch spent statuses
-                List<MoneroKeyImageSpentStatus> spentStatuses = keyImages.isEmpty() ? new ArrayList<MoneroKeyImageSpentStatus>() : daemon.getKeyImageSpentStatuses(keyImages);
+                long ts = System.currentTimeMillis();
+                List<MoneroKeyImageSpentStatus> spentStatuses = getKeyImageSpentStatuses(keyImagesToQuery);
+                POLL_LATENCY.record(System.currentTimeMillis() - ts);
+                NUM_QUERIED_KEY_IMAGES.add(keyImagesToQuery.size());
+                lastHeight = height;
+                lastTxPoolHashes = txPoolHashes;
+                uncheckedKeyImages.clear();
 
                 // collect changed statuses
                 Map<String, MoneroKeyImageSpentStatus> changedStatuses = new HashMap<String, MoneroKeyImageSpentStatus>();
-                for (int i = 0; i < keyImages.size(); i++) {
-                    if (lastStatuses.get(keyImages.get(i)) != spentStatuses.get(i)) {
-                        lastStatuses.put(keyImages.get(i), spentStatuses.get(i));
-                        changedStatuses.put(keyImages.get(i), spentStatuses.get(i));
+                for (int i = 0; i < keyImagesToQuery.size(); i++) {
+                    String keyImage = keyImagesToQuery.get(i);
+                    if (lastStatuses.get(keyImage) != spentStatuses.get(i)) {
+                        lastStatuses.put(keyImage, spentStatuses.get(i));
+                        changedStatuses.put(keyImage, spentStatuses.get(i));
                     }
                 }
 
                 // announce changes
                 if (!changedStatuses.isEmpty()) {
-                    for (MoneroKeyImageListener listener : new ArrayList<MoneroKeyImageListener>(listeners)) {
+                    for (MoneroKeyImageListener listener : listeners) {
                         listener.onSpentStatusChanged(changedStatuses);
                     }
                 }
@@ -236,6 +341,26 @@ public class MoneroKeyImagePoller {
         }
     }
 
+    // Queries the statuses in chunks, the result is in the order of the given key images
+    private List<MoneroKeyImageSpentStatus> getKeyImageSpentStatuses(List<String> keyImages) throws Exception {
+        if (keyImages.size() <= CHUNK_SIZE) return daemon.getKeyImageSpentStatuses(keyImages);
+        MoneroDaemon daemon = this.daemon;
+        List<ListenableFuture<List<MoneroKeyImageSpentStatus>>> futures = new ArrayList<>();
+        for (List<String> chunk : Lists.partition(keyImages, CHUNK_SIZE)) {
+            futures.add(CHUNK_EXECUTOR.submit(() -> daemon.getKeyImageSpentStatuses(chunk)));
+        }
+        List<MoneroKeyImageSpentStatus> spentStatuses = new ArrayList<MoneroKeyImageSpentStatus>(keyImages.size());
+        for (List<MoneroKeyImageSpentStatus> chunkStatuses : Futures.allAsList(futures).get()) {
+            spentStatuses.addAll(chunkStatuses);
+        }
+        return spentStatuses;
+    }
+
+    private void resetChainState() {
+        lastHeight = null;
+        lastTxPoolHashes = null;
+    }
+
     private void refreshPolling() {
         setIsPolling(keyImages.size() > 0 && listeners.size() > 0);
     }
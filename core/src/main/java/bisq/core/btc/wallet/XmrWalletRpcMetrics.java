@@ -0,0 +1,55 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import bisq.common.metrics.Counter;
+import bisq.common.metrics.MetricsRegistry;
+import bisq.common.util.LatencyHistogram;
+
+/**
+ * Duration and failures of the long running monero wallet rpc calls.  The metrics of
+ * each operation are looked up once, so recording does not allocate.
+ */
+public enum XmrWalletRpcMetrics {
+    CREATE_TX("createTx"),
+    RELAY_TX("relayTx"),
+    SYNC_WALLET("syncWallet"),
+    SYNC_TRADE_WALLET("syncTradeWallet");
+
+    private final LatencyHistogram duration;
+    private final Counter failures;
+
+    XmrWalletRpcMetrics(String operation) {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        duration = registry.histogram("xmr_wallet_rpc_ms", "Duration of monero wallet rpc calls",
+                "operation", operation);
+        failures = registry.counter("xmr_wallet_rpc_failures", "Failed monero wallet rpc calls",
+                "operation", operation);
+    }
+
+    /**
+     * @param startTime Start time of the call as returned by System.currentTimeMillis()
+     */
+    public void recordDuration(long startTime) {
+        duration.record(System.currentTimeMillis() - startTime);
+    }
+
+    public void recordFailure() {
+        failures.increment();
+    }
+}
@@ -279,13 +279,16 @@ public class XmrWalletService {
     }
 
     public MoneroTxWallet createTx(List<MoneroDestination> destinations) {
+        long ts = System.currentTimeMillis();
         try {
             synchronized (wallet) {
                 MoneroTxWallet tx = wallet.createTx(new MoneroTxConfig().setAccountIndex(0).setDestinations(destinations).setRelay(false).setCanSplit(false));
                 //printTxs("XmrWalletService.createTx", tx);
+                XmrWalletRpcMetrics.CREATE_TX.recordDuration(ts);
                 return tx;
             }
         } catch (Exception e) {
+            XmrWalletRpcMetrics.CREATE_TX.recordFailure();
             throw e;
         }
     }
@@ -543,7 +546,14 @@ public class XmrWalletService {
         // wallet is not initialized until connected to a daemon
         if (wallet != null) {
             try {
-                wallet.sync(); // blocking
+                long ts = System.currentTimeMillis();
+                try {
+                    wallet.sync(); // blocking
+                } catch (Exception e) {
+                    XmrWalletRpcMetrics.SYNC_WALLET.recordFailure();
+                    throw e;
+                }
+                XmrWalletRpcMetrics.SYNC_WALLET.recordDuration(ts);
                 wallet.startSyncing(connectionsService.getDefaultRefreshPeriodMs()); // start syncing wallet in background
                 connectionsService.doneDownload(); // TODO: using this to signify both daemon and wallet synced, refactor sync handling of both
                 saveMainWallet(false); // skip backup on open
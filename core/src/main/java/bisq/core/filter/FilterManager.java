@@ -147,10 +147,8 @@ public class FilterManager {
             return;
         }
 
-        p2PService.getP2PDataStorage().getMap().values().stream()
-                .map(ProtectedStorageEntry::getProtectedStoragePayload)
-                .filter(protectedStoragePayload -> protectedStoragePayload instanceof Filter)
-                .map(protectedStoragePayload -> (Filter) protectedStoragePayload)
+        p2PService.getProtectedStorageEntries(Filter.class).stream()
+                .map(protectedStorageEntry -> (Filter) protectedStorageEntry.getProtectedStoragePayload())
                 .forEach(this::onFilterAddedFromNetwork);
 
         // On mainNet we expect to have received a filter object, if not show a popup to the user to inform the
@@ -159,7 +157,7 @@ public class FilterManager {
             filterWarningHandler.accept(Res.get("popup.warning.noFilter"));
         }
 
-        p2PService.addHashSetChangedListener(new HashMapChangedListener() {
+        p2PService.addHashSetChangedListener(Filter.class, new HashMapChangedListener() {
             @Override
             public void onAdded(Collection<ProtectedStorageEntry> protectedStorageEntries) {
                 protectedStorageEntries.stream()
@@ -30,11 +30,11 @@ import bisq.network.p2p.network.NetworkNode;
 import bisq.network.p2p.network.Statistic;
 import bisq.network.p2p.peers.PeerManager;
 import bisq.network.p2p.storage.P2PDataStorage;
-import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
 
 import bisq.common.app.Version;
 import bisq.common.config.Config;
 import bisq.common.proto.network.NetworkEnvelope;
+import bisq.common.util.MemoryGovernor;
 import bisq.common.util.Profiler;
 import bisq.common.util.Utilities;
 
@@ -85,10 +85,8 @@ public class GetInventoryRequestHandler implements MessageListener {
             p2PDataStorage.getMapForDataResponse(getInventoryRequest.getVersion()).values().stream()
                     .map(e -> e.getClass().getSimpleName())
                     .forEach(className -> addClassNameToMap(dataObjects, className));
-            p2PDataStorage.getMap().values().stream()
-                    .map(ProtectedStorageEntry::getProtectedStoragePayload)
-                    .map(e -> e.getClass().getSimpleName())
-                    .forEach(className -> addClassNameToMap(dataObjects, className));
+            p2PDataStorage.getNumEntriesByPayloadType().forEach((payloadClass, numEntries) ->
+                    addClassNameToMap(dataObjects, payloadClass.getSimpleName(), numEntries));
             Map<InventoryItem, String> inventory = new HashMap<>();
             dataObjects.forEach((key, value) -> inventory.put(key, String.valueOf(value)));
 
@@ -111,6 +109,12 @@ public class GetInventoryRequestHandler implements MessageListener {
             inventory.put(InventoryItem.version, Version.VERSION);
             inventory.put(InventoryItem.commitHash, RequestInfo.COMMIT_HASH);
             inventory.put(InventoryItem.usedMemory, String.valueOf(Profiler.getUsedMemoryInBytes()));
+            inventory.put(InventoryItem.liveHeapMemory, String.valueOf(MemoryGovernor.getLiveHeapInBytes()));
+            inventory.put(InventoryItem.memoryPressure, MemoryGovernor.getPressure().name());
+            inventory.put(InventoryItem.storeFootprints, Joiner.on("," + System.getProperty("line.separator"))
+                    .join(MemoryGovernor.getFootprints().entrySet().stream()
+                            .map(e -> e.getKey() + ": " + Utilities.readableFileSize(e.getValue()))
+                            .iterator()));
             inventory.put(InventoryItem.jvmStartTime, String.valueOf(ManagementFactory.getRuntimeMXBean().getStartTime()));
 
             Filter filter = filterManager.getFilter();
@@ -129,12 +133,16 @@ public class GetInventoryRequestHandler implements MessageListener {
     }
 
     private void addClassNameToMap(Map<InventoryItem, Integer> dataObjects, String className) {
+        addClassNameToMap(dataObjects, className, 1);
+    }
+
+    private void addClassNameToMap(Map<InventoryItem, Integer> dataObjects, String className, int count) {
         Optional<InventoryItem> optionalEnum = Enums.getIfPresent(InventoryItem.class, className);
         if (optionalEnum.isPresent()) {
             InventoryItem key = optionalEnum.get();
             dataObjects.putIfAbsent(key, 0);
             int prev = dataObjects.get(key);
-            dataObjects.put(key, prev + 1);
+            dataObjects.put(key, prev + count);
         }
     }
 }
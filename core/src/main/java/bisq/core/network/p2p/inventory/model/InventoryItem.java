@@ -94,6 +94,9 @@ public enum InventoryItem {
     version("version", false),
     commitHash("commitHash", false),
     usedMemory("usedMemory", true),
+    liveHeapMemory("liveHeapMemory", true),
+    memoryPressure("memoryPressure", false),
+    storeFootprints("storeFootprints", false),
     jvmStartTime("jvmStartTime", true),
     filteredSeeds("filteredSeeds", false);
 
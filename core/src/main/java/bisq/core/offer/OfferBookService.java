@@ -37,17 +37,22 @@ import bisq.common.config.Config;
 import bisq.common.file.JsonFileManager;
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.ResultHandler;
+import bisq.common.util.MemoryGovernor;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import java.io.File;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -70,8 +75,12 @@ public class OfferBookService {
     private final CoreMoneroConnectionsService connectionsService;
 
     private MoneroKeyImagePoller keyImagePoller;
+    private final Map<String, Set<String>> offerIdsByKeyImage = new HashMap<>();
+    private final Map<String, OfferPayload> offerPayloadsById = new HashMap<>();
     private static final long KEY_IMAGE_REFRESH_PERIOD_MS_LOCAL = 20000; // 20 seconds
     private static final long KEY_IMAGE_REFRESH_PERIOD_MS_REMOTE = 300000; // 5 minutes
+    // Offers change frequently, so we dump the offer statistics at most once in that interval
+    private static final long DUMP_STATISTICS_DELAY_SEC = 5;
 
     public interface OfferBookChangedListener {
         void onAdded(Offer offer);
@@ -100,41 +109,46 @@ public class OfferBookService {
         connectionsService.addListener(new MoneroConnectionManagerListener() {
             @Override
             public void onConnectionChanged(MoneroRpcConnection connection) {
+                if (keyImagePoller == null) return;
                 keyImagePoller.setDaemon(connectionsService.getDaemon());
                 keyImagePoller.setRefreshPeriodMs(getKeyImageRefreshPeriodMs());
             }
         });
 
         // listen for offers
-        p2PService.addHashSetChangedListener(new HashMapChangedListener() {
+        p2PService.addHashSetChangedListener(OfferPayload.class, new HashMapChangedListener() {
             @Override
             public void onAdded(Collection<ProtectedStorageEntry> protectedStorageEntries) {
-                protectedStorageEntries.forEach(protectedStorageEntry -> offerBookChangedListeners.forEach(listener -> {
+                protectedStorageEntries.forEach(protectedStorageEntry -> {
                     if (protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayload) {
                         maybeInitializeKeyImagePoller();
                         OfferPayload offerPayload = (OfferPayload) protectedStorageEntry.getProtectedStoragePayload();
-                        keyImagePoller.addKeyImages(offerPayload.getReserveTxKeyImages());
-                        Offer offer = new Offer(offerPayload);
-                        offer.setPriceFeedService(priceFeedService);
-                        setReservedFundsSpent(offer);
-                        listener.onAdded(offer);
+                        addToKeyImageIndex(offerPayload);
+                        offerBookChangedListeners.forEach(listener -> {
+                            Offer offer = new Offer(offerPayload);
+                            offer.setPriceFeedService(priceFeedService);
+                            setReservedFundsSpent(offer);
+                            listener.onAdded(offer);
+                        });
                     }
-                }));
+                });
             }
 
             @Override
             public void onRemoved(Collection<ProtectedStorageEntry> protectedStorageEntries) {
-                protectedStorageEntries.forEach(protectedStorageEntry -> offerBookChangedListeners.forEach(listener -> {
+                protectedStorageEntries.forEach(protectedStorageEntry -> {
                     if (protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayload) {
                         maybeInitializeKeyImagePoller();
                         OfferPayload offerPayload = (OfferPayload) protectedStorageEntry.getProtectedStoragePayload();
-                        keyImagePoller.removeKeyImages(offerPayload.getReserveTxKeyImages());
-                        Offer offer = new Offer(offerPayload);
-                        offer.setPriceFeedService(priceFeedService);
-                        setReservedFundsSpent(offer);
-                        listener.onRemoved(offer);
+                        offerBookChangedListeners.forEach(listener -> {
+                            Offer offer = new Offer(offerPayload);
+                            offer.setPriceFeedService(priceFeedService);
+                            setReservedFundsSpent(offer);
+                            listener.onRemoved(offer);
+                        });
+                        removeFromKeyImageIndex(offerPayload);
                     }
-                }));
+                });
             }
         });
 
@@ -145,15 +159,15 @@ public class OfferBookService {
                     addOfferBookChangedListener(new OfferBookChangedListener() {
                         @Override
                         public void onAdded(Offer offer) {
-                            doDumpStatistics();
+                            maybeDumpStatistics();
                         }
 
                         @Override
                         public void onRemoved(Offer offer) {
-                            doDumpStatistics();
+                            maybeDumpStatistics();
                         }
                     });
-                    UserThread.runAfter(OfferBookService.this::doDumpStatistics, 1);
+                    UserThread.runAfter(OfferBookService.this::maybeDumpStatistics, 1);
                 }
             });
         }
@@ -219,8 +233,7 @@ public class OfferBookService {
     }
 
     public List<Offer> getOffers() {
-        return p2PService.getDataMap().values().stream()
-                .filter(data -> data.getProtectedStoragePayload() instanceof OfferPayload)
+        return p2PService.getProtectedStorageEntries(OfferPayload.class).stream()
                 .map(data -> {
                     OfferPayload offerPayload = (OfferPayload) data.getProtectedStoragePayload();
                     Offer offer = new Offer(offerPayload);
@@ -261,17 +274,15 @@ public class OfferBookService {
             keyImagePoller.addListener(new MoneroKeyImageListener() {
                 @Override
                 public void onSpentStatusChanged(Map<String, MoneroKeyImageSpentStatus> spentStatuses) {
-                    for (String keyImage : spentStatuses.keySet()) {
-                        updateAffectedOffers(keyImage);
-                    }
+                    updateAffectedOffers(spentStatuses.keySet());
                 }
             });
-    
+
             // first poll after 5s
             new Thread(() -> {
                 GenUtils.waitFor(5000);
                 keyImagePoller.poll();
-            });
+            }).start();
         }
     }
 
@@ -279,15 +290,53 @@ public class OfferBookService {
         return connectionsService.isConnectionLocal() ? KEY_IMAGE_REFRESH_PERIOD_MS_LOCAL : KEY_IMAGE_REFRESH_PERIOD_MS_REMOTE;
     }
 
-    private void updateAffectedOffers(String keyImage) {
-        for (Offer offer : getOffers()) {
-            if (offer.getOfferPayload().getReserveTxKeyImages().contains(keyImage)) {
-                offerBookChangedListeners.forEach(listener -> {
-                    listener.onRemoved(offer);
-                    listener.onAdded(offer);
-                });
-            }
+    // Only the offers using one of the key images get updated
+    private void updateAffectedOffers(Collection<String> keyImages) {
+        List<OfferPayload> affectedOfferPayloads = new ArrayList<>();
+        synchronized (offerIdsByKeyImage) {
+            keyImages.stream()
+                    .map(offerIdsByKeyImage::get)
+                    .filter(Objects::nonNull)
+                    .flatMap(Set::stream)
+                    .distinct()
+                    .map(offerPayloadsById::get)
+                    .forEach(affectedOfferPayloads::add);
+        }
+        UserThread.execute(() -> affectedOfferPayloads.forEach(offerPayload -> offerBookChangedListeners.forEach(listener -> {
+            Offer offer = new Offer(offerPayload);
+            offer.setPriceFeedService(priceFeedService);
+            setReservedFundsSpent(offer);
+            listener.onRemoved(offer);
+            listener.onAdded(offer);
+        })));
+    }
+
+    private void addToKeyImageIndex(OfferPayload offerPayload) {
+        List<String> keyImages = offerPayload.getReserveTxKeyImages();
+        if (keyImages == null) return;
+        synchronized (offerIdsByKeyImage) {
+            offerPayloadsById.put(offerPayload.getId(), offerPayload);
+            keyImages.forEach(keyImage -> offerIdsByKeyImage.computeIfAbsent(keyImage, e -> new HashSet<>()).add(offerPayload.getId()));
         }
+        keyImagePoller.addKeyImages(keyImages);
+    }
+
+    // The key images are only unlistened once no other offer uses them
+    private void removeFromKeyImageIndex(OfferPayload offerPayload) {
+        List<String> keyImages = offerPayload.getReserveTxKeyImages();
+        if (keyImages == null) return;
+        List<String> unusedKeyImages = new ArrayList<>();
+        synchronized (offerIdsByKeyImage) {
+            offerPayloadsById.remove(offerPayload.getId());
+            keyImages.forEach(keyImage -> {
+                Set<String> offerIds = offerIdsByKeyImage.get(keyImage);
+                if (offerIds != null && offerIds.remove(offerPayload.getId()) && offerIds.isEmpty()) {
+                    offerIdsByKeyImage.remove(keyImage);
+                    unusedKeyImages.add(keyImage);
+                }
+            });
+        }
+        keyImagePoller.removeKeyImages(unusedKeyImages);
     }
 
     private void setReservedFundsSpent(Offer offer) {
@@ -299,7 +348,18 @@ public class OfferBookService {
         }
     }
 
-    private void doDumpStatistics() {
+    // Offers get added and removed in bursts, so we coalesce the dumps
+    private void maybeDumpStatistics() {
+        jsonFileManager.writeToDiscDebounced(this::getOffersForJsonWriter, "offers_statistics", DUMP_STATISTICS_DELAY_SEC);
+    }
+
+    @Nullable
+    private JsonFileManager.JsonContentWriter getOffersForJsonWriter() {
+        if (!MemoryGovernor.isLowPriorityWorkAllowed()) {
+            log.info("We skip dumping the offers as memory pressure is critical");
+            return null;
+        }
+
         // We filter the case that it is a MarketBasedPrice but the price is not available
         // That should only be possible if the price feed provider is not available
         final List<OfferForJson> offerForJsonList = getOffers().stream()
@@ -324,6 +384,6 @@ public class OfferBookService {
                 })
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
-        jsonFileManager.writeToDiscThreaded(JsonUtil.objectToJson(offerForJsonList), "offers_statistics");
+        return writer -> JsonUtil.writeJson(offerForJsonList, writer);
     }
 }
@@ -22,6 +22,11 @@ import bisq.core.trade.Tradable;
 import bisq.common.Timer;
 import bisq.common.UserThread;
 import bisq.common.proto.ProtoUtil;
+
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -85,6 +90,7 @@ public final class OpenOffer implements Tradable {
     @Getter
     @Setter
     transient private long mempoolStatus = -1;
+    transient private final ObjectProperty<State> stateProperty = new SimpleObjectProperty<>();
 
     public OpenOffer(Offer offer) {
         this(offer, 0, false);
@@ -99,6 +105,7 @@ public final class OpenOffer implements Tradable {
         this.triggerPrice = triggerPrice;
         this.autoSplit = autoSplit;
         state = State.SCHEDULED;
+        stateProperty.set(state);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -116,6 +123,7 @@ public final class OpenOffer implements Tradable {
                       @Nullable String reserveTxKey) {
         this.offer = offer;
         this.state = state;
+        stateProperty.set(state);
         this.triggerPrice = triggerPrice;
         this.autoSplit = autoSplit;
         this.scheduledTxHashes = scheduledTxHashes;
@@ -179,6 +187,7 @@ public final class OpenOffer implements Tradable {
 
     public void setState(State state) {
         this.state = state;
+        stateProperty.set(state);
 
         // We keep it reserved for a limited time, if trade preparation fails we revert to available state
         if (this.state == State.RESERVED) { // TODO (woodser): remove this?
@@ -188,6 +197,10 @@ public final class OpenOffer implements Tradable {
         }
     }
 
+    public ReadOnlyObjectProperty<State> stateProperty() {
+        return stateProperty;
+    }
+
     public boolean isDeactivated() {
         return state == State.DEACTIVATED;
     }
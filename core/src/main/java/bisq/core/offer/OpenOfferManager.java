@@ -72,6 +72,8 @@ import bisq.common.proto.persistable.PersistedDataHost;
 import bisq.common.util.Tuple2;
 import org.bitcoinj.core.Coin;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import javax.inject.Inject;
 
 import javafx.collections.FXCollections;
@@ -79,12 +81,12 @@ import javafx.collections.ObservableList;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -134,6 +136,9 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     private final PersistenceManager<SignedOfferList> signedOfferPersistenceManager;
     private final Map<String, PlaceOfferProtocol> placeOfferProtocols = new HashMap<String, PlaceOfferProtocol>();
     private BigInteger lastUnlockedBalance;
+    // Calls to process the unposted offers which wait for the running one to complete
+    private final List<Runnable> pendingProcessUnpostedOffersCalls = new ArrayList<>();
+    private boolean processingUnpostedOffers;
     private boolean stopped;
     private Timer periodicRepublishOffersTimer, periodicRefreshOffersTimer, retryRepublishOffersTimer;
     @Getter
@@ -658,7 +663,8 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         }
     }
 
-    private void addOpenOffer(OpenOffer openOffer) {
+    @VisibleForTesting
+    void addOpenOffer(OpenOffer openOffer) {
         synchronized (openOffers) {
             openOffers.add(openOffer);
         }
@@ -680,31 +686,56 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     // Place offer helpers
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private void processUnpostedOffers(TransactionResultHandler resultHandler, // TODO (woodser): transaction not needed with result handler
-                                       ErrorMessageHandler errorMessageHandler) {
-        new Thread(() -> {
-            List<String> errorMessages = new ArrayList<String>();
-            List<OpenOffer> openOffers = getOpenOffers();
-            for (OpenOffer scheduledOffer : openOffers) {
-                if (scheduledOffer.getState() != OpenOffer.State.SCHEDULED) continue;
-                CountDownLatch latch = new CountDownLatch(1);
-                processUnpostedOffer(openOffers, scheduledOffer, (transaction) -> {
-                    latch.countDown();
-                }, errorMessage -> {
-                    onRemoved(scheduledOffer);
-                    errorMessages.add(errorMessage);
-                    latch.countDown();
-                });
-                HavenoUtils.awaitLatch(latch);
+    // The offers are processed one after the other by chaining the processing of the next offer to the result of the
+    // previous one, so no trade executor thread is blocked while waiting for another task on the same pool.
+    @VisibleForTesting
+    void processUnpostedOffers(TransactionResultHandler resultHandler, // TODO (woodser): transaction not needed with result handler
+                               ErrorMessageHandler errorMessageHandler) {
+        synchronized (pendingProcessUnpostedOffersCalls) {
+            if (processingUnpostedOffers) {
+                pendingProcessUnpostedOffersCalls.add(() -> processUnpostedOffers(resultHandler, errorMessageHandler));
+                return;
             }
+            processingUnpostedOffers = true;
+        }
+        List<OpenOffer> openOffers = getOpenOffers();
+        processNextUnpostedOffer(openOffers, openOffers.iterator(), new ArrayList<String>(), resultHandler, errorMessageHandler);
+    }
+
+    private void processNextUnpostedOffer(List<OpenOffer> openOffers,
+                                          Iterator<OpenOffer> iterator,
+                                          List<String> errorMessages,
+                                          TransactionResultHandler resultHandler,
+                                          ErrorMessageHandler errorMessageHandler) {
+        while (iterator.hasNext()) {
+            OpenOffer scheduledOffer = iterator.next();
+            if (scheduledOffer.getState() != OpenOffer.State.SCHEDULED) continue;
+            processUnpostedOffer(openOffers, scheduledOffer, (transaction) -> {
+                processNextUnpostedOffer(openOffers, iterator, errorMessages, resultHandler, errorMessageHandler);
+            }, errorMessage -> {
+                onRemoved(scheduledOffer);
+                errorMessages.add(errorMessage);
+                processNextUnpostedOffer(openOffers, iterator, errorMessages, resultHandler, errorMessageHandler);
+            });
+            return;
+        }
+
+        try {
             requestPersistence();
             if (errorMessages.size() > 0) errorMessageHandler.handleErrorMessage(errorMessages.toString());
             else resultHandler.handleResult(null);
-        }).start();
+        } finally {
+            Runnable nextCall = null;
+            synchronized (pendingProcessUnpostedOffersCalls) {
+                processingUnpostedOffers = false;
+                if (!pendingProcessUnpostedOffersCalls.isEmpty()) nextCall = pendingProcessUnpostedOffersCalls.remove(0);
+            }
+            if (nextCall != null) nextCall.run();
+        }
     }
 
     private void processUnpostedOffer(List<OpenOffer> openOffers, OpenOffer openOffer, TransactionResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
-        new Thread(() -> {
+        HavenoUtils.submitToTradeThread(openOffer.getId(), () -> {
             try {
 
                 // done processing if wallet not initialized
@@ -771,7 +802,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
                 e.printStackTrace();
                 errorMessageHandler.handleErrorMessage(e.getMessage());
             }
-        }).start();
+        });
     }
 
     private BigInteger getScheduledAmount(List<OpenOffer> openOffers) {
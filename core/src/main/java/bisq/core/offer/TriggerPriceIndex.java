@@ -0,0 +1,93 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.core.offer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Open offers of one currency sorted by their trigger price. Offers which get deactivated if the market price falls
+ * below the trigger price and offers which get deactivated if it rises above are kept in separate maps, so the offers
+ * triggered by a market price are found with a range lookup instead of checking every offer.
+ * Offers are identified by their ID as the hashCode of OpenOffer changes with its state.
+ */
+class TriggerPriceIndex {
+    private final NavigableMap<Long, Map<String, OpenOffer>> triggeredBelow = new TreeMap<>();
+    private final NavigableMap<Long, Map<String, OpenOffer>> triggeredAbove = new TreeMap<>();
+    private final Map<String, Long> triggerPriceById = new HashMap<>();
+
+    /**
+     * @param triggeredBelowTriggerPrice    True if the offer gets triggered by a market price below its trigger price
+     */
+    void add(OpenOffer openOffer, boolean triggeredBelowTriggerPrice) {
+        long triggerPrice = openOffer.getTriggerPrice();
+        if (triggerPrice <= 0 || triggerPriceById.containsKey(openOffer.getId())) {
+            return;
+        }
+
+        NavigableMap<Long, Map<String, OpenOffer>> map = triggeredBelowTriggerPrice ? triggeredBelow : triggeredAbove;
+        map.computeIfAbsent(triggerPrice, e -> new LinkedHashMap<>()).put(openOffer.getId(), openOffer);
+        // We store the sign with the trigger price so remove does not need to look up the direction again
+        triggerPriceById.put(openOffer.getId(), triggeredBelowTriggerPrice ? triggerPrice : -triggerPrice);
+    }
+
+    void remove(OpenOffer openOffer) {
+        Long signedTriggerPrice = triggerPriceById.remove(openOffer.getId());
+        if (signedTriggerPrice == null) {
+            return;
+        }
+
+        NavigableMap<Long, Map<String, OpenOffer>> map = signedTriggerPrice > 0 ? triggeredBelow : triggeredAbove;
+        long triggerPrice = Math.abs(signedTriggerPrice);
+        Map<String, OpenOffer> openOffers = map.get(triggerPrice);
+        if (openOffers != null) {
+            openOffers.remove(openOffer.getId());
+            if (openOffers.isEmpty()) {
+                map.remove(triggerPrice);
+            }
+        }
+    }
+
+    /**
+     * @return All offers whose trigger price is crossed by the given market price
+     */
+    List<OpenOffer> getTriggered(long marketPriceAsLong) {
+        List<OpenOffer> result = new ArrayList<>();
+        triggeredBelow.tailMap(marketPriceAsLong, false).values().forEach(map -> result.addAll(map.values()));
+        triggeredAbove.headMap(marketPriceAsLong, false).values().forEach(map -> result.addAll(map.values()));
+        return result;
+    }
+
+    boolean contains(OpenOffer openOffer) {
+        return triggerPriceById.containsKey(openOffer.getId());
+    }
+
+    boolean isEmpty() {
+        return triggerPriceById.isEmpty();
+    }
+
+    int size() {
+        return triggerPriceById.size();
+    }
+}
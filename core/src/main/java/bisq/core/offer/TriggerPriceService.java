@@ -31,17 +31,20 @@ import bisq.common.util.MathUtils;
 
 import org.bitcoinj.utils.Fiat;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import javafx.beans.value.ChangeListener;
+
 import javafx.collections.ListChangeListener;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -55,7 +58,11 @@ public class TriggerPriceService {
     private final OpenOfferManager openOfferManager;
     private final MempoolService mempoolService;
     private final PriceFeedService priceFeedService;
-    private final Map<String, Set<OpenOffer>> openOffersByCurrency = new HashMap<>();
+    // Only offers which are available, scheduled or reserved and have a trigger price are indexed
+    private final Map<String, TriggerPriceIndex> triggerPriceIndexByCurrency = new HashMap<>();
+    // Offers whose maker tx has not been validated yet by the mempool service
+    private final Map<String, OpenOffer> pendingMempoolValidationById = new LinkedHashMap<>();
+    private final Map<String, ChangeListener<OpenOffer.State>> stateListenerById = new HashMap<>();
 
     @Inject
     public TriggerPriceService(P2PService p2PService,
@@ -98,15 +105,21 @@ public class TriggerPriceService {
     }
 
     private void onPriceFeedChanged() {
-        openOffersByCurrency.keySet().stream()
-                .map(priceFeedService::getMarketPrice)
-                .filter(Objects::nonNull)
-                .filter(marketPrice -> openOffersByCurrency.containsKey(marketPrice.getCurrencyCode()))
-                .forEach(marketPrice -> {
-                    openOffersByCurrency.get(marketPrice.getCurrencyCode()).stream()
-                            .filter(openOffer -> !openOffer.isDeactivated())
-                            .forEach(openOffer -> checkPriceThreshold(marketPrice, openOffer));
-                });
+        // We only look up the offers whose trigger price is crossed by the new market price
+        new ArrayList<>(triggerPriceIndexByCurrency.entrySet()).forEach(entry -> {
+            MarketPrice marketPrice = priceFeedService.getMarketPrice(entry.getKey());
+            if (marketPrice != null) {
+                entry.getValue().getTriggered(getMarketPriceAsLong(marketPrice, entry.getKey()))
+                        .forEach(openOffer -> deactivateIfTriggered(marketPrice, openOffer));
+            }
+        });
+
+        new ArrayList<>(pendingMempoolValidationById.values()).forEach(openOffer -> {
+            MarketPrice marketPrice = priceFeedService.getMarketPrice(openOffer.getOffer().getCurrencyCode());
+            if (marketPrice != null && !wasTriggered(marketPrice, openOffer)) {
+                checkMempoolStatus(openOffer);
+            }
+        });
     }
 
     public static boolean wasTriggered(MarketPrice marketPrice, OpenOffer openOffer) {
@@ -116,26 +129,37 @@ public class TriggerPriceService {
         }
 
         String currencyCode = openOffer.getOffer().getCurrencyCode();
-        boolean cryptoCurrency = CurrencyUtil.isCryptoCurrency(currencyCode);
-        int smallestUnitExponent = cryptoCurrency ?
-                Altcoin.SMALLEST_UNIT_EXPONENT :
-                Fiat.SMALLEST_UNIT_EXPONENT;
-        long marketPriceAsLong = roundDoubleToLong(
-                scaleUpByPowerOf10(marketPrice.getPrice(), smallestUnitExponent));
+        long marketPriceAsLong = getMarketPriceAsLong(marketPrice, currencyCode);
         long triggerPrice = openOffer.getTriggerPrice();
         if (triggerPrice <= 0) {
             return false;
         }
 
-        OfferDirection direction = openOffer.getOffer().getDirection();
-        boolean isSellOffer = direction == OfferDirection.SELL;
-        boolean condition = isSellOffer && !cryptoCurrency || !isSellOffer && cryptoCurrency;
-        return condition ?
+        return isTriggeredBelowTriggerPrice(openOffer) ?
                 marketPriceAsLong < triggerPrice :
                 marketPriceAsLong > triggerPrice;
     }
 
+    private static boolean isTriggeredBelowTriggerPrice(OpenOffer openOffer) {
+        boolean cryptoCurrency = CurrencyUtil.isCryptoCurrency(openOffer.getOffer().getCurrencyCode());
+        boolean isSellOffer = openOffer.getOffer().getDirection() == OfferDirection.SELL;
+        return isSellOffer && !cryptoCurrency || !isSellOffer && cryptoCurrency;
+    }
+
+    private static long getMarketPriceAsLong(MarketPrice marketPrice, String currencyCode) {
+        int smallestUnitExponent = CurrencyUtil.isCryptoCurrency(currencyCode) ?
+                Altcoin.SMALLEST_UNIT_EXPONENT :
+                Fiat.SMALLEST_UNIT_EXPONENT;
+        return roundDoubleToLong(scaleUpByPowerOf10(marketPrice.getPrice(), smallestUnitExponent));
+    }
+
     private void checkPriceThreshold(MarketPrice marketPrice, OpenOffer openOffer) {
+        if (!deactivateIfTriggered(marketPrice, openOffer)) {
+            checkMempoolStatus(openOffer);
+        }
+    }
+
+    private boolean deactivateIfTriggered(MarketPrice marketPrice, OpenOffer openOffer) {
         if (wasTriggered(marketPrice, openOffer)) {
             String currencyCode = openOffer.getOffer().getCurrencyCode();
             int smallestUnitExponent = CurrencyUtil.isCryptoCurrency(currencyCode) ?
@@ -156,7 +180,18 @@ public class TriggerPriceService {
             openOfferManager.deactivateOpenOffer(openOffer, () -> {
             }, errorMessage -> {
             });
-        } else if (openOffer.getState() == OpenOffer.State.AVAILABLE) {
+            return true;
+        }
+        return false;
+    }
+
+    private void checkMempoolStatus(OpenOffer openOffer) {
+        if (openOffer.getMempoolStatus() == 1) {
+            pendingMempoolValidationById.remove(openOffer.getId());
+            return;
+        }
+
+        if (openOffer.getState() == OpenOffer.State.AVAILABLE) {
             // check the mempool if it has not been done before
             if (openOffer.getMempoolStatus() < 0 && mempoolService.canRequestBeMade(openOffer.getOffer().getOfferPayload())) {
                 mempoolService.validateOfferMakerTx(openOffer.getOffer().getOfferPayload(), (txValidator -> {
@@ -175,9 +210,32 @@ public class TriggerPriceService {
 
     private void onAddedOpenOffers(List<? extends OpenOffer> openOffers) {
         openOffers.forEach(openOffer -> {
-            String currencyCode = openOffer.getOffer().getCurrencyCode();
-            openOffersByCurrency.putIfAbsent(currencyCode, new HashSet<>());
-            openOffersByCurrency.get(currencyCode).add(openOffer);
+            if (stateListenerById.containsKey(openOffer.getId())) {
+                return;
+            }
+
+            // Only offers which can still be taken are indexed, so we update the index when an offer gets (re)activated,
+            // deactivated or closed. A reserved offer stays indexed as it becomes available again if the trade fails.
+            ChangeListener<OpenOffer.State> stateListener = (observable, oldValue, newValue) -> {
+                if (newValue == OpenOffer.State.AVAILABLE || newValue == OpenOffer.State.SCHEDULED) {
+                    addToIndex(openOffer);
+                    MarketPrice marketPrice = priceFeedService.getMarketPrice(openOffer.getOffer().getCurrencyCode());
+                    if (marketPrice != null) {
+                        deactivateIfTriggered(marketPrice, openOffer);
+                    }
+                } else if (newValue != OpenOffer.State.RESERVED) {
+                    removeFromIndex(openOffer);
+                }
+            };
+            stateListenerById.put(openOffer.getId(), stateListener);
+            openOffer.stateProperty().addListener(stateListener);
+
+            if (canBeIndexed(openOffer.getState())) {
+                addToIndex(openOffer);
+            }
+            if (openOffer.getMempoolStatus() != 1) {
+                pendingMempoolValidationById.put(openOffer.getId(), openOffer);
+            }
 
             MarketPrice marketPrice = priceFeedService.getMarketPrice(openOffer.getOffer().getCurrencyCode());
             if (marketPrice != null) {
@@ -188,14 +246,40 @@ public class TriggerPriceService {
 
     private void onRemovedOpenOffers(List<? extends OpenOffer> openOffers) {
         openOffers.forEach(openOffer -> {
-            String currencyCode = openOffer.getOffer().getCurrencyCode();
-            if (openOffersByCurrency.containsKey(currencyCode)) {
-                Set<OpenOffer> set = openOffersByCurrency.get(currencyCode);
-                set.remove(openOffer);
-                if (set.isEmpty()) {
-                    openOffersByCurrency.remove(currencyCode);
-                }
+            ChangeListener<OpenOffer.State> stateListener = stateListenerById.remove(openOffer.getId());
+            if (stateListener != null) {
+                openOffer.stateProperty().removeListener(stateListener);
             }
+            removeFromIndex(openOffer);
+            pendingMempoolValidationById.remove(openOffer.getId());
         });
     }
+
+    private static boolean canBeIndexed(OpenOffer.State state) {
+        return state == OpenOffer.State.AVAILABLE || state == OpenOffer.State.SCHEDULED || state == OpenOffer.State.RESERVED;
+    }
+
+    @VisibleForTesting
+    boolean isIndexed(OpenOffer openOffer) {
+        TriggerPriceIndex index = triggerPriceIndexByCurrency.get(openOffer.getOffer().getCurrencyCode());
+        return index != null && index.contains(openOffer);
+    }
+
+    private void addToIndex(OpenOffer openOffer) {
+        if (openOffer.getTriggerPrice() > 0) {
+            triggerPriceIndexByCurrency.computeIfAbsent(openOffer.getOffer().getCurrencyCode(), e -> new TriggerPriceIndex())
+                    .add(openOffer, isTriggeredBelowTriggerPrice(openOffer));
+        }
+    }
+
+    private void removeFromIndex(OpenOffer openOffer) {
+        String currencyCode = openOffer.getOffer().getCurrencyCode();
+        TriggerPriceIndex index = triggerPriceIndexByCurrency.get(currencyCode);
+        if (index != null) {
+            index.remove(openOffer);
+            if (index.isEmpty()) {
+                triggerPriceIndexByCurrency.remove(currencyCode);
+            }
+        }
+    }
 }
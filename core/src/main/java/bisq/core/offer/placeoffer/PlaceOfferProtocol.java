@@ -74,6 +74,8 @@ public class PlaceOfferProtocol {
                     handleError(errorMessage);
                 }
         );
+        taskRunner.setTraceId(model.getOffer().getId());
+        taskRunner.setPhase("PLACE_OFFER");
         taskRunner.addTasks(
                 ValidateOffer.class,
                 MakerReserveOfferFunds.class,
@@ -123,6 +125,8 @@ public class PlaceOfferProtocol {
                   handleError(errorMessage);
               }
       );
+      taskRunner.setTraceId(model.getOffer().getId());
+      taskRunner.setPhase("PLACE_OFFER");
       taskRunner.addTasks(
               MakerProcessSignOfferResponse.class,
               AddToOfferBook.class
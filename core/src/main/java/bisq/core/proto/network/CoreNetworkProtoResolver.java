@@ -61,6 +61,8 @@ import bisq.network.p2p.peers.peerexchange.messages.GetPeersRequest;
 import bisq.network.p2p.peers.peerexchange.messages.GetPeersResponse;
 import bisq.network.p2p.storage.messages.AddDataMessage;
 import bisq.network.p2p.storage.messages.AddPersistableNetworkPayloadMessage;
+import bisq.network.p2p.storage.messages.GetAnnouncedPayloadsRequest;
+import bisq.network.p2p.storage.messages.PayloadAnnouncementMessage;
 import bisq.network.p2p.storage.messages.RefreshOfferMessage;
 import bisq.network.p2p.storage.messages.RemoveDataMessage;
 import bisq.network.p2p.storage.messages.RemoveMailboxDataMessage;
@@ -191,6 +193,11 @@ public class CoreNetworkProtoResolver extends CoreProtoResolver implements Netwo
                 case GET_INVENTORY_RESPONSE:
                     return GetInventoryResponse.fromProto(proto.getGetInventoryResponse(), messageVersion);
 
+                case PAYLOAD_ANNOUNCEMENT_MESSAGE:
+                    return PayloadAnnouncementMessage.fromProto(proto.getPayloadAnnouncementMessage(), messageVersion);
+                case GET_ANNOUNCED_PAYLOADS_REQUEST:
+                    return GetAnnouncedPayloadsRequest.fromProto(proto.getGetAnnouncedPayloadsRequest(), messageVersion);
+
                 default:
                     throw new ProtobufferException("Unknown proto message case (PB.NetworkEnvelope). messageCase=" +
                             proto.getMessageCase() + "; proto raw data=" + proto.toString());
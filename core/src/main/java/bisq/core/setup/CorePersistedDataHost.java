@@ -35,6 +35,7 @@ import bisq.network.p2p.peers.PeerManager;
 import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.persistence.RemovedPayloadsService;
 
+import bisq.common.persistence.PersistedDataLoader;
 import bisq.common.proto.persistable.PersistedDataHost;
 
 import com.google.inject.Injector;
@@ -70,4 +71,11 @@ public class CorePersistedDataHost {
 
         return persistedDataHosts;
     }
+
+    // Hosts which use the data of other hosts when they get read need to declare it here. All others are read in
+    // parallel.
+    public static void addDependencies(PersistedDataLoader loader, Injector injector) {
+        // The persisted mailbox messages get added to the map of the P2PDataStorage
+        loader.addDependency(injector.getInstance(MailboxMessageService.class), injector.getInstance(P2PDataStorage.class));
+    }
 }
@@ -20,6 +20,7 @@ package bisq.core.support;
 import bisq.core.api.CoreMoneroConnectionsService;
 import bisq.core.api.CoreNotificationService;
 import bisq.core.locale.Res;
+import bisq.core.support.dispute.Attachment;
 import bisq.core.support.messages.ChatMessage;
 import bisq.core.support.messages.SupportMessage;
 
@@ -39,6 +40,7 @@ import bisq.common.proto.network.NetworkEnvelope;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import lombok.extern.slf4j.Slf4j;
@@ -112,6 +114,18 @@ public abstract class SupportManager {
 
     public abstract void requestPersistence();
 
+    // Overridden by support managers which index their chat messages by uid
+    protected Optional<ChatMessage> findChatMessage(String uid) {
+        return getAllChatMessages().stream()
+                .filter(msg -> msg.getUid().equals(uid))
+                .findAny();
+    }
+
+    // Overridden by support managers which keep the attachment bytes in an AttachmentStore
+    public Optional<byte[]> getAttachmentBytes(Attachment attachment) {
+        return Optional.ofNullable(attachment.getBytes());
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Delegates p2pService
@@ -183,14 +197,12 @@ public abstract class SupportManager {
                         ackMessage.getSourceMsgClassName(), ackMessage.getSourceId(), ackMessage.getErrorMessage());
             }
 
-            getAllChatMessages().stream()
-                    .filter(msg -> msg.getUid().equals(ackMessage.getSourceUid()))
-                    .forEach(msg -> {
-                        if (ackMessage.isSuccess())
-                            msg.setAcknowledged(true);
-                        else
-                            msg.setAckError(ackMessage.getErrorMessage());
-                    });
+            findChatMessage(ackMessage.getSourceUid()).ifPresent(msg -> {
+                if (ackMessage.isSuccess())
+                    msg.setAcknowledged(true);
+                else
+                    msg.setAckError(ackMessage.getErrorMessage());
+            });
             requestPersistence();
         }
     }
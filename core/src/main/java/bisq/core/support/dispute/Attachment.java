@@ -17,31 +17,66 @@
 
 package bisq.core.support.dispute;
 
+import bisq.common.crypto.Hash;
 import bisq.common.proto.network.NetworkPayload;
 
 import com.google.protobuf.ByteString;
 
 import lombok.Value;
 
+import javax.annotation.Nullable;
+
+/**
+ * Attachment of a chat message. Attachments of disputes are moved to the {@link AttachmentStore} once received or
+ * sent, so the chat message only keeps a reference by the hash of the bytes.
+ */
 @Value
 public final class Attachment implements NetworkPayload {
     private final String fileName;
+    // Null if the bytes are held in the AttachmentStore
+    @Nullable
     private final byte[] bytes;
+    private final byte[] hash;
+    private final long size;
 
     public Attachment(String fileName, byte[] bytes) {
+        this(fileName, bytes, Hash.getSha256Hash(bytes), bytes.length);
+    }
+
+    private Attachment(String fileName, @Nullable byte[] bytes, byte[] hash, long size) {
         this.fileName = fileName;
         this.bytes = bytes;
+        this.hash = hash;
+        this.size = size;
+    }
+
+    // Returns the attachment without bytes, used once the bytes are held in the AttachmentStore
+    public Attachment toStoredAttachment() {
+        return new Attachment(fileName, null, hash, size);
+    }
+
+    public boolean isStored() {
+        return bytes == null;
     }
 
     @Override
     public protobuf.Attachment toProtoMessage() {
-        return protobuf.Attachment.newBuilder()
+        protobuf.Attachment.Builder builder = protobuf.Attachment.newBuilder()
                 .setFileName(fileName)
-                .setBytes(ByteString.copyFrom(bytes))
-                .build();
+                .setHash(ByteString.copyFrom(hash))
+                .setSize(size)
+                .setStored(bytes == null);
+        if (bytes != null) {
+            builder.setBytes(ByteString.copyFrom(bytes));
+        }
+        return builder.build();
     }
 
     public static Attachment fromProto(protobuf.Attachment proto) {
+        // An empty file is sent with empty bytes, so only the flag tells that the bytes are held in the AttachmentStore
+        if (proto.getStored()) {
+            return new Attachment(proto.getFileName(), null, proto.getHash().toByteArray(), proto.getSize());
+        }
         return new Attachment(proto.getFileName(), proto.getBytes().toByteArray());
     }
 }
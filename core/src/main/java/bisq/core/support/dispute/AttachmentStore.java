@@ -0,0 +1,133 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.core.support.dispute;
+
+import bisq.common.config.Config;
+import bisq.common.crypto.ChunkedEncryption;
+import bisq.common.crypto.Hash;
+import bisq.common.crypto.KeyRing;
+import bisq.common.file.FileUtil;
+import bisq.common.util.Hex;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Content addressed store for the bytes of dispute chat attachments. The files are named by the Sha256 hash of the
+ * bytes, so an attachment contained in several messages is stored once. Files are encrypted with the symmetric key
+ * of the key ring.
+ */
+@Slf4j
+@Singleton
+public class AttachmentStore {
+    private static final String DIR_NAME = "attachments";
+
+    private final File dir;
+    private final KeyRing keyRing;
+
+    @Inject
+    public AttachmentStore(@Named(Config.STORAGE_DIR) File storageDir, KeyRing keyRing) {
+        this.dir = new File(storageDir, DIR_NAME);
+        this.keyRing = keyRing;
+    }
+
+    /**
+     * Writes the bytes of the attachment to the store if not contained yet and returns the attachment without bytes.
+     */
+    public Attachment store(Attachment attachment) throws IOException {
+        if (attachment.isStored()) {
+            return attachment;
+        }
+        File file = getFile(attachment.getHash());
+        synchronized (this) {
+            if (!file.exists()) {
+                if (!dir.exists() && !dir.mkdirs()) {
+                    throw new IOException("Could not create " + dir);
+                }
+                File tempFile = new File(dir, file.getName() + ".tmp");
+                try (OutputStream outputStream = ChunkedEncryption.newOutputStream(new FileOutputStream(tempFile),
+                        keyRing.getSymmetricKey())) {
+                    outputStream.write(attachment.getBytes());
+                }
+                FileUtil.renameFile(tempFile, file);
+            }
+        }
+        return attachment.toStoredAttachment();
+    }
+
+    public boolean contains(byte[] hash) {
+        return getFile(hash).exists();
+    }
+
+    /**
+     * Returns a stream of the decrypted bytes of the attachment with the given hash.
+     *
+     * @throws FileNotFoundException if the store does not contain the attachment
+     */
+    public InputStream openStream(byte[] hash) throws IOException {
+        File file = getFile(hash);
+        if (!file.exists()) {
+            throw new FileNotFoundException("Attachment " + Hex.encode(hash) + " is not contained in the store");
+        }
+        return ChunkedEncryption.newInputStream(new BufferedInputStream(new FileInputStream(file)),
+                keyRing.getSymmetricKey());
+    }
+
+    /**
+     * Returns the bytes of the attachment, read from the store if they are not held by the attachment.
+     */
+    public Optional<byte[]> getBytes(Attachment attachment) {
+        if (!attachment.isStored()) {
+            return Optional.of(attachment.getBytes());
+        }
+        try (InputStream inputStream = openStream(attachment.getHash())) {
+            byte[] bytes = inputStream.readAllBytes();
+            if (!Arrays.equals(Hash.getSha256Hash(bytes), attachment.getHash())) {
+                log.error("Attachment {} does not match its hash", attachment.getFileName());
+                return Optional.empty();
+            }
+            return Optional.of(bytes);
+        } catch (IOException e) {
+            log.error("Could not read attachment {}: {}", attachment.getFileName(), e.toString());
+            return Optional.empty();
+        }
+    }
+
+    private File getFile(byte[] hash) {
+        checkArgument(hash.length == 32, "Invalid attachment hash");
+        return new File(dir, Hex.encode(hash));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.core.support.dispute;
+
+import bisq.core.support.messages.ChatMessage;
+
+import javafx.collections.ListChangeListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Indexes the disputes of a dispute list by trade id and dispute id and the chat messages of each dispute by uid, so
+ * lookups do not need to stream all disputes and their chat messages. Kept up to date by listeners on the dispute
+ * list and on the chat messages of the indexed disputes.
+ */
+public class DisputeIndex {
+    // A trade has a few disputes at most (one per trader and support type), so we scan the list of a trade id
+    private final Map<String, List<Dispute>> disputesByTradeId = new HashMap<>();
+    private final Map<String, List<Dispute>> disputesById = new HashMap<>();
+    private final Map<Dispute, Set<String>> chatMessageUidsByDispute = new IdentityHashMap<>();
+    private final Map<String, ChatMessage> chatMessagesByUid = new HashMap<>();
+    private final Map<Dispute, ListChangeListener<ChatMessage>> chatMessageListeners = new IdentityHashMap<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Package scope
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    synchronized void onDisputesChanged(ListChangeListener.Change<? extends Dispute> change) {
+        while (change.next()) {
+            change.getRemoved().forEach(this::remove);
+            change.getAddedSubList().forEach(this::add);
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public synchronized Optional<Dispute> findDispute(String tradeId, int traderId) {
+        return disputesByTradeId.getOrDefault(tradeId, Collections.emptyList()).stream()
+                .filter(dispute -> dispute.getTraderId() == traderId)
+                .findAny();
+    }
+
+    public synchronized Optional<Dispute> findDispute(String tradeId) {
+        return disputesByTradeId.getOrDefault(tradeId, Collections.emptyList()).stream().findAny();
+    }
+
+    public synchronized List<Dispute> findDisputes(String tradeId) {
+        return new ArrayList<>(disputesByTradeId.getOrDefault(tradeId, Collections.emptyList()));
+    }
+
+    public synchronized Optional<Dispute> findDisputeById(String disputeId) {
+        return disputesById.getOrDefault(disputeId, Collections.emptyList()).stream().findAny();
+    }
+
+    public synchronized boolean containsChatMessage(Dispute dispute, String uid) {
+        Set<String> uids = chatMessageUidsByDispute.get(dispute);
+        return uids != null && uids.contains(uid);
+    }
+
+    public synchronized Optional<ChatMessage> findChatMessage(String uid) {
+        return Optional.ofNullable(chatMessagesByUid.get(uid));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void add(Dispute dispute) {
+        if (chatMessageUidsByDispute.containsKey(dispute)) {
+            return;
+        }
+        disputesByTradeId.computeIfAbsent(dispute.getTradeId(), k -> new ArrayList<>(2)).add(dispute);
+        disputesById.computeIfAbsent(dispute.getId(), k -> new ArrayList<>(1)).add(dispute);
+
+        Set<String> uids = new HashSet<>();
+        dispute.getChatMessages().forEach(chatMessage -> addChatMessage(uids, chatMessage));
+        chatMessageUidsByDispute.put(dispute, uids);
+        ListChangeListener<ChatMessage> listener = change -> onChatMessagesChanged(uids, change);
+        chatMessageListeners.put(dispute, listener);
+        dispute.getChatMessages().addListener(listener);
+    }
+
+    private void remove(Dispute dispute) {
+        if (!chatMessageUidsByDispute.containsKey(dispute)) {
+            return;
+        }
+        removeFrom(disputesByTradeId, dispute.getTradeId(), dispute);
+        removeFrom(disputesById, dispute.getId(), dispute);
+        chatMessageUidsByDispute.remove(dispute);
+        dispute.getChatMessages().removeListener(chatMessageListeners.remove(dispute));
+        dispute.getChatMessages().forEach(this::removeChatMessage);
+    }
+
+    private synchronized void onChatMessagesChanged(Set<String> uids,
+                                                    ListChangeListener.Change<? extends ChatMessage> change) {
+        while (change.next()) {
+            change.getRemoved().forEach(chatMessage -> {
+                uids.remove(chatMessage.getUid());
+                removeChatMessage(chatMessage);
+            });
+            change.getAddedSubList().forEach(chatMessage -> addChatMessage(uids, chatMessage));
+        }
+    }
+
+    private void addChatMessage(Set<String> uids, ChatMessage chatMessage) {
+        uids.add(chatMessage.getUid());
+        chatMessagesByUid.put(chatMessage.getUid(), chatMessage);
+    }
+
+    private void removeChatMessage(ChatMessage chatMessage) {
+        chatMessagesByUid.remove(chatMessage.getUid(), chatMessage);
+    }
+
+    private static void removeFrom(Map<String, List<Dispute>> map, String key, Dispute dispute) {
+        List<Dispute> disputes = map.get(key);
+        if (disputes != null) {
+            disputes.removeIf(e -> e == dispute);
+            if (disputes.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@ package bisq.core.support.dispute;
 
 import bisq.common.proto.persistable.PersistableListAsObservable;
 import bisq.common.proto.persistable.PersistablePayload;
+import bisq.common.proto.persistable.PersistableRecordEnvelope;
 
 import java.util.Collection;
 
@@ -33,7 +34,8 @@ import lombok.extern.slf4j.Slf4j;
  * Calls to the List are delegated because this class intercepts the add/remove calls so changes
  * can be saved to disc.
  */
-public abstract class DisputeList<T extends PersistablePayload> extends PersistableListAsObservable<T> {
+public abstract class DisputeList<T extends PersistablePayload> extends PersistableListAsObservable<T>
+        implements PersistableRecordEnvelope {
 
     public DisputeList() {
     }
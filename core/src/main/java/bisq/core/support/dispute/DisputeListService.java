@@ -17,6 +17,7 @@
 
 package bisq.core.support.dispute;
 
+import bisq.core.support.messages.ChatMessage;
 import bisq.core.trade.Contract;
 
 import bisq.network.p2p.NodeAddress;
@@ -27,14 +28,22 @@ import bisq.common.proto.persistable.PersistedDataHost;
 
 import org.fxmisc.easybind.EasyBind;
 
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
+import java.io.IOException;
+
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -53,17 +62,25 @@ public abstract class DisputeListService<T extends DisputeList<Dispute>> impleme
     private final IntegerProperty numOpenDisputes = new SimpleIntegerProperty();
     @Getter
     private final Set<String> disputedTradeIds = new HashSet<>();
+    @Getter
+    private final AttachmentStore attachmentStore;
+    @Getter
+    private final DisputeIndex disputeIndex = new DisputeIndex();
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    public DisputeListService(PersistenceManager<T> persistenceManager) {
+    public DisputeListService(PersistenceManager<T> persistenceManager, AttachmentStore attachmentStore) {
         this.persistenceManager = persistenceManager;
+        this.attachmentStore = attachmentStore;
         disputeList = getConcreteDisputeList();
+        disputeList.addListener(disputeIndex::onDisputesChanged);
 
         this.persistenceManager.initialize(disputeList, getFileName(), PersistenceManager.Source.PRIVATE);
+        // Only changed disputes get written, as the list can contain many disputes with large attachments
+        this.persistenceManager.useRecordStore();
     }
 
 
@@ -82,6 +99,10 @@ public abstract class DisputeListService<T extends DisputeList<Dispute>> impleme
     public void readPersisted(Runnable completeHandler) {
         persistenceManager.readPersisted(getFileName(), persisted -> {
                     disputeList.setAll(persisted.getList());
+                    // Moves attachments persisted by former versions to the attachment store
+                    storeAttachments(disputeList.stream()
+                            .flatMap(dispute -> dispute.getChatMessages().stream())
+                            .collect(Collectors.toList()));
                     completeHandler.run();
                 },
                 completeHandler);
@@ -153,6 +174,17 @@ public abstract class DisputeListService<T extends DisputeList<Dispute>> impleme
             });
         }
         addedList.forEach(dispute -> {
+            // Our chat messages are sent after they got added, possibly from another thread, so we store their
+            // attachments only once sending has completed to not remove the bytes before the message got serialized.
+            storeAttachmentsWhenSent(new ArrayList<>(dispute.getChatMessages()));
+            dispute.getChatMessages().addListener((ListChangeListener<ChatMessage>) change -> {
+                while (change.next()) {
+                    if (change.wasAdded()) {
+                        storeAttachmentsWhenSent(new ArrayList<>(change.getAddedSubList()));
+                    }
+                }
+            });
+
             // for each dispute added, keep track of its "BadgeCountProperty"
             EasyBind.subscribe(dispute.getBadgeCountProperty(),
                     isAlerting -> {
@@ -168,6 +200,59 @@ public abstract class DisputeListService<T extends DisputeList<Dispute>> impleme
         });
     }
 
+    private void storeAttachmentsWhenSent(List<ChatMessage> chatMessages) {
+        chatMessages.forEach(chatMessage -> {
+            if (!chatMessage.isSendPending()) {
+                UserThread.execute(() -> storeAttachments(List.of(chatMessage)));
+                return;
+            }
+
+            AtomicBoolean stored = new AtomicBoolean();
+            InvalidationListener listener = new InvalidationListener() {
+                @Override
+                public void invalidated(Observable observable) {
+                    // The send callbacks are invoked on other threads and might complete concurrently
+                    if (chatMessage.isSendPending() || !stored.compareAndSet(false, true)) {
+                        return;
+                    }
+                    chatMessage.arrivedProperty().removeListener(this);
+                    chatMessage.storedInMailboxProperty().removeListener(this);
+                    chatMessage.acknowledgedProperty().removeListener(this);
+                    chatMessage.sendMessageErrorProperty().removeListener(this);
+                    UserThread.execute(() -> storeAttachments(List.of(chatMessage)));
+                }
+            };
+            chatMessage.arrivedProperty().addListener(listener);
+            chatMessage.storedInMailboxProperty().addListener(listener);
+            chatMessage.acknowledgedProperty().addListener(listener);
+            chatMessage.sendMessageErrorProperty().addListener(listener);
+            // Sending might have completed before we added the listener
+            listener.invalidated(null);
+        });
+    }
+
+    private void storeAttachments(List<ChatMessage> chatMessages) {
+        boolean hasStoredAttachments = false;
+        for (ChatMessage chatMessage : chatMessages) {
+            if (chatMessage.getAttachments().stream().allMatch(Attachment::isStored)) {
+                continue;
+            }
+            chatMessage.replaceAttachments(attachment -> {
+                try {
+                    return attachmentStore.store(attachment);
+                } catch (IOException e) {
+                    log.error("Could not store attachment {} of chat message {}", attachment.getFileName(),
+                            chatMessage.getUid(), e);
+                    return attachment;
+                }
+            });
+            hasStoredAttachments = true;
+        }
+        if (hasStoredAttachments) {
+            requestPersistence();
+        }
+    }
+
     public void requestPersistence() {
         persistenceManager.requestPersistence();
     }
@@ -149,6 +149,11 @@ public abstract class DisputeManager<T extends DisputeList<Dispute>> extends Sup
         disputeListService.requestPersistence();
     }
 
+    @Override
+    public Optional<byte[]> getAttachmentBytes(Attachment attachment) {
+        return disputeListService.getAttachmentStore().getBytes(attachment);
+    }
+
     @Override
     public NodeAddress getPeerNodeAddress(ChatMessage message) {
         Optional<Dispute> disputeOptional = findDispute(message);
@@ -179,6 +184,11 @@ public abstract class DisputeManager<T extends DisputeList<Dispute>> extends Sup
                 .collect(Collectors.toList());
     }
 
+    @Override
+    protected Optional<ChatMessage> findChatMessage(String uid) {
+        return disputeListService.getDisputeIndex().findChatMessage(uid);
+    }
+
     @Override
     public boolean channelOpen(ChatMessage message) {
         return findDispute(message).isPresent();
@@ -187,7 +197,7 @@ public abstract class DisputeManager<T extends DisputeList<Dispute>> extends Sup
     @Override
     public void addAndPersistChatMessage(ChatMessage message) {
         findDispute(message).ifPresent(dispute -> {
-            if (dispute.getChatMessages().stream().noneMatch(m -> m.getUid().equals(message.getUid()))) {
+            if (!disputeListService.getDisputeIndex().containsChatMessage(dispute, message.getUid())) {
                 dispute.addAndPersistChatMessage(message);
                 requestPersistence();
             } else {
@@ -294,12 +304,7 @@ public abstract class DisputeManager<T extends DisputeList<Dispute>> extends Sup
     }
 
     public Optional<Dispute> findOwnDispute(String tradeId) {
-        T disputeList = getDisputeList();
-        if (disputeList == null) {
-            log.warn("disputes is null");
-            return Optional.empty();
-        }
-        return disputeList.stream().filter(e -> e.getTradeId().equals(tradeId)).findAny();
+        return findDispute(tradeId);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -916,44 +921,19 @@ public abstract class DisputeManager<T extends DisputeList<Dispute>> extends Sup
     }
 
     protected Optional<Dispute> findDispute(String tradeId, int traderId) {
-        T disputeList = getDisputeList();
-        if (disputeList == null) {
-            log.warn("disputes is null");
-            return Optional.empty();
-        }
-        return disputeList.stream()
-                .filter(e -> e.getTradeId().equals(tradeId) && e.getTraderId() == traderId)
-                .findAny();
+        return disputeListService.getDisputeIndex().findDispute(tradeId, traderId);
     }
 
     public Optional<Dispute> findDispute(String tradeId) {
-        T disputeList = getDisputeList();
-        if (disputeList == null) {
-            log.warn("disputes is null");
-            return Optional.empty();
-        }
-        return disputeList.stream()
-                .filter(e -> e.getTradeId().equals(tradeId))
-                .findAny();
+        return disputeListService.getDisputeIndex().findDispute(tradeId);
     }
 
     public List<Dispute> findDisputes(String tradeId) {
-        T disputeList = getDisputeList();
-        if (disputeList == null) return new ArrayList<Dispute>();
-        return disputeList.stream()
-                .filter(e -> e.getTradeId().equals(tradeId))
-                .collect(Collectors.toList());
+        return disputeListService.getDisputeIndex().findDisputes(tradeId);
     }
 
     public Optional<Dispute> findDisputeById(String disputeId) {
-        T disputeList = getDisputeList();
-        if (disputeList == null) {
-            log.warn("disputes is null");
-            return Optional.empty();
-        }
-        return disputeList.stream()
-                .filter(e -> e.getId().equals(disputeId))
-                .findAny();
+        return disputeListService.getDisputeIndex().findDisputeById(disputeId);
     }
 
     public Optional<Trade> findTrade(Dispute dispute) {
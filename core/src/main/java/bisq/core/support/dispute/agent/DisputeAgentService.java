@@ -55,7 +55,7 @@ public abstract class DisputeAgentService<T extends DisputeAgent> {
     }
 
     public void addHashSetChangedListener(HashMapChangedListener hashMapChangedListener) {
-        p2PService.addHashSetChangedListener(hashMapChangedListener);
+        p2PService.addHashSetChangedListener(getDisputeAgentClass(), hashMapChangedListener);
     }
 
     public void addDisputeAgent(T disputeAgent,
@@ -118,6 +118,8 @@ public abstract class DisputeAgentService<T extends DisputeAgent> {
         return map;
     }
 
+    protected abstract Class<T> getDisputeAgentClass();
+
     protected abstract Set<T> getDisputeAgentSet(List<String> bannedDisputeAgents);
 
     protected abstract List<String> getDisputeAgentsFromFilter();
@@ -40,6 +40,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
@@ -118,6 +119,8 @@ public class MultipleHolderNameDetection {
     // once we support multiple onion addresses that would not work anymore.
     @Getter
     private final Map<String, List<Dispute>> suspiciousDisputesByTraderMap = new HashMap<>();
+    // Disputes with a holder name grouped by trader, updated on changes of the dispute list
+    private final Map<String, List<Dispute>> allDisputesByTraderMap = new HashMap<>();
     private final List<Listener> listeners = new CopyOnWriteArrayList<>();
 
 
@@ -128,10 +131,15 @@ public class MultipleHolderNameDetection {
     public MultipleHolderNameDetection(DisputeManager<? extends DisputeList<Dispute>> disputeManager) {
         this.disputeManager = disputeManager;
 
+        disputeManager.getDisputesAsObservableList().forEach(this::addToTraderMap);
         disputeManager.getDisputesAsObservableList().addListener((ListChangeListener<Dispute>) c -> {
-            c.next();
-            if (c.wasAdded()) {
-                detectMultipleHolderNames();
+            Set<String> addedTraders = new HashSet<>();
+            while (c.next()) {
+                c.getRemoved().forEach(this::removeFromTraderMap);
+                c.getAddedSubList().forEach(dispute -> addToTraderMap(dispute).ifPresent(addedTraders::add));
+            }
+            if (!addedTraders.isEmpty()) {
+                detectMultipleHolderNames(addedTraders);
             }
         });
     }
@@ -142,21 +150,7 @@ public class MultipleHolderNameDetection {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public void detectMultipleHolderNames() {
-        String previous = suspiciousDisputesByTraderMap.toString();
-        getAllDisputesByTraderMap().forEach((key, value) -> {
-            Set<String> userNames = value.stream()
-                    .map(dispute -> getPayloadWithHolderName(dispute).getHolderName())
-                    .collect(Collectors.toSet());
-            if (userNames.size() > 1) {
-                // As we compare previous results we need to make sorting deterministic
-                value.sort(Comparator.comparing(Dispute::getId));
-                suspiciousDisputesByTraderMap.put(key, value);
-            }
-        });
-        String updated = suspiciousDisputesByTraderMap.toString();
-        if (!previous.equals(updated)) {
-            listeners.forEach(Listener::onSuspiciousDisputeDetected);
-        }
+        detectMultipleHolderNames(new ArrayList<>(allDisputesByTraderMap.keySet()));
     }
 
     public boolean hasSuspiciousDisputesDetected() {
@@ -197,22 +191,51 @@ public class MultipleHolderNameDetection {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private Map<String, List<Dispute>> getAllDisputesByTraderMap() {
-        Map<String, List<Dispute>> allDisputesByTraderMap = new HashMap<>();
-        disputeManager.getDisputesAsObservableList().stream()
-                .filter(dispute -> {
-                    PaymentAccountPayload paymentAccountPayload = isBuyer(dispute) ?
-                            dispute.getBuyerPaymentAccountPayload() :
-                            dispute.getSellerPaymentAccountPayload();
-                    return paymentAccountPayload instanceof PayloadWithHolderName;
-                })
-                .forEach(dispute -> {
-                    String traderPubKeyHash = getSigPubKeyHashAsHex(dispute);
-                    allDisputesByTraderMap.putIfAbsent(traderPubKeyHash, new ArrayList<>());
-                    List<Dispute> disputes = allDisputesByTraderMap.get(traderPubKeyHash);
-                    disputes.add(dispute);
-                });
-        return allDisputesByTraderMap;
+    private void detectMultipleHolderNames(Collection<String> traders) {
+        boolean changed = false;
+        for (String trader : traders) {
+            List<Dispute> disputesOfTrader = allDisputesByTraderMap.get(trader);
+            if (disputesOfTrader == null) {
+                continue;
+            }
+            Set<String> userNames = disputesOfTrader.stream()
+                    .map(dispute -> getPayloadWithHolderName(dispute).getHolderName())
+                    .collect(Collectors.toSet());
+            if (userNames.size() > 1) {
+                // As we compare previous results we need to make sorting deterministic
+                List<Dispute> disputes = new ArrayList<>(disputesOfTrader);
+                disputes.sort(Comparator.comparing(Dispute::getId));
+                if (!disputes.equals(suspiciousDisputesByTraderMap.put(trader, disputes))) {
+                    changed = true;
+                }
+            }
+        }
+        if (changed) {
+            listeners.forEach(Listener::onSuspiciousDisputeDetected);
+        }
+    }
+
+    private Optional<String> addToTraderMap(Dispute dispute) {
+        PaymentAccountPayload paymentAccountPayload = isBuyer(dispute) ?
+                dispute.getBuyerPaymentAccountPayload() :
+                dispute.getSellerPaymentAccountPayload();
+        if (!(paymentAccountPayload instanceof PayloadWithHolderName)) {
+            return Optional.empty();
+        }
+        String traderPubKeyHash = getSigPubKeyHashAsHex(dispute);
+        allDisputesByTraderMap.computeIfAbsent(traderPubKeyHash, k -> new ArrayList<>()).add(dispute);
+        return Optional.of(traderPubKeyHash);
+    }
+
+    private void removeFromTraderMap(Dispute dispute) {
+        String traderPubKeyHash = getSigPubKeyHashAsHex(dispute);
+        List<Dispute> disputes = allDisputesByTraderMap.get(traderPubKeyHash);
+        if (disputes != null) {
+            disputes.removeIf(e -> e == dispute);
+            if (disputes.isEmpty()) {
+                allDisputesByTraderMap.remove(traderPubKeyHash);
+            }
+        }
     }
 
     // Get a text report for a trader who used multiple names and list all the his disputes
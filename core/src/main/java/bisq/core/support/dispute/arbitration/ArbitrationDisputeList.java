@@ -23,11 +23,13 @@ import bisq.core.support.dispute.Dispute;
 import bisq.core.support.dispute.DisputeList;
 
 import bisq.common.proto.ProtoUtil;
+import bisq.common.proto.persistable.PersistableRecordEnvelope;
 
 import com.google.protobuf.Message;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import lombok.ToString;
@@ -60,11 +62,21 @@ public final class ArbitrationDisputeList extends DisputeList<Dispute> {
 
     @Override
     public Message toProtoMessage() {
+        forEach(dispute -> checkArgument(dispute.getSupportType().equals(SupportType.ARBITRATION), "Support type has to be ARBITRATION"));
+
+        return toProtoMessage(getList());
+    }
 
+    @Override
+    public Map<String, Message> toRecordMessages() {
         forEach(dispute -> checkArgument(dispute.getSupportType().equals(SupportType.ARBITRATION), "Support type has to be ARBITRATION"));
 
+        return PersistableRecordEnvelope.toRecordMessages(getList(), Dispute::getId, dispute -> toProtoMessage(List.of(dispute)));
+    }
+
+    private static Message toProtoMessage(Collection<Dispute> disputes) {
         return protobuf.PersistableEnvelope.newBuilder().setArbitrationDisputeList(protobuf.ArbitrationDisputeList.newBuilder()
-                .addAllDispute(ProtoUtil.collectionToProto(getList(), protobuf.Dispute.class))).build();
+                .addAllDispute(ProtoUtil.collectionToProto(disputes, protobuf.Dispute.class))).build();
     }
 
     public static ArbitrationDisputeList fromProto(protobuf.ArbitrationDisputeList proto,
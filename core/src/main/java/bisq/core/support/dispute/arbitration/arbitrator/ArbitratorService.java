@@ -40,10 +40,14 @@ public class ArbitratorService extends DisputeAgentService<Arbitrator> {
         super(p2PService, filterManager);
     }
 
+    @Override
+    protected Class<Arbitrator> getDisputeAgentClass() {
+        return Arbitrator.class;
+    }
+
     @Override
     protected Set<Arbitrator> getDisputeAgentSet(List<String> bannedDisputeAgents) {
-        return p2PService.getDataMap().values().stream()
-                .filter(data -> data.getProtectedStoragePayload() instanceof Arbitrator)
+        return p2PService.getProtectedStorageEntries(Arbitrator.class).stream()
                 .map(data -> (Arbitrator) data.getProtectedStoragePayload())
                 .filter(a -> bannedDisputeAgents == null ||
                         !bannedDisputeAgents.contains(a.getNodeAddress().getFullAddress()))
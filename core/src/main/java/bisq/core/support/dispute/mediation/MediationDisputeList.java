@@ -23,11 +23,13 @@ import bisq.core.support.dispute.Dispute;
 import bisq.core.support.dispute.DisputeList;
 
 import bisq.common.proto.ProtoUtil;
+import bisq.common.proto.persistable.PersistableRecordEnvelope;
 
 import com.google.protobuf.Message;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import lombok.ToString;
@@ -58,8 +60,17 @@ public final class MediationDisputeList extends DisputeList<Dispute> {
 
     @Override
     public Message toProtoMessage() {
+        return toProtoMessage(getList());
+    }
+
+    @Override
+    public Map<String, Message> toRecordMessages() {
+        return PersistableRecordEnvelope.toRecordMessages(getList(), Dispute::getId, dispute -> toProtoMessage(List.of(dispute)));
+    }
+
+    private static Message toProtoMessage(Collection<Dispute> disputes) {
         return protobuf.PersistableEnvelope.newBuilder().setMediationDisputeList(protobuf.MediationDisputeList.newBuilder()
-                .addAllDispute(ProtoUtil.collectionToProto(getList(), protobuf.Dispute.class))).build();
+                .addAllDispute(ProtoUtil.collectionToProto(disputes, protobuf.Dispute.class))).build();
     }
 
     public static MediationDisputeList fromProto(protobuf.MediationDisputeList proto,
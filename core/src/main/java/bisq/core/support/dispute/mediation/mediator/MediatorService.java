@@ -45,10 +45,14 @@ public class MediatorService extends DisputeAgentService<Mediator> {
         super(p2PService, filterManager);
     }
 
+    @Override
+    protected Class<Mediator> getDisputeAgentClass() {
+        return Mediator.class;
+    }
+
     @Override
     protected Set<Mediator> getDisputeAgentSet(List<String> bannedDisputeAgents) {
-        return p2PService.getDataMap().values().stream()
-                .filter(data -> data.getProtectedStoragePayload() instanceof Mediator)
+        return p2PService.getProtectedStorageEntries(Mediator.class).stream()
                 .map(data -> (Mediator) data.getProtectedStoragePayload())
                 .filter(a -> bannedDisputeAgents == null ||
                         !bannedDisputeAgents.contains(a.getNodeAddress().getFullAddress()))
@@ -23,11 +23,13 @@ import bisq.core.support.dispute.Dispute;
 import bisq.core.support.dispute.DisputeList;
 
 import bisq.common.proto.ProtoUtil;
+import bisq.common.proto.persistable.PersistableRecordEnvelope;
 
 import com.google.protobuf.Message;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import lombok.ToString;
@@ -62,8 +64,19 @@ public final class RefundDisputeList extends DisputeList<Dispute> {
     public Message toProtoMessage() {
         forEach(dispute -> checkArgument(dispute.getSupportType().equals(SupportType.REFUND), "Support type has to be REFUND"));
 
+        return toProtoMessage(getList());
+    }
+
+    @Override
+    public Map<String, Message> toRecordMessages() {
+        forEach(dispute -> checkArgument(dispute.getSupportType().equals(SupportType.REFUND), "Support type has to be REFUND"));
+
+        return PersistableRecordEnvelope.toRecordMessages(getList(), Dispute::getId, dispute -> toProtoMessage(List.of(dispute)));
+    }
+
+    private static Message toProtoMessage(Collection<Dispute> disputes) {
         return protobuf.PersistableEnvelope.newBuilder().setRefundDisputeList(protobuf.RefundDisputeList.newBuilder()
-                .addAllDispute(ProtoUtil.collectionToProto(getList(), protobuf.Dispute.class))).build();
+                .addAllDispute(ProtoUtil.collectionToProto(disputes, protobuf.Dispute.class))).build();
     }
 
     public static RefundDisputeList fromProto(protobuf.RefundDisputeList proto,
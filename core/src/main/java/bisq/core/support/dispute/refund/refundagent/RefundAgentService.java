@@ -40,10 +40,14 @@ public class RefundAgentService extends DisputeAgentService<RefundAgent> {
         super(p2PService, filterManager);
     }
 
+    @Override
+    protected Class<RefundAgent> getDisputeAgentClass() {
+        return RefundAgent.class;
+    }
+
     @Override
     protected Set<RefundAgent> getDisputeAgentSet(List<String> bannedDisputeAgents) {
-        return p2PService.getDataMap().values().stream()
-                .filter(data -> data.getProtectedStoragePayload() instanceof RefundAgent)
+        return p2PService.getProtectedStorageEntries(RefundAgent.class).stream()
                 .map(data -> (RefundAgent) data.getProtectedStoragePayload())
                 .filter(a -> bannedDisputeAgents == null ||
                         !bannedDisputeAgents.contains(a.getNodeAddress().getFullAddress()))
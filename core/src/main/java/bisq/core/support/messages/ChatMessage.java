@@ -40,6 +40,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 import java.lang.ref.WeakReference;
@@ -92,6 +93,8 @@ public final class ChatMessage extends SupportMessage {
     private final StringProperty ackErrorProperty;
 
     transient private WeakReference<Listener> listener;
+    // Set for messages created by us, which still get serialized for sending after they got added to a dispute
+    transient private boolean outgoing;
 
     public ChatMessage(SupportType supportType,
                        String tradeId,
@@ -115,6 +118,7 @@ public final class ChatMessage extends SupportMessage {
                 null,
                 null,
                 false);
+        outgoing = true;
     }
 
     public ChatMessage(SupportType supportType,
@@ -140,6 +144,7 @@ public final class ChatMessage extends SupportMessage {
                 null,
                 null,
                 false);
+        outgoing = true;
     }
 
     public ChatMessage(SupportType supportType,
@@ -165,6 +170,7 @@ public final class ChatMessage extends SupportMessage {
                 null,
                 null,
                 false);
+        outgoing = true;
     }
 
 
@@ -212,7 +218,7 @@ public final class ChatMessage extends SupportMessage {
                 .setTraderId(traderId)
                 .setSenderIsTrader(senderIsTrader)
                 .setMessage(message)
-                .addAllAttachments(attachments.stream().map(Attachment::toProtoMessage).collect(Collectors.toList()))
+                .addAllAttachments(getAttachmentsAsProto())
                 .setSenderNodeAddress(senderNodeAddress.toProtoMessage())
                 .setDate(date)
                 .setArrived(arrivedProperty.get())
@@ -279,6 +285,29 @@ public final class ChatMessage extends SupportMessage {
         this.attachments.addAll(attachments);
     }
 
+    // Used to replace the attachments by attachments held in the AttachmentStore. Attachments get replaced on the
+    // user thread while the message might get serialized on another thread, so both synchronize on the list.
+    public void replaceAttachments(UnaryOperator<Attachment> operator) {
+        synchronized (attachments) {
+            attachments.replaceAll(operator);
+        }
+    }
+
+    private List<protobuf.Attachment> getAttachmentsAsProto() {
+        synchronized (attachments) {
+            return attachments.stream().map(Attachment::toProtoMessage).collect(Collectors.toList());
+        }
+    }
+
+    // Our own messages need the attachment bytes until they got sent, or sending failed
+    public boolean isSendPending() {
+        return outgoing &&
+                !arrivedProperty.get() &&
+                !storedInMailboxProperty.get() &&
+                !acknowledgedProperty.get() &&
+                sendMessageErrorProperty.get() == null;
+    }
+
     public void setArrived(@SuppressWarnings("SameParameterValue") boolean arrived) {
         this.arrivedProperty.set(arrived);
         notifyChangeListener();
@@ -30,6 +30,7 @@ import bisq.network.p2p.NodeAddress;
 import bisq.common.crypto.KeyRing;
 import bisq.common.persistence.PersistenceManager;
 import bisq.common.proto.persistable.PersistedDataHost;
+import bisq.common.util.MemoryGovernor;
 import bisq.common.util.Tuple2;
 
 import org.bitcoinj.core.Coin;
@@ -89,6 +90,9 @@ public class ClosedTradableManager implements PersistedDataHost {
         this.persistenceManager = persistenceManager;
 
         this.persistenceManager.initialize(closedTradables, "ClosedTrades", PersistenceManager.Source.PRIVATE);
+        MemoryGovernor.registerStore("ClosedTrades", closedTradables::getFootprint);
+        // Only changed records get written, as the list can contain many large trades or disputes
+        this.persistenceManager.useRecordStore();
     }
 
     @Override
@@ -20,6 +20,7 @@ package bisq.core.trade;
 import bisq.common.config.Config;
 import bisq.common.crypto.PubKeyRing;
 import bisq.common.crypto.Sig;
+import bisq.common.util.KeyedSerialExecutor;
 import bisq.core.offer.Offer;
 import bisq.core.offer.OfferPayload;
 import bisq.core.support.dispute.arbitration.ArbitrationManager;
@@ -64,6 +65,18 @@ public class HavenoUtils {
     // TODO: better way to share reference?
     public static ArbitrationManager arbitrationManager;
 
+    // processes protocol messages and events serially per trade or offer id on a bounded thread pool
+    public static final int TRADE_EXECUTOR_POOL_SIZE = Math.max(16, Runtime.getRuntime().availableProcessors() * 2);
+    public static final KeyedSerialExecutor TRADE_EXECUTOR = new KeyedSerialExecutor("TradeExecutor", TRADE_EXECUTOR_POOL_SIZE);
+
+    /**
+     * Run the given task after all tasks previously submitted for the same trade or offer id
+     * have completed. Tasks for different ids run in parallel.
+     */
+    public static void submitToTradeThread(String tradeId, Runnable task) {
+        TRADE_EXECUTOR.execute(tradeId, task);
+    }
+
     public static BigInteger coinToAtomicUnits(Coin coin) {
         return centinerosToAtomicUnits(coin.value);
     }
@@ -332,12 +345,16 @@ public class HavenoUtils {
     }
 
     public static void executeTasks(Collection<Runnable> tasks, int poolSize) {
+        executeTasks(tasks, poolSize, 60);
+    }
+
+    public static void executeTasks(Collection<Runnable> tasks, int poolSize, long timeoutSeconds) {
         if (tasks.isEmpty()) return;
         ExecutorService pool = Executors.newFixedThreadPool(poolSize);
         for (Runnable task : tasks) pool.submit(task);
         pool.shutdown();
         try {
-            if (!pool.awaitTermination(60, TimeUnit.SECONDS)) pool.shutdownNow();
+            if (!pool.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) pool.shutdownNow();
         } catch (InterruptedException e) {
             pool.shutdownNow();
             throw new RuntimeException(e);
@@ -24,17 +24,20 @@ import bisq.core.proto.CoreProtoResolver;
 import bisq.common.proto.ProtoUtil;
 import bisq.common.proto.ProtobufferRuntimeException;
 import bisq.common.proto.persistable.PersistableListAsObservable;
+import bisq.common.proto.persistable.PersistableRecordEnvelope;
+import bisq.common.util.MemoryGovernor;
 
 import com.google.protobuf.Message;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
-public final class TradableList<T extends Tradable> extends PersistableListAsObservable<T> {
+public final class TradableList<T extends Tradable> extends PersistableListAsObservable<T> implements PersistableRecordEnvelope {
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -55,13 +58,31 @@ public final class TradableList<T extends Tradable> extends PersistableListAsObs
     @Override
     public Message toProtoMessage() {
         synchronized (getList()) {
-            return protobuf.PersistableEnvelope.newBuilder()
-                    .setTradableList(protobuf.TradableList.newBuilder()
-                            .addAllTradable(ProtoUtil.collectionToProto(getList(), protobuf.Tradable.class)))
-                    .build();
+            return toProtoMessage(getList());
         }
     }
 
+    @Override
+    public Map<String, Message> toRecordMessages() {
+        synchronized (getList()) {
+            return PersistableRecordEnvelope.toRecordMessages(getList(), Tradable::getId, tradable -> toProtoMessage(List.of(tradable)));
+        }
+    }
+
+    // Approximate heap footprint in bytes, see MemoryGovernor
+    public long getFootprint() {
+        synchronized (getList()) {
+            return MemoryGovernor.estimateFootprint(getList(), tradable -> tradable.toProtoMessage().getSerializedSize());
+        }
+    }
+
+    private static Message toProtoMessage(Collection<? extends Tradable> tradables) {
+        return protobuf.PersistableEnvelope.newBuilder()
+                .setTradableList(protobuf.TradableList.newBuilder()
+                        .addAllTradable(ProtoUtil.collectionToProto(tradables, protobuf.Tradable.class)))
+                .build();
+    }
+
     public static TradableList<Tradable> fromProto(protobuf.TradableList proto,
                                                    CoreProtoResolver coreProtoResolver,
                                                    XmrWalletService xmrWalletService) {
@@ -18,6 +18,7 @@
 package bisq.core.trade;
 
 import bisq.core.btc.model.XmrAddressEntry;
+import bisq.core.btc.wallet.XmrWalletRpcMetrics;
 import bisq.core.btc.wallet.XmrWalletService;
 import bisq.core.locale.CurrencyUtil;
 import bisq.core.monetary.Price;
@@ -916,7 +917,14 @@ public abstract class Trade implements Tradable, Model {
             return;
         }
         log.info("Syncing wallet for {} {}", getClass().getSimpleName(), getId());
-        getWallet().sync();
+        long ts = System.currentTimeMillis();
+        try {
+            getWallet().sync();
+        } catch (Exception e) {
+            XmrWalletRpcMetrics.SYNC_TRADE_WALLET.recordFailure();
+            throw e;
+        }
+        XmrWalletRpcMetrics.SYNC_TRADE_WALLET.recordDuration(ts);
         pollWallet();
         log.info("Done syncing wallet for {} {}", getClass().getSimpleName(), getId());
         updateWalletRefreshPeriod();
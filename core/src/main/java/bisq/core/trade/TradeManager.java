@@ -43,6 +43,7 @@ import bisq.core.trade.messages.InitMultisigRequest;
 import bisq.core.trade.messages.InitTradeRequest;
 import bisq.core.trade.messages.SignContractRequest;
 import bisq.core.trade.messages.SignContractResponse;
+import bisq.core.trade.messages.TradeMessage;
 import bisq.core.trade.protocol.ArbitratorProtocol;
 import bisq.core.trade.protocol.MakerProtocol;
 import bisq.core.trade.protocol.ProcessModel;
@@ -55,11 +56,14 @@ import bisq.core.trade.statistics.ReferralIdService;
 import bisq.core.trade.statistics.TradeStatisticsManager;
 import bisq.core.user.User;
 import bisq.core.util.Validator;
+import bisq.network.p2p.AckMessage;
+import bisq.network.p2p.AckMessageSourceType;
 import bisq.network.p2p.BootstrapListener;
 import bisq.network.p2p.DecryptedDirectMessageListener;
 import bisq.network.p2p.DecryptedMessageWithPubKey;
 import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.P2PService;
+import bisq.network.p2p.messaging.DecryptedMailboxListener;
 import bisq.network.p2p.network.TorNetworkNode;
 import com.google.common.collect.ImmutableList;
 import bisq.common.ClockWatcher;
@@ -70,6 +74,7 @@ import bisq.common.handlers.ResultHandler;
 import bisq.common.persistence.PersistenceManager;
 import bisq.common.proto.network.NetworkEnvelope;
 import bisq.common.proto.persistable.PersistedDataHost;
+import bisq.common.util.MemoryGovernor;
 
 import org.bitcoinj.core.Coin;
 
@@ -85,6 +90,10 @@ import javafx.collections.ObservableList;
 
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.fxmisc.easybind.EasyBind;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -94,6 +103,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -113,8 +123,11 @@ import monero.daemon.model.MoneroTx;
 import monero.wallet.model.MoneroOutputQuery;
 
 
-public class TradeManager implements PersistedDataHost, DecryptedDirectMessageListener {
+public class TradeManager implements PersistedDataHost, DecryptedDirectMessageListener, DecryptedMailboxListener {
     private static final Logger log = LoggerFactory.getLogger(TradeManager.class);
+    private static final int MIN_WALLET_OPEN_CONCURRENCY = 2;
+    private static final int MAX_WALLET_OPEN_CONCURRENCY = 20;
+    private static final long WALLET_OPEN_MEMORY_ESTIMATE = 100L * 1024 * 1024;
 
     private boolean isShutDown;
     private final User user;
@@ -140,6 +153,8 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     private final Map<String, TradeProtocol> tradeProtocolByTradeId = new HashMap<>();
     private final PersistenceManager<TradableList<Trade>> persistenceManager;
     private final TradableList<Trade> tradableList = new TradableList<>();
+    // closed and failed trades without funds at stake, their protocol is initialized on first access
+    private final Set<Trade> uninitializedTrades = ConcurrentHashMap.newKeySet();
     @Getter
     private final BooleanProperty persistedTradesInitialized = new SimpleBooleanProperty();
     @Setter
@@ -195,8 +210,10 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
         this.persistenceManager = persistenceManager;
 
         this.persistenceManager.initialize(tradableList, "PendingTrades", PersistenceManager.Source.PRIVATE);
+        MemoryGovernor.registerStore("PendingTrades", tradableList::getFootprint);
 
         p2PService.addDecryptedDirectMessageListener(this);
+        p2PService.getMailboxMessageService().addDecryptedMailboxListener(this);
 
         failedTradesManager.setUnFailTradeCallback(this::unFailTrade);
     }
@@ -226,7 +243,9 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     @Override
     public void onDirectMessage(DecryptedMessageWithPubKey message, NodeAddress peer) {
         NetworkEnvelope networkEnvelope = message.getNetworkEnvelope();
-        new Thread(() -> {
+        if (!(networkEnvelope instanceof TradeMessage)) return;
+        String tradeId = ((TradeMessage) networkEnvelope).getTradeId();
+        HavenoUtils.submitToTradeThread(tradeId, () -> {
             if (networkEnvelope instanceof InitTradeRequest) {
                 handleInitTradeRequest((InitTradeRequest) networkEnvelope, peer);
             } else if (networkEnvelope instanceof InitMultisigRequest) {
@@ -240,7 +259,35 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
             } else if (networkEnvelope instanceof DepositResponse) {
                 handleDepositResponse((DepositResponse) networkEnvelope, peer);
             }
-        }).start();
+        });
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // DecryptedMailboxListener
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // The protocol of a trade which is not initialized yet does not listen to mailbox messages, so we initialize the
+    // trade when a message for it arrives. The protocol processes the messages in the mailbox when it is initialized.
+    @Override
+    public void onMailboxMessageAdded(DecryptedMessageWithPubKey message, NodeAddress peer) {
+        maybeInitPersistedTradeForMessage(message.getNetworkEnvelope());
+    }
+
+    private void maybeInitPersistedTradeForMessage(NetworkEnvelope networkEnvelope) {
+        if (uninitializedTrades.isEmpty()) return;
+        String tradeId;
+        if (networkEnvelope instanceof TradeMessage) {
+            tradeId = ((TradeMessage) networkEnvelope).getTradeId();
+        } else if (networkEnvelope instanceof AckMessage && ((AckMessage) networkEnvelope).getSourceType() == AckMessageSourceType.TRADE_MESSAGE) {
+            tradeId = ((AckMessage) networkEnvelope).getSourceId();
+        } else {
+            return;
+        }
+        uninitializedTrades.stream()
+                .filter(trade -> trade.getId().equals(tradeId))
+                .findFirst()
+                .ifPresent(trade -> HavenoUtils.submitToTradeThread(tradeId, () -> maybeInitPersistedTrade(trade)));
     }
 
 
@@ -271,6 +318,7 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
 
     public void shutDown() {
         isShutDown = true;
+        log.info("Trade executor statistics at shut down: {}", HavenoUtils.TRADE_EXECUTOR);
 
         // collect trades to shutdown
         Set<Trade> trades = new HashSet<Trade>();
@@ -320,6 +368,7 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     }
 
     public TradeProtocol getTradeProtocol(Trade trade) {
+        maybeInitPersistedTrade(trade);
         String uid = trade.getUid();
         if (tradeProtocolByTradeId.containsKey(uid)) {
             return tradeProtocolByTradeId.get(uid);
@@ -339,25 +388,32 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private void initPersistedTrades() {
-
-        // get all trades // TODO: getAllTrades()
-        List<Trade> trades = new ArrayList<Trade>();
-        trades.addAll(tradableList.getList());
-        trades.addAll(closedTradableManager.getClosedTrades());
-        trades.addAll(failedTradesManager.getObservableList());
+        long startTime = System.currentTimeMillis();
+
+        // initialize trades in stages so trades with funds at stake are ready first.
+        // closed and failed trades without funds at stake are initialized in the background after startup,
+        // or earlier on first access through getTrade() or getTradeProtocol() or when a mailbox message arrives.
+        List<Trade> fundsAtStakeTrades = new ArrayList<Trade>();
+        List<Trade> openTrades = new ArrayList<Trade>();
+        List<Trade> inactiveTrades = new ArrayList<Trade>();
+        for (Trade trade : tradableList.getList()) {
+            if (hasFundsAtStake(trade)) fundsAtStakeTrades.add(trade);
+            else openTrades.add(trade);
+        }
+        List<Trade> closedAndFailedTrades = new ArrayList<Trade>(closedTradableManager.getClosedTrades());
+        closedAndFailedTrades.addAll(failedTradesManager.getObservableList());
+        for (Trade trade : closedAndFailedTrades) {
+            if (hasFundsAtStake(trade)) fundsAtStakeTrades.add(trade);
+            else inactiveTrades.add(trade);
+        }
 
         // open trades in parallel since each may open a multisig wallet
-        int threadPoolSize = 10;
-        Set<Runnable> tasks = new HashSet<Runnable>();
-        for (Trade trade : trades) {
-            tasks.add(new Runnable() {
-                @Override
-                public void run() {
-                    initPersistedTrade(trade);
-                }
-            });
-        };
-        HavenoUtils.executeTasks(tasks, threadPoolSize);
+        int threadPoolSize = getWalletOpenConcurrency();
+        initPersistedTrades("funds at stake", fundsAtStakeTrades, threadPoolSize);
+        initPersistedTrades("open", openTrades, threadPoolSize);
+        for (Trade trade : inactiveTrades) trade.getProcessModel().applyTransient(processModelServiceProvider, this, trade.getOffer());
+        uninitializedTrades.addAll(inactiveTrades);
+        log.info("Initialized {} persisted trades in {} ms using {} threads, {} closed and failed trades are initialized in the background", fundsAtStakeTrades.size() + openTrades.size(), System.currentTimeMillis() - startTime, threadPoolSize, inactiveTrades.size());
 
         // reset any available address entries
         if (isShutDown) return;
@@ -376,14 +432,79 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
         String referralId = referralIdService.getOptionalReferralId().orElse(null);
         boolean isTorNetworkNode = p2PService.getNetworkNode() instanceof TorNetworkNode;
         tradeStatisticsManager.maybeRepublishTradeStatistics(nonFailedTrades, referralId, isTorNetworkNode);
+
+        initUninitializedTradesInBackground();
+    }
+
+    // initialize the remaining closed and failed trades one by one on a low priority thread,
+    // starting with the trades which have messages in the mailbox
+    private void initUninitializedTradesInBackground() {
+        if (isShutDown || uninitializedTrades.isEmpty()) return;
+        p2PService.getMailboxMessageService().getMyDecryptedMailboxMessages()
+                .forEach(message -> maybeInitPersistedTradeForMessage(message.getNetworkEnvelope()));
+
+        Thread thread = new Thread(() -> {
+            long startTime = System.currentTimeMillis();
+            int numInitialized = 0;
+            for (Trade trade : new ArrayList<Trade>(uninitializedTrades)) {
+                if (isShutDown) return;
+                try {
+                    if (uninitializedTrades.contains(trade)) {
+                        maybeInitPersistedTrade(trade);
+                        numInitialized++;
+                    }
+                } catch (Exception e) {
+                    log.warn("Error initializing trade {} in the background: {}", trade.getId(), e.getMessage());
+                }
+            }
+            log.info("Initialized {} closed and failed trades in the background in {} ms", numInitialized, System.currentTimeMillis() - startTime);
+        }, "InitInactiveTrades");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    private void initPersistedTrades(String stage, List<Trade> trades, int threadPoolSize) {
+        if (isShutDown || trades.isEmpty()) return;
+        long startTime = System.currentTimeMillis();
+        Set<Runnable> tasks = new HashSet<Runnable>();
+        for (Trade trade : trades) tasks.add(() -> initPersistedTrade(trade));
+        int numWaves = (trades.size() + threadPoolSize - 1) / threadPoolSize;
+        HavenoUtils.executeTasks(tasks, Math.min(threadPoolSize, trades.size()), Math.max(60, 60L * numWaves));
+        log.info("Initialized {} persisted trades with {} in {} ms", trades.size(), stage, System.currentTimeMillis() - startTime);
+    }
+
+    // trades whose deposit was requested keep funds reserved or locked until the payout unlocks
+    private static boolean hasFundsAtStake(Trade trade) {
+        return trade.isDepositRequested() && !trade.isPayoutUnlocked();
+    }
+
+    // each multisig wallet is opened in its own wallet process, so bound concurrency by cores and free memory
+    private static int getWalletOpenConcurrency() {
+        long freeMemory = Long.MAX_VALUE;
+        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+            freeMemory = ((com.sun.management.OperatingSystemMXBean) osBean).getFreePhysicalMemorySize();
+        }
+        long memoryBound = Math.max(1, freeMemory / WALLET_OPEN_MEMORY_ESTIMATE);
+        long cpuBound = Runtime.getRuntime().availableProcessors() * 2L;
+        return (int) Math.max(MIN_WALLET_OPEN_CONCURRENCY, Math.min(MAX_WALLET_OPEN_CONCURRENCY, Math.min(cpuBound, memoryBound)));
     }
 
     private void initPersistedTrade(Trade trade) {
         if (isShutDown) return;
+        uninitializedTrades.remove(trade);
         initTradeAndProtocol(trade, getTradeProtocol(trade));
         requestPersistence();
     }
 
+    // initialize a closed or failed trade which was not initialized at startup
+    @Nullable
+    private Trade maybeInitPersistedTrade(@Nullable Trade trade) {
+        if (trade != null && uninitializedTrades.remove(trade)) initPersistedTrade(trade);
+        return trade;
+    }
+
     private void initTradeAndProtocol(Trade trade, TradeProtocol tradeProtocol) {
         tradeProtocol.initialize(processModelServiceProvider, this);
         requestPersistence(); // TODO requesting persistence twice with initPersistedTrade()
@@ -1016,7 +1137,7 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
 
     // TODO (woodser): make Optional<Trade> versus Trade return types consistent
     public Trade getTrade(String tradeId) {
-        return getOpenTrade(tradeId).orElseGet(() -> getClosedTrade(tradeId).orElseGet(() -> null));
+        return maybeInitPersistedTrade(getOpenTrade(tradeId).orElseGet(() -> getClosedTrade(tradeId).orElseGet(() -> null)));
     }
 
     public Optional<Trade> getOpenTrade(String tradeId) {
@@ -1031,7 +1152,7 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     }
 
     public Optional<Trade> getClosedTrade(String tradeId) {
-        return closedTradableManager.getClosedTrades().stream().filter(e -> e.getId().equals(tradeId)).findFirst();
+        return closedTradableManager.getClosedTrades().stream().filter(e -> e.getId().equals(tradeId)).findFirst().map(this::maybeInitPersistedTrade);
     }
 
     private void addTrade(Trade trade) {
@@ -28,6 +28,7 @@ import bisq.core.trade.TradeUtil;
 import bisq.common.crypto.KeyRing;
 import bisq.common.persistence.PersistenceManager;
 import bisq.common.proto.persistable.PersistedDataHost;
+import bisq.common.util.MemoryGovernor;
 
 import com.google.inject.Inject;
 
@@ -69,6 +70,9 @@ public class FailedTradesManager implements PersistedDataHost {
         this.tradeUtil = tradeUtil;
 
         this.persistenceManager.initialize(failedTrades, "FailedTrades", PersistenceManager.Source.PRIVATE);
+        MemoryGovernor.registerStore("FailedTrades", failedTrades::getFootprint);
+        // Only changed records get written, as the list can contain many large trades or disputes
+        this.persistenceManager.useRecordStore();
     }
 
     @Override
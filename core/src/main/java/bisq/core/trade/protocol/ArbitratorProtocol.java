@@ -2,6 +2,7 @@ package bisq.core.trade.protocol;
 
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.core.trade.ArbitratorTrade;
+import bisq.core.trade.HavenoUtils;
 import bisq.core.trade.Trade;
 import bisq.core.trade.messages.DepositRequest;
 import bisq.core.trade.messages.DepositResponse;
@@ -43,7 +44,7 @@ public class ArbitratorProtocol extends DisputeProtocol {
 
   public void handleInitTradeRequest(InitTradeRequest message, NodeAddress peer, ErrorMessageHandler errorMessageHandler) {
       System.out.println("ArbitratorProtocol.handleInitTradeRequest()");
-      new Thread(() -> {
+      HavenoUtils.submitToTradeThread(trade.getId(), () -> {
           synchronized (trade) {
               latchTrade();
               this.errorMessageHandler = errorMessageHandler;
@@ -68,7 +69,7 @@ public class ArbitratorProtocol extends DisputeProtocol {
                       .executeTasks(true);
               awaitTradeLatch();
           }
-      }).start();
+      });
   }
   
   @Override
@@ -78,7 +79,7 @@ public class ArbitratorProtocol extends DisputeProtocol {
   
   public void handleDepositRequest(DepositRequest request, NodeAddress sender) {
     System.out.println("ArbitratorProtocol.handleDepositRequest() " + trade.getId());
-    new Thread(() -> {
+    HavenoUtils.submitToTradeThread(trade.getId(), () -> {
         synchronized (trade) {
             latchTrade();
             Validator.checkTradeId(processModel.getOfferId(), request);
@@ -103,7 +104,7 @@ public class ArbitratorProtocol extends DisputeProtocol {
                 .executeTasks(true);
             awaitTradeLatch();
         }
-    }).start();
+    });
   }
   
   @Override
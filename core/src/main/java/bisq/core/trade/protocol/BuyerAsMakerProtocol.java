@@ -18,6 +18,7 @@ e * This file is part of Haveno.
 package bisq.core.trade.protocol;
 
 import bisq.core.trade.BuyerAsMakerTrade;
+import bisq.core.trade.HavenoUtils;
 import bisq.core.trade.Trade;
 import bisq.core.trade.messages.InitTradeRequest;
 import bisq.core.trade.protocol.tasks.MakerSendInitTradeRequest;
@@ -42,7 +43,7 @@ public class BuyerAsMakerProtocol extends BuyerProtocol implements MakerProtocol
                                        NodeAddress peer,
                                        ErrorMessageHandler errorMessageHandler) {
         System.out.println(getClass().getCanonicalName() + ".handleInitTradeRequest()");
-        new Thread(() -> {
+        HavenoUtils.submitToTradeThread(trade.getId(), () -> {
             synchronized (trade) {
                 latchTrade();
                 this.errorMessageHandler = errorMessageHandler;
@@ -66,6 +67,6 @@ public class BuyerAsMakerProtocol extends BuyerProtocol implements MakerProtocol
                         .executeTasks(true);
                 awaitTradeLatch();
             }
-        }).start();
+        });
     }
 }
@@ -20,6 +20,7 @@ package bisq.core.trade.protocol;
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.ResultHandler;
 import bisq.core.trade.BuyerTrade;
+import bisq.core.trade.HavenoUtils;
 import bisq.core.trade.Trade;
 import bisq.core.trade.messages.SignContractResponse;
 import bisq.core.trade.messages.TradeMessage;
@@ -98,7 +99,7 @@ public class BuyerProtocol extends DisputeProtocol {
 
     public void onPaymentStarted(ResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
         System.out.println("BuyerProtocol.onPaymentStarted()");
-        new Thread(() -> {
+        HavenoUtils.submitToTradeThread(trade.getId(), () -> {
             synchronized (trade) {
                 latchTrade();
                 this.errorMessageHandler = errorMessageHandler;
@@ -128,7 +129,7 @@ public class BuyerProtocol extends DisputeProtocol {
                 }
                 awaitTradeLatch();
             }
-        }).start();
+        });
     }
 
     @SuppressWarnings("unchecked")
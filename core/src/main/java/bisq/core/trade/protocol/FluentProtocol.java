@@ -120,6 +120,7 @@ public class FluentProtocol {
         }
 
         TradeTaskRunner taskRunner = setup.getTaskRunner(peer, message, condition.getEvent());
+        taskRunner.setPhase(tradeProtocol.trade.getPhase().name());
         taskRunner.addTasks(setup.getTasks());
         taskRunner.run();
         return this;
@@ -18,6 +18,7 @@
 package bisq.core.trade.protocol;
 
 
+import bisq.core.trade.HavenoUtils;
 import bisq.core.trade.SellerAsMakerTrade;
 import bisq.core.trade.Trade;
 import bisq.core.trade.messages.InitTradeRequest;
@@ -48,7 +49,7 @@ public class SellerAsMakerProtocol extends SellerProtocol implements MakerProtoc
                                        NodeAddress peer,
                                        ErrorMessageHandler errorMessageHandler) {
         System.out.println(getClass().getCanonicalName() + ".handleInitTradeRequest()");
-        new Thread(() -> {
+        HavenoUtils.submitToTradeThread(trade.getId(), () -> {
             synchronized (trade) {
                 latchTrade();
                 this.errorMessageHandler = errorMessageHandler;
@@ -72,6 +73,6 @@ public class SellerAsMakerProtocol extends SellerProtocol implements MakerProtoc
                         .executeTasks(true);
                 awaitTradeLatch();
             }
-        }).start();
+        });
     }
 }
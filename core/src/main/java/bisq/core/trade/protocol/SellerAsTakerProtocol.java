@@ -19,6 +19,7 @@ package bisq.core.trade.protocol;
 
 
 import bisq.core.offer.Offer;
+import bisq.core.trade.HavenoUtils;
 import bisq.core.trade.SellerAsTakerTrade;
 import bisq.core.trade.Trade;
 import bisq.core.trade.handlers.TradeResultHandler;
@@ -55,7 +56,7 @@ public class SellerAsTakerProtocol extends SellerProtocol implements TakerProtoc
     public void onTakeOffer(TradeResultHandler tradeResultHandler,
                             ErrorMessageHandler errorMessageHandler) {
       System.out.println(getClass().getSimpleName() + ".onTakeOffer()");
-      new Thread(() -> {
+      HavenoUtils.submitToTradeThread(trade.getId(), () -> {
           synchronized (trade) {
               latchTrade();
               this.tradeResultHandler = tradeResultHandler;
@@ -79,7 +80,7 @@ public class SellerAsTakerProtocol extends SellerProtocol implements TakerProtoc
                       .executeTasks(true);
               awaitTradeLatch();
           }
-      }).start();
+      });
     }
 
     @Override
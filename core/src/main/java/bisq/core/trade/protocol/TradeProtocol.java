@@ -114,7 +114,7 @@ public abstract class TradeProtocol implements DecryptedDirectMessageListener, D
     }
 
     private void handle(TradeMessage message, NodeAddress peerNodeAddress) {
-        new Thread(() -> {
+        HavenoUtils.submitToTradeThread(trade.getId(), () -> {
             if (message instanceof DepositsConfirmedMessage) {
                 handle((DepositsConfirmedMessage) message, peerNodeAddress);
             } else if (message instanceof PaymentSentMessage) {
@@ -122,7 +122,7 @@ public abstract class TradeProtocol implements DecryptedDirectMessageListener, D
             } else if (message instanceof PaymentReceivedMessage) {
                 handle((PaymentReceivedMessage) message, peerNodeAddress);
             }
-        }).start();
+        });
     }
 
     @Override
@@ -244,7 +244,7 @@ public abstract class TradeProtocol implements DecryptedDirectMessageListener, D
         // handle trade events
         EasyBind.subscribe(trade.stateProperty(), state -> {
             if (state == Trade.State.DEPOSIT_TXS_CONFIRMED_IN_BLOCKCHAIN) {
-                new Thread(() -> sendDepositsConfirmedMessage()).start();
+                HavenoUtils.submitToTradeThread(trade.getId(), () -> sendDepositsConfirmedMessage());
             }
         });
 
@@ -311,7 +311,7 @@ public abstract class TradeProtocol implements DecryptedDirectMessageListener, D
             } else {
                 // process sign contract request after multisig created
                 EasyBind.subscribe(trade.stateProperty(), state -> {
-                    if (state == Trade.State.MULTISIG_COMPLETED) new Thread(() -> handleSignContractRequest(message, sender)).start(); // process notification without trade lock
+                    if (state == Trade.State.MULTISIG_COMPLETED) HavenoUtils.submitToTradeThread(trade.getId(), () -> handleSignContractRequest(message, sender)); // process notification without trade lock
                 });
             }
         }
@@ -346,7 +346,7 @@ public abstract class TradeProtocol implements DecryptedDirectMessageListener, D
             } else {
                 // process sign contract response after contract signed
                 EasyBind.subscribe(trade.stateProperty(), state -> {
-                    if (state == Trade.State.CONTRACT_SIGNED) new Thread(() -> handleSignContractResponse(message, sender)).start(); // process notification without trade lock
+                    if (state == Trade.State.CONTRACT_SIGNED) HavenoUtils.submitToTradeThread(trade.getId(), () -> handleSignContractResponse(message, sender)); // process notification without trade lock
                 });
             }
         }
@@ -28,5 +28,6 @@ public class TradeTaskRunner extends TaskRunner<Trade> {
     public TradeTaskRunner(Trade sharedModel, ResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
         //noinspection unchecked
         super(sharedModel, (Class<Trade>) Trade.class, resultHandler, errorMessageHandler);
+        setTraceId(sharedModel.getId());
     }
 }
@@ -29,6 +29,7 @@ import javax.inject.Named;
 
 import java.io.File;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -90,6 +91,11 @@ public class TradeStatistics2StorageService extends MapStoreService<TradeStatist
         return store.getMap();
     }
 
+    @Override
+    public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfAllDataView() {
+        return Collections.unmodifiableMap(store.getMap());
+    }
+
     @Override
     public boolean canHandle(PersistableNetworkPayload payload) {
         return payload instanceof TradeStatistics2;
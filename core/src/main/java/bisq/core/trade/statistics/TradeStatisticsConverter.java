@@ -62,7 +62,8 @@ public class TradeStatisticsConverter {
                                     AppendOnlyDataStoreService appendOnlyDataStoreService,
                                     @Named(Config.STORAGE_DIR) File storageDir) {
         File tradeStatistics2Store = new File(storageDir, "TradeStatistics2Store");
-        appendOnlyDataStoreService.addService(tradeStatistics2StorageService);
+        // The old trade statistics are only needed for the conversion, so we do not delay the startup with them
+        appendOnlyDataStoreService.addDeferredService(tradeStatistics2StorageService);
 
         p2PService.addP2PServiceListener(new BootstrapListener() {
 
@@ -72,8 +73,9 @@ public class TradeStatisticsConverter {
                     return;
                 }
                 executor = Utilities.getSingleThreadExecutor("TradeStatisticsConverter");
-                executor.submit(() -> {
-                    // We convert early once tor is initialized but still not ready to receive data
+                appendOnlyDataStoreService.runWhenLoaded(tradeStatistics2StorageService, () -> executor.submit(() -> {
+                    // We convert early once tor is initialized and the old store is loaded but still not ready to
+                    // receive data
                     Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> tempMap = new HashMap<>();
                     convertToTradeStatistics3(tradeStatistics2StorageService.getMapOfAllData().values())
                             .forEach(e -> tempMap.put(new P2PDataStorage.ByteArray(e.getHash()), e));
@@ -91,7 +93,7 @@ public class TradeStatisticsConverter {
                         e.printStackTrace();
                         log.error(e.toString());
                     }
-                });
+                }));
             }
 
             @Override
@@ -30,6 +30,7 @@ import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
 
 import bisq.common.config.Config;
 import bisq.common.file.JsonFileManager;
+import bisq.common.util.MemoryGovernor;
 import bisq.common.util.Utilities;
 
 import com.google.inject.Inject;
@@ -45,6 +46,7 @@ import java.time.Instant;
 import java.io.File;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -57,6 +59,10 @@ import javax.annotation.Nullable;
 @Singleton
 @Slf4j
 public class TradeStatisticsManager {
+    // We get many trade statistics in a burst after startup, so we dump them at most once in that interval
+    private static final long DUMP_STATISTICS_DELAY_SEC = 5;
+    private static final String TRADE_STATISTICS_FILE_NAME = "trade_statistics";
+
     private final P2PService p2PService;
     private final PriceFeedService priceFeedService;
     private final TradeStatistics3StorageService tradeStatistics3StorageService;
@@ -65,6 +71,7 @@ public class TradeStatisticsManager {
     private final boolean dumpStatistics;
     private final ObservableSet<TradeStatistics3> observableTradeStatisticsSet = FXCollections.observableSet();
     private JsonFileManager jsonFileManager;
+    private boolean statisticsFeedInitialized;
 
     @Inject
     public TradeStatisticsManager(P2PService p2PService,
@@ -99,13 +106,15 @@ public class TradeStatisticsManager {
                 if (!tradeStatistics.isValid()) {
                     return;
                 }
-                observableTradeStatisticsSet.add(tradeStatistics);
+                if (observableTradeStatisticsSet.add(tradeStatistics)) {
+                    maybeAppendToStatisticsFeed(tradeStatistics);
+                }
                 priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
                 maybeDumpStatistics();
             }
         });
 
-        Set<TradeStatistics3> set = tradeStatistics3StorageService.getMapOfAllData().values().stream()
+        Set<TradeStatistics3> set = tradeStatistics3StorageService.getMapOfAllDataView().values().stream()
                 .filter(e -> e instanceof TradeStatistics3)
                 .map(e -> (TradeStatistics3) e)
                 .filter(TradeStatistics3::isValid)
@@ -113,6 +122,7 @@ public class TradeStatisticsManager {
         observableTradeStatisticsSet.addAll(set);
         priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
         maybeDumpStatistics();
+        maybeInitStatisticsFeed();
     }
 
     public ObservableSet<TradeStatistics3> getObservableTradeStatisticsSet() {
@@ -124,54 +134,100 @@ public class TradeStatisticsManager {
             return;
         }
 
-        if (jsonFileManager == null) {
-            jsonFileManager = new JsonFileManager(storageDir);
-
-            // We only dump once the currencies as they do not change during runtime
-            ArrayList<CurrencyTuple> fiatCurrencyList = CurrencyUtil.getAllSortedFiatCurrencies().stream()
-                    .map(e -> new CurrencyTuple(e.getCode(), e.getName(), 8))
-                    .collect(Collectors.toCollection(ArrayList::new));
-            jsonFileManager.writeToDiscThreaded(JsonUtil.objectToJson(fiatCurrencyList), "fiat_currency_list");
-
-            ArrayList<CurrencyTuple> cryptoCurrencyList = CurrencyUtil.getAllSortedCryptoCurrencies().stream()
-                    .map(e -> new CurrencyTuple(e.getCode(), e.getName(), 8))
-                    .collect(Collectors.toCollection(ArrayList::new));
-            cryptoCurrencyList.add(0, new CurrencyTuple(Res.getBaseCurrencyCode(), Res.getBaseCurrencyName(), 8));
-            jsonFileManager.writeToDiscThreaded(JsonUtil.objectToJson(cryptoCurrencyList), "crypto_currency_list");
-
-            Instant yearAgo = Instant.ofEpochSecond(Instant.now().getEpochSecond() - TimeUnit.DAYS.toSeconds(365));
-            Set<String> activeCurrencies = observableTradeStatisticsSet.stream()
-                    .filter(e -> e.getDate().toInstant().isAfter(yearAgo))
-                    .map(p -> p.getCurrency())
-                    .collect(Collectors.toSet());
-
-            ArrayList<CurrencyTuple> activeFiatCurrencyList = fiatCurrencyList.stream()
-                    .filter(e -> activeCurrencies.contains(e.code))
-                    .map(e -> new CurrencyTuple(e.code, e.name, 8))
-                    .collect(Collectors.toCollection(ArrayList::new));
-            jsonFileManager.writeToDiscThreaded(JsonUtil.objectToJson(activeFiatCurrencyList), "active_fiat_currency_list");
-
-            ArrayList<CurrencyTuple> activeCryptoCurrencyList = cryptoCurrencyList.stream()
-                    .filter(e -> activeCurrencies.contains(e.code))
-                    .map(e -> new CurrencyTuple(e.code, e.name, 8))
-                    .collect(Collectors.toCollection(ArrayList::new));
-            jsonFileManager.writeToDiscThreaded(JsonUtil.objectToJson(activeCryptoCurrencyList), "active_crypto_currency_list");
+        maybeInitJsonFileManager();
+        jsonFileManager.writeToDiscDebounced(this::getTradeStatisticsWriter,
+                TRADE_STATISTICS_FILE_NAME,
+                DUMP_STATISTICS_DELAY_SEC);
+    }
+
+    @Nullable
+    private JsonFileManager.JsonContentWriter getTradeStatisticsWriter() {
+        // The dump creates the json of all trade statistics. We skip it under critical memory pressure, the next
+        // added item will trigger it again.
+        if (!MemoryGovernor.isLowPriorityWorkAllowed()) {
+            log.info("We skip dumping the trade statistics as memory pressure is critical");
+            return null;
         }
 
         List<TradeStatisticsForJson> list = observableTradeStatisticsSet.stream()
                 .map(TradeStatisticsForJson::new)
                 .sorted((o1, o2) -> (Long.compare(o2.tradeDate, o1.tradeDate)))
                 .collect(Collectors.toList());
-        TradeStatisticsForJson[] array = new TradeStatisticsForJson[list.size()];
-        list.toArray(array);
-        jsonFileManager.writeToDiscThreaded(JsonUtil.objectToJson(array), "trade_statistics");
+        return writer -> JsonUtil.writeJson(list, writer);
+    }
+
+    // The feed is a ndjson file with one trade statistic per line. At startup we write all trade statistics sorted by
+    // trade date, after that new trade statistics get appended in the order we receive them. Consumers can follow
+    // the file instead of parsing the whole trade_statistics.json after each change.
+    private void maybeInitStatisticsFeed() {
+        if (!dumpStatistics || statisticsFeedInitialized) {
+            return;
+        }
+
+        maybeInitJsonFileManager();
+        List<TradeStatisticsForJson> list = observableTradeStatisticsSet.stream()
+                .map(TradeStatisticsForJson::new)
+                .sorted(Comparator.comparingLong(o -> o.tradeDate))
+                .collect(Collectors.toList());
+        jsonFileManager.writeNdjsonToDiscThreaded(writer -> JsonUtil.writeJsonLines(list, writer),
+                TRADE_STATISTICS_FILE_NAME);
+        statisticsFeedInitialized = true;
+    }
+
+    private void maybeAppendToStatisticsFeed(TradeStatistics3 tradeStatistics) {
+        // Before the feed is initialized the new item will be included in the initial write
+        if (!dumpStatistics || !statisticsFeedInitialized) {
+            return;
+        }
+
+        List<TradeStatisticsForJson> list = List.of(new TradeStatisticsForJson(tradeStatistics));
+        jsonFileManager.appendNdjsonToDiscThreaded(writer -> JsonUtil.writeJsonLines(list, writer),
+                TRADE_STATISTICS_FILE_NAME);
+    }
+
+    private void maybeInitJsonFileManager() {
+        if (jsonFileManager != null) {
+            return;
+        }
+
+        jsonFileManager = new JsonFileManager(storageDir);
+
+        // We only dump once the currencies as they do not change during runtime
+        ArrayList<CurrencyTuple> fiatCurrencyList = CurrencyUtil.getAllSortedFiatCurrencies().stream()
+                .map(e -> new CurrencyTuple(e.getCode(), e.getName(), 8))
+                .collect(Collectors.toCollection(ArrayList::new));
+        jsonFileManager.writeToDiscThreaded(JsonUtil.objectToJson(fiatCurrencyList), "fiat_currency_list");
+
+        ArrayList<CurrencyTuple> cryptoCurrencyList = CurrencyUtil.getAllSortedCryptoCurrencies().stream()
+                .map(e -> new CurrencyTuple(e.getCode(), e.getName(), 8))
+                .collect(Collectors.toCollection(ArrayList::new));
+        cryptoCurrencyList.add(0, new CurrencyTuple(Res.getBaseCurrencyCode(), Res.getBaseCurrencyName(), 8));
+        jsonFileManager.writeToDiscThreaded(JsonUtil.objectToJson(cryptoCurrencyList), "crypto_currency_list");
+
+        Instant yearAgo = Instant.ofEpochSecond(Instant.now().getEpochSecond() - TimeUnit.DAYS.toSeconds(365));
+        Set<String> activeCurrencies = observableTradeStatisticsSet.stream()
+                .filter(e -> e.getDate().toInstant().isAfter(yearAgo))
+                .map(p -> p.getCurrency())
+                .collect(Collectors.toSet());
+
+        ArrayList<CurrencyTuple> activeFiatCurrencyList = fiatCurrencyList.stream()
+                .filter(e -> activeCurrencies.contains(e.code))
+                .map(e -> new CurrencyTuple(e.code, e.name, 8))
+                .collect(Collectors.toCollection(ArrayList::new));
+        jsonFileManager.writeToDiscThreaded(JsonUtil.objectToJson(activeFiatCurrencyList), "active_fiat_currency_list");
+
+        ArrayList<CurrencyTuple> activeCryptoCurrencyList = cryptoCurrencyList.stream()
+                .filter(e -> activeCurrencies.contains(e.code))
+                .map(e -> new CurrencyTuple(e.code, e.name, 8))
+                .collect(Collectors.toCollection(ArrayList::new));
+        jsonFileManager.writeToDiscThreaded(JsonUtil.objectToJson(activeCryptoCurrencyList), "active_crypto_currency_list");
     }
 
     public void maybeRepublishTradeStatistics(Set<Trade> trades,
                                               @Nullable String referralId,
                                               boolean isTorNetworkNode) {
         long ts = System.currentTimeMillis();
-        Set<P2PDataStorage.ByteArray> hashes = tradeStatistics3StorageService.getMapOfAllData().keySet();
+        Set<P2PDataStorage.ByteArray> hashes = tradeStatistics3StorageService.getMapOfAllDataView().keySet();
         trades.forEach(trade -> {
             if (trade instanceof BuyerTrade) {
                 log.debug("Trade: {} is a buyer trade, we only republish we have been seller.",
@@ -22,8 +22,13 @@ import bisq.core.offer.OfferPayload;
 import bisq.core.trade.Contract;
 import com.google.gson.ExclusionStrategy;
 import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import java.io.IOException;
+
+import java.util.Collection;
+
 
 public class JsonUtil {
     public static String objectToJson(Object object) {
@@ -37,6 +42,26 @@ public class JsonUtil {
         return gsonBuilder.create().toJson(object);
     }
 
+    // Streams the same json as objectToJson to the writer without building the json string
+    public static void writeJson(Object object, Appendable writer) {
+        new GsonBuilder()
+                .setExclusionStrategies(new AnnotationExclusionStrategy())
+                .setPrettyPrinting()
+                .create()
+                .toJson(object, writer);
+    }
+
+    // Streams each object as a compact json line (ndjson)
+    public static void writeJsonLines(Collection<?> objects, Appendable writer) throws IOException {
+        Gson gson = new GsonBuilder()
+                .setExclusionStrategies(new AnnotationExclusionStrategy())
+                .create();
+        for (Object object : objects) {
+            gson.toJson(object, writer);
+            writer.append('\n');
+        }
+    }
+
     private static class AnnotationExclusionStrategy implements ExclusionStrategy {
         @Override
         public boolean shouldSkipField(FieldAttributes f) {
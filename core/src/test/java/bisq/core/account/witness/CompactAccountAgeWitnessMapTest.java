@@ -0,0 +1,113 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.core.account.witness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompactAccountAgeWitnessMapTest {
+    private final Random random = new Random(1);
+
+    @Test
+    public void testPutAndGet() {
+        CompactAccountAgeWitnessMap map = new CompactAccountAgeWitnessMap();
+        // Enough witnesses to resize the table a few times
+        List<AccountAgeWitness> witnesses = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            AccountAgeWitness witness = new AccountAgeWitness(randomHash(), random.nextLong());
+            witnesses.add(witness);
+            assertTrue(map.putIfAbsent(witness));
+        }
+        assertEquals(witnesses.size(), map.size());
+        for (AccountAgeWitness witness : witnesses) {
+            assertTrue(map.contains(witness.getHash()));
+            AccountAgeWitness result = map.get(witness.getHash().clone()).orElseThrow();
+            assertArrayEquals(witness.getHash(), result.getHash());
+            assertEquals(witness.getDate(), result.getDate());
+            assertEquals(witness, result);
+        }
+        byte[] unknownHash = randomHash();
+        assertFalse(map.contains(unknownHash));
+        assertFalse(map.get(unknownHash).isPresent());
+    }
+
+    @Test
+    public void testFirstWitnessOfHashIsKept() {
+        CompactAccountAgeWitnessMap map = new CompactAccountAgeWitnessMap();
+        byte[] hash = randomHash();
+        assertTrue(map.putIfAbsent(new AccountAgeWitness(hash, 1)));
+        assertFalse(map.putIfAbsent(new AccountAgeWitness(hash.clone(), 2)));
+        assertEquals(1, map.get(hash).orElseThrow().getDate());
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testHashesWithCommonPrefix() {
+        CompactAccountAgeWitnessMap map = new CompactAccountAgeWitnessMap();
+        byte[] prefix = randomHash();
+        List<AccountAgeWitness> witnesses = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            byte[] hash = randomHash();
+            System.arraycopy(prefix, 0, hash, 0, Long.BYTES);
+            AccountAgeWitness witness = new AccountAgeWitness(hash, i);
+            witnesses.add(witness);
+            assertTrue(map.putIfAbsent(witness));
+        }
+        for (AccountAgeWitness witness : witnesses) {
+            assertEquals(witness.getDate(), map.get(witness.getHash()).orElseThrow().getDate());
+        }
+    }
+
+    @Test
+    public void testEnsureCapacity() {
+        CompactAccountAgeWitnessMap map = new CompactAccountAgeWitnessMap();
+        AccountAgeWitness witness = new AccountAgeWitness(randomHash(), 1);
+        map.putIfAbsent(witness);
+        map.ensureCapacity(100_000);
+        long footprint = map.getFootprint();
+        for (int i = 1; i < 100_000; i++) {
+            map.putIfAbsent(new AccountAgeWitness(randomHash(), i));
+        }
+        assertEquals(footprint, map.getFootprint());
+        assertTrue(map.contains(witness.getHash()));
+    }
+
+    @Test
+    public void testInvalidHashSize() {
+        CompactAccountAgeWitnessMap map = new CompactAccountAgeWitnessMap();
+        assertTrue(map.putIfAbsent(new AccountAgeWitness(new byte[0], 1)));
+        assertTrue(map.contains(new byte[0]));
+        assertEquals(1, map.get(new byte[0]).orElseThrow().getDate());
+        assertEquals(1, map.size());
+    }
+
+    private byte[] randomHash() {
+        byte[] hash = new byte[20];
+        random.nextBytes(hash);
+        return hash;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.core.account.witness;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class WitnessVerdictCacheTest {
+    private final AtomicInteger version = new AtomicInteger();
+    private final AtomicInteger numComputations = new AtomicInteger();
+    private final WitnessVerdictCache cache = new WitnessVerdictCache(version::get);
+    private final AccountAgeWitness witness = new AccountAgeWitness(new byte[20], 1);
+
+    @Test
+    public void testVerdictIsComputedOnce() {
+        WitnessVerdictCache.Verdict verdict = get(witness);
+        assertSame(verdict, get(new AccountAgeWitness(new byte[20], 1)));
+        assertEquals(1, numComputations.get());
+    }
+
+    @Test
+    public void testSignedWitnessChangeInvalidates() {
+        get(witness);
+        version.incrementAndGet();
+        get(witness);
+        assertEquals(2, numComputations.get());
+    }
+
+    @Test
+    public void testInvalidate() {
+        AccountAgeWitness other = new AccountAgeWitness(new byte[]{1, 2, 3}, 1);
+        get(witness);
+        get(other);
+        cache.invalidate(witness.getHash());
+        get(witness);
+        get(other);
+        assertEquals(3, numComputations.get());
+
+        cache.invalidateAll();
+        get(witness);
+        get(other);
+        assertEquals(5, numComputations.get());
+    }
+
+    private WitnessVerdictCache.Verdict get(AccountAgeWitness accountAgeWitness) {
+        return cache.get(accountAgeWitness, () -> {
+            numComputations.incrementAndGet();
+            return new WitnessVerdictCache.Verdict(false, false, Collections.emptyList());
+        });
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import monero.daemon.MoneroDaemon;
+import monero.daemon.model.MoneroKeyImageSpentStatus;
+
+import java.lang.reflect.Proxy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MoneroKeyImagePollerTest {
+    private long height = 100;
+    private List<String> txPoolHashes = new ArrayList<>();
+    private final Map<String, MoneroKeyImageSpentStatus> spentStatuses = new ConcurrentHashMap<>();
+    private final List<List<String>> queries = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void testQueriesOnlyOnChainStateChange() {
+        MoneroKeyImagePoller poller = new MoneroKeyImagePoller(createDaemon(), 1000, "a", "b");
+
+        poller.poll();
+        assertEquals(List.of(List.of("a", "b")), queries);
+
+        // Chain state did not change
+        queries.clear();
+        poller.poll();
+        assertTrue(queries.isEmpty());
+
+        // New block
+        height++;
+        poller.poll();
+        assertEquals(List.of(List.of("a", "b")), queries);
+
+        // Tx pool changed
+        queries.clear();
+        txPoolHashes = List.of("tx");
+        poller.poll();
+        assertEquals(List.of(List.of("a", "b")), queries);
+    }
+
+    @Test
+    public void testQueriesOnlyAddedKeyImages() {
+        MoneroKeyImagePoller poller = new MoneroKeyImagePoller(createDaemon(), 1000, "a", "b");
+        poller.poll();
+
+        queries.clear();
+        poller.addKeyImage("c");
+        poller.poll();
+        assertEquals(List.of(List.of("c")), queries);
+
+        queries.clear();
+        poller.poll();
+        assertTrue(queries.isEmpty());
+    }
+
+    @Test
+    public void testQueriesAllAfterDaemonChange() {
+        MoneroKeyImagePoller poller = new MoneroKeyImagePoller(createDaemon(), 1000, "a", "b");
+        poller.poll();
+
+        queries.clear();
+        poller.setDaemon(createDaemon());
+        poller.poll();
+        assertEquals(List.of(List.of("a", "b")), queries);
+    }
+
+    @Test
+    public void testSpentStatusChange() {
+        MoneroKeyImagePoller poller = new MoneroKeyImagePoller(createDaemon(), 1000, "a");
+        poller.poll();
+        assertFalse(poller.isSpent("a"));
+
+        spentStatuses.put("a", MoneroKeyImageSpentStatus.CONFIRMED);
+        poller.poll();
+        assertFalse(poller.isSpent("a"));
+
+        height++;
+        poller.poll();
+        assertTrue(poller.isSpent("a"));
+    }
+
+    @Test
+    public void testQueriesLargeSetsInChunks() {
+        List<String> keyImages = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            keyImages.add("key" + i);
+        }
+        MoneroKeyImagePoller poller = new MoneroKeyImagePoller(createDaemon(), 1000);
+        poller.addKeyImages(keyImages);
+        spentStatuses.put("key249", MoneroKeyImageSpentStatus.TX_POOL);
+        poller.poll();
+
+        assertEquals(3, queries.size());
+        assertEquals(250, queries.stream().mapToInt(List::size).sum());
+        assertFalse(poller.isSpent("key0"));
+        assertTrue(poller.isSpent("key249"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private MoneroDaemon createDaemon() {
+        return (MoneroDaemon) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{MoneroDaemon.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getHeight":
+                            return height;
+                        case "getTxPoolHashes":
+                            return new ArrayList<>(txPoolHashes);
+                        case "getKeyImageSpentStatuses":
+                            List<String> keyImages = new ArrayList<>((List<String>) args[0]);
+                            queries.add(keyImages);
+                            List<MoneroKeyImageSpentStatus> statuses = new ArrayList<>();
+                            for (String keyImage : keyImages) {
+                                statuses.add(spentStatuses.getOrDefault(keyImage, MoneroKeyImageSpentStatus.NOT_SPENT));
+                            }
+                            return statuses;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -1,6 +1,8 @@
 package bisq.core.offer;
 
 import bisq.core.api.CoreContext;
+import bisq.core.btc.wallet.XmrWalletService;
+import bisq.core.trade.HavenoUtils;
 import bisq.core.trade.TradableList;
 
 import bisq.network.p2p.P2PService;
@@ -15,14 +17,20 @@ import bisq.common.persistence.PersistenceManager;
 
 import java.nio.file.Files;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import static bisq.core.offer.OfferMaker.btcUsdOffer;
+import static bisq.core.offer.OfferMaker.id;
 import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -180,4 +188,68 @@ public class OpenOfferManagerTest {
         assertTrue(startEditOfferSuccessful.get());
     }
 
+    @Test
+    public void testProcessUnpostedOffersWithSaturatedTradeExecutor() throws Exception {
+        P2PService p2PService = mock(P2PService.class);
+        OfferBookService offerBookService = mock(OfferBookService.class);
+        XmrWalletService xmrWalletService = mock(XmrWalletService.class); // no wallet, so scheduled offers are processed right away
+        when(p2PService.getPeerManager()).thenReturn(mock(PeerManager.class));
+
+        final OpenOfferManager manager = new OpenOfferManager(coreContext,
+                null,
+                null,
+                p2PService,
+                null,
+                null,
+                xmrWalletService,
+                null,
+                offerBookService,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                persistenceManager,
+                signedOfferPersistenceManager,
+                null);
+
+        for (int i = 0; i < 3; i++) {
+            OpenOffer openOffer = new OpenOffer(make(btcUsdOffer.but(with(id, "scheduledOffer" + i))));
+            openOffer.setState(OpenOffer.State.SCHEDULED);
+            manager.addOpenOffer(openOffer);
+        }
+
+        // occupy all trade executor threads but one
+        int numBlockingTasks = HavenoUtils.TRADE_EXECUTOR_POOL_SIZE - 1;
+        CountDownLatch blockingTasksStarted = new CountDownLatch(numBlockingTasks);
+        CountDownLatch releaseBlockingTasks = new CountDownLatch(1);
+        for (int i = 0; i < numBlockingTasks; i++) {
+            HavenoUtils.submitToTradeThread("blockingTask" + i, () -> {
+                blockingTasksStarted.countDown();
+                HavenoUtils.awaitLatch(releaseBlockingTasks);
+            });
+        }
+
+        try {
+            assertTrue(blockingTasksStarted.await(10, TimeUnit.SECONDS));
+
+            // two concurrent calls complete one after the other on the single free thread
+            AtomicInteger numCompletedCalls = new AtomicInteger();
+            CountDownLatch processed = new CountDownLatch(2);
+            for (int i = 0; i < 2; i++) {
+                manager.processUnpostedOffers(transaction -> {
+                    numCompletedCalls.incrementAndGet();
+                    processed.countDown();
+                }, errorMessage -> processed.countDown());
+            }
+
+            assertTrue(processed.await(10, TimeUnit.SECONDS));
+            assertEquals(2, numCompletedCalls.get());
+        } finally {
+            releaseBlockingTasks.countDown();
+        }
+    }
 }
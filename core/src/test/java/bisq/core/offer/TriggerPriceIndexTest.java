@@ -0,0 +1,82 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.core.offer;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TriggerPriceIndexTest {
+
+    @Test
+    public void testGetTriggered() {
+        TriggerPriceIndex index = new TriggerPriceIndex();
+        index.add(openOffer("below-100", 100), true);
+        index.add(openOffer("below-200", 200), true);
+        index.add(openOffer("above-100", 100), false);
+        index.add(openOffer("above-200", 200), false);
+
+        assertEquals(Set.of("below-100", "below-200"), getTriggeredIds(index, 50));
+        assertEquals(Set.of("below-200"), getTriggeredIds(index, 100));
+        assertEquals(Set.of("below-200", "above-100"), getTriggeredIds(index, 150));
+        assertEquals(Set.of("above-100"), getTriggeredIds(index, 200));
+        assertEquals(Set.of("above-100", "above-200"), getTriggeredIds(index, 250));
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        TriggerPriceIndex index = new TriggerPriceIndex();
+        OpenOffer first = openOffer("first", 100);
+        OpenOffer second = openOffer("second", 100);
+        index.add(first, true);
+        index.add(second, true);
+        // Offers without trigger price are not indexed
+        index.add(openOffer("none", 0), true);
+        assertEquals(2, index.size());
+
+        // The state is part of the hashCode of OpenOffer, so we must find the offer after a state change
+        first.setState(OpenOffer.State.AVAILABLE);
+        index.remove(first);
+        assertFalse(index.contains(first));
+        assertEquals(Set.of("second"), getTriggeredIds(index, 50));
+
+        index.remove(second);
+        assertTrue(index.isEmpty());
+        assertTrue(index.getTriggered(50).isEmpty());
+    }
+
+    private static Set<String> getTriggeredIds(TriggerPriceIndex index, long marketPrice) {
+        List<OpenOffer> triggered = index.getTriggered(marketPrice);
+        return triggered.stream().map(OpenOffer::getId).collect(Collectors.toSet());
+    }
+
+    private static OpenOffer openOffer(String id, long triggerPrice) {
+        OfferPayload payload = mock(OfferPayload.class);
+        when(payload.getId()).thenReturn(id);
+        return new OpenOffer(new Offer(payload), triggerPrice);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import bisq.core.api.CoreContext;
+import bisq.core.provider.mempool.MempoolService;
+import bisq.core.provider.price.PriceFeedService;
+import bisq.core.trade.TradableList;
+
+import bisq.network.p2p.P2PService;
+import bisq.network.p2p.peers.PeerManager;
+
+import bisq.common.crypto.KeyRing;
+import bisq.common.crypto.KeyStorage;
+import bisq.common.file.CorruptedStorageFileHandler;
+import bisq.common.persistence.PersistenceManager;
+
+import javafx.beans.property.SimpleIntegerProperty;
+
+import java.nio.file.Files;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static bisq.core.offer.OfferMaker.btcUsdOffer;
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TriggerPriceServiceTest {
+    private PersistenceManager<TradableList<OpenOffer>> persistenceManager;
+    private PersistenceManager<SignedOfferList> signedOfferPersistenceManager;
+    private OpenOfferManager openOfferManager;
+    private TriggerPriceService triggerPriceService;
+
+    @Before
+    public void setUp() throws Exception {
+        var corruptedStorageFileHandler = mock(CorruptedStorageFileHandler.class);
+        var storageDir = Files.createTempDirectory("storage").toFile();
+        var keyRing = new KeyRing(new KeyStorage(storageDir));
+        persistenceManager = new PersistenceManager<>(storageDir, null, corruptedStorageFileHandler, keyRing);
+        signedOfferPersistenceManager = new PersistenceManager<>(storageDir, null, corruptedStorageFileHandler, keyRing);
+
+        P2PService p2PService = mock(P2PService.class);
+        when(p2PService.getPeerManager()).thenReturn(mock(PeerManager.class));
+        when(p2PService.isBootstrapped()).thenReturn(true);
+        openOfferManager = new OpenOfferManager(new CoreContext(),
+                null,
+                null,
+                p2PService,
+                null,
+                null,
+                null,
+                null,
+                mock(OfferBookService.class),
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                persistenceManager,
+                signedOfferPersistenceManager,
+                null);
+
+        // no market price, so no offer gets deactivated by the service
+        PriceFeedService priceFeedService = mock(PriceFeedService.class);
+        when(priceFeedService.updateCounterProperty()).thenReturn(new SimpleIntegerProperty(0));
+        triggerPriceService = new TriggerPriceService(p2PService, openOfferManager, mock(MempoolService.class), priceFeedService);
+        triggerPriceService.onAllServicesInitialized();
+    }
+
+    @After
+    public void tearDown() {
+        persistenceManager.shutdown();
+        signedOfferPersistenceManager.shutdown();
+    }
+
+    @Test
+    public void testIndexFollowsOfferState() {
+        OpenOffer openOffer = new OpenOffer(make(btcUsdOffer), 100);
+        openOfferManager.addOpenOffer(openOffer);
+        assertTrue(triggerPriceService.isIndexed(openOffer));
+
+        openOffer.setState(OpenOffer.State.RESERVED);
+        assertTrue(triggerPriceService.isIndexed(openOffer));
+
+        openOffer.setState(OpenOffer.State.DEACTIVATED);
+        assertFalse(triggerPriceService.isIndexed(openOffer));
+
+        openOffer.setState(OpenOffer.State.AVAILABLE);
+        assertTrue(triggerPriceService.isIndexed(openOffer));
+
+        openOffer.setState(OpenOffer.State.CLOSED);
+        assertFalse(triggerPriceService.isIndexed(openOffer));
+    }
+
+    @Test
+    public void testEditOffer() {
+        OpenOffer openOffer = new OpenOffer(make(btcUsdOffer), 100);
+        openOffer.setState(OpenOffer.State.DEACTIVATED);
+        openOfferManager.addOpenOffer(openOffer);
+        openOfferManager.editOpenOfferStart(openOffer, () -> {}, null);
+        assertFalse(triggerPriceService.isIndexed(openOffer));
+
+        // the deactivated offer must not be indexed again when it gets canceled before it is removed
+        AtomicBoolean indexedWhenCanceled = new AtomicBoolean();
+        openOffer.stateProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue == OpenOffer.State.CANCELED) {
+                indexedWhenCanceled.set(triggerPriceService.isIndexed(openOffer));
+            }
+        });
+
+        openOfferManager.editOpenOfferPublish(make(btcUsdOffer), 200, OpenOffer.State.DEACTIVATED, () -> {}, null);
+        assertFalse(indexedWhenCanceled.get());
+
+        OpenOffer publishedOpenOffer = openOfferManager.getOpenOfferById(openOffer.getId()).get();
+        assertNotSame(openOffer, publishedOpenOffer);
+        assertFalse(triggerPriceService.isIndexed(publishedOpenOffer));
+
+        publishedOpenOffer.setState(OpenOffer.State.AVAILABLE);
+        assertTrue(triggerPriceService.isIndexed(publishedOpenOffer));
+    }
+}
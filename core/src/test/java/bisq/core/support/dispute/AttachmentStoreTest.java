@@ -0,0 +1,115 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.core.support.dispute;
+
+import bisq.common.crypto.KeyRing;
+import bisq.common.crypto.KeyStorage;
+import bisq.common.file.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AttachmentStoreTest {
+    private File dir;
+    private AttachmentStore attachmentStore;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("temp_tests", "");
+        //noinspection ResultOfMethodCallIgnored
+        dir.delete();
+        //noinspection ResultOfMethodCallIgnored
+        dir.mkdir();
+        KeyRing keyRing = new KeyRing(new KeyStorage(dir), null, true);
+        attachmentStore = new AttachmentStore(dir, keyRing);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtil.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testStoreAndRead() throws IOException {
+        byte[] bytes = randomBytes(200_000);
+        Attachment attachment = new Attachment("file.png", bytes);
+        assertFalse(attachmentStore.contains(attachment.getHash()));
+
+        Attachment stored = attachmentStore.store(attachment);
+        assertTrue(stored.isStored());
+        assertNull(stored.getBytes());
+        assertEquals(bytes.length, stored.getSize());
+        assertTrue(attachmentStore.contains(attachment.getHash()));
+        assertArrayEquals(bytes, attachmentStore.getBytes(stored).orElseThrow());
+    }
+
+    @Test
+    public void testEqualBytesAreStoredOnce() throws IOException {
+        byte[] bytes = randomBytes(1000);
+        attachmentStore.store(new Attachment("a.txt", bytes));
+        Attachment stored = attachmentStore.store(new Attachment("b.txt", bytes.clone()));
+        assertEquals("b.txt", stored.getFileName());
+        assertEquals(1, new File(dir, "attachments").listFiles().length);
+    }
+
+    @Test
+    public void testProtoRoundTripKeepsReference() throws IOException {
+        Attachment stored = attachmentStore.store(new Attachment("file.pdf", randomBytes(1000)));
+        Attachment fromProto = Attachment.fromProto(stored.toProtoMessage());
+        assertTrue(fromProto.isStored());
+        assertEquals(stored, fromProto);
+    }
+
+    @Test
+    public void testProtoRoundTripOfEmptyAttachment() throws IOException {
+        Attachment attachment = new Attachment("empty.txt", new byte[0]);
+        Attachment fromProto = Attachment.fromProto(attachment.toProtoMessage());
+        assertFalse(fromProto.isStored());
+        assertArrayEquals(new byte[0], fromProto.getBytes());
+
+        Attachment stored = attachmentStore.store(fromProto);
+        assertTrue(Attachment.fromProto(stored.toProtoMessage()).isStored());
+        assertArrayEquals(new byte[0], attachmentStore.getBytes(stored).orElseThrow());
+    }
+
+    @Test
+    public void testMissingAttachment() throws IOException {
+        Attachment stored = attachmentStore.store(new Attachment("file.pdf", randomBytes(1000)));
+        FileUtil.deleteDirectory(new File(dir, "attachments"));
+        assertFalse(attachmentStore.getBytes(stored).isPresent());
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
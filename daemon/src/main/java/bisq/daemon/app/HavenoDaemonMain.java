@@ -26,6 +26,7 @@ import bisq.common.UserThread;
 import bisq.common.app.AppModule;
 import bisq.common.crypto.IncorrectPasswordException;
 import bisq.common.handlers.ResultHandler;
+import bisq.common.metrics.MetricsHttpServer;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
@@ -43,6 +44,7 @@ import bisq.daemon.grpc.GrpcServer;
 public class HavenoDaemonMain extends HavenoHeadlessAppMain implements HavenoSetup.HavenoSetupListener {
 
     private GrpcServer grpcServer;
+    private MetricsHttpServer metricsHttpServer;
 
     public static void main(String[] args) {
         new HavenoDaemonMain().execute(args);
@@ -92,6 +94,8 @@ public class HavenoDaemonMain extends HavenoHeadlessAppMain implements HavenoSet
 
     @Override
     protected void startApplication() {
+        metricsHttpServer = MetricsHttpServer.maybeStart(config.metricsPort);
+
         // We need to be in user thread! We mapped at launchApplication already...
         headlessApp.startApplication();
 
@@ -109,6 +113,7 @@ public class HavenoDaemonMain extends HavenoHeadlessAppMain implements HavenoSet
     public void gracefulShutDown(ResultHandler resultHandler) {
         super.gracefulShutDown(resultHandler);
         if (grpcServer != null) grpcServer.shutdown(); // could be null if application attempted to shutdown early
+        if (metricsHttpServer != null) metricsHttpServer.shutDown();
     }
 
     /**
@@ -29,6 +29,7 @@ import static bisq.proto.grpc.AccountGrpc.getRestoreAccountMethod;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 import bisq.common.crypto.IncorrectPasswordException;
+import bisq.common.util.ChunkedArchive;
 import bisq.core.api.CoreApi;
 import bisq.daemon.grpc.interceptor.CallRateMeteringInterceptor;
 import bisq.daemon.grpc.interceptor.GrpcCallRateMeter;
@@ -55,12 +56,22 @@ import bisq.proto.grpc.RestoreAccountReply;
 import bisq.proto.grpc.RestoreAccountRequest;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 import io.grpc.ServerInterceptor;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.HashMap;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 
@@ -71,7 +82,7 @@ public class GrpcAccountService extends AccountImplBase {
     private final CoreApi coreApi;
     private final GrpcExceptionHandler exceptionHandler;
 
-    private ByteArrayOutputStream restoreStream; // in memory stream for restoring account
+    private File restoreFile; // partially uploaded backup for restoring account
 
     @Inject
     public GrpcAccountService(CoreApi coreApi, GrpcExceptionHandler exceptionHandler) {
@@ -182,6 +193,10 @@ public class GrpcAccountService extends AccountImplBase {
 
     @Override
     public void backupAccount(BackupAccountRequest req, StreamObserver<BackupAccountReply> responseObserver) {
+        if (req.getFormat() == BackupAccountRequest.Format.CHUNKED) {
+            backupAccountChunked(responseObserver);
+            return;
+        }
 
         // Send in large chunks to reduce unnecessary overhead. Typical backup will not be more than a few MB.
         // From current testing it appears that client gRPC-web is slow in processing the bytes on download.
@@ -212,55 +227,148 @@ public class GrpcAccountService extends AccountImplBase {
         }
     }
 
+    // Send the chunked archive as the client is ready to receive it instead of buffering it in a pipe.
+    private void backupAccountChunked(StreamObserver<BackupAccountReply> responseObserver) {
+        var serverObserver = (ServerCallStreamObserver<BackupAccountReply>) responseObserver;
+        AtomicReference<ChunkedArchive.Writer> writerRef = new AtomicReference<>();
+        AtomicBoolean isDone = new AtomicBoolean();
+        AtomicLong total = new AtomicLong();
+        Runnable sendWhileReady = () -> {
+            synchronized (writerRef) {
+                ChunkedArchive.Writer writer = writerRef.get();
+                if (writer == null || isDone.get()) return;
+                try {
+                    while (serverObserver.isReady()) {
+                        byte[] bytes = writer.next();
+                        if (bytes == null) {
+                            isDone.set(true);
+                            writer.close();
+                            log.info("Completed backup account total sent: " + total.get());
+                            serverObserver.onCompleted();
+                            return;
+                        }
+                        total.addAndGet(bytes.length);
+                        // the encoded chunk is not used after sending, so it's wrapped instead of copied once more
+                        serverObserver.onNext(BackupAccountReply.newBuilder()
+                                .setZipBytes(UnsafeByteOperations.unsafeWrap(bytes))
+                                .build());
+                    }
+                } catch (Throwable cause) {
+                    isDone.set(true);
+                    writer.close();
+                    exceptionHandler.handleException(log, cause, responseObserver);
+                }
+            }
+        };
+
+        // handlers must be set before this method returns
+        serverObserver.setOnReadyHandler(sendWhileReady);
+        serverObserver.setOnCancelHandler(() -> {
+            synchronized (writerRef) {
+                isDone.set(true);
+                if (writerRef.get() != null) writerRef.get().close();
+            }
+            log.warn("Backup account was cancelled by the client after sending {} bytes", total.get());
+        });
+        try {
+            coreApi.backupAccountChunked(ChunkedArchive.DEFAULT_CHUNK_SIZE, writer -> {
+                synchronized (writerRef) {
+                    if (isDone.get()) {
+                        writer.close();
+                        return;
+                    }
+                    writerRef.set(writer);
+                }
+                sendWhileReady.run();
+            }, (ex) -> exceptionHandler.handleException(log, ex, responseObserver));
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
     @Override
     public void restoreAccount(RestoreAccountRequest req, StreamObserver<RestoreAccountReply> responseObserver) {
         try {
             // Fail fast since uploading and processing bytes takes resources.
             if (coreApi.accountExists()) throw new IllegalStateException("Cannot restore account if there is an existing account");
 
-            // If the entire zip is in memory, no need to write to disk.
-            // Restore the account directly from the zip stream.
+            // If the entire backup is in memory, no need to write to disk.
+            // Restore the account directly from the backup stream.
             if (!req.getHasMore() && req.getOffset() == 0) {
+                deleteRestoreFile();
                 var inputStream = req.getZipBytes().newInput();
                 coreApi.restoreAccount(inputStream, 1024 * 64, () -> {
                     var reply = RestoreAccountReply.newBuilder().build();
                     responseObserver.onNext(reply);
                     responseObserver.onCompleted();  // reply after shutdown
                 });
-            } else {
-                if (req.getOffset() == 0) {
-                    log.info("RestoreAccount starting new chunked zip");
-                    restoreStream = new ByteArrayOutputStream((int) req.getTotalLength());
-                }
-                if (restoreStream.size() != req.getOffset()) {
-                    log.warn("Stream offset doesn't match current position");
-                    IllegalStateException cause = new IllegalStateException("Stream offset doesn't match current position");
-                    exceptionHandler.handleException(log, cause, responseObserver);
-                } else {
-                    log.info("RestoreAccount writing chunk size " + req.getZipBytes().size());
-                    req.getZipBytes().writeTo(restoreStream);
-                }
+                return;
+            }
+
+            // Write chunks to a file which is kept until the upload completes, so an interrupted
+            // upload can be resumed by sending the chunk at the last acknowledged next_offset.
+            // The file is kept if a chunk fails, and deleted when the restore succeeds or a new upload starts.
+            if (req.getOffset() == 0) {
+                log.info("RestoreAccount starting new chunked upload");
+                deleteRestoreFile();
+                restoreFile = createRestoreFile();
+            }
+            if (restoreFile == null) throw new IllegalStateException("No upload to resume, restore must start at offset 0");
+            long restoreFileLength = restoreFile.length();
+            if (req.getOffset() > restoreFileLength) {
+                throw new IllegalStateException("Stream offset " + req.getOffset() + " is beyond current position " + restoreFileLength);
+            }
+            if (req.getOffset() < restoreFileLength) log.info("RestoreAccount resuming upload at offset " + req.getOffset());
+            log.info("RestoreAccount writing chunk size " + req.getZipBytes().size());
+            try (var file = new RandomAccessFile(restoreFile, "rw"); var channel = file.getChannel()) {
+                file.setLength(req.getOffset());
+                channel.position(req.getOffset());
+                var buffer = req.getZipBytes().asReadOnlyByteBuffer();
+                while (buffer.hasRemaining()) channel.write(buffer);
+            }
+            long nextOffset = req.getOffset() + req.getZipBytes().size();
 
-                if (!req.getHasMore()) {
-                    var inputStream = new ByteArrayInputStream(restoreStream.toByteArray());
-                    restoreStream.close();
-                    restoreStream = null;
+            if (!req.getHasMore()) {
+                try (var inputStream = new FileInputStream(restoreFile)) {
                     coreApi.restoreAccount(inputStream, 1024 * 64, () -> {
-                        var reply = RestoreAccountReply.newBuilder().build();
+                        var reply = RestoreAccountReply.newBuilder().setNextOffset(nextOffset).build();
                         responseObserver.onNext(reply);
                         responseObserver.onCompleted(); // reply after shutdown
                     });
-                } else {
-                    var reply = RestoreAccountReply.newBuilder().build();
-                    responseObserver.onNext(reply);
-                    responseObserver.onCompleted();
                 }
+                deleteRestoreFile();
+            } else {
+                var reply = RestoreAccountReply.newBuilder().setNextOffset(nextOffset).build();
+                responseObserver.onNext(reply);
+                responseObserver.onCompleted();
             }
         } catch (Throwable cause) {
             exceptionHandler.handleException(log, cause, responseObserver);
         }
     }
 
+    // The backup contains the wallet keys, so it's written to the app data dir and only readable by its owner.
+    private File createRestoreFile() throws IOException {
+        var dir = coreApi.getConfig().appDataDir.toPath();
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            return Files.createTempFile(dir, "haveno-restore", ".tmp",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"))).toFile();
+        }
+        File file = Files.createTempFile(dir, "haveno-restore", ".tmp").toFile();
+        if (!file.setReadable(false, false) || !file.setReadable(true, true) ||
+                !file.setWritable(false, false) || !file.setWritable(true, true)) {
+            log.warn("Could not restrict permissions of restore file " + file);
+        }
+        return file;
+    }
+
+    private void deleteRestoreFile() {
+        if (restoreFile != null) {
+            if (!restoreFile.delete()) log.warn("Could not delete partial restore file " + restoreFile);
+            restoreFile = null;
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
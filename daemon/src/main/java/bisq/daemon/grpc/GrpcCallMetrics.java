@@ -0,0 +1,144 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc;
+
+import bisq.common.metrics.Counter;
+import bisq.common.metrics.MetricsRegistry;
+import bisq.common.util.LatencyHistogram;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.Getter;
+
+import static java.util.stream.Collectors.joining;
+
+
+
+import bisq.daemon.grpc.interceptor.CallRateMeteringInterceptor;
+import bisq.daemon.grpc.interceptor.CallRateMeteringInterceptor.MeteredMethod;
+
+/**
+ * Per rpc method execution metrics, keyed by the method descriptor's full method name
+ * (e.g. 'io.bisq.protobuffer.Trades/TakeOffer').  Queue depth and queue time are
+ * recorded by {@link GrpcServiceExecutors}, the call latency (from the start of the
+ * call until it got closed) by the
+ * {@link bisq.daemon.grpc.interceptor.CallMetricsInterceptor}.  The current and peak
+ * call rates of the rate metered methods are taken from the services'
+ * {@link CallRateMeteringInterceptor}s, which count the rejected calls themselves.  All metrics are also registered in the
+ * {@link MetricsRegistry}, labelled with the method name.
+ */
+@Singleton
+public class GrpcCallMetrics {
+
+    @Getter
+    public static class MethodMetrics {
+        // Number of tasks of this method waiting for a thread of the service's pool
+        private final AtomicInteger queueDepth = new AtomicInteger();
+        private final Counter numCalls;
+        private final Counter numCancelledCalls;
+        // All values in ms
+        private final LatencyHistogram queueTime;
+        private final LatencyHistogram latency;
+
+        private MethodMetrics(String fullMethodName) {
+            MetricsRegistry registry = MetricsRegistry.getInstance();
+            numCalls = registry.counter("grpc_calls", "Started gRPC calls", "method", fullMethodName);
+            numCancelledCalls = registry.counter("grpc_cancelled_calls", "Cancelled gRPC calls",
+                    "method", fullMethodName);
+            queueTime = registry.histogram("grpc_queue_time_ms",
+                    "Time a gRPC call task waited for a thread of its service's pool", "method", fullMethodName);
+            latency = registry.histogram("grpc_call_latency_ms", "Time from the start of a gRPC call until it was closed",
+                    "method", fullMethodName);
+            registry.gauge("grpc_queue_depth", "Number of gRPC call tasks waiting for a thread of their service's pool",
+                    queueDepth::get, "method", fullMethodName);
+        }
+
+        @Override
+        public String toString() {
+            return "queueDepth=" + queueDepth.get() +
+                    ", numCalls=" + numCalls.get() +
+                    ", numCancelledCalls=" + numCancelledCalls.get() +
+                    ", queueTime=" + queueTime +
+                    ", latency=" + latency;
+        }
+    }
+
+    private final Map<String, MethodMetrics> metricsByMethod = new ConcurrentHashMap<>();
+    private final List<CallRateMeteringInterceptor> rateMeteringInterceptors = new CopyOnWriteArrayList<>();
+
+    @Inject
+    public GrpcCallMetrics() {
+    }
+
+    public MethodMetrics getMethodMetrics(String fullMethodName) {
+        return metricsByMethod.computeIfAbsent(fullMethodName, MethodMetrics::new);
+    }
+
+    public Map<String, MethodMetrics> getMetricsByMethod() {
+        return Collections.unmodifiableMap(new TreeMap<>(metricsByMethod));
+    }
+
+    public void addRateMeteringInterceptor(CallRateMeteringInterceptor rateMeteringInterceptor) {
+        rateMeteringInterceptors.add(rateMeteringInterceptor);
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        rateMeteringInterceptor.getMeteredMethods().forEach((methodName, meteredMethod) -> {
+            registry.gauge("grpc_rate_meter_calls", "Calls of all clients in the current rate meter time window",
+                    meteredMethod::getCallsCount, "method", methodName);
+            registry.gauge("grpc_rate_meter_peak_calls", "Highest number of calls of a client in one rate meter time window",
+                    meteredMethod::getPeakCallsCount, "method", methodName);
+            registry.gauge("grpc_rate_meter_allowed_calls", "Allowed calls of a client per rate meter time window",
+                    () -> meteredMethod.getRateMeter().getAllowedCallsPerTimeWindow(), "method", methodName);
+            // The rejected calls are counted by a registry counter of the meteredMethod
+        });
+    }
+
+    public Map<String, MeteredMethod> getMeteredMethods() {
+        Map<String, MeteredMethod> meteredMethods = new TreeMap<>();
+        rateMeteringInterceptors.forEach(interceptor -> meteredMethods.putAll(interceptor.getMeteredMethods()));
+        return meteredMethods;
+    }
+
+    public boolean isEmpty() {
+        return metricsByMethod.isEmpty();
+    }
+
+    public String getInfo() {
+        String callMetrics = getMetricsByMethod().entrySet().stream()
+                .map(e -> e.getKey() + ": " + e.getValue())
+                .collect(joining("\n\t", "GrpcCallMetrics:\n\t", ""));
+        String callRates = getMeteredMethods().entrySet().stream()
+                .filter(e -> e.getValue().getNumClients() > 0)
+                .map(e -> e.getKey() + ": callsCount=" + e.getValue().getCallsCount() +
+                        ", peakCallsCount=" + e.getValue().getPeakCallsCount() +
+                        ", allowedCallsPerTimeWindow=" + e.getValue().getRateMeter().getAllowedCallsPerTimeWindow() +
+                        ", timeWindowInMs=" + e.getValue().getRateMeter().getTimeUnitIntervalInMilliseconds() +
+                        ", numRejectedCalls=" + e.getValue().getNumRejectedCalls())
+                .collect(joining("\n\t", "\nGrpcCallRates:\n\t", ""));
+        return callMetrics + callRates;
+    }
+}
@@ -8,6 +8,8 @@ import bisq.core.trade.HavenoUtils;
 import bisq.common.proto.ProtoUtil;
 
 import bisq.proto.grpc.DisputesGrpc.DisputesImplBase;
+import bisq.proto.grpc.GetDisputeAttachmentReply;
+import bisq.proto.grpc.GetDisputeAttachmentRequest;
 import bisq.proto.grpc.GetDisputeReply;
 import bisq.proto.grpc.GetDisputeRequest;
 import bisq.proto.grpc.GetDisputesReply;
@@ -19,11 +21,15 @@ import bisq.proto.grpc.ResolveDisputeRequest;
 import bisq.proto.grpc.SendDisputeChatMessageReply;
 import bisq.proto.grpc.SendDisputeChatMessageRequest;
 
+import com.google.protobuf.ByteString;
+
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
 
 import javax.inject.Inject;
 
+import java.io.InputStream;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Optional;
@@ -32,6 +38,7 @@ import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 
 import static bisq.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
+import static bisq.proto.grpc.DisputesGrpc.getGetDisputeAttachmentMethod;
 import static bisq.proto.grpc.DisputesGrpc.getGetDisputeMethod;
 import static bisq.proto.grpc.DisputesGrpc.getGetDisputesMethod;
 import static bisq.proto.grpc.DisputesGrpc.getOpenDisputeMethod;
@@ -44,6 +51,7 @@ import bisq.daemon.grpc.interceptor.GrpcCallRateMeter;
 
 @Slf4j
 public class GrpcDisputesService extends DisputesImplBase {
+    private static final int ATTACHMENT_CHUNK_SIZE = 64 * 1024;
 
     private final CoreApi coreApi;
     private final GrpcExceptionHandler exceptionHandler;
@@ -135,6 +143,24 @@ public class GrpcDisputesService extends DisputesImplBase {
         }
     }
 
+    @Override
+    public void getDisputeAttachment(GetDisputeAttachmentRequest req,
+                                     StreamObserver<GetDisputeAttachmentReply> responseObserver) {
+        try (InputStream inputStream = coreApi.openDisputeAttachment(req.getHash().toByteArray())) {
+            byte[] buffer = new byte[ATTACHMENT_CHUNK_SIZE];
+            int read;
+            while ((read = inputStream.readNBytes(buffer, 0, buffer.length)) > 0) {
+                var reply = GetDisputeAttachmentReply.newBuilder()
+                        .setBytes(ByteString.copyFrom(buffer, 0, read))
+                        .build();
+                responseObserver.onNext(reply);
+            }
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -147,6 +173,7 @@ public class GrpcDisputesService extends DisputesImplBase {
                         new HashMap<>() {{
                             put(getGetDisputeMethod().getFullMethodName(), new GrpcCallRateMeter(20, SECONDS));
                             put(getGetDisputesMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
+                            put(getGetDisputeAttachmentMethod().getFullMethodName(), new GrpcCallRateMeter(20, SECONDS));
                             put(getResolveDisputeMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                             put(getOpenDisputeMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                             put(getSendDisputeChatMessageMethod().getFullMethodName(), new GrpcCallRateMeter(20, SECONDS));
@@ -24,6 +24,7 @@ import bisq.proto.grpc.TakeOfferReply;
 
 import protobuf.AvailabilityResult;
 
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 import org.slf4j.Logger;
@@ -67,6 +68,14 @@ public class GrpcErrorMessageHandler implements ErrorMessageHandler {
         this.exceptionHandler = exceptionHandler;
         this.responseObserver = responseObserver;
         this.log = log;
+
+        // The core operation is not aborted if the client cancels the call or its
+        // deadline expires.  Registering a cancel handler lets the late reply or error
+        // of the core callbacks be dropped instead of throwing a CANCELLED exception
+        // into the core task runner.
+        if (responseObserver instanceof ServerCallStreamObserver)
+            ((ServerCallStreamObserver<?>) responseObserver).setOnCancelHandler(() ->
+                    log.warn("{} call was cancelled, the core operation continues", fullMethodName));
     }
 
     @Override
@@ -19,11 +19,15 @@ package bisq.daemon.grpc;
 
 import bisq.core.api.CoreContext;
 
+import bisq.common.Timer;
 import bisq.common.UserThread;
 import bisq.common.config.Config;
 
+import io.grpc.BindableService;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerServiceDefinition;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -31,24 +35,39 @@ import javax.inject.Singleton;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
 import lombok.extern.slf4j.Slf4j;
 
 import static io.grpc.ServerInterceptors.interceptForward;
 
 
 
+import bisq.daemon.grpc.interceptor.CallDeadlineInterceptor;
+import bisq.daemon.grpc.interceptor.CallMetricsInterceptor;
+import bisq.daemon.grpc.interceptor.CallRateMeteringInterceptor;
 import bisq.daemon.grpc.interceptor.PasswordAuthInterceptor;
 
 @Singleton
 @Slf4j
 public class GrpcServer {
 
+    private static final long LOG_CALL_METRICS_INTERVAL_MIN = 30;
+
     private final Server server;
+    private final GrpcServiceExecutors serviceExecutors;
+    private final GrpcCallMetrics callMetrics;
+    private Timer logCallMetricsTimer;
 
     @Inject
     public GrpcServer(CoreContext coreContext,
                       Config config,
                       PasswordAuthInterceptor passwordAuthInterceptor,
+                      CallMetricsInterceptor callMetricsInterceptor,
+                      CallDeadlineInterceptor callDeadlineInterceptor,
+                      GrpcServiceExecutors serviceExecutors,
+                      GrpcCallMetrics callMetrics,
                       GrpcAccountService accountService,
                       GrpcDisputeAgentsService disputeAgentsService,
                       GrpcDisputesService disputesService,
@@ -64,31 +83,49 @@ public class GrpcServer {
                       GrpcNotificationsService notificationsService,
                       GrpcMoneroConnectionsService moneroConnectionsService,
                       GrpcMoneroNodeService moneroNodeService) {
+        this.serviceExecutors = serviceExecutors;
+        this.callMetrics = callMetrics;
         this.server = ServerBuilder.forPort(config.apiPort)
-                .addService(interceptForward(accountService, accountService.interceptors()))
-                .addService(interceptForward(disputeAgentsService, disputeAgentsService.interceptors()))
-                .addService(interceptForward(disputesService, disputesService.interceptors()))
-                .addService(interceptForward(helpService, helpService.interceptors()))
-                .addService(interceptForward(offersService, offersService.interceptors()))
-                .addService(interceptForward(paymentAccountsService, paymentAccountsService.interceptors()))
-                .addService(interceptForward(priceService, priceService.interceptors()))
+                .callExecutor(serviceExecutors)
+                .addService(withInterceptors(accountService, accountService.interceptors()))
+                .addService(withInterceptors(disputeAgentsService, disputeAgentsService.interceptors()))
+                .addService(withInterceptors(disputesService, disputesService.interceptors()))
+                .addService(withInterceptors(helpService, helpService.interceptors()))
+                .addService(withInterceptors(offersService, offersService.interceptors()))
+                .addService(withInterceptors(paymentAccountsService, paymentAccountsService.interceptors()))
+                .addService(withInterceptors(priceService, priceService.interceptors()))
                 .addService(shutdownService)
-                .addService(interceptForward(tradeStatisticsService, tradeStatisticsService.interceptors()))
-                .addService(interceptForward(tradesService, tradesService.interceptors()))
-                .addService(interceptForward(versionService, versionService.interceptors()))
-                .addService(interceptForward(walletsService, walletsService.interceptors()))
-                .addService(interceptForward(notificationsService, notificationsService.interceptors()))
-                .addService(interceptForward(moneroConnectionsService, moneroConnectionsService.interceptors()))
-                .addService(interceptForward(moneroNodeService, moneroNodeService.interceptors()))
+                .addService(withInterceptors(tradeStatisticsService, tradeStatisticsService.interceptors()))
+                .addService(withInterceptors(tradesService, tradesService.interceptors()))
+                .addService(withInterceptors(versionService, versionService.interceptors()))
+                .addService(withInterceptors(walletsService, walletsService.interceptors()))
+                .addService(withInterceptors(notificationsService, notificationsService.interceptors()))
+                .addService(withInterceptors(moneroConnectionsService, moneroConnectionsService.interceptors()))
+                .addService(withInterceptors(moneroNodeService, moneroNodeService.interceptors()))
+                // Interceptors run in the reverse order they were added.
+                .intercept(callDeadlineInterceptor)
+                .intercept(callMetricsInterceptor)
                 .intercept(passwordAuthInterceptor)
                 .build();
         coreContext.setApiUser(true);
     }
 
+    private ServerServiceDefinition withInterceptors(BindableService service, ServerInterceptor[] interceptors) {
+        // Let the call metrics include the call rates of the rate metered methods.
+        Arrays.stream(interceptors)
+                .filter(interceptor -> interceptor instanceof CallRateMeteringInterceptor)
+                .forEach(interceptor -> callMetrics.addRateMeteringInterceptor((CallRateMeteringInterceptor) interceptor));
+        return interceptForward(service, interceptors);
+    }
+
     public void start() {
         try {
             server.start();
             log.info("listening on port {}", server.getPort());
+            logCallMetricsTimer = UserThread.runPeriodically(() -> {
+                if (!callMetrics.isEmpty())
+                    log.info(callMetrics.getInfo());
+            }, LOG_CALL_METRICS_INTERVAL_MIN, TimeUnit.MINUTES);
         } catch (IOException ex) {
             throw new UncheckedIOException(ex);
         }
@@ -96,7 +133,10 @@ public class GrpcServer {
 
     public void shutdown() {
         log.info("Server shutdown started");
+        if (logCallMetricsTimer != null)
+            logCallMetricsTimer.stop();
         server.shutdown();
+        serviceExecutors.shutDown();
         log.info("Server shutdown complete");
     }
 }
@@ -0,0 +1,123 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc;
+
+import bisq.common.util.Utilities;
+
+import bisq.proto.grpc.MoneroConnectionsGrpc;
+import bisq.proto.grpc.MoneroNodeGrpc;
+import bisq.proto.grpc.OffersGrpc;
+import bisq.proto.grpc.TradesGrpc;
+import bisq.proto.grpc.WalletsGrpc;
+
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallExecutorSupplier;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Runs the gRPC calls of the services with long running core operations (multisig
+ * setup, wallet sync, monerod rpc calls) on their own bounded thread pools, so a few
+ * slow calls cannot starve cheap calls like GetBalances or GetVersion, which run on
+ * the shared default pool.  Each pool has a fixed number of threads and an unbounded
+ * queue; the queue depth and the time a task waited for a thread are recorded per
+ * rpc method in {@link GrpcCallMetrics}.
+ */
+@Singleton
+@Slf4j
+public class GrpcServiceExecutors implements ServerCallExecutorSupplier {
+
+    private static final int DEFAULT_POOL_SIZE = 8;
+    private static final long KEEP_ALIVE_TIME_SEC = 60;
+
+    private final GrpcCallMetrics callMetrics;
+    private final Map<String, ExecutorService> executorByServiceName = new HashMap<>();
+    private final List<ExecutorService> executors = new ArrayList<>();
+    private final ExecutorService defaultExecutor;
+
+    @Inject
+    public GrpcServiceExecutors(GrpcCallMetrics callMetrics) {
+        this.callMetrics = callMetrics;
+        defaultExecutor = newExecutor("Default", DEFAULT_POOL_SIZE);
+        addServiceExecutor(TradesGrpc.SERVICE_NAME, "Trades", 4);
+        addServiceExecutor(OffersGrpc.SERVICE_NAME, "Offers", 4);
+        addServiceExecutor(WalletsGrpc.SERVICE_NAME, "Wallets", 4);
+        addServiceExecutor(MoneroConnectionsGrpc.SERVICE_NAME, "MoneroConnections", 2);
+        addServiceExecutor(MoneroNodeGrpc.SERVICE_NAME, "MoneroNode", 2);
+    }
+
+    @Nullable
+    @Override
+    public <ReqT, RespT> Executor getExecutor(ServerCall<ReqT, RespT> call, Metadata metadata) {
+        ExecutorService executor = executorByServiceName.getOrDefault(call.getMethodDescriptor().getServiceName(),
+                defaultExecutor);
+        GrpcCallMetrics.MethodMetrics methodMetrics =
+                callMetrics.getMethodMetrics(call.getMethodDescriptor().getFullMethodName());
+        // gRPC serializes all tasks of one call on the returned executor
+        return task -> {
+            long queuedAt = System.currentTimeMillis();
+            methodMetrics.getQueueDepth().incrementAndGet();
+            executor.execute(() -> {
+                methodMetrics.getQueueDepth().decrementAndGet();
+                methodMetrics.getQueueTime().record(System.currentTimeMillis() - queuedAt);
+                task.run();
+            });
+        };
+    }
+
+    public void shutDown() {
+        executors.forEach(executor -> Utilities.shutdownAndAwaitTermination(executor, 2, TimeUnit.SECONDS));
+    }
+
+    private void addServiceExecutor(String serviceName, String poolName, int poolSize) {
+        executorByServiceName.put(serviceName, newExecutor(poolName, poolSize));
+    }
+
+    private ExecutorService newExecutor(String poolName, int poolSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize,
+                poolSize,
+                KEEP_ALIVE_TIME_SEC,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("Grpc" + poolName + "-%d")
+                        .setDaemon(true)
+                        .build());
+        executor.allowCoreThreadTimeOut(true);
+        executors.add(executor);
+        return executor;
+    }
+}
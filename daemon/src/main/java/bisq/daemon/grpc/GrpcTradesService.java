@@ -21,12 +21,16 @@ import bisq.core.api.CoreApi;
 import bisq.core.api.model.TradeInfo;
 import bisq.core.trade.Trade;
 
+import bisq.common.taskrunner.TaskStatistics;
+
 import bisq.proto.grpc.ConfirmPaymentReceivedReply;
 import bisq.proto.grpc.ConfirmPaymentReceivedRequest;
 import bisq.proto.grpc.ConfirmPaymentStartedReply;
 import bisq.proto.grpc.ConfirmPaymentStartedRequest;
 import bisq.proto.grpc.GetChatMessagesReply;
 import bisq.proto.grpc.GetChatMessagesRequest;
+import bisq.proto.grpc.GetTaskStatisticsReply;
+import bisq.proto.grpc.GetTaskStatisticsRequest;
 import bisq.proto.grpc.GetTradeReply;
 import bisq.proto.grpc.GetTradeRequest;
 import bisq.proto.grpc.GetTradesReply;
@@ -37,6 +41,8 @@ import bisq.proto.grpc.SendChatMessageReply;
 import bisq.proto.grpc.SendChatMessageRequest;
 import bisq.proto.grpc.TakeOfferReply;
 import bisq.proto.grpc.TakeOfferRequest;
+import bisq.proto.grpc.TaskLatencyInfo;
+import bisq.proto.grpc.TaskTimingInfo;
 import bisq.proto.grpc.WithdrawFundsReply;
 import bisq.proto.grpc.WithdrawFundsRequest;
 import io.grpc.ServerInterceptor;
@@ -234,6 +240,49 @@ class GrpcTradesService extends TradesImplBase {
         }
     }
 
+    @Override
+    public void getTaskStatistics(GetTaskStatisticsRequest req,
+                                  StreamObserver<GetTaskStatisticsReply> responseObserver) {
+        try {
+            var replyBuilder = GetTaskStatisticsReply.newBuilder()
+                    .addAllTaskLatencies(coreApi.getTaskLatencies().stream()
+                            .map(GrpcTradesService::toTaskLatencyInfo)
+                            .collect(Collectors.toList()));
+            if (!req.getTradeId().isEmpty()) {
+                replyBuilder.addAllTrace(coreApi.getTaskTrace(req.getTradeId()).stream()
+                        .map(GrpcTradesService::toTaskTimingInfo)
+                        .collect(Collectors.toList()));
+            }
+            responseObserver.onNext(replyBuilder.build());
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    private static TaskLatencyInfo toTaskLatencyInfo(TaskStatistics.TaskLatency latency) {
+        return TaskLatencyInfo.newBuilder()
+                .setTaskName(latency.getTaskName())
+                .setPhase(latency.getPhase())
+                .setCount(latency.getCount())
+                .setTotalMs(latency.getTotalMs())
+                .setP50Ms(latency.getP50Ms())
+                .setP90Ms(latency.getP90Ms())
+                .setP99Ms(latency.getP99Ms())
+                .setMaxMs(latency.getMaxMs())
+                .build();
+    }
+
+    private static TaskTimingInfo toTaskTimingInfo(TaskStatistics.TaskTiming timing) {
+        return TaskTimingInfo.newBuilder()
+                .setTaskName(timing.getTaskName())
+                .setPhase(timing.getPhase())
+                .setStartTime(timing.getStartTime())
+                .setEndTime(timing.getEndTime())
+                .setSucceeded(timing.isSucceeded())
+                .build();
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -253,6 +302,7 @@ class GrpcTradesService extends TradesImplBase {
                             put(getWithdrawFundsMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
                             put(getGetChatMessagesMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                             put(getSendChatMessageMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
+                            put(getGetTaskStatisticsMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                         }}
                 )));
     }
@@ -0,0 +1,79 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc.interceptor;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import lombok.extern.slf4j.Slf4j;
+
+import static io.grpc.Status.CANCELLED;
+import static io.grpc.Status.DEADLINE_EXCEEDED;
+
+/**
+ * Does not invoke the service method of a call which got cancelled by the client, or
+ * whose deadline expired, while it was waiting in the queue of its service's thread
+ * pool.  Unary and server streaming calls invoke the service method on half close, so
+ * that is where we check the call's context.
+ */
+@Singleton
+@Slf4j
+public class CallDeadlineInterceptor implements ServerInterceptor {
+
+    @Inject
+    public CallDeadlineInterceptor() {
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> serverCallHandler) {
+        Context context = Context.current();
+        return new SimpleForwardingServerCallListener<>(serverCallHandler.startCall(serverCall, headers)) {
+            @Override
+            public void onHalfClose() {
+                if (context.isCancelled()) {
+                    Status status = getStatus(context.getDeadline());
+                    log.info("Skipped {} call: {}",
+                            serverCall.getMethodDescriptor().getFullMethodName(),
+                            status.getDescription());
+                    // The call is already closed, we only close it to release it in case
+                    // gRPC did not do that yet.
+                    serverCall.close(status, new Metadata());
+                    return;
+                }
+                super.onHalfClose();
+            }
+        };
+    }
+
+    private static Status getStatus(Deadline deadline) {
+        return deadline != null && deadline.isExpired() ?
+                DEADLINE_EXCEEDED.withDescription("deadline exceeded before the call was started") :
+                CANCELLED.withDescription("call was cancelled before it was started");
+    }
+}
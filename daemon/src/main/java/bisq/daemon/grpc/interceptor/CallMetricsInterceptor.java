@@ -0,0 +1,82 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc.interceptor;
+
+import io.grpc.ForwardingServerCall.SimpleForwardingServerCall;
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+
+import bisq.daemon.grpc.GrpcCallMetrics;
+
+/**
+ * Records the number of calls, cancelled calls and the latency of each rpc method in
+ * {@link GrpcCallMetrics}.  Calls completing asynchronously (e.g. TakeOffer) are
+ * closed from a core thread, so the latency covers the whole core operation.
+ */
+@Singleton
+public class CallMetricsInterceptor implements ServerInterceptor {
+
+    private final GrpcCallMetrics callMetrics;
+
+    @Inject
+    public CallMetricsInterceptor(GrpcCallMetrics callMetrics) {
+        this.callMetrics = callMetrics;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> serverCallHandler) {
+        GrpcCallMetrics.MethodMetrics methodMetrics =
+                callMetrics.getMethodMetrics(serverCall.getMethodDescriptor().getFullMethodName());
+        methodMetrics.getNumCalls().increment();
+        long startTime = System.currentTimeMillis();
+        AtomicBoolean isRecorded = new AtomicBoolean();
+        Runnable recordLatency = () -> {
+            if (isRecorded.compareAndSet(false, true))
+                methodMetrics.getLatency().record(System.currentTimeMillis() - startTime);
+        };
+
+        ServerCall<ReqT, RespT> meteredCall = new SimpleForwardingServerCall<>(serverCall) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                recordLatency.run();
+                super.close(status, trailers);
+            }
+        };
+        return new SimpleForwardingServerCallListener<>(serverCallHandler.startCall(meteredCall, headers)) {
+            @Override
+            public void onCancel() {
+                methodMetrics.getNumCancelledCalls().increment();
+                recordLatency.run();
+                super.onCancel();
+            }
+        };
+    }
+}
@@ -17,6 +17,10 @@
 
 package bisq.daemon.grpc.interceptor;
 
+import bisq.common.metrics.Counter;
+import bisq.common.metrics.MetricsRegistry;
+
+import io.grpc.Grpc;
 import io.grpc.Metadata;
 import io.grpc.ServerCall;
 import io.grpc.ServerCallHandler;
@@ -25,10 +29,19 @@ import io.grpc.StatusRuntimeException;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import static io.grpc.Status.PERMISSION_DENIED;
@@ -38,22 +51,32 @@ import static java.util.stream.Collectors.joining;
 @Slf4j
 public final class CallRateMeteringInterceptor implements ServerInterceptor {
 
+    // We keep the rate meters of at most this number of clients per method, the meters
+    // of clients which did not call a method for a full time window are dropped earlier.
+    private static final int MAX_METERED_CLIENTS = 100;
+
     // Maps the gRPC server method names to rate meters.  This allows one interceptor
     // instance to handle rate metering for any or all the methods in a Grpc*Service.
+    // Each client is metered by a copy of the method's rate meter.
     protected final Map<String, GrpcCallRateMeter> serviceCallRateMeters;
+    private final Map<String, MeteredMethod> meteredMethods = new HashMap<>();
 
     public CallRateMeteringInterceptor(Map<String, GrpcCallRateMeter> serviceCallRateMeters) {
         this.serviceCallRateMeters = serviceCallRateMeters;
+        serviceCallRateMeters.forEach((methodName, rateMeter) ->
+                meteredMethods.put(methodName, new MeteredMethod(methodName, rateMeter)));
     }
 
     @Override
     public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall,
                                                                  Metadata headers,
                                                                  ServerCallHandler<ReqT, RespT> serverCallHandler) {
-        Optional<Map.Entry<String, GrpcCallRateMeter>> rateMeterKV = getRateMeterKV(serverCall);
-        rateMeterKV.ifPresentOrElse(
-                (kv) -> checkRateMeterAndMaybeCloseCall(kv, serverCall),
-                () -> handleMissingRateMeterConfiguration(serverCall));
+        String methodName = getRateMeterKey(serverCall);
+        MeteredMethod meteredMethod = meteredMethods.get(methodName);
+        if (meteredMethod != null)
+            checkRateMeterAndMaybeCloseCall(methodName, meteredMethod, serverCall);
+        else
+            handleMissingRateMeterConfiguration(serverCall);
 
         // We leave it to the gRPC framework to clean up if the server call was closed
         // above.  But we still have to invoke startCall here because the method must
@@ -61,15 +84,21 @@ public final class CallRateMeteringInterceptor implements ServerInterceptor {
         return serverCallHandler.startCall(serverCall, headers);
     }
 
-    private void checkRateMeterAndMaybeCloseCall(Map.Entry<String, GrpcCallRateMeter> rateMeterKV,
+    public Map<String, MeteredMethod> getMeteredMethods() {
+        return Collections.unmodifiableMap(meteredMethods);
+    }
+
+    private void checkRateMeterAndMaybeCloseCall(String methodName,
+                                                 MeteredMethod meteredMethod,
                                                  ServerCall<?, ?> serverCall) {
-        String methodName = rateMeterKV.getKey();
-        GrpcCallRateMeter rateMeter = rateMeterKV.getValue();
+        GrpcCallRateMeter rateMeter = meteredMethod.getClientRateMeter(getClientId(serverCall));
 
-        if (!rateMeter.checkAndIncrement())
+        if (!rateMeter.checkAndIncrement()) {
+            meteredMethod.onCallRejected();
             handlePermissionDeniedWarningAndCloseCall(methodName, rateMeter, serverCall);
-        else
+        } else {
             log.info(rateMeter.getCallsCountProgress(methodName));
+        }
     }
 
     private void handleMissingRateMeterConfiguration(ServerCall<?, ?> serverCall)
@@ -101,12 +130,6 @@ public final class CallRateMeteringInterceptor implements ServerInterceptor {
                 timeUnitName);
     }
 
-    private Optional<Map.Entry<String, GrpcCallRateMeter>> getRateMeterKV(ServerCall<?, ?> serverCall) {
-        String rateMeterKey = getRateMeterKey(serverCall);
-        return serviceCallRateMeters.entrySet().stream()
-                .filter((e) -> e.getKey().equals(rateMeterKey)).findFirst();
-    }
-
     private String getRateMeterKey(ServerCall<?, ?> serverCall) {
         // Get the rate meter map key from the server call method descriptor.  The
         // returned String (e.g., 'io.bisq.protobuffer.Offers/CreateOffer') will match
@@ -115,6 +138,16 @@ public final class CallRateMeteringInterceptor implements ServerInterceptor {
         return serverCall.getMethodDescriptor().getFullMethodName();
     }
 
+    private String getClientId(ServerCall<?, ?> serverCall) {
+        // All api clients share the same password, so we tell them apart by their
+        // remote host.  The port is left out, a client should not get a fresh rate
+        // meter by opening a new connection.
+        SocketAddress remoteAddress = serverCall.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        if (remoteAddress instanceof InetSocketAddress)
+            return ((InetSocketAddress) remoteAddress).getHostString();
+        return String.valueOf(remoteAddress);
+    }
+
     @Override
     public String toString() {
         String rateMetersString =
@@ -128,6 +161,65 @@ public final class CallRateMeteringInterceptor implements ServerInterceptor {
                 + "}";
     }
 
+    /**
+     * The rate meters of all clients calling a method.  The calls count is the number
+     * of calls made by all clients in the current time window, the peak calls count the
+     * highest number of calls a single client made within one time window.  Rejected
+     * calls are counted by a counter of the {@link MetricsRegistry}, labelled with the
+     * method name.
+     */
+    public static class MeteredMethod {
+        @Getter
+        private final GrpcCallRateMeter rateMeter;
+        private final Cache<String, GrpcCallRateMeter> clientRateMeters;
+        private final AtomicInteger peakCallsCount = new AtomicInteger();
+        private final Counter numRejectedCalls;
+
+        private MeteredMethod(String methodName, GrpcCallRateMeter rateMeter) {
+            this.rateMeter = rateMeter;
+            this.numRejectedCalls = MetricsRegistry.getInstance().counter("grpc_rate_meter_rejected_calls",
+                    "Calls rejected by the rate meter", "method", methodName);
+            this.clientRateMeters = CacheBuilder.newBuilder()
+                    .maximumSize(MAX_METERED_CLIENTS)
+                    .expireAfterAccess(rateMeter.getTimeUnitIntervalInMilliseconds(), TimeUnit.MILLISECONDS)
+                    .<String, GrpcCallRateMeter>removalListener(notification ->
+                            updatePeakCallsCount(notification.getValue().getPeakCallsCount()))
+                    .build();
+        }
+
+        public int getCallsCount() {
+            return clientRateMeters.asMap().values().stream()
+                    .mapToInt(GrpcCallRateMeter::getCallsCount)
+                    .sum();
+        }
+
+        public int getPeakCallsCount() {
+            clientRateMeters.asMap().values()
+                    .forEach(clientRateMeter -> updatePeakCallsCount(clientRateMeter.getPeakCallsCount()));
+            return peakCallsCount.get();
+        }
+
+        public long getNumRejectedCalls() {
+            return numRejectedCalls.get();
+        }
+
+        public long getNumClients() {
+            return clientRateMeters.size();
+        }
+
+        private GrpcCallRateMeter getClientRateMeter(String clientId) {
+            return clientRateMeters.asMap().computeIfAbsent(clientId, key -> rateMeter.copy());
+        }
+
+        private void onCallRejected() {
+            numRejectedCalls.increment();
+        }
+
+        private void updatePeakCallsCount(int callsCount) {
+            peakCallsCount.accumulateAndGet(callsCount, Math::max);
+        }
+    }
+
     public static CallRateMeteringInterceptor valueOf(Map<String, GrpcCallRateMeter> rateMeters) {
         return new CallRateMeteringInterceptor(new HashMap<>() {{
             putAll(rateMeters);
@@ -2,9 +2,11 @@ package bisq.daemon.grpc.interceptor;
 
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.ArrayDeque;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Predicate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -12,9 +14,19 @@ import lombok.extern.slf4j.Slf4j;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
 
+/**
+ * Sliding window call rate meter.  The timestamps of the last allowed calls are kept
+ * in a ring buffer with one slot per allowed call, so the memory used is fixed by the
+ * configured rate.  A call is allowed if the oldest timestamp in the ring has left the
+ * time window.  Allowed calls claim their slot with a CAS instead of a lock, so
+ * concurrent calls do not serialize on the meter.
+ */
 @Slf4j
 public class GrpcCallRateMeter {
 
+    // Never used slots hold a timestamp far in the past.
+    private static final long NEVER = Long.MIN_VALUE >> 2;
+
     @Getter
     private final int allowedCallsPerTimeWindow;
     @Getter
@@ -25,7 +37,14 @@ public class GrpcCallRateMeter {
     @Getter
     private transient final long timeUnitIntervalInMilliseconds;
 
-    private transient final ArrayDeque<Long> callTimestamps;
+    // Slot i holds the timestamp of the call with the index i, i + allowedCallsPerTimeWindow, ...
+    // The lowest bit is the parity of the index divided by allowedCallsPerTimeWindow, which
+    // tells whether the slot was already claimed for the next call.
+    private transient final AtomicLongArray callTimestamps;
+    // Index of the next call to be allowed
+    private transient final AtomicLong nextCallIndex = new AtomicLong();
+    private transient final LongAdder numRejectedCalls = new LongAdder();
+    private transient final AtomicInteger peakCallsCount = new AtomicInteger();
 
     public GrpcCallRateMeter(int allowedCallsPerTimeWindow, TimeUnit timeUnit) {
         this(allowedCallsPerTimeWindow, timeUnit, 1);
@@ -36,68 +55,113 @@ public class GrpcCallRateMeter {
         this.timeUnit = timeUnit;
         this.numTimeUnits = numTimeUnits;
         this.timeUnitIntervalInMilliseconds = timeUnit.toMillis(1) * numTimeUnits;
-        this.callTimestamps = new ArrayDeque<>();
+        this.callTimestamps = new AtomicLongArray(Math.max(0, allowedCallsPerTimeWindow));
+        for (int i = 0; i < callTimestamps.length(); i++) {
+            // The initial content belongs to the (never made) calls before index 0, with parity 1.
+            callTimestamps.set(i, toSlotValue(NEVER, 1));
+        }
+    }
+
+    /**
+     * @return A new meter with the same configuration and no recorded calls, e.g. for
+     * metering each client separately.
+     */
+    public GrpcCallRateMeter copy() {
+        return new GrpcCallRateMeter(allowedCallsPerTimeWindow, timeUnit, numTimeUnits);
     }
 
     public boolean checkAndIncrement() {
-        synchronized (callTimestamps) {
-            if (getCallsCount() < allowedCallsPerTimeWindow) {
-                incrementCallsCount();
-                return true;
-            } else {
+        int numSlots = callTimestamps.length();
+        if (numSlots == 0) {
+            numRejectedCalls.increment();
+            return false;
+        }
+
+        long now = currentTimeMillis();
+        while (true) {
+            long callIndex = nextCallIndex.get();
+            int slot = (int) (callIndex % numSlots);
+            long parity = (callIndex / numSlots) & 1;
+            long slotValue = callTimestamps.get(slot);
+            if ((slotValue & 1) == parity) {
+                // Another thread claimed the slot but did not advance the index yet.
+                nextCallIndex.compareAndSet(callIndex, callIndex + 1);
+                continue;
+            }
+
+            if (!isStale(toTimestamp(slotValue), now)) {
+                // The oldest of the last allowed calls is still inside the time window.
+                numRejectedCalls.increment();
+                peakCallsCount.accumulateAndGet(allowedCallsPerTimeWindow, Math::max);
                 return false;
             }
+
+            if (callTimestamps.compareAndSet(slot, slotValue, toSlotValue(now, parity))) {
+                nextCallIndex.compareAndSet(callIndex, callIndex + 1);
+                return true;
+            }
         }
     }
 
     public int getCallsCount() {
-        synchronized (callTimestamps) {
-            removeStaleCallTimestamps();
-            return callTimestamps.size();
+        long now = currentTimeMillis();
+        int callsCount = 0;
+        for (int i = 0; i < callTimestamps.length(); i++) {
+            if (!isStale(toTimestamp(callTimestamps.get(i)), now))
+                callsCount++;
         }
+        peakCallsCount.accumulateAndGet(callsCount, Math::max);
+        return callsCount;
     }
 
-    public String getCallsCountProgress(String calledMethodName) {
-        synchronized (callTimestamps) {
-            String shortTimeUnitName = StringUtils.chop(timeUnit.name().toLowerCase());
-            // Just print 'GetVersion has been called N times...',
-            // not 'io.bisq.protobuffer.GetVersion/GetVersion has been called N times...'
-            String loggedMethodName = calledMethodName.split("/")[1];
-            return format("%s has been called %d time%s in the last %s, rate limit is %d/%s",
-                    loggedMethodName,
-                    callTimestamps.size(),
-                    callTimestamps.size() == 1 ? "" : "s",
-                    shortTimeUnitName,
-                    allowedCallsPerTimeWindow,
-                    shortTimeUnitName);
-        }
+    /**
+     * @return The highest number of calls seen inside one time window so far
+     */
+    public int getPeakCallsCount() {
+        return peakCallsCount.get();
     }
 
-    private void incrementCallsCount() {
-        callTimestamps.add(currentTimeMillis());
+    public long getNumRejectedCalls() {
+        return numRejectedCalls.sum();
     }
 
-    private void removeStaleCallTimestamps() {
-        while (!callTimestamps.isEmpty() && isStale.test(callTimestamps.peek())) {
-            callTimestamps.remove();
-        }
+    public String getCallsCountProgress(String calledMethodName) {
+        String shortTimeUnitName = StringUtils.chop(timeUnit.name().toLowerCase());
+        // Just print 'GetVersion has been called N times...',
+        // not 'io.bisq.protobuffer.GetVersion/GetVersion has been called N times...'
+        String loggedMethodName = calledMethodName.split("/")[1];
+        int callsCount = getCallsCount();
+        return format("%s has been called %d time%s in the last %s, rate limit is %d/%s",
+                loggedMethodName,
+                callsCount,
+                callsCount == 1 ? "" : "s",
+                shortTimeUnitName,
+                allowedCallsPerTimeWindow,
+                shortTimeUnitName);
     }
 
-    private final Predicate<Long> isStale = (t) -> {
-        long stale = currentTimeMillis() - this.getTimeUnitIntervalInMilliseconds();
+    private boolean isStale(long timestamp, long now) {
         // Is the given timestamp before the current time minus 1 timeUnit in millis?
-        return t < stale;
-    };
+        return timestamp < now - timeUnitIntervalInMilliseconds;
+    }
+
+    private static long toSlotValue(long timestamp, long parity) {
+        return (timestamp << 1) | parity;
+    }
+
+    private static long toTimestamp(long slotValue) {
+        return slotValue >> 1;
+    }
 
     @Override
     public String toString() {
-        synchronized (callTimestamps) {
-            return "GrpcCallRateMeter{" +
-                    "allowedCallsPerTimeWindow=" + allowedCallsPerTimeWindow +
-                    ", timeUnit=" + timeUnit.name() +
-                    ", timeUnitIntervalInMilliseconds=" + timeUnitIntervalInMilliseconds +
-                    ", callsCount=" + callTimestamps.size() +
-                    '}';
-        }
+        return "GrpcCallRateMeter{" +
+                "allowedCallsPerTimeWindow=" + allowedCallsPerTimeWindow +
+                ", timeUnit=" + timeUnit.name() +
+                ", timeUnitIntervalInMilliseconds=" + timeUnitIntervalInMilliseconds +
+                ", callsCount=" + getCallsCount() +
+                ", peakCallsCount=" + getPeakCallsCount() +
+                ", numRejectedCalls=" + getNumRejectedCalls() +
+                '}';
     }
 }
@@ -0,0 +1,134 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.daemon.grpc.interceptor;
+
+import bisq.proto.grpc.GetTradesReply;
+import bisq.proto.grpc.GetTradesRequest;
+import bisq.proto.grpc.TradesGrpc;
+
+import io.grpc.Context;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CallDeadlineInterceptorTest {
+    private final CallDeadlineInterceptor interceptor = new CallDeadlineInterceptor();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final TestServerCall serverCall = new TestServerCall();
+    private boolean halfClosed;
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testCallIsInvoked() {
+        ServerCall.Listener<GetTradesRequest> listener = interceptor.interceptCall(serverCall, new Metadata(), handler());
+        listener.onHalfClose();
+
+        assertTrue(halfClosed);
+        assertNull(serverCall.closeStatus);
+    }
+
+    @Test
+    public void testCancelledCallIsSkipped() {
+        Context.CancellableContext context = Context.current().withCancellation();
+        ServerCall.Listener<GetTradesRequest> listener = startCall(context);
+        context.cancel(null);
+        context.run(listener::onHalfClose);
+
+        assertFalse(halfClosed);
+        assertEquals(Status.Code.CANCELLED, serverCall.closeStatus.getCode());
+    }
+
+    @Test
+    public void testExpiredCallIsSkipped() throws InterruptedException {
+        Context.CancellableContext context = Context.current().withDeadlineAfter(10, TimeUnit.MILLISECONDS, scheduler);
+        ServerCall.Listener<GetTradesRequest> listener = startCall(context);
+        Thread.sleep(100);
+        context.run(listener::onHalfClose);
+
+        assertFalse(halfClosed);
+        assertEquals(Status.Code.DEADLINE_EXCEEDED, serverCall.closeStatus.getCode());
+    }
+
+    private ServerCall.Listener<GetTradesRequest> startCall(Context context) {
+        Context previous = context.attach();
+        try {
+            return interceptor.interceptCall(serverCall, new Metadata(), handler());
+        } finally {
+            context.detach(previous);
+        }
+    }
+
+    private ServerCallHandler<GetTradesRequest, GetTradesReply> handler() {
+        return (call, headers) -> new ServerCall.Listener<>() {
+            @Override
+            public void onHalfClose() {
+                halfClosed = true;
+            }
+        };
+    }
+
+    private static class TestServerCall extends ServerCall<GetTradesRequest, GetTradesReply> {
+        private Status closeStatus;
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void sendHeaders(Metadata headers) {
+        }
+
+        @Override
+        public void sendMessage(GetTradesReply message) {
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+            closeStatus = status;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public MethodDescriptor<GetTradesRequest, GetTradesReply> getMethodDescriptor() {
+            return TradesGrpc.getGetTradesMethod();
+        }
+    }
+}
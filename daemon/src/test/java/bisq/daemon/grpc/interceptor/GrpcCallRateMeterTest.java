@@ -0,0 +1,85 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc.interceptor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GrpcCallRateMeterTest {
+
+    @Test
+    public void testConcurrentCallsDoNotExceedLimit() throws InterruptedException {
+        for (int allowedCalls : new int[]{1, 5, 100}) {
+            GrpcCallRateMeter rateMeter = new GrpcCallRateMeter(allowedCalls, MINUTES);
+            AtomicInteger numAllowedCalls = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            CountDownLatch startLatch = new CountDownLatch(1);
+            for (int i = 0; i < 8; i++) {
+                executor.execute(() -> {
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException ignore) {
+                    }
+                    for (int j = 0; j < 500; j++) {
+                        if (rateMeter.checkAndIncrement())
+                            numAllowedCalls.incrementAndGet();
+                    }
+                });
+            }
+            startLatch.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+            assertEquals(allowedCalls, numAllowedCalls.get());
+            assertEquals(allowedCalls, rateMeter.getCallsCount());
+            assertEquals(allowedCalls, rateMeter.getPeakCallsCount());
+            assertEquals(8 * 500 - allowedCalls, rateMeter.getNumRejectedCalls());
+        }
+    }
+
+    @Test
+    public void testCopyHasNoCalls() {
+        GrpcCallRateMeter rateMeter = new GrpcCallRateMeter(2, MINUTES);
+        assertTrue(rateMeter.checkAndIncrement());
+        assertTrue(rateMeter.checkAndIncrement());
+        assertFalse(rateMeter.checkAndIncrement());
+
+        GrpcCallRateMeter copy = rateMeter.copy();
+        assertEquals(0, copy.getCallsCount());
+        assertEquals(rateMeter.getAllowedCallsPerTimeWindow(), copy.getAllowedCallsPerTimeWindow());
+        assertEquals(rateMeter.getTimeUnitIntervalInMilliseconds(), copy.getTimeUnitIntervalInMilliseconds());
+        assertTrue(copy.checkAndIncrement());
+    }
+
+    @Test
+    public void testZeroAllowedCalls() {
+        GrpcCallRateMeter rateMeter = new GrpcCallRateMeter(0, MINUTES);
+        assertFalse(rateMeter.checkAndIncrement());
+        assertEquals(0, rateMeter.getCallsCount());
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc.interceptor;
+
+import bisq.proto.grpc.GetTradesReply;
+import bisq.proto.grpc.GetTradesRequest;
+import bisq.proto.grpc.GetVersionGrpc;
+import bisq.proto.grpc.GetVersionReply;
+import bisq.proto.grpc.GetVersionRequest;
+import bisq.proto.grpc.TradesGrpc;
+
+import io.grpc.Context;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+
+import bisq.daemon.grpc.GrpcCallMetrics;
+import bisq.daemon.grpc.GrpcServiceExecutors;
+
+public class GrpcServiceExecutorsTest {
+    // Size of the pool of the Trades service
+    private static final int NUM_TRADES_THREADS = 4;
+    private static final String GET_TRADES_METHOD = TradesGrpc.getGetTradesMethod().getFullMethodName();
+
+    private final CountDownLatch releaseTradesCalls = new CountDownLatch(1);
+    private final AtomicInteger numStartedTradesCalls = new AtomicInteger();
+    private final Map<String, String> threadNameByMethod = new ConcurrentHashMap<>();
+    private GrpcCallMetrics callMetrics;
+    private GrpcServiceExecutors serviceExecutors;
+    private Server server;
+    private ManagedChannel channel;
+
+    @Before
+    public void setUp() throws IOException {
+        callMetrics = new GrpcCallMetrics();
+        serviceExecutors = new GrpcServiceExecutors(callMetrics);
+        String serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+                .callExecutor(serviceExecutors)
+                .addService(new SlowTradesService())
+                .addService(new VersionService())
+                .intercept(new CallDeadlineInterceptor())
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+    }
+
+    @After
+    public void tearDown() {
+        releaseTradesCalls.countDown();
+        channel.shutdownNow();
+        server.shutdownNow();
+        serviceExecutors.shutDown();
+    }
+
+    @Test
+    public void testServicesRunOnTheirPools() {
+        releaseTradesCalls.countDown();
+        TradesGrpc.newBlockingStub(channel).getTrades(GetTradesRequest.getDefaultInstance());
+        GetVersionGrpc.newBlockingStub(channel).getVersion(GetVersionRequest.getDefaultInstance());
+
+        assertTrue(threadNameByMethod.get(GET_TRADES_METHOD).startsWith("GrpcTrades-"));
+        assertTrue(threadNameByMethod.get(GetVersionGrpc.getGetVersionMethod().getFullMethodName())
+                .startsWith("GrpcDefault-"));
+    }
+
+    @Test
+    public void testSlowTradesCallsDoNotStarveGetVersion() throws Exception {
+        GrpcCallMetrics.MethodMetrics metrics = callMetrics.getMethodMetrics(GET_TRADES_METHOD);
+        long numQueueTimes = metrics.getQueueTime().getCount();
+
+        // one more call than the Trades pool has threads, so one call waits in the queue
+        CompletableFuture<?>[] tradesCalls = new CompletableFuture<?>[NUM_TRADES_THREADS + 1];
+        for (int i = 0; i < tradesCalls.length; i++) tradesCalls[i] = getTradesAsync();
+        assertTrue(await(() -> numStartedTradesCalls.get() == NUM_TRADES_THREADS));
+        assertTrue(await(() -> metrics.getQueueDepth().get() == 1));
+
+        GetVersionReply reply = GetVersionGrpc.newBlockingStub(channel)
+                .withDeadlineAfter(5, TimeUnit.SECONDS)
+                .getVersion(GetVersionRequest.getDefaultInstance());
+        assertEquals("1.0.0", reply.getVersion());
+
+        Thread.sleep(100);
+        releaseTradesCalls.countDown();
+        CompletableFuture.allOf(tradesCalls).get(5, TimeUnit.SECONDS);
+        assertEquals(NUM_TRADES_THREADS + 1, numStartedTradesCalls.get());
+        assertEquals(0, metrics.getQueueDepth().get());
+        assertTrue(metrics.getQueueTime().getCount() > numQueueTimes);
+        assertTrue(metrics.getQueueTime().getMax() >= 100);
+    }
+
+    @Test
+    public void testCancelledQueuedCallIsSkipped() throws Exception {
+        GrpcCallMetrics.MethodMetrics metrics = callMetrics.getMethodMetrics(GET_TRADES_METHOD);
+        CompletableFuture<?>[] tradesCalls = new CompletableFuture<?>[NUM_TRADES_THREADS];
+        for (int i = 0; i < tradesCalls.length; i++) tradesCalls[i] = getTradesAsync();
+        assertTrue(await(() -> numStartedTradesCalls.get() == NUM_TRADES_THREADS));
+
+        Context.CancellableContext context = Context.current().withCancellation();
+        CompletableFuture<GetTradesReply> cancelledCall = context.call(this::getTradesAsync);
+        assertTrue(await(() -> metrics.getQueueDepth().get() == 1));
+        context.cancel(null);
+        assertCallFailed(cancelledCall, Status.Code.CANCELLED);
+
+        releaseTradesCalls.countDown();
+        CompletableFuture.allOf(tradesCalls).get(5, TimeUnit.SECONDS);
+        assertTrue(await(() -> metrics.getQueueDepth().get() == 0));
+        serviceExecutors.shutDown();
+        assertEquals(NUM_TRADES_THREADS, numStartedTradesCalls.get());
+    }
+
+    @Test
+    public void testExpiredQueuedCallIsSkipped() throws Exception {
+        GrpcCallMetrics.MethodMetrics metrics = callMetrics.getMethodMetrics(GET_TRADES_METHOD);
+        CompletableFuture<?>[] tradesCalls = new CompletableFuture<?>[NUM_TRADES_THREADS];
+        for (int i = 0; i < tradesCalls.length; i++) tradesCalls[i] = getTradesAsync();
+        assertTrue(await(() -> numStartedTradesCalls.get() == NUM_TRADES_THREADS));
+
+        CompletableFuture<GetTradesReply> expiredCall = new CompletableFuture<>();
+        TradesGrpc.newStub(channel)
+                .withDeadlineAfter(200, TimeUnit.MILLISECONDS)
+                .getTrades(GetTradesRequest.getDefaultInstance(), toObserver(expiredCall));
+        assertCallFailed(expiredCall, Status.Code.DEADLINE_EXCEEDED);
+        assertEquals(1, metrics.getQueueDepth().get());
+
+        releaseTradesCalls.countDown();
+        CompletableFuture.allOf(tradesCalls).get(5, TimeUnit.SECONDS);
+        assertTrue(await(() -> metrics.getQueueDepth().get() == 0));
+        serviceExecutors.shutDown();
+        assertEquals(NUM_TRADES_THREADS, numStartedTradesCalls.get());
+    }
+
+    private CompletableFuture<GetTradesReply> getTradesAsync() {
+        CompletableFuture<GetTradesReply> future = new CompletableFuture<>();
+        TradesGrpc.newStub(channel).getTrades(GetTradesRequest.getDefaultInstance(), toObserver(future));
+        return future;
+    }
+
+    private static <T> StreamObserver<T> toObserver(CompletableFuture<T> future) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(T value) {
+                future.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
+    }
+
+    private static void assertCallFailed(CompletableFuture<?> call, Status.Code expectedCode) throws Exception {
+        try {
+            call.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertEquals(expectedCode, Status.fromThrowable(e.getCause()).getCode());
+            return;
+        }
+        throw new AssertionError("Call did not fail");
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) return false;
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private class SlowTradesService extends TradesGrpc.TradesImplBase {
+        @Override
+        public void getTrades(GetTradesRequest request, StreamObserver<GetTradesReply> responseObserver) {
+            threadNameByMethod.put(GET_TRADES_METHOD, Thread.currentThread().getName());
+            numStartedTradesCalls.incrementAndGet();
+            try {
+                releaseTradesCalls.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            responseObserver.onNext(GetTradesReply.getDefaultInstance());
+            responseObserver.onCompleted();
+        }
+    }
+
+    private class VersionService extends GetVersionGrpc.GetVersionImplBase {
+        @Override
+        public void getVersion(GetVersionRequest request, StreamObserver<GetVersionReply> responseObserver) {
+            threadNameByMethod.put(GetVersionGrpc.getGetVersionMethod().getFullMethodName(),
+                    Thread.currentThread().getName());
+            responseObserver.onNext(GetVersionReply.newBuilder().setVersion("1.0.0").build());
+            responseObserver.onCompleted();
+        }
+    }
+}
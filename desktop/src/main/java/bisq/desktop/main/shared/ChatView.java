@@ -589,8 +589,13 @@ public class ChatView extends AnchorPane {
             fileChooser.setInitialDirectory(new File(System.getProperty("user.home")));*/
         File file = fileChooser.showSaveDialog(getScene().getWindow());
         if (file != null) {
+            Optional<byte[]> bytes = supportManager.getAttachmentBytes(attachment);
+            if (!bytes.isPresent()) {
+                new Popup().warning(Res.get("support.attachmentNotAvailable", attachment.getFileName())).show();
+                return;
+            }
             try (FileOutputStream fileOutputStream = new FileOutputStream(file.getAbsolutePath())) {
-                fileOutputStream.write(attachment.getBytes());
+                fileOutputStream.write(bytes.get());
             } catch (IOException e) {
                 e.printStackTrace();
                 System.out.println(e.getMessage());
@@ -176,6 +176,20 @@ public class InventoryWebServer {
                     .append(memoryString)
                     .append("<br/>");
 
+            String liveHeap = requestInfo.getValue(InventoryItem.liveHeapMemory);
+            String liveHeapString = liveHeap != null ? Utilities.readableFileSize(Long.parseLong(liveHeap)) : "n/a";
+            sb.append("Live heap: ")
+                    .append(liveHeapString)
+                    .append(" (memory pressure: ")
+                    .append(requestInfo.getDisplayValue(InventoryItem.memoryPressure))
+                    .append(")<br/>");
+
+            String storeFootprints = requestInfo.getDisplayValue(InventoryItem.storeFootprints)
+                    .replace(System.getProperty("line.separator"), "<br/>");
+            sb.append("Store footprints: <br/>")
+                    .append(storeFootprints)
+                    .append("<br/>");
+
             String jvmStartTimeString = requestInfo.getValue(InventoryItem.jvmStartTime);
             long jvmStartTime = jvmStartTimeString != null ? Long.parseLong(jvmStartTimeString) : 0;
             sb.append("Node started at: ")
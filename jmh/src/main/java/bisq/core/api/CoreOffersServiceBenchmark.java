@@ -0,0 +1,123 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.core.api;
+
+import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService;
+import bisq.core.offer.OfferFilterService;
+import bisq.core.provider.price.MarketPrice;
+import bisq.core.provider.price.PriceFeedService;
+
+import bisq.jmh.Fixtures;
+import bisq.jmh.SyntheticData;
+
+import bisq.common.crypto.KeyRing;
+import bisq.common.crypto.KeyStorage;
+
+import java.io.File;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the offer book queries served by the getoffers API call. The benchmark lives in the bisq.core.api package
+ * because CoreOffersService is package private. The offer filter accepts every offer, so this measures the work done
+ * by CoreOffersService itself: filtering out our own offers, removing offers sharing reserve key images and sorting
+ * by price.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CoreOffersServiceBenchmark {
+    @Param({"100", "1000", "5000"})
+    public int numOffers;
+
+    private File keyStorageDir;
+    private CoreOffersService coreOffersService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<Offer> offers = new SyntheticData(Fixtures.SEED).offers(numOffers, 50, 0.01);
+        PriceFeedService priceFeedService = mock(PriceFeedService.class);
+        when(priceFeedService.getMarketPrice(anyString())).thenAnswer(invocation -> new MarketPrice(
+                invocation.getArgument(0), 150d, System.currentTimeMillis() / 1000, true));
+        offers.forEach(offer -> offer.setPriceFeedService(priceFeedService));
+
+        OfferBookService offerBookService = mock(OfferBookService.class);
+        when(offerBookService.getOffers()).thenReturn(offers);
+
+        keyStorageDir = Fixtures.createTempDir("CoreOffersServiceBenchmarkKeys");
+        coreOffersService = new CoreOffersService(new CoreContext(),
+                new KeyRing(new KeyStorage(keyStorageDir), null, true),
+                null,
+                null,
+                offerBookService,
+                new AcceptingOfferFilterService(),
+                null,
+                null,
+                null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.deleteQuietly(keyStorageDir);
+    }
+
+    @Benchmark
+    public List<Offer> getOffers() {
+        return coreOffersService.getOffers();
+    }
+
+    @Benchmark
+    public List<Offer> getOffersByDirectionAndCurrency() {
+        return coreOffersService.getOffers("BUY", "EUR");
+    }
+
+    private static class AcceptingOfferFilterService extends OfferFilterService {
+        AcceptingOfferFilterService() {
+            super(null, null, null, null);
+        }
+
+        @Override
+        public Result canTakeOffer(Offer offer, boolean isTakerApiUser) {
+            return Result.VALID;
+        }
+    }
+}
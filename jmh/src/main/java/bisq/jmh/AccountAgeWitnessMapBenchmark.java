@@ -0,0 +1,135 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.jmh;
+
+import bisq.core.account.witness.AccountAgeWitness;
+import bisq.core.account.witness.CompactAccountAgeWitnessMap;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the CompactAccountAgeWitnessMap used by the AccountAgeWitnessService with the HashMap of AccountAgeWitness
+ * objects it replaced. The retained heap of both maps is measured at setup and printed with the benchmark output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AccountAgeWitnessMapBenchmark {
+    @Param({"100000", "500000"})
+    public int numWitnesses;
+
+    private List<AccountAgeWitness> witnesses;
+    private byte[][] missingHashes;
+    private Map<P2PDataStorage.ByteArray, AccountAgeWitness> hashMap;
+    private CompactAccountAgeWitnessMap compactMap;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticData data = new SyntheticData(Fixtures.SEED);
+        witnesses = data.accountAgeWitnesses(numWitnesses);
+        missingHashes = data.accountAgeWitnesses(1000).stream()
+                .map(AccountAgeWitness::getHash)
+                .toArray(byte[][]::new);
+
+        // Each map gets its own copies of the witnesses as the HashMap holds the witness objects
+        long hashMapBytes = retainedHeap(() -> {
+            hashMap = new HashMap<>();
+            copyWitnesses().forEach(witness ->
+                    hashMap.putIfAbsent(new P2PDataStorage.ByteArray(witness.getHash()), witness));
+        });
+        long compactMapBytes = retainedHeap(() -> {
+            compactMap = new CompactAccountAgeWitnessMap();
+            copyWitnesses().forEach(compactMap::putIfAbsent);
+        });
+        System.out.printf("%n%d witnesses: HashMap retains %d bytes (%d per witness), " +
+                        "CompactAccountAgeWitnessMap retains %d bytes (%d per witness)%n",
+                numWitnesses, hashMapBytes, hashMapBytes / numWitnesses,
+                compactMapBytes, compactMapBytes / numWitnesses);
+    }
+
+    private List<AccountAgeWitness> copyWitnesses() {
+        return new SyntheticData(Fixtures.SEED).accountAgeWitnesses(numWitnesses);
+    }
+
+    private byte[] nextHash() {
+        return witnesses.get(next++ % witnesses.size()).getHash();
+    }
+
+    private byte[] nextMissingHash() {
+        return missingHashes[next++ % missingHashes.length];
+    }
+
+    @Benchmark
+    public Optional<AccountAgeWitness> hashMapGet() {
+        return Optional.ofNullable(hashMap.get(new P2PDataStorage.ByteArray(nextHash())));
+    }
+
+    @Benchmark
+    public Optional<AccountAgeWitness> compactMapGet() {
+        return compactMap.get(nextHash());
+    }
+
+    @Benchmark
+    public boolean hashMapContainsMissing() {
+        return hashMap.containsKey(new P2PDataStorage.ByteArray(nextMissingHash()));
+    }
+
+    @Benchmark
+    public boolean compactMapContainsMissing() {
+        return compactMap.contains(nextMissingHash());
+    }
+
+    // Rough measure of the heap retained by the objects created by the task, based on the used heap after gc
+    private static long retainedHeap(Runnable task) {
+        long before = usedHeapAfterGc();
+        task.run();
+        return usedHeapAfterGc() - before;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.jmh;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import lombok.Value;
+
+/**
+ * Compares a JMH JSON result file against a baseline result file and exits with a non-zero status if any benchmark
+ * regressed by more than the given fraction. For throughput modes a lower score is a regression, for all time based
+ * modes a higher score is. Differences within the reported score errors are ignored. Benchmarks missing from either
+ * file are reported but do not fail the comparison.
+ *
+ * Usage: BaselineComparator <baseline.json> <results.json> [maxRegression, defaults to 0.10]
+ */
+public class BaselineComparator {
+    @Value
+    static class Score {
+        String mode;
+        double score;
+        double error;
+        String unit;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <results.json> [maxRegression]");
+            System.exit(2);
+        }
+        if (!Files.exists(Paths.get(args[0]))) {
+            System.err.println("Baseline file " + args[0] + " does not exist. Copy a results.json from a " +
+                    "baseline run there or pass -PjmhBaseline=<file>.");
+            System.exit(2);
+        }
+        double maxRegression = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        Map<String, Score> baseline = readScores(args[0]);
+        Map<String, Score> results = readScores(args[1]);
+
+        int numRegressions = 0;
+        System.out.printf("%-100s %15s %15s %10s%n", "Benchmark", "Baseline", "Result", "Change");
+        for (Map.Entry<String, Score> entry : results.entrySet()) {
+            String name = entry.getKey();
+            Score result = entry.getValue();
+            Score base = baseline.get(name);
+            if (base == null) {
+                System.out.printf("%-100s %15s %15.3f %10s%n", name, "-", result.getScore(), "new");
+                continue;
+            }
+            if (!base.getUnit().equals(result.getUnit()) || !base.getMode().equals(result.getMode())) {
+                System.out.printf("%-100s %15s %15s %10s%n", name, base.getUnit(), result.getUnit(), "skipped");
+                continue;
+            }
+            double regression = getRegression(base, result);
+            boolean failed = regression > maxRegression && !isWithinError(base, result);
+            if (failed) {
+                numRegressions++;
+            }
+            System.out.printf("%-100s %15.3f %15.3f %+9.1f%%%s%n",
+                    name, base.getScore(), result.getScore(), regression * 100, failed ? "  REGRESSION" : "");
+        }
+        baseline.keySet().stream()
+                .filter(name -> !results.containsKey(name))
+                .forEach(name -> System.out.printf("%-100s %15.3f %15s %10s%n",
+                        name, baseline.get(name).getScore(), "-", "missing"));
+
+        if (numRegressions > 0) {
+            System.err.printf("%d benchmark(s) regressed by more than %.1f%%%n", numRegressions, maxRegression * 100);
+            System.exit(1);
+        }
+    }
+
+    // Positive values are regressions, negative values improvements, both relative to the baseline score.
+    static double getRegression(Score baseline, Score result) {
+        if (baseline.getScore() == 0) {
+            return 0;
+        }
+        double change = (result.getScore() - baseline.getScore()) / baseline.getScore();
+        return isHigherBetter(baseline.getMode()) ? -change : change;
+    }
+
+    // A difference smaller than the sum of both 99.9% confidence intervals is measurement noise.
+    static boolean isWithinError(Score baseline, Score result) {
+        double error = baseline.getError() + result.getError();
+        return !Double.isNaN(error) && Math.abs(result.getScore() - baseline.getScore()) <= error;
+    }
+
+    private static boolean isHigherBetter(String mode) {
+        return "thrpt".equals(mode);
+    }
+
+    private static Map<String, Score> readScores(String fileName) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        try (Reader reader = Files.newBufferedReader(Paths.get(fileName), StandardCharsets.UTF_8)) {
+            JsonArray runs = new JsonParser().parse(reader).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+                JsonObject primaryMetric = run.getAsJsonObject("primaryMetric");
+                scores.put(getName(run), new Score(run.get("mode").getAsString(),
+                        primaryMetric.get("score").getAsDouble(),
+                        primaryMetric.get("scoreError").isJsonPrimitive() ?
+                                primaryMetric.get("scoreError").getAsDouble() :
+                                Double.NaN,
+                        primaryMetric.get("scoreUnit").getAsString()));
+            }
+        }
+        return scores;
+    }
+
+    private static String getName(JsonObject run) {
+        StringBuilder name = new StringBuilder(run.get("benchmark").getAsString());
+        if (run.has("params")) {
+            Map<String, String> params = new TreeMap<>();
+            run.getAsJsonObject("params").entrySet()
+                    .forEach(e -> params.put(e.getKey(), e.getValue().getAsString()));
+            params.forEach((key, value) -> name.append(':').append(key).append('=').append(value));
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.jmh;
+
+import bisq.core.proto.network.CoreNetworkProtoResolver;
+import bisq.core.proto.persistable.CorePersistenceProtoResolver;
+import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatistics3StorageService;
+import bisq.core.trade.statistics.TradeStatistics3Store;
+
+import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.peers.Broadcaster;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+import bisq.network.p2p.storage.persistence.ProtectedDataStoreService;
+import bisq.network.p2p.storage.persistence.RemovedPayloadsService;
+import bisq.network.p2p.storage.persistence.ResourceDataStoreService;
+
+import bisq.common.app.Version;
+import bisq.common.file.CorruptedStorageFileHandler;
+import bisq.common.file.FileUtil;
+import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.persistable.PersistableEnvelope;
+
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.time.Clock;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Builds the services under benchmark with real persistence and storage code but mocked network collaborators.
+ */
+public class Fixtures {
+    public static final long SEED = 42;
+
+    public static CorePersistenceProtoResolver persistenceProtoResolver() {
+        return new CorePersistenceProtoResolver(null, null, new CoreNetworkProtoResolver(Clock.systemDefaultZone()));
+    }
+
+    public static File createTempDir(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix).toFile();
+    }
+
+    public static void deleteQuietly(File dir) {
+        try {
+            FileUtil.deleteDirectory(dir);
+        } catch (IOException ignore) {
+        }
+    }
+
+    /**
+     * Writes the envelope in the unencrypted format the PersistenceManager reads without a key ring.
+     */
+    public static void writeStore(File dir, String fileName, PersistableEnvelope envelope) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(new File(dir, fileName))) {
+            ((protobuf.PersistableEnvelope) envelope.toPersistableMessage()).writeDelimitedTo(out);
+        }
+    }
+
+    /**
+     * Creates a trade statistics storage service whose historical store holds the first historicalCount items and
+     * whose live store holds the rest, read through the same code path as at application startup. The service is
+     * added to the given appendOnlyDataStoreService.
+     */
+    public static TradeStatistics3StorageService tradeStatisticsStorageService(File dir,
+                                                                               List<TradeStatistics3> tradeStatistics,
+                                                                               int historicalCount,
+                                                                               AppendOnlyDataStoreService appendOnlyDataStoreService)
+            throws IOException, InterruptedException {
+        TradeStatistics3Store historicalStore = new TradeStatistics3Store();
+        TradeStatistics3Store liveStore = new TradeStatistics3Store();
+        for (int i = 0; i < tradeStatistics.size(); i++) {
+            TradeStatistics3 item = tradeStatistics.get(i);
+            (i < historicalCount ? historicalStore : liveStore).getMap()
+                    .put(new P2PDataStorage.ByteArray(item.getHash()), item);
+        }
+        TradeStatistics3StorageService storageService = new TradeStatistics3StorageService(dir,
+                new PersistenceManager<>(dir, persistenceProtoResolver(), new CorruptedStorageFileHandler(), null));
+        writeStore(dir, storageService.getFileName(), liveStore);
+        writeStore(dir, storageService.getFileName() + "_" + Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.get(0),
+                historicalStore);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        appendOnlyDataStoreService.addService(storageService);
+        appendOnlyDataStoreService.readFromResources("", latch::countDown);
+        if (!latch.await(5, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Reading the trade statistics stores timed out");
+        }
+        return storageService;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static P2PDataStorage p2pDataStorage(AppendOnlyDataStoreService appendOnlyDataStoreService) {
+        return new P2PDataStorage(mock(NetworkNode.class),
+                mock(Broadcaster.class),
+                appendOnlyDataStoreService,
+                new ProtectedDataStoreService(),
+                mock(ResourceDataStoreService.class),
+                mock(PersistenceManager.class),
+                new RemovedPayloadsService(mock(PersistenceManager.class)),
+                Clock.systemDefaultZone(),
+                1000);
+    }
+}
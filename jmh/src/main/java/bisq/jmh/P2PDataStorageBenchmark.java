@@ -0,0 +1,171 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.jmh;
+
+import bisq.core.trade.statistics.TradeStatistics3;
+
+import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+import bisq.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+import bisq.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
+import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+
+import bisq.common.app.Capabilities;
+import bisq.common.app.Version;
+
+import java.io.File;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the P2PDataStorage paths hit when receiving network payloads and when answering initial data requests.
+ * 80% of the trade statistics are put into the historical store and the rest into the live store, which is roughly
+ * the split a node sees shortly after a release.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class P2PDataStorageBenchmark {
+    private static final int MAX_ENTRIES_PER_TYPE = 10000;
+
+    @Param({"10000", "100000"})
+    public int numTradeStatistics;
+
+    private File storageDir;
+    private P2PDataStorage p2pDataStorage;
+    private List<TradeStatistics3> tradeStatistics;
+    private PreliminaryGetDataRequest getDataRequest;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        storageDir = Fixtures.createTempDir("P2PDataStorageBenchmark");
+        tradeStatistics = new SyntheticData(Fixtures.SEED).tradeStatistics(numTradeStatistics);
+        AppendOnlyDataStoreService appendOnlyDataStoreService = new AppendOnlyDataStoreService();
+        Fixtures.tradeStatisticsStorageService(storageDir,
+                tradeStatistics,
+                numTradeStatistics * 8 / 10,
+                appendOnlyDataStoreService);
+        p2pDataStorage = Fixtures.p2pDataStorage(appendOnlyDataStoreService);
+
+        // The requester already knows a random half of our data
+        Random random = new Random(Fixtures.SEED);
+        Set<byte[]> excludedKeys = new HashSet<>();
+        tradeStatistics.stream()
+                .filter(e -> random.nextBoolean())
+                .forEach(e -> excludedKeys.add(e.getHash()));
+        getDataRequest = new PreliminaryGetDataRequest(1, excludedKeys);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.deleteQuietly(storageDir);
+    }
+
+    // Re-adding a known payload is what happens for every gossiped payload we have already received from another peer.
+    @Benchmark
+    public boolean addKnownPersistableNetworkPayload() {
+        TradeStatistics3 payload = tradeStatistics.get(next++ % tradeStatistics.size());
+        return p2pDataStorage.addPersistableNetworkPayload(payload, null, false);
+    }
+
+    @Benchmark
+    public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapForDataResponseCurrentVersion() {
+        return p2pDataStorage.getMapForDataResponse(Version.VERSION);
+    }
+
+    // Requesters which do not send a version get all historical data
+    @Benchmark
+    public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapForDataResponseNoVersion() {
+        return p2pDataStorage.getMapForDataResponse(null);
+    }
+
+    @Benchmark
+    public GetDataResponse buildGetDataResponse() {
+        return p2pDataStorage.buildGetDataResponse(getDataRequest,
+                MAX_ENTRIES_PER_TYPE,
+                new AtomicBoolean(),
+                new AtomicBoolean(),
+                Capabilities.app);
+    }
+
+    /**
+     * Adds a batch of signed mailbox entries to an empty storage, which includes the signature verification and
+     * sequence number bookkeeping done for each received mailbox message.
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Fork(1)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public static class Mailbox {
+        private static final int BATCH_SIZE = 1000;
+
+        private List<ProtectedMailboxStorageEntry> entries;
+        private P2PDataStorage p2pDataStorage;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            entries = new SyntheticData(Fixtures.SEED).mailboxEntries(BATCH_SIZE, 20, 2000);
+        }
+
+        @Setup(Level.Invocation)
+        public void createStorage() {
+            p2pDataStorage = Fixtures.p2pDataStorage(new AppendOnlyDataStoreService());
+        }
+
+        @Benchmark
+        @OperationsPerInvocation(BATCH_SIZE)
+        public int addProtectedMailboxStorageEntries() {
+            int added = 0;
+            for (ProtectedMailboxStorageEntry entry : entries) {
+                if (p2pDataStorage.addProtectedStorageEntry(entry, null, null)) {
+                    added++;
+                }
+            }
+            return added;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.jmh;
+
+import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatistics3Store;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import bisq.common.crypto.KeyRing;
+import bisq.common.crypto.KeyStorage;
+import bisq.common.file.CorruptedStorageFileHandler;
+import bisq.common.persistence.PersistenceManager;
+
+import java.io.File;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures writing and reading a large store through the PersistenceManager, with and without encryption. Writing
+ * includes the rolling backup, the fsync and the rename of the temp file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PersistenceManagerBenchmark {
+    private static final String FILE_NAME = "BenchmarkStore";
+
+    @Param({"10000", "100000"})
+    public int numTradeStatistics;
+
+    @Param({"false", "true"})
+    public boolean encrypted;
+
+    private File storageDir;
+    private File keyStorageDir;
+    private PersistenceManager<TradeStatistics3Store> persistenceManager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        storageDir = Fixtures.createTempDir("PersistenceManagerBenchmark");
+        keyStorageDir = Fixtures.createTempDir("PersistenceManagerBenchmarkKeys");
+        KeyRing keyRing = encrypted ? new KeyRing(new KeyStorage(keyStorageDir), null, true) : null;
+
+        TradeStatistics3Store store = new TradeStatistics3Store();
+        for (TradeStatistics3 item : new SyntheticData(Fixtures.SEED).tradeStatistics(numTradeStatistics)) {
+            store.getMap().put(new P2PDataStorage.ByteArray(item.getHash()), item);
+        }
+
+        PersistenceManager.onAllServicesInitialized();
+        persistenceManager = new PersistenceManager<>(storageDir,
+                Fixtures.persistenceProtoResolver(),
+                new CorruptedStorageFileHandler(),
+                keyRing);
+        persistenceManager.initialize(store, FILE_NAME, PersistenceManager.Source.NETWORK);
+        persistNow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        persistenceManager.shutdown();
+        Fixtures.deleteQuietly(storageDir);
+        Fixtures.deleteQuietly(keyStorageDir);
+    }
+
+    @Benchmark
+    public void persistNow() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        persistenceManager.persistNow(latch::countDown);
+        latch.await();
+    }
+
+    @Benchmark
+    public TradeStatistics3Store getPersisted() {
+        return persistenceManager.getPersisted(FILE_NAME);
+    }
+}
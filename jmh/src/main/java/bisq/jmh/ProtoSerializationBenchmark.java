@@ -0,0 +1,147 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.jmh;
+
+import bisq.core.offer.Offer;
+import bisq.core.proto.network.CoreNetworkProtoResolver;
+import bisq.core.proto.persistable.CorePersistenceProtoResolver;
+import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatistics3Store;
+
+import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.messages.AddDataMessage;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import bisq.common.proto.network.NetworkEnvelope;
+import bisq.common.proto.network.NetworkPayload;
+import bisq.common.proto.persistable.PersistableEnvelope;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.time.Clock;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures protobuf serialization and resolving back into domain objects through the core proto resolvers for the
+ * largest or most frequent messages: offers, mailbox messages, initial data responses and the trade statistics store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProtoSerializationBenchmark {
+    private static final int NUM_TRADE_STATISTICS = 10000;
+    private static final int NUM_MAILBOX_ENTRIES = 200;
+
+    private CoreNetworkProtoResolver networkProtoResolver;
+    private CorePersistenceProtoResolver persistenceProtoResolver;
+
+    private Offer offer;
+    private byte[] offerPayloadBytes;
+    private AddDataMessage addDataMessage;
+    private byte[] addDataMessageBytes;
+    private GetDataResponse getDataResponse;
+    private byte[] getDataResponseBytes;
+    private TradeStatistics3Store tradeStatisticsStore;
+    private byte[] tradeStatisticsStoreBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        networkProtoResolver = new CoreNetworkProtoResolver(Clock.systemDefaultZone());
+        persistenceProtoResolver = Fixtures.persistenceProtoResolver();
+
+        SyntheticData data = new SyntheticData(Fixtures.SEED);
+        offer = data.offers(1, 1, 0).get(0);
+        offerPayloadBytes = offer.getOfferPayload().toProtoMessage().toByteArray();
+
+        List<? extends ProtectedStorageEntry> mailboxEntries = data.mailboxEntries(NUM_MAILBOX_ENTRIES, 20, 2000);
+        addDataMessage = new AddDataMessage(mailboxEntries.get(0));
+        addDataMessageBytes = addDataMessage.toProtoNetworkEnvelope().toByteArray();
+
+        List<TradeStatistics3> tradeStatistics = data.tradeStatistics(NUM_TRADE_STATISTICS);
+        getDataResponse = new GetDataResponse(new HashSet<>(mailboxEntries), new HashSet<>(tradeStatistics), 1, false);
+        getDataResponseBytes = getDataResponse.toProtoNetworkEnvelope().toByteArray();
+
+        tradeStatisticsStore = new TradeStatistics3Store();
+        tradeStatistics.forEach(e -> tradeStatisticsStore.getMap().put(new P2PDataStorage.ByteArray(e.getHash()), e));
+        tradeStatisticsStoreBytes = tradeStatisticsStore.toProtoMessage().toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializeOfferPayload() {
+        return offer.getOfferPayload().toProtoMessage().toByteArray();
+    }
+
+    @Benchmark
+    public NetworkPayload deserializeOfferPayload() throws InvalidProtocolBufferException {
+        return networkProtoResolver.fromProto(protobuf.StoragePayload.parseFrom(offerPayloadBytes));
+    }
+
+    @Benchmark
+    public byte[] serializeAddDataMessage() {
+        return addDataMessage.toProtoNetworkEnvelope().toByteArray();
+    }
+
+    @Benchmark
+    public NetworkEnvelope deserializeAddDataMessage() throws Exception {
+        return networkProtoResolver.fromProto(protobuf.NetworkEnvelope.parseFrom(addDataMessageBytes));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] serializeGetDataResponse() {
+        return getDataResponse.toProtoNetworkEnvelope().toByteArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public NetworkEnvelope deserializeGetDataResponse() throws Exception {
+        return networkProtoResolver.fromProto(protobuf.NetworkEnvelope.parseFrom(getDataResponseBytes));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] serializeTradeStatisticsStore() {
+        return tradeStatisticsStore.toProtoMessage().toByteArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PersistableEnvelope deserializeTradeStatisticsStore() throws InvalidProtocolBufferException {
+        return persistenceProtoResolver.fromProto(protobuf.PersistableEnvelope.parseFrom(tradeStatisticsStoreBytes));
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.jmh;
+
+import bisq.core.account.sign.SignedWitness;
+import bisq.core.account.sign.SignedWitnessService;
+import bisq.core.account.witness.AccountAgeWitness;
+import bisq.core.offer.Offer;
+import bisq.core.offer.OfferDirection;
+import bisq.core.offer.OfferPayload;
+import bisq.core.payment.payload.PaymentMethod;
+import bisq.core.trade.statistics.TradeStatistics3;
+
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.PrefixedSealedAndSignedMessage;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.MailboxStoragePayload;
+import bisq.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
+
+import bisq.common.app.Version;
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.Encryption;
+import bisq.common.crypto.Hash;
+import bisq.common.crypto.PubKeyRing;
+import bisq.common.crypto.SealedAndSigned;
+import bisq.common.crypto.Sig;
+import bisq.common.util.Utilities;
+
+import org.bitcoinj.core.ECKey;
+
+import com.google.common.base.Charsets;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+import java.time.Clock;
+
+import java.math.BigInteger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates reproducible synthetic domain data for the benchmarks. All generators take a seed so that two runs (e.g. a
+ * baseline and a candidate build) operate on the same data shape. Key generation is expensive, so keys are drawn from
+ * small pools which are also derived from the seed.
+ */
+public class SyntheticData {
+    public static final List<String> CURRENCY_CODES = Arrays.asList("USD", "EUR", "GBP", "CAD", "AUD", "JPY", "BRL", "CHF");
+    public static final List<String> PAYMENT_METHOD_IDS = Arrays.asList(PaymentMethod.SEPA_ID,
+            PaymentMethod.REVOLUT_ID,
+            PaymentMethod.NATIONAL_BANK_ID,
+            PaymentMethod.SAME_BANK_ID,
+            PaymentMethod.FASTER_PAYMENTS_ID,
+            PaymentMethod.UPHOLD_ID);
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long SIGNER_AGE = TimeUnit.DAYS.toMillis(SignedWitnessService.SIGNER_AGE_DAYS);
+
+    static {
+        // The message version is part of every serialized network envelope and mailbox payload hash.
+        Version.setBaseCryptoNetworkId(1);
+    }
+
+    private final long seed;
+    private final Random random;
+
+    public SyntheticData(long seed) {
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Trade statistics
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public List<TradeStatistics3> tradeStatistics(int count) {
+        List<TradeStatistics3> list = new ArrayList<>(count);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            // Dates are spread over the last two years, newest last, as they would be in a real store.
+            long date = now - (long) (count - i) * (2 * 365 * DAY / Math.max(1, count));
+            list.add(new TradeStatistics3(pick(CURRENCY_CODES),
+                    10_000_000L + random.nextInt(500_000_000),
+                    100_000_000L + random.nextInt(Integer.MAX_VALUE),
+                    pick(PAYMENT_METHOD_IDS),
+                    date,
+                    "",
+                    (byte[]) null));
+        }
+        return list;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Witnesses
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public List<AccountAgeWitness> accountAgeWitnesses(int count) {
+        List<AccountAgeWitness> list = new ArrayList<>(count);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            list.add(new AccountAgeWitness(Hash.getRipemd160hash(randomBytes(32)), now - random.nextInt(1000) * DAY));
+        }
+        return list;
+    }
+
+    /**
+     * Builds signing chains over the given witnesses. Each chain starts with a witness signed by the arbitrator key,
+     * followed by chainLength - 1 witnesses each signed by the owner of the previous one, with signing dates spaced
+     * so that every signer was old enough to sign at the time. With chainLength 1 all witnesses are arbitrator
+     * signed.
+     */
+    public List<SignedWitness> signedWitnessChains(List<AccountAgeWitness> witnesses,
+                                                   ECKey arbitratorKey,
+                                                   int chainLength) throws CryptoException {
+        List<SignedWitness> list = new ArrayList<>(witnesses.size());
+        long now = System.currentTimeMillis();
+        KeyPair signer = null;
+        for (int i = 0; i < witnesses.size(); i++) {
+            AccountAgeWitness witness = witnesses.get(i);
+            int depth = i % chainLength;
+            KeyPair owner = dsaKeyPair();
+            long date = now - (long) (chainLength - depth) * (SIGNER_AGE + DAY);
+            long tradeAmount = 1_000_000_000L + random.nextInt(Integer.MAX_VALUE);
+            if (depth == 0) {
+                byte[] signature = arbitratorKey.signMessage(Utilities.encodeToHex(witness.getHash()))
+                        .getBytes(Charsets.UTF_8);
+                list.add(new SignedWitness(SignedWitness.VerificationMethod.ARBITRATOR,
+                        witness.getHash(),
+                        signature,
+                        arbitratorKey.getPubKey(),
+                        owner.getPublic().getEncoded(),
+                        date,
+                        tradeAmount));
+            } else {
+                byte[] signature = Sig.sign(signer.getPrivate(), witness.getHash());
+                list.add(new SignedWitness(SignedWitness.VerificationMethod.TRADE,
+                        witness.getHash(),
+                        signature,
+                        signer.getPublic().getEncoded(),
+                        owner.getPublic().getEncoded(),
+                        date,
+                        tradeAmount));
+            }
+            signer = owner;
+        }
+        return list;
+    }
+
+    public ECKey ecKey() {
+        return ECKey.fromPrivate(new BigInteger(1, randomBytes(32)));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Offers
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Creates offers from numMakers distinct makers. Each offer carries two reserve tx key images, and a share of
+     * duplicateKeyImageRatio of the offers reuses a key image of an earlier offer.
+     */
+    public List<Offer> offers(int count, int numMakers, double duplicateKeyImageRatio) {
+        List<PubKeyRing> makers = new ArrayList<>(numMakers);
+        for (int i = 0; i < numMakers; i++) {
+            makers.add(new PubKeyRing(dsaKeyPair().getPublic(), rsaKeyPair().getPublic()));
+        }
+
+        List<Offer> list = new ArrayList<>(count);
+        List<String> keyImages = new ArrayList<>(count * 2);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            String keyImage1 = Utilities.encodeToHex(randomBytes(32));
+            String keyImage2 = !keyImages.isEmpty() && random.nextDouble() < duplicateKeyImageRatio ?
+                    pick(keyImages) :
+                    Utilities.encodeToHex(randomBytes(32));
+            keyImages.add(keyImage1);
+            long amount = 100_000_000_000L + random.nextInt(Integer.MAX_VALUE);
+            boolean useMarketBasedPrice = random.nextBoolean();
+            OfferPayload payload = new OfferPayload(Utilities.encodeToHex(randomBytes(16)),
+                    now - random.nextInt(100_000_000),
+                    new NodeAddress(Utilities.encodeToHex(randomBytes(28)) + ".onion", 9999),
+                    makers.get(i % numMakers),
+                    random.nextBoolean() ? OfferDirection.BUY : OfferDirection.SELL,
+                    useMarketBasedPrice ? 0 : 1_000_000L + random.nextInt(100_000_000),
+                    useMarketBasedPrice ? random.nextInt(2000) / 10_000d - 0.1 : 0,
+                    useMarketBasedPrice,
+                    amount,
+                    amount / 2,
+                    "XMR",
+                    pick(CURRENCY_CODES),
+                    pick(PAYMENT_METHOD_IDS),
+                    Utilities.encodeToHex(randomBytes(16)),
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    Version.VERSION,
+                    0,
+                    0,
+                    1_000_000_000L,
+                    15_000_000_000L,
+                    15_000_000_000L,
+                    500_000_000_000L,
+                    DAY * 8,
+                    false,
+                    false,
+                    0,
+                    0,
+                    false,
+                    null,
+                    null,
+                    Version.TRADE_PROTOCOL_VERSION,
+                    null,
+                    null,
+                    Arrays.asList(keyImage1, keyImage2));
+            list.add(new Offer(payload));
+        }
+        return list;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Mailbox entries
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Creates correctly signed mailbox entries which pass the P2PDataStorage add operation checks. The encrypted
+     * message body is random data of the given size as the storage layer never decrypts it.
+     */
+    public List<ProtectedMailboxStorageEntry> mailboxEntries(int count, int numSenders, int payloadSize)
+            throws CryptoException {
+        List<KeyPair> senders = new ArrayList<>(numSenders);
+        for (int i = 0; i < numSenders; i++) {
+            senders.add(dsaKeyPair());
+        }
+        KeyPair receiver = dsaKeyPair();
+
+        List<ProtectedMailboxStorageEntry> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            KeyPair sender = senders.get(i % numSenders);
+            SealedAndSigned sealedAndSigned = new SealedAndSigned(randomBytes(256),
+                    randomBytes(payloadSize),
+                    randomBytes(46),
+                    sender.getPublic());
+            PrefixedSealedAndSignedMessage message = new PrefixedSealedAndSignedMessage(
+                    new NodeAddress(Utilities.encodeToHex(randomBytes(28)) + ".onion", 9999),
+                    sealedAndSigned);
+            MailboxStoragePayload payload = new MailboxStoragePayload(message,
+                    sender.getPublic(),
+                    receiver.getPublic(),
+                    MailboxStoragePayload.TTL);
+            int sequenceNumber = 1;
+            byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(
+                    new P2PDataStorage.DataAndSeqNrPair(payload, sequenceNumber));
+            list.add(new ProtectedMailboxStorageEntry(payload,
+                    sender.getPublic(),
+                    sequenceNumber,
+                    Sig.sign(sender.getPrivate(), hashOfDataAndSeqNr),
+                    receiver.getPublic(),
+                    Clock.systemDefaultZone()));
+        }
+        return list;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Keys and helpers
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public KeyPair dsaKeyPair() {
+        return keyPair(Sig.KEY_ALGO, 2048);
+    }
+
+    public KeyPair rsaKeyPair() {
+        return keyPair(Encryption.ASYM_KEY_ALGO, 2048);
+    }
+
+    public byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private <T> T pick(List<T> list) {
+        return list.get(random.nextInt(list.size()));
+    }
+
+    private KeyPair keyPair(String algorithm, int keySize) {
+        try {
+            // A freshly seeded SHA1PRNG is deterministic, which makes the generated keys reproducible per seed.
+            SecureRandom secureRandom = SecureRandom.getInstance("SHA1PRNG");
+            secureRandom.setSeed(seed ^ random.nextLong());
+            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(algorithm);
+            keyPairGenerator.initialize(keySize, secureRandom);
+            return keyPairGenerator.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.jmh;
+
+import bisq.core.account.sign.SignedWitness;
+import bisq.core.account.sign.SignedWitnessService;
+import bisq.core.account.witness.AccountAgeWitness;
+import bisq.core.account.witness.AccountAgeWitnessService;
+import bisq.core.account.witness.AccountAgeWitnessService.SignState;
+import bisq.core.filter.FilterManager;
+import bisq.core.support.dispute.arbitration.arbitrator.ArbitratorManager;
+
+import bisq.network.p2p.P2PService;
+import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+
+import bisq.common.crypto.KeyRing;
+
+import org.bitcoinj.core.ECKey;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the witness lookups done per offer and per trade in the offer book and trade views. The signature
+ * verification results are cached by the service, so after warm up this measures the signer chain traversal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WitnessServiceBenchmark {
+    @Param({"1000", "10000"})
+    public int numWitnesses;
+
+    @Param({"1", "5"})
+    public int chainLength;
+
+    private SignedWitnessService signedWitnessService;
+    private AccountAgeWitnessService accountAgeWitnessService;
+    private List<AccountAgeWitness> witnesses;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ArbitratorManager arbitratorManager = mock(ArbitratorManager.class);
+        when(arbitratorManager.isPublicKeyInList(any())).thenReturn(true);
+        FilterManager filterManager = mock(FilterManager.class);
+        signedWitnessService = new SignedWitnessService(mock(KeyRing.class),
+                mock(P2PService.class),
+                arbitratorManager,
+                null,
+                mock(AppendOnlyDataStoreService.class),
+                null,
+                filterManager);
+        accountAgeWitnessService = new AccountAgeWitnessService(null,
+                null,
+                null,
+                signedWitnessService,
+                null,
+                null,
+                mock(AppendOnlyDataStoreService.class),
+                null,
+                filterManager);
+
+        SyntheticData data = new SyntheticData(Fixtures.SEED);
+        ECKey arbitratorKey = data.ecKey();
+        witnesses = data.accountAgeWitnesses(numWitnesses);
+        witnesses.forEach(accountAgeWitnessService::addToMap);
+        for (SignedWitness signedWitness : data.signedWitnessChains(witnesses, arbitratorKey, chainLength)) {
+            signedWitnessService.addToMap(signedWitness);
+        }
+    }
+
+    private AccountAgeWitness nextWitness() {
+        return witnesses.get(next++ % witnesses.size());
+    }
+
+    @Benchmark
+    public boolean isSignerAccountAgeWitness() {
+        return signedWitnessService.isSignerAccountAgeWitness(nextWitness());
+    }
+
+    @Benchmark
+    public SignState getSignState() {
+        return accountAgeWitnessService.getSignState(nextWitness());
+    }
+
+    @Benchmark
+    public long getWitnessSignAge() {
+        return accountAgeWitnessService.getWitnessSignAge(nextWitness(), new Date());
+    }
+
+    // Walks all signed witnesses, as done when the arbitrator opens the signing view
+    @Benchmark
+    public Set<AccountAgeWitness> getOrphanSignedWitnesses() {
+        return accountAgeWitnessService.getOrphanSignedWitnesses();
+    }
+}
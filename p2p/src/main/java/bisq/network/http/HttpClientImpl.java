@@ -20,29 +20,29 @@ package bisq.network.http;
 import bisq.network.Socks5ProxyProvider;
 
 import bisq.common.app.Version;
+import bisq.common.metrics.MetricsRegistry;
+import bisq.common.util.LatencyHistogram;
 import bisq.common.util.Utilities;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.protocol.HttpClientContext;
-import org.apache.http.config.Registry;
-import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.apache.http.ssl.SSLContexts;
 
 import com.runjva.sourceforge.jsocks.protocol.Socks5Proxy;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import javax.inject.Inject;
 
 import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
+import java.net.URI;
 import java.net.URL;
 
 import java.nio.charset.StandardCharsets;
@@ -53,8 +53,14 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -62,18 +68,35 @@ import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Nullable;
 
-import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-// TODO close connection if failing
+/**
+ * Requests over the SOCKS proxy use a pooled http client shared by all requests to the
+ * same host (see {@link SocksHttpClientPool}), so the connections are kept alive between
+ * requests.  Identical GET requests made while one of them is in flight share its
+ * response, and responses carrying an ETag or Last-Modified header are revalidated with
+ * a conditional request.
+ */
 @Slf4j
 public class HttpClientImpl implements HttpClient {
+    private static final int MAX_CACHED_RESPONSES = 20;
+
+    private static class CachedResponse {
+        private final String response;
+        @Nullable
+        private final String eTag;
+        @Nullable
+        private final String lastModified;
+
+        private CachedResponse(String response, @Nullable String eTag, @Nullable String lastModified) {
+            this.response = response;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+        }
+    }
+
     @Nullable
     private Socks5ProxyProvider socks5ProxyProvider;
-    @Nullable
-    private HttpURLConnection connection;
-    @Nullable
-    private CloseableHttpClient closeableHttpClient;
 
     @Getter
     @Setter
@@ -82,7 +105,17 @@ public class HttpClientImpl implements HttpClient {
     private boolean ignoreSocks5Proxy;
     @Getter
     private final String uid;
-    private boolean hasPendingRequest;
+
+    // Keys are the url and headers of the GET requests in flight
+    private final Map<String, CompletableFuture<String>> pendingGetRequests = new ConcurrentHashMap<>();
+    // Keys are the urls of the GET requests
+    private final Cache<String, CachedResponse> cachedResponses = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_RESPONSES)
+            .build();
+    // Open requests are aborted at shutDown
+    private final Set<HttpURLConnection> openConnections = ConcurrentHashMap.newKeySet();
+    private final Set<HttpUriRequest> openRequests = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger numPendingRequests = new AtomicInteger();
 
     @Inject
     public HttpClientImpl(@Nullable Socks5ProxyProvider socks5ProxyProvider) {
@@ -97,28 +130,41 @@ public class HttpClientImpl implements HttpClient {
 
     @Override
     public void shutDown() {
-        try {
-            if (connection != null) {
-                connection.getInputStream().close();
-                connection.disconnect();
-            }
-            if (closeableHttpClient != null) {
-                closeableHttpClient.close();
-            }
-        } catch (IOException ignore) {
-        }
+        // The pooled connections are shared and stay open, we only abort our own requests.
+        openRequests.forEach(HttpUriRequest::abort);
+        openRequests.clear();
+        openConnections.forEach(HttpURLConnection::disconnect);
+        openConnections.clear();
     }
 
     @Override
     public boolean hasPendingRequest() {
-        return hasPendingRequest;
+        return numPendingRequests.get() > 0;
     }
 
     @Override
     public String get(String param,
                       @Nullable String headerKey,
                       @Nullable String headerValue) throws IOException {
-        return doRequest(param, HttpMethod.GET, headerKey, headerValue);
+        checkNotNull(baseUrl, "baseUrl must be set before calling get");
+        String requestKey = baseUrl + param + "\n" + headerKey + ": " + headerValue;
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> pendingRequest = pendingGetRequests.putIfAbsent(requestKey, future);
+        if (pendingRequest != null) {
+            log.debug("Waiting for response of pending request to {} with param {}", baseUrl, param);
+            return getResponse(pendingRequest);
+        }
+
+        try {
+            String response = doRequest(param, HttpMethod.GET, headerKey, headerValue);
+            future.complete(response);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingGetRequests.remove(requestKey, future);
+        }
     }
 
     @Override
@@ -128,19 +174,41 @@ public class HttpClientImpl implements HttpClient {
         return doRequest(param, HttpMethod.POST, headerKey, headerValue);
     }
 
+    private String getResponse(CompletableFuture<String> pendingRequest) throws IOException {
+        try {
+            return pendingRequest.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for response of pending request", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
     private String doRequest(String param,
                              HttpMethod httpMethod,
                              @Nullable String headerKey,
                              @Nullable String headerValue) throws IOException {
         checkNotNull(baseUrl, "baseUrl must be set before calling doRequest");
-        checkArgument(!hasPendingRequest, "We got called on the same HttpClient again while a request is still open.");
 
-        hasPendingRequest = true;
-        Socks5Proxy socks5Proxy = getSocks5Proxy(socks5ProxyProvider);
-        if (ignoreSocks5Proxy || socks5Proxy == null || baseUrl.contains("localhost")) {
-            return requestWithoutProxy(baseUrl, param, httpMethod, headerKey, headerValue);
-        } else {
-            return doRequestWithProxy(baseUrl, param, httpMethod, socks5Proxy, headerKey, headerValue);
+        String baseUrl = this.baseUrl;
+        String host = getHost(baseUrl);
+        long ts = System.currentTimeMillis();
+        numPendingRequests.incrementAndGet();
+        try {
+            Socks5Proxy socks5Proxy = getSocks5Proxy(socks5ProxyProvider);
+            if (ignoreSocks5Proxy || socks5Proxy == null || baseUrl.contains("localhost")) {
+                return requestWithoutProxy(baseUrl, param, httpMethod, headerKey, headerValue);
+            } else {
+                return doRequestWithProxy(baseUrl, param, httpMethod, socks5Proxy, headerKey, headerValue);
+            }
+        } catch (IOException | RuntimeException e) {
+            MetricsRegistry.getInstance().counter("http_request_failures",
+                    "Number of failed http requests to providers", "host", host).increment();
+            throw e;
+        } finally {
+            numPendingRequests.decrementAndGet();
+            getLatencyHistogram(host).record(System.currentTimeMillis() - ts);
         }
     }
 
@@ -151,10 +219,12 @@ public class HttpClientImpl implements HttpClient {
                                        @Nullable String headerValue) throws IOException {
         long ts = System.currentTimeMillis();
         log.debug("requestWithoutProxy: URL={}, param={}, httpMethod={}", baseUrl, param, httpMethod);
+        HttpURLConnection connection = null;
         try {
             String spec = httpMethod == HttpMethod.GET ? baseUrl + param : baseUrl;
             URL url = new URL(spec);
             connection = (HttpURLConnection) url.openConnection();
+            openConnections.add(connection);
             connection.setRequestMethod(httpMethod.name());
             connection.setConnectTimeout((int) TimeUnit.SECONDS.toMillis(120));
             connection.setReadTimeout((int) TimeUnit.SECONDS.toMillis(120));
@@ -163,14 +233,33 @@ public class HttpClientImpl implements HttpClient {
                 connection.setRequestProperty(headerKey, headerValue);
             }
 
+            CachedResponse cachedResponse = getCachedResponse(httpMethod, spec);
+            if (cachedResponse != null) {
+                if (cachedResponse.eTag != null)
+                    connection.setRequestProperty("If-None-Match", cachedResponse.eTag);
+                if (cachedResponse.lastModified != null)
+                    connection.setRequestProperty("If-Modified-Since", cachedResponse.lastModified);
+            }
+
             if (httpMethod == HttpMethod.POST) {
                 connection.setDoOutput(true);
                 connection.getOutputStream().write(param.getBytes(StandardCharsets.UTF_8));
             }
 
             int responseCode = connection.getResponseCode();
-            if (responseCode == 200) {
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && cachedResponse != null) {
+                log.debug("Response from {} with param {} took {} ms. Not modified since last request.",
+                        baseUrl,
+                        param,
+                        System.currentTimeMillis() - ts);
+                return cachedResponse.response;
+            } else if (responseCode == 200) {
                 String response = convertInputStreamToString(connection.getInputStream());
+                maybeCacheResponse(httpMethod,
+                        spec,
+                        response,
+                        connection.getHeaderField("ETag"),
+                        connection.getHeaderField("Last-Modified"));
                 log.debug("Response from {} with param {} took {} ms. Data size:{}, response: {}",
                         baseUrl,
                         param,
@@ -182,7 +271,6 @@ public class HttpClientImpl implements HttpClient {
                 InputStream errorStream = connection.getErrorStream();
                 if (errorStream != null) {
                     String error = convertInputStreamToString(errorStream);
-                    errorStream.close();
                     log.info("Received errorMsg '{}' with responseCode {} from {}. Response took: {} ms. param: {}",
                             error,
                             responseCode,
@@ -200,19 +288,17 @@ public class HttpClientImpl implements HttpClient {
                 }
             }
         } catch (Throwable t) {
+            // We only keep the connection alive for reuse if the response was read completely.
+            if (connection != null) {
+                connection.disconnect();
+            }
             String message = "Error at requestWithoutProxy with url " + baseUrl + " and param " + param +
                     ". Throwable=" + t.getMessage();
             throw new IOException(message, t);
         } finally {
-            try {
-                if (connection != null) {
-                    connection.getInputStream().close();
-                    connection.disconnect();
-                    connection = null;
-                }
-            } catch (Throwable ignore) {
+            if (connection != null) {
+                openConnections.remove(connection);
             }
-            hasPendingRequest = false;
         }
     }
 
@@ -224,22 +310,8 @@ public class HttpClientImpl implements HttpClient {
                                       @Nullable String headerValue) throws IOException {
         long ts = System.currentTimeMillis();
         log.debug("doRequestWithProxy: baseUrl={}, param={}, httpMethod={}", baseUrl, param, httpMethod);
-        // This code is adapted from:
-        //  http://stackoverflow.com/a/25203021/5616248
-
-        // Register our own SocketFactories to override createSocket() and connectSocket().
-        // connectSocket does NOT resolve hostname before passing it to proxy.
-        Registry<ConnectionSocketFactory> reg = RegistryBuilder.<ConnectionSocketFactory>create()
-                .register("http", new SocksConnectionSocketFactory())
-                .register("https", new SocksSSLConnectionSocketFactory(SSLContexts.createSystemDefault())).build();
-
-        // Use FakeDNSResolver if not resolving DNS locally.
-        // This prevents a local DNS lookup (which would be ignored anyway)
-        PoolingHttpClientConnectionManager cm = socks5Proxy.resolveAddrLocally() ?
-                new PoolingHttpClientConnectionManager(reg) :
-                new PoolingHttpClientConnectionManager(reg, new FakeDnsResolver());
+        HttpUriRequest request = null;
         try {
-            closeableHttpClient = checkNotNull(HttpClients.custom().setConnectionManager(cm).build());
             InetSocketAddress socksAddress = new InetSocketAddress(socks5Proxy.getInetAddress(), socks5Proxy.getPort());
 
             // remove me: Use this to test with system-wide Tor proxy, or change port for another proxy.
@@ -248,15 +320,40 @@ public class HttpClientImpl implements HttpClient {
             HttpClientContext context = HttpClientContext.create();
             context.setAttribute("socks.address", socksAddress);
 
-            HttpUriRequest request = getHttpUriRequest(httpMethod, baseUrl, param);
+            request = getHttpUriRequest(httpMethod, baseUrl, param);
+            openRequests.add(request);
             if (headerKey != null && headerValue != null) {
                 request.setHeader(headerKey, headerValue);
             }
 
-            try (CloseableHttpResponse httpResponse = closeableHttpClient.execute(request, context)) {
-                String response = convertInputStreamToString(httpResponse.getEntity().getContent());
+            String url = request.getURI().toString();
+            CachedResponse cachedResponse = getCachedResponse(httpMethod, url);
+            if (cachedResponse != null) {
+                if (cachedResponse.eTag != null)
+                    request.setHeader("If-None-Match", cachedResponse.eTag);
+                if (cachedResponse.lastModified != null)
+                    request.setHeader("If-Modified-Since", cachedResponse.lastModified);
+            }
+
+            // The pooled http client is shared, it must not be closed here.
+            try (CloseableHttpResponse httpResponse = SocksHttpClientPool.getHttpClient(baseUrl, socks5Proxy)
+                    .execute(request, context)) {
+                // The entity must be consumed completely so the connection is released to the pool.
+                HttpEntity entity = httpResponse.getEntity();
+                String response = entity != null ? convertInputStreamToString(entity.getContent()) : "";
                 int statusCode = httpResponse.getStatusLine().getStatusCode();
-                if (statusCode == 200) {
+                if (statusCode == HttpURLConnection.HTTP_NOT_MODIFIED && cachedResponse != null) {
+                    log.debug("Response from {} took {} ms. Not modified since last request. param: {}",
+                            baseUrl,
+                            System.currentTimeMillis() - ts,
+                            param);
+                    return cachedResponse.response;
+                } else if (statusCode == 200) {
+                    maybeCacheResponse(httpMethod,
+                            url,
+                            response,
+                            getHeaderValue(httpResponse.getFirstHeader("ETag")),
+                            getHeaderValue(httpResponse.getFirstHeader("Last-Modified")));
                     log.debug("Response from {} took {} ms. Data size:{}, response: {}, param: {}",
                             baseUrl,
                             System.currentTimeMillis() - ts,
@@ -279,11 +376,9 @@ public class HttpClientImpl implements HttpClient {
                     ". Throwable=" + t.getMessage();
             throw new IOException(message, t);
         } finally {
-            if (closeableHttpClient != null) {
-                closeableHttpClient.close();
-                closeableHttpClient = null;
+            if (request != null) {
+                openRequests.remove(request);
             }
-            hasPendingRequest = false;
         }
     }
 
@@ -303,6 +398,45 @@ public class HttpClientImpl implements HttpClient {
         }
     }
 
+    @Nullable
+    private CachedResponse getCachedResponse(HttpMethod httpMethod, String url) {
+        return httpMethod == HttpMethod.GET ? cachedResponses.getIfPresent(url) : null;
+    }
+
+    private void maybeCacheResponse(HttpMethod httpMethod,
+                                    String url,
+                                    String response,
+                                    @Nullable String eTag,
+                                    @Nullable String lastModified) {
+        if (httpMethod != HttpMethod.GET)
+            return;
+
+        if (eTag != null || lastModified != null) {
+            cachedResponses.put(url, new CachedResponse(response, eTag, lastModified));
+        } else {
+            cachedResponses.invalidate(url);
+        }
+    }
+
+    @Nullable
+    private static String getHeaderValue(@Nullable Header header) {
+        return header != null ? header.getValue() : null;
+    }
+
+    private static String getHost(String baseUrl) {
+        try {
+            String host = URI.create(baseUrl).getHost();
+            return host != null ? host : baseUrl;
+        } catch (IllegalArgumentException e) {
+            return baseUrl;
+        }
+    }
+
+    private static LatencyHistogram getLatencyHistogram(String host) {
+        return MetricsRegistry.getInstance().histogram("http_request_ms",
+                "Duration of http requests to providers in milliseconds", "host", host);
+    }
+
     @Nullable
     private Socks5Proxy getSocks5Proxy(Socks5ProxyProvider socks5ProxyProvider) {
         if (socks5ProxyProvider == null) {
@@ -321,13 +455,14 @@ public class HttpClientImpl implements HttpClient {
     }
 
     private String convertInputStreamToString(InputStream inputStream) throws IOException {
-        BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream));
-        StringBuilder stringBuilder = new StringBuilder();
-        String line;
-        while ((line = bufferedReader.readLine()) != null) {
-            stringBuilder.append(line);
+        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream))) {
+            StringBuilder stringBuilder = new StringBuilder();
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                stringBuilder.append(line);
+            }
+            return stringBuilder.toString();
         }
-        return stringBuilder.toString();
     }
 
     @Override
@@ -337,8 +472,7 @@ public class HttpClientImpl implements HttpClient {
                 ",\n     baseUrl='" + baseUrl + '\'' +
                 ",\n     ignoreSocks5Proxy=" + ignoreSocks5Proxy +
                 ",\n     uid='" + uid + '\'' +
-                ",\n     connection=" + connection +
-                ",\n     httpclient=" + closeableHttpClient +
+                ",\n     numPendingRequests=" + numPendingRequests +
                 "\n}";
     }
 }
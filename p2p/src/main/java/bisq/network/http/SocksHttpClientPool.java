@@ -0,0 +1,105 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.http;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.ssl.SSLContexts;
+
+import com.runjva.sourceforge.jsocks.protocol.Socks5Proxy;
+
+import java.net.URI;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Long-lived http clients which route their connections over a SOCKS proxy, one per
+ * target host and proxy.  The pooled connections are kept alive between requests, so
+ * consecutive requests to the same provider reuse the Tor circuit and TLS session
+ * instead of paying for a new SOCKS and TLS handshake each time.
+ */
+@Slf4j
+final class SocksHttpClientPool {
+    private static final int MAX_CONNECTIONS_PER_HOST = 4;
+    // Idle connections over Tor are closed by the remote side sooner or later, we don't
+    // keep them longer than that.
+    private static final long MAX_IDLE_TIME_MS = TimeUnit.SECONDS.toMillis(60);
+    private static final int TIMEOUT_MS = (int) TimeUnit.SECONDS.toMillis(120);
+
+    private static final Map<String, CloseableHttpClient> httpClientsByKey = new ConcurrentHashMap<>();
+
+    private SocksHttpClientPool() {
+    }
+
+    static CloseableHttpClient getHttpClient(String baseUrl, Socks5Proxy socks5Proxy) {
+        URI uri = URI.create(baseUrl);
+        String key = uri.getScheme() + "://" + uri.getAuthority() +
+                " via " + socks5Proxy.getInetAddress() + ":" + socks5Proxy.getPort() +
+                (socks5Proxy.resolveAddrLocally() ? "" : " (remote dns)");
+        return httpClientsByKey.computeIfAbsent(key, k -> {
+            log.debug("Creating pooled http client for {}", k);
+            return createHttpClient(socks5Proxy);
+        });
+    }
+
+    private static CloseableHttpClient createHttpClient(Socks5Proxy socks5Proxy) {
+        // This code is adapted from:
+        //  http://stackoverflow.com/a/25203021/5616248
+
+        // Register our own SocketFactories to override createSocket() and connectSocket().
+        // connectSocket does NOT resolve hostname before passing it to proxy.
+        Registry<ConnectionSocketFactory> reg = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", new SocksConnectionSocketFactory())
+                .register("https", new SocksSSLConnectionSocketFactory(SSLContexts.createSystemDefault())).build();
+
+        // Use FakeDNSResolver if not resolving DNS locally.
+        // This prevents a local DNS lookup (which would be ignored anyway)
+        PoolingHttpClientConnectionManager cm = socks5Proxy.resolveAddrLocally() ?
+                new PoolingHttpClientConnectionManager(reg) :
+                new PoolingHttpClientConnectionManager(reg, new FakeDnsResolver());
+        cm.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_HOST);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(TIMEOUT_MS)
+                .setConnectionRequestTimeout(TIMEOUT_MS)
+                .setSocketTimeout(TIMEOUT_MS)
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(cm)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAliveMs = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAliveMs > 0 ? Math.min(keepAliveMs, MAX_IDLE_TIME_MS) : MAX_IDLE_TIME_MS;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(MAX_IDLE_TIME_MS, TimeUnit.MILLISECONDS)
+                .build();
+    }
+}
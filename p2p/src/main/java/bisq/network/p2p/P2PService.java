@@ -65,6 +65,7 @@ import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -540,6 +541,12 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
         p2PDataStorage.addHashMapChangedListener(hashMapChangedListener);
     }
 
+    // The listener is only called for entries with a payload of exactly that class
+    public void addHashSetChangedListener(Class<? extends ProtectedStoragePayload> payloadClass,
+                                          HashMapChangedListener hashMapChangedListener) {
+        p2PDataStorage.addHashMapChangedListener(payloadClass, hashMapChangedListener);
+    }
+
     public void removeHashMapChangedListener(HashMapChangedListener hashMapChangedListener) {
         p2PDataStorage.removeHashMapChangedListener(hashMapChangedListener);
     }
@@ -570,6 +577,10 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
         return p2PDataStorage.getMap();
     }
 
+    public Collection<ProtectedStorageEntry> getProtectedStorageEntries(Class<? extends ProtectedStoragePayload> payloadClass) {
+        return p2PDataStorage.getProtectedStorageEntries(payloadClass);
+    }
+
     @VisibleForTesting
     public P2PDataStorage getP2PDataStorage() {
         return p2PDataStorage;
@@ -47,6 +47,7 @@ import bisq.common.persistence.PersistenceManager;
 import bisq.common.proto.ProtobufferException;
 import bisq.common.proto.network.NetworkEnvelope;
 import bisq.common.proto.persistable.PersistedDataHost;
+import bisq.common.util.MemoryGovernor;
 import bisq.common.util.Utilities;
 
 import javax.inject.Inject;
@@ -150,6 +151,9 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         this.republishMailboxEntries = republishMailboxEntries;
 
         this.persistenceManager.initialize(mailboxMessageList, PersistenceManager.Source.PRIVATE_LOW_PRIO);
+
+        MemoryGovernor.registerStore("MailboxMessageService",
+                () -> MemoryGovernor.estimateFootprint(mailboxItemsByUid.values(), item -> item.toProtoMessage().getSerializedSize()));
     }
 
 
@@ -229,7 +233,7 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         // Only now we start listening and processing. The p2PDataStorage is our cache for data we have received
         // after the hidden service was ready.
         addHashMapChangedListener();
-        onAdded(p2PDataStorage.getMap().values());
+        onAdded(p2PDataStorage.getProtectedStorageEntries(MailboxStoragePayload.class));
         maybeRepublishMailBoxMessages();
     }
 
@@ -380,7 +384,7 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private void addHashMapChangedListener() {
-        p2PDataStorage.addHashMapChangedListener(this);
+        p2PDataStorage.addHashMapChangedListener(MailboxStoragePayload.class, this);
     }
 
     private void processSingleMailboxEntry(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
@@ -223,7 +223,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     }
 
     private final Object lock = new Object();
-    private final Queue<BundleOfEnvelopes> queueOfBundles = new ConcurrentLinkedQueue<>();
+    private final Queue<PendingBundle> queueOfBundles = new ConcurrentLinkedQueue<>();
     private final ScheduledExecutorService bundleSender = Executors.newSingleThreadScheduledExecutor();
 
     // Called from various threads
@@ -231,23 +231,45 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         long ts = System.currentTimeMillis();
         log.debug(">> Send networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
 
+        if (canSend(networkEnvelope)) {
+            sendSerializedEnvelope(SerializedEnvelope.from(networkEnvelope), ts);
+        }
+    }
+
+    // Called from various threads. Used for broadcasts where the same serialized envelope is sent to many peers.
+    public void sendMessage(SerializedEnvelope serializedEnvelope) {
+        long ts = System.currentTimeMillis();
+        log.debug(">> Send serialized networkEnvelope of type: {}",
+                serializedEnvelope.getNetworkEnvelope().getClass().getSimpleName());
+
+        if (canSend(serializedEnvelope.getNetworkEnvelope())) {
+            sendSerializedEnvelope(serializedEnvelope, ts);
+        }
+    }
+
+    private boolean canSend(NetworkEnvelope networkEnvelope) {
         if (stopped) {
             log.debug("called sendMessage but was already stopped");
-            return;
+            return false;
         }
 
         if (networkFilter != null &&
                 peersNodeAddressOptional.isPresent() &&
                 networkFilter.isPeerBanned(peersNodeAddressOptional.get())) {
             reportInvalidRequest(RuleViolation.PEER_BANNED);
-            return;
+            return false;
         }
 
         if (!noCapabilityRequiredOrCapabilityIsSupported(networkEnvelope)) {
             log.debug("Capability for networkEnvelope is required but not supported");
-            return;
+            return false;
         }
-        int networkEnvelopeSize = networkEnvelope.toProtoNetworkEnvelope().getSerializedSize();
+        return true;
+    }
+
+    private void sendSerializedEnvelope(SerializedEnvelope serializedEnvelope, long ts) {
+        NetworkEnvelope networkEnvelope = serializedEnvelope.getNetworkEnvelope();
+        int networkEnvelopeSize = serializedEnvelope.getSerializedSize();
         try {
             // Throttle outbound network_messages
             long now = System.currentTimeMillis();
@@ -264,10 +286,10 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                         // check if current envelope fits size
                         // - no? create new envelope
 
-                        int size = !queueOfBundles.isEmpty() ? queueOfBundles.element().toProtoNetworkEnvelope().getSerializedSize() + networkEnvelopeSize : 0;
+                        int size = !queueOfBundles.isEmpty() ? queueOfBundles.element().getSize() + networkEnvelopeSize : 0;
                         if (queueOfBundles.isEmpty() || size > MAX_PERMITTED_MESSAGE_SIZE * 0.9) {
                             // - no? create a bucket
-                            queueOfBundles.add(new BundleOfEnvelopes());
+                            queueOfBundles.add(new PendingBundle());
 
                             // - and schedule it for sending
                             lastSendTimeStamp += getSendMsgThrottleSleep();
@@ -275,28 +297,22 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                             bundleSender.schedule(() -> {
                                 if (!stopped) {
                                     synchronized (lock) {
-                                        BundleOfEnvelopes bundle = queueOfBundles.poll();
+                                        PendingBundle bundle = queueOfBundles.poll();
                                         if (bundle != null && !stopped) {
-                                            NetworkEnvelope envelope;
-                                            int msgSize;
-                                            if (bundle.getEnvelopes().size() == 1) {
-                                                envelope = bundle.getEnvelopes().get(0);
-                                                msgSize = envelope.toProtoNetworkEnvelope().getSerializedSize();
-                                            } else {
-                                                envelope = bundle;
-                                                msgSize = networkEnvelopeSize;
-                                            }
+                                            // The envelopes are already serialized, so we only compose the bundle
+                                            SerializedEnvelope envelope = bundle.toSerializedEnvelope();
                                             try {
                                                 protoOutputStream.writeEnvelope(envelope);
-                                                UserThread.execute(() -> messageListeners.forEach(e -> e.onMessageSent(envelope, this)));
-                                                UserThread.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, msgSize));
+                                                NetworkMetrics.onMessageSent(envelope.getNetworkEnvelope(), envelope.getSerializedSize());
+                                                UserThread.execute(() -> messageListeners.forEach(e -> e.onMessageSent(envelope.getNetworkEnvelope(), this)));
+                                                UserThread.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, envelope.getSerializedSize()));
                                             } catch (Throwable t) {
                                                 log.error("Sending envelope of class {} to address {} " +
                                                                 "failed due {}",
-                                                        envelope.getClass().getSimpleName(),
+                                                        envelope.getNetworkEnvelope().getClass().getSimpleName(),
                                                         this.getPeersNodeAddressOptional(),
                                                         t.toString());
-                                                log.error("envelope: {}", envelope);
+                                                log.error("envelope: {}", envelope.getNetworkEnvelope());
                                             }
                                         }
                                     }
@@ -305,7 +321,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                         }
 
                         // - yes? add to bucket
-                        queueOfBundles.element().add(networkEnvelope);
+                        queueOfBundles.element().add(serializedEnvelope);
                     }
                     return;
                 }
@@ -316,7 +332,8 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             lastSendTimeStamp = now;
 
             if (!stopped) {
-                protoOutputStream.writeEnvelope(networkEnvelope);
+                protoOutputStream.writeEnvelope(serializedEnvelope);
+                NetworkMetrics.onMessageSent(networkEnvelope, networkEnvelopeSize);
                 UserThread.execute(() -> messageListeners.forEach(e -> e.onMessageSent(networkEnvelope, this)));
                 UserThread.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, networkEnvelopeSize));
             }
@@ -325,6 +342,11 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         }
     }
 
+    // Called if a message carried a payload we already had
+    public void onDuplicatePayloadReceived(NetworkEnvelope networkEnvelope) {
+        connectionStatistics.addDuplicateReceivedBytes(networkEnvelope.toProtoNetworkEnvelope().getSerializedSize());
+    }
+
     // TODO: If msg is BundleOfEnvelopes we should check each individual message for capability and filter out those
     //  which fail.
     public boolean noCapabilityRequiredOrCapabilityIsSupported(Proto msg) {
@@ -434,10 +456,16 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         if (networkEnvelope instanceof BundleOfEnvelopes) {
             onBundleOfEnvelopes((BundleOfEnvelopes) networkEnvelope, connection);
         } else {
-            UserThread.execute(() -> messageListeners.forEach(e -> e.onMessage(networkEnvelope, connection)));
+            UserThread.execute(() -> notifyMessageListeners(networkEnvelope, connection));
         }
     }
 
+    private void notifyMessageListeners(NetworkEnvelope networkEnvelope, Connection connection) {
+        long ts = System.currentTimeMillis();
+        messageListeners.forEach(e -> e.onMessage(networkEnvelope, connection));
+        NetworkMetrics.onMessageHandled(networkEnvelope, System.currentTimeMillis() - ts);
+    }
+
     private void onBundleOfEnvelopes(BundleOfEnvelopes bundleOfEnvelopes, Connection connection) {
         Map<P2PDataStorage.ByteArray, Set<NetworkEnvelope>> itemsByHash = new HashMap<>();
         Set<NetworkEnvelope> envelopesToProcess = new HashSet<>();
@@ -467,8 +495,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                 envelopesToProcess.add(networkEnvelope);
             }
         }
-        envelopesToProcess.forEach(envelope -> UserThread.execute(() ->
-                messageListeners.forEach(listener -> listener.onMessage(envelope, connection))));
+        envelopesToProcess.forEach(envelope -> UserThread.execute(() -> notifyMessageListeners(envelope, connection)));
     }
 
 
@@ -633,6 +660,30 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     }
 
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PendingBundle
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Collects the serialized envelopes sent within the throttle interval. Accessed only while holding the lock.
+    private static class PendingBundle {
+        private final List<SerializedEnvelope> serializedEnvelopes = new ArrayList<>();
+        @Getter
+        private int size;
+
+        void add(SerializedEnvelope serializedEnvelope) {
+            serializedEnvelopes.add(serializedEnvelope);
+            size += serializedEnvelope.getSerializedSize();
+        }
+
+        SerializedEnvelope toSerializedEnvelope() {
+            // If we only have 1 envelope we avoid the overhead of the BundleOfEnvelopes and send it directly
+            return serializedEnvelopes.size() == 1 ?
+                    serializedEnvelopes.get(0) :
+                    SerializedEnvelope.bundle(serializedEnvelopes);
+        }
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // SharedSpace
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -814,6 +865,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
 
                     // We want to track the network_messages also before the checks, so do it early...
                     statistic.addReceivedMessage(networkEnvelope);
+                    NetworkMetrics.onMessageReceived(networkEnvelope, size);
 
                     // First we check the size
                     boolean exceeds;
@@ -0,0 +1,200 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.NodeAddress;
+
+import javafx.beans.value.ChangeListener;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+
+/**
+ * Registry of the connections of a NetworkNode. Besides the sets of inbound and outbound connections it holds an
+ * index by the peers node address with an inbound and an outbound slot, so lookups of a peer's connection do not
+ * need to iterate all connections. The address of an inbound connection is only known once the peer has sent a
+ * message with its address, so we index a connection when its peers node address gets set.
+ *
+ * The returned sets are unmodifiable live views and iterating them does not copy the connections.
+ */
+class ConnectionRegistry {
+    // Immutable, replaced atomically in the index map
+    private static final class Slots {
+        @Nullable
+        private final InboundConnection inbound;
+        @Nullable
+        private final OutboundConnection outbound;
+
+        private Slots(@Nullable InboundConnection inbound, @Nullable OutboundConnection outbound) {
+            this.inbound = inbound;
+            this.outbound = outbound;
+        }
+
+        @Nullable
+        private Slots orNullIfEmpty() {
+            return inbound == null && outbound == null ? null : this;
+        }
+    }
+
+    private final Set<InboundConnection> inboundConnections = new CopyOnWriteArraySet<>();
+    private final Set<OutboundConnection> outboundConnections = new CopyOnWriteArraySet<>();
+    private final Set<Connection> allConnections = ConcurrentHashMap.newKeySet();
+    private final Set<Connection> confirmedConnections = ConcurrentHashMap.newKeySet();
+    private final Map<NodeAddress, Slots> slotsByNodeAddress = new ConcurrentHashMap<>();
+    private final Map<Connection, ChangeListener<NodeAddress>> peersNodeAddressListeners = new ConcurrentHashMap<>();
+
+    @Getter
+    private final Set<InboundConnection> inboundConnectionsView = Collections.unmodifiableSet(inboundConnections);
+    @Getter
+    private final Set<OutboundConnection> outboundConnectionsView = Collections.unmodifiableSet(outboundConnections);
+    @Getter
+    private final Set<Connection> allConnectionsView = Collections.unmodifiableSet(allConnections);
+    @Getter
+    private final Set<Connection> confirmedConnectionsView = Collections.unmodifiableSet(confirmedConnections);
+    // Does not contain an address twice if we have an inbound and an outbound connection to the same peer
+    @Getter
+    private final Set<NodeAddress> nodeAddressesOfConfirmedConnections =
+            Collections.unmodifiableSet(slotsByNodeAddress.keySet());
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Lifecycle
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    void add(Connection connection) {
+        if (!allConnections.add(connection)) {
+            return;
+        }
+        if (connection instanceof InboundConnection) {
+            inboundConnections.add((InboundConnection) connection);
+        } else {
+            outboundConnections.add((OutboundConnection) connection);
+        }
+
+        // We add the listener before we read the address to not miss an address set in between
+        ChangeListener<NodeAddress> listener = (observable, oldValue, newValue) -> {
+            if (newValue != null) {
+                index(connection, newValue);
+            }
+        };
+        peersNodeAddressListeners.put(connection, listener);
+        connection.getPeersNodeAddressProperty().addListener(listener);
+        connection.getPeersNodeAddressOptional().ifPresent(nodeAddress -> index(connection, nodeAddress));
+    }
+
+    void remove(Connection connection) {
+        if (!allConnections.remove(connection)) {
+            return;
+        }
+        inboundConnections.remove(connection);
+        outboundConnections.remove(connection);
+        ChangeListener<NodeAddress> listener = peersNodeAddressListeners.remove(connection);
+        if (listener != null) {
+            connection.getPeersNodeAddressProperty().removeListener(listener);
+        }
+        connection.getPeersNodeAddressOptional().ifPresent(nodeAddress -> unIndex(connection, nodeAddress));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Lookup
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Nullable
+    InboundConnection getInboundConnection(NodeAddress nodeAddress) {
+        Slots slots = slotsByNodeAddress.get(nodeAddress);
+        return slots != null ? slots.inbound : null;
+    }
+
+    @Nullable
+    OutboundConnection getOutboundConnection(NodeAddress nodeAddress) {
+        Slots slots = slotsByNodeAddress.get(nodeAddress);
+        return slots != null ? slots.outbound : null;
+    }
+
+    // Prefers the outbound connection if we have both
+    @Nullable
+    Connection getConnection(NodeAddress nodeAddress) {
+        Slots slots = slotsByNodeAddress.get(nodeAddress);
+        if (slots == null) {
+            return null;
+        }
+        return slots.outbound != null ? slots.outbound : slots.inbound;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void index(Connection connection, NodeAddress nodeAddress) {
+        // The compute call for an address is atomic, so we check inside it if the connection got removed in the
+        // meantime as remove reads the address and un-indexes it in a compute call for the same address.
+        slotsByNodeAddress.compute(nodeAddress, (key, slots) -> {
+            if (!allConnections.contains(connection)) {
+                return slots;
+            }
+            confirmedConnections.add(connection);
+            InboundConnection inbound = slots != null ? slots.inbound : null;
+            OutboundConnection outbound = slots != null ? slots.outbound : null;
+            if (connection instanceof InboundConnection) {
+                inbound = (InboundConnection) connection;
+            } else {
+                outbound = (OutboundConnection) connection;
+            }
+            return new Slots(inbound, outbound);
+        });
+    }
+
+    private void unIndex(Connection connection, NodeAddress nodeAddress) {
+        slotsByNodeAddress.compute(nodeAddress, (key, slots) -> {
+            confirmedConnections.remove(connection);
+            if (slots == null) {
+                return null;
+            }
+            InboundConnection inbound = slots.inbound;
+            OutboundConnection outbound = slots.outbound;
+            // If we had several connections to the same peer we fall back to another one. That is rare, so we accept
+            // to iterate the connections in that case.
+            if (inbound == connection) {
+                inbound = findOther(inboundConnections, nodeAddress);
+            } else if (outbound == connection) {
+                outbound = findOther(outboundConnections, nodeAddress);
+            }
+            return new Slots(inbound, outbound).orNullIfEmpty();
+        });
+    }
+
+    @Nullable
+    private static <T extends Connection> T findOther(Set<T> connections, NodeAddress nodeAddress) {
+        for (T connection : connections) {
+            if (connection.getPeersNodeAddressOptional().filter(nodeAddress::equals).isPresent()) {
+                return connection;
+            }
+        }
+        return null;
+    }
+}
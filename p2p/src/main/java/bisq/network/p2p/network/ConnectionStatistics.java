@@ -51,6 +51,16 @@ public class ConnectionStatistics implements MessageListener {
     private int sentBytes = 0;
     @Getter
     private int receivedBytes = 0;
+    // Payloads we received but already had
+    @Getter
+    private long duplicateReceivedBytes = 0;
+    @Getter
+    private int numDuplicateReceivedMessages = 0;
+    // Payloads we announced by hash instead of pushing them and the part of those the peer requested
+    @Getter
+    private long announcedBytes = 0;
+    @Getter
+    private long requestedAnnouncedBytes = 0;
 
     public ConnectionStatistics(Connection connection, ConnectionState connectionState) {
         this.connection = connection;
@@ -106,6 +116,8 @@ public class ConnectionStatistics implements MessageListener {
                         "%s" +
                         "Sent data: %s; %s" + ls +
                         "Received data: %s; %s" + ls +
+                        "Duplicate received data: %s in %d messages" + ls +
+                        "Announced data: %s; requested by peer: %s" + ls +
                         "CPU time spent on sending messages: %s" + ls +
                         "CPU time spent on receiving messages: %s",
                 age,
@@ -117,6 +129,8 @@ public class ConnectionStatistics implements MessageListener {
                 rrt,
                 Utilities.readableFileSize(sentBytes), sentDataMap.toString(),
                 Utilities.readableFileSize(receivedBytes), receivedDataMap.toString(),
+                Utilities.readableFileSize(duplicateReceivedBytes), numDuplicateReceivedMessages,
+                Utilities.readableFileSize(announcedBytes), Utilities.readableFileSize(requestedAnnouncedBytes),
                 Utilities.formatDurationAsWords(timeOnSendMsg),
                 Utilities.formatDurationAsWords(timeOnReceivedMsg));
     }
@@ -170,4 +184,22 @@ public class ConnectionStatistics implements MessageListener {
         this.timeOnReceivedMsg += timeSpent;
         this.receivedBytes += bytes;
     }
+
+    public void addDuplicateReceivedBytes(int bytes) {
+        this.duplicateReceivedBytes += bytes;
+        this.numDuplicateReceivedMessages++;
+    }
+
+    public void addAnnouncedBytes(long bytes) {
+        this.announcedBytes += bytes;
+    }
+
+    public void addRequestedAnnouncedBytes(long bytes) {
+        this.requestedAnnouncedBytes += bytes;
+    }
+
+    // Bytes we did not need to send as the peer already had the announced payloads
+    public long getSavedBytes() {
+        return Math.max(0, announcedBytes - requestedAnnouncedBytes);
+    }
 }
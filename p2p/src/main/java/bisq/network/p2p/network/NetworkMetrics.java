@@ -0,0 +1,74 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.common.metrics.Counter;
+import bisq.common.metrics.MetricsRegistry;
+import bisq.common.proto.network.NetworkEnvelope;
+import bisq.common.util.LatencyHistogram;
+
+/**
+ * P2P network metrics of all connections.  The metrics of a message type are looked up
+ * once per class, so recording a message does not allocate.
+ */
+final class NetworkMetrics {
+    private static final MetricsRegistry REGISTRY = MetricsRegistry.getInstance();
+
+    private static final Counter RECEIVED_BYTES = REGISTRY.counter("p2p_received_bytes",
+            "Bytes of all received network messages");
+    private static final Counter SENT_BYTES = REGISTRY.counter("p2p_sent_bytes",
+            "Bytes of all sent network messages");
+
+    private static class MessageMetrics {
+        private final Counter received;
+        private final Counter sent;
+        private final LatencyHistogram handlingTime;
+
+        private MessageMetrics(Class<?> messageClass) {
+            String type = messageClass.getSimpleName();
+            received = REGISTRY.counter("p2p_received_messages", "Received network messages", "type", type);
+            sent = REGISTRY.counter("p2p_sent_messages", "Sent network messages", "type", type);
+            handlingTime = REGISTRY.histogram("p2p_message_handling_ms",
+                    "Time the message listeners took to handle a received message", "type", type);
+        }
+    }
+
+    private static final ClassValue<MessageMetrics> METRICS_BY_CLASS = new ClassValue<>() {
+        @Override
+        protected MessageMetrics computeValue(Class<?> messageClass) {
+            return new MessageMetrics(messageClass);
+        }
+    };
+
+    private NetworkMetrics() {
+    }
+
+    static void onMessageReceived(NetworkEnvelope networkEnvelope, int size) {
+        RECEIVED_BYTES.add(size);
+        METRICS_BY_CLASS.get(networkEnvelope.getClass()).received.increment();
+    }
+
+    static void onMessageSent(NetworkEnvelope networkEnvelope, int size) {
+        SENT_BYTES.add(size);
+        METRICS_BY_CLASS.get(networkEnvelope.getClass()).sent.increment();
+    }
+
+    static void onMessageHandled(NetworkEnvelope networkEnvelope, long durationMs) {
+        METRICS_BY_CLASS.get(networkEnvelope.getClass()).handlingTime.record(durationMs);
+    }
+}
@@ -22,6 +22,7 @@ import bisq.network.p2p.NodeAddress;
 import bisq.common.Timer;
 import bisq.common.UserThread;
 import bisq.common.app.Capabilities;
+import bisq.common.metrics.MetricsRegistry;
 import bisq.common.proto.network.NetworkEnvelope;
 import bisq.common.proto.network.NetworkProtoResolver;
 import bisq.common.util.Utilities;
@@ -52,7 +53,6 @@ import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -72,7 +72,7 @@ public abstract class NetworkNode implements MessageListener {
     @Nullable
     private final NetworkFilter networkFilter;
 
-    private final CopyOnWriteArraySet<InboundConnection> inBoundConnections = new CopyOnWriteArraySet<>();
+    private final ConnectionRegistry connectionRegistry = new ConnectionRegistry();
     private final CopyOnWriteArraySet<MessageListener> messageListeners = new CopyOnWriteArraySet<>();
     private final CopyOnWriteArraySet<ConnectionListener> connectionListeners = new CopyOnWriteArraySet<>();
     final CopyOnWriteArraySet<SetupListener> setupListeners = new CopyOnWriteArraySet<>();
@@ -81,7 +81,6 @@ public abstract class NetworkNode implements MessageListener {
 
     private volatile boolean shutDownInProgress;
     // accessed from different threads
-    private final CopyOnWriteArraySet<OutboundConnection> outBoundConnections = new CopyOnWriteArraySet<>();
     protected final ObjectProperty<NodeAddress> nodeAddressProperty = new SimpleObjectProperty<>();
 
 
@@ -95,6 +94,9 @@ public abstract class NetworkNode implements MessageListener {
         this.servicePort = servicePort;
         this.networkProtoResolver = networkProtoResolver;
         this.networkFilter = networkFilter;
+
+        MetricsRegistry.getInstance().gauge("p2p_connections", "Number of open connections",
+                () -> getAllConnections().size());
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -170,7 +172,7 @@ public abstract class NetworkNode implements MessageListener {
                             @Override
                             public void onConnection(Connection connection) {
                                 if (!connection.isStopped()) {
-                                    outBoundConnections.add((OutboundConnection) connection);
+                                    connectionRegistry.add(connection);
                                     printOutBoundConnections();
                                     connectionListeners.forEach(e -> e.onConnection(connection));
                                 }
@@ -179,8 +181,7 @@ public abstract class NetworkNode implements MessageListener {
                             @Override
                             public void onDisconnect(CloseConnectionReason closeConnectionReason,
                                                      Connection connection) {
-                                //noinspection SuspiciousMethodCalls
-                                outBoundConnections.remove(connection);
+                                connectionRegistry.remove(connection);
                                 printOutBoundConnections();
                                 connectionListeners.forEach(e -> e.onDisconnect(closeConnectionReason, connection));
                             }
@@ -236,13 +237,12 @@ public abstract class NetworkNode implements MessageListener {
 
     @Nullable
     private InboundConnection getInboundConnection(@NotNull NodeAddress peersNodeAddress) {
-        Optional<InboundConnection> inboundConnectionOptional = lookupInBoundConnection(peersNodeAddress);
-        if (inboundConnectionOptional.isPresent()) {
-            InboundConnection connection = inboundConnectionOptional.get();
+        InboundConnection connection = connectionRegistry.getInboundConnection(peersNodeAddress);
+        if (connection != null) {
             log.trace("We have found a connection in inBoundConnections. Connection.uid={}", connection.getUid());
             if (connection.isStopped()) {
                 log.warn("We have a connection which is already stopped in inBoundConnections. Connection.uid=" + connection.getUid());
-                inBoundConnections.remove(connection);
+                connectionRegistry.remove(connection);
                 return null;
             } else {
                 return connection;
@@ -254,13 +254,12 @@ public abstract class NetworkNode implements MessageListener {
 
     @Nullable
     private OutboundConnection getOutboundConnection(@NotNull NodeAddress peersNodeAddress) {
-        Optional<OutboundConnection> outboundConnectionOptional = lookupOutBoundConnection(peersNodeAddress);
-        if (outboundConnectionOptional.isPresent()) {
-            OutboundConnection connection = outboundConnectionOptional.get();
+        OutboundConnection connection = connectionRegistry.getOutboundConnection(peersNodeAddress);
+        if (connection != null) {
             log.trace("We have found a connection in outBoundConnections. Connection.uid={}", connection.getUid());
             if (connection.isStopped()) {
                 log.warn("We have a connection which is already stopped in outBoundConnections. Connection.uid=" + connection.getUid());
-                outBoundConnections.remove(connection);
+                connectionRegistry.remove(connection);
                 return null;
             } else {
                 return connection;
@@ -277,11 +276,20 @@ public abstract class NetworkNode implements MessageListener {
 
 
     public SettableFuture<Connection> sendMessage(Connection connection, NetworkEnvelope networkEnvelope) {
+        return sendMessage(connection, () -> connection.sendMessage(networkEnvelope));
+    }
+
+    // Used if the same envelope is sent to many connections, so it gets serialized only once
+    public SettableFuture<Connection> sendMessage(Connection connection, SerializedEnvelope serializedEnvelope) {
+        return sendMessage(connection, () -> connection.sendMessage(serializedEnvelope));
+    }
+
+    private SettableFuture<Connection> sendMessage(Connection connection, Runnable sendTask) {
         // connection.sendMessage might take a bit (compression, write to stream), so we use a thread to not block
         ListenableFuture<Connection> future = executorService.submit(() -> {
             String id = connection.getPeersNodeAddressOptional().isPresent() ? connection.getPeersNodeAddressOptional().get().getFullAddress() : connection.getUid();
             Thread.currentThread().setName("NetworkNode:SendMessage-to-" + id);
-            connection.sendMessage(networkEnvelope);
+            sendTask.run();
             return connection;
         });
         final SettableFuture<Connection> resultFuture = SettableFuture.create();
@@ -301,27 +309,22 @@ public abstract class NetworkNode implements MessageListener {
         return nodeAddressProperty;
     }
 
+    // Returns an unmodifiable live view. Can contain inbound and outbound connections with the same peer node
+    // address, as connection hashcode is using uid and port info
     public Set<Connection> getAllConnections() {
-        // Can contain inbound and outbound connections with the same peer node address,
-        // as connection hashcode is using uid and port info
-        Set<Connection> set = new HashSet<>(inBoundConnections);
-        set.addAll(outBoundConnections);
-        return set;
+        return connectionRegistry.getAllConnectionsView();
     }
 
+    // Returns an unmodifiable live view. Can contain inbound and outbound connections with the same peer node
+    // address, as connection hashcode is using uid and port info
     public Set<Connection> getConfirmedConnections() {
-        // Can contain inbound and outbound connections with the same peer node address,
-        // as connection hashcode is using uid and port info
-        return getAllConnections().stream()
-                .filter(Connection::hasPeersNodeAddress)
-                .collect(Collectors.toSet());
+        return connectionRegistry.getConfirmedConnectionsView();
     }
 
+    // Returns an unmodifiable live view. Does not contain inbound and outbound connection with the same peer node
+    // address
     public Set<NodeAddress> getNodeAddressesOfConfirmedConnections() {
-        // Does not contain inbound and outbound connection with the same peer node address
-        return getConfirmedConnections().stream()
-                .map(e -> e.getPeersNodeAddressOptional().get())
-                .collect(Collectors.toSet());
+        return connectionRegistry.getNodeAddressesOfConfirmedConnections();
     }
 
 
@@ -333,7 +336,8 @@ public abstract class NetworkNode implements MessageListener {
                 server = null;
             }
 
-            Set<Connection> allConnections = getAllConnections();
+            // We copy the connections as they get removed from the registry at shutdown
+            Set<Connection> allConnections = new HashSet<>(getAllConnections());
             int numConnections = allConnections.size();
 
             if (numConnections == 0) {
@@ -437,7 +441,7 @@ public abstract class NetworkNode implements MessageListener {
             @Override
             public void onConnection(Connection connection) {
                 if (!connection.isStopped()) {
-                    inBoundConnections.add((InboundConnection) connection);
+                    connectionRegistry.add(connection);
                     printInboundConnections();
                     connectionListeners.forEach(e -> e.onConnection(connection));
                 }
@@ -446,8 +450,7 @@ public abstract class NetworkNode implements MessageListener {
             @Override
             public void onDisconnect(CloseConnectionReason closeConnectionReason, Connection connection) {
                 log.trace("onDisconnect at server socket connectionListener\n\tconnection={}", connection);
-                //noinspection SuspiciousMethodCalls
-                inBoundConnections.remove(connection);
+                connectionRegistry.remove(connection);
                 printInboundConnections();
                 connectionListeners.forEach(e -> e.onDisconnect(closeConnectionReason, connection));
             }
@@ -466,34 +469,24 @@ public abstract class NetworkNode implements MessageListener {
         executorService.submit(server);
     }
 
-    private Optional<OutboundConnection> lookupOutBoundConnection(NodeAddress peersNodeAddress) {
-        log.trace("lookupOutboundConnection for peersNodeAddress={}", peersNodeAddress.getFullAddress());
-        printOutBoundConnections();
-        return outBoundConnections.stream()
-                .filter(connection -> connection.hasPeersNodeAddress() &&
-                        peersNodeAddress.equals(connection.getPeersNodeAddressOptional().get())).findAny();
-    }
-
     private void printOutBoundConnections() {
-        StringBuilder sb = new StringBuilder("outBoundConnections size()=")
-                .append(outBoundConnections.size()).append("\n\toutBoundConnections=");
-        outBoundConnections.forEach(e -> sb.append(e).append("\n\t"));
-        log.debug(sb.toString());
-    }
-
-    private Optional<InboundConnection> lookupInBoundConnection(NodeAddress peersNodeAddress) {
-        log.trace("lookupInboundConnection for peersNodeAddress={}", peersNodeAddress.getFullAddress());
-        printInboundConnections();
-        return inBoundConnections.stream()
-                .filter(connection -> connection.hasPeersNodeAddress() &&
-                        peersNodeAddress.equals(connection.getPeersNodeAddressOptional().get())).findAny();
+        if (log.isDebugEnabled()) {
+            Set<OutboundConnection> outBoundConnections = connectionRegistry.getOutboundConnectionsView();
+            StringBuilder sb = new StringBuilder("outBoundConnections size()=")
+                    .append(outBoundConnections.size()).append("\n\toutBoundConnections=");
+            outBoundConnections.forEach(e -> sb.append(e).append("\n\t"));
+            log.debug(sb.toString());
+        }
     }
 
     private void printInboundConnections() {
-        StringBuilder sb = new StringBuilder("inBoundConnections size()=")
-                .append(inBoundConnections.size()).append("\n\tinBoundConnections=");
-        inBoundConnections.forEach(e -> sb.append(e).append("\n\t"));
-        log.debug(sb.toString());
+        if (log.isDebugEnabled()) {
+            Set<InboundConnection> inBoundConnections = connectionRegistry.getInboundConnectionsView();
+            StringBuilder sb = new StringBuilder("inBoundConnections size()=")
+                    .append(inBoundConnections.size()).append("\n\tinBoundConnections=");
+            inBoundConnections.forEach(e -> sb.append(e).append("\n\t"));
+            log.debug(sb.toString());
+        }
     }
 
     protected abstract Socket createSocket(NodeAddress peersNodeAddress) throws IOException;
@@ -504,28 +497,25 @@ public abstract class NetworkNode implements MessageListener {
     }
 
     public Optional<Capabilities> findPeersCapabilities(NodeAddress nodeAddress) {
-        return getConfirmedConnections().stream()
-                .filter(c -> c.getPeersNodeAddressProperty().get() != null)
-                .filter(c -> c.getPeersNodeAddressProperty().get().equals(nodeAddress))
-                .map(Connection::getCapabilities)
-                .findAny();
+        return Optional.ofNullable(connectionRegistry.getConnection(nodeAddress))
+                .map(Connection::getCapabilities);
     }
 
     public long upTime() {
         // how long Haveno has been running with at least one connection
         // uptime is relative to last all connections lost event
         long earliestConnection = new Date().getTime();
-        for (Connection connection : outBoundConnections) {
+        for (Connection connection : connectionRegistry.getOutboundConnectionsView()) {
             earliestConnection = Math.min(earliestConnection, connection.getStatistic().getCreationDate().getTime());
         }
         return new Date().getTime() - earliestConnection;
     }
 
     public int getInboundConnectionCount() {
-        return inBoundConnections.size();
+        return connectionRegistry.getInboundConnectionsView().size();
     }
 
     public int getOutboundConnectionCount() {
-        return outBoundConnections.size();
+        return connectionRegistry.getOutboundConnectionsView().size();
     }
 }
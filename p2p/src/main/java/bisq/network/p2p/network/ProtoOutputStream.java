@@ -41,7 +41,7 @@ class ProtoOutputStream {
         this.statistic = statistic;
     }
 
-    void writeEnvelope(NetworkEnvelope envelope) {
+    void writeEnvelope(SerializedEnvelope envelope) {
         try {
             writeEnvelopeOrThrow(envelope);
         } catch (IOException e) {
@@ -58,12 +58,12 @@ class ProtoOutputStream {
         }
     }
 
-    private void writeEnvelopeOrThrow(NetworkEnvelope envelope) throws IOException {
-        protobuf.NetworkEnvelope proto = envelope.toProtoNetworkEnvelope();
-        proto.writeDelimitedTo(delegate);
+    private void writeEnvelopeOrThrow(SerializedEnvelope serializedEnvelope) throws IOException {
+        serializedEnvelope.writeDelimitedTo(delegate);
         delegate.flush();
 
-        statistic.addSentBytes(proto.getSerializedSize());
+        NetworkEnvelope envelope = serializedEnvelope.getNetworkEnvelope();
+        statistic.addSentBytes(serializedEnvelope.getSerializedSize());
         statistic.addSentMessage(envelope);
 
         if (!(envelope instanceof KeepAliveMessage)) {
@@ -0,0 +1,109 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.BundleOfEnvelopes;
+
+import bisq.common.app.Version;
+import bisq.common.proto.network.NetworkEnvelope;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+
+/**
+ * A network envelope together with its protobuf encoding. The encoding is created once, so the same instance can be
+ * written to many connections without serializing the envelope again for each of them.
+ * Bundles are composed from the already encoded envelopes, so the bundled envelopes are not serialized again either.
+ */
+public final class SerializedEnvelope {
+    @Getter
+    private final NetworkEnvelope networkEnvelope;
+    private final ByteString bytes;
+
+    public static SerializedEnvelope from(NetworkEnvelope networkEnvelope) {
+        return new SerializedEnvelope(networkEnvelope, networkEnvelope.toProtoNetworkEnvelope().toByteString());
+    }
+
+    // Produces the same encoding as BundleOfEnvelopes.toProtoNetworkEnvelope, which is a message version field
+    // followed by the bundle_of_envelopes field containing the encoded envelopes.
+    public static SerializedEnvelope bundle(List<SerializedEnvelope> serializedEnvelopes) {
+        BundleOfEnvelopes bundleOfEnvelopes = new BundleOfEnvelopes(serializedEnvelopes.stream()
+                .map(SerializedEnvelope::getNetworkEnvelope)
+                .collect(Collectors.toList()));
+        ByteString header = protobuf.NetworkEnvelope.newBuilder()
+                .setMessageVersion(Version.getP2PMessageVersion())
+                .build()
+                .toByteString();
+        int bundleSize = 0;
+        for (SerializedEnvelope serializedEnvelope : serializedEnvelopes) {
+            bundleSize += CodedOutputStream.computeBytesSize(protobuf.BundleOfEnvelopes.ENVELOPES_FIELD_NUMBER,
+                    serializedEnvelope.bytes);
+        }
+        int size = header.size() +
+                CodedOutputStream.computeTagSize(protobuf.NetworkEnvelope.BUNDLE_OF_ENVELOPES_FIELD_NUMBER) +
+                CodedOutputStream.computeUInt32SizeNoTag(bundleSize) +
+                bundleSize;
+        byte[] array = new byte[size];
+        try {
+            CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(array);
+            codedOutputStream.writeRawBytes(header);
+            codedOutputStream.writeTag(protobuf.NetworkEnvelope.BUNDLE_OF_ENVELOPES_FIELD_NUMBER,
+                    WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            codedOutputStream.writeUInt32NoTag(bundleSize);
+            for (SerializedEnvelope serializedEnvelope : serializedEnvelopes) {
+                codedOutputStream.writeBytes(protobuf.BundleOfEnvelopes.ENVELOPES_FIELD_NUMBER, serializedEnvelope.bytes);
+            }
+            codedOutputStream.checkNoSpaceLeft();
+        } catch (IOException e) {
+            // Can only happen if our size calculation is wrong
+            throw new IllegalStateException("Failed to encode bundle of " + serializedEnvelopes.size() + " envelopes", e);
+        }
+        // The array is not exposed, so the ByteString stays immutable
+        return new SerializedEnvelope(bundleOfEnvelopes, UnsafeByteOperations.unsafeWrap(array));
+    }
+
+    private SerializedEnvelope(NetworkEnvelope networkEnvelope, ByteString bytes) {
+        this.networkEnvelope = networkEnvelope;
+        this.bytes = bytes;
+    }
+
+    public int getSerializedSize() {
+        return bytes.size();
+    }
+
+    // Same format as protobuf.NetworkEnvelope.writeDelimitedTo
+    void writeDelimitedTo(OutputStream outputStream) throws IOException {
+        int size = bytes.size();
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(outputStream,
+                CodedOutputStream.computeUInt32SizeNoTag(size));
+        codedOutputStream.writeUInt32NoTag(size);
+        codedOutputStream.flush();
+        bytes.writeTo(outputStream);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.peers;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.messages.AddDataMessage;
+import bisq.network.p2p.storage.messages.AddPersistableNetworkPayloadMessage;
+import bisq.network.p2p.storage.messages.BroadcastMessage;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the messages we have announced by hash for some time so we can deliver them when a peer requests them.
+ * Only accessed from the UserThread.
+ */
+class AnnouncedPayloadCache {
+    static final long TTL_MS = TimeUnit.MINUTES.toMillis(2);
+    static final int MAX_SIZE = 10_000;
+
+    @Value
+    static class Announcement {
+        P2PDataStorage.ByteArray hash;
+        int sequenceNumber;
+        // Serialized size of the message
+        int size;
+    }
+
+    @Value
+    static class CacheEntry {
+        BroadcastMessage message;
+        int size;
+        long timestamp;
+    }
+
+    // Insertion order is the order of expiry
+    private final Map<P2PDataStorage.ByteArray, CacheEntry> entries = new LinkedHashMap<>();
+
+    /**
+     * @return The announcement for messages which can be announced by hash or null
+     */
+    @Nullable
+    static Announcement toAnnouncement(BroadcastMessage message) {
+        if (message instanceof AddDataMessage) {
+            AddDataMessage addDataMessage = (AddDataMessage) message;
+            return new Announcement(P2PDataStorage.get32ByteHashAsByteArray(addDataMessage.getProtectedStorageEntry().getProtectedStoragePayload()),
+                    addDataMessage.getProtectedStorageEntry().getSequenceNumber(),
+                    message.toProtoNetworkEnvelope().getSerializedSize());
+        } else if (message instanceof AddPersistableNetworkPayloadMessage) {
+            return new Announcement(new P2PDataStorage.ByteArray(((AddPersistableNetworkPayloadMessage) message).getPersistableNetworkPayload().getHash()),
+                    0,
+                    message.toProtoNetworkEnvelope().getSerializedSize());
+        } else {
+            return null;
+        }
+    }
+
+    void put(Announcement announcement, BroadcastMessage message) {
+        long now = System.currentTimeMillis();
+        // We remove first so a newer message for the same hash moves to the end
+        entries.remove(announcement.getHash());
+        entries.put(announcement.getHash(), new CacheEntry(message, announcement.getSize(), now));
+        removeExpired(now);
+    }
+
+    @Nullable
+    CacheEntry get(P2PDataStorage.ByteArray hash) {
+        removeExpired(System.currentTimeMillis());
+        return entries.get(hash);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void removeExpired(long now) {
+        Iterator<CacheEntry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            CacheEntry entry = iterator.next();
+            if (entries.size() > MAX_SIZE || now - entry.getTimestamp() > TTL_MS) {
+                iterator.remove();
+            } else {
+                break;
+            }
+        }
+    }
+}
@@ -17,14 +17,16 @@
 
 package bisq.network.p2p.peers;
 
-import bisq.network.p2p.BundleOfEnvelopes;
 import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.network.Connection;
 import bisq.network.p2p.network.NetworkNode;
-import bisq.network.p2p.storage.messages.BroadcastMessage;
+import bisq.network.p2p.network.SerializedEnvelope;
+import bisq.network.p2p.storage.messages.PayloadAnnouncementMessage;
 
 import bisq.common.Timer;
 import bisq.common.UserThread;
+import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
 
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -33,7 +35,9 @@ import com.google.common.util.concurrent.SettableFuture;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -45,6 +49,9 @@ import org.jetbrains.annotations.NotNull;
 @Slf4j
 public class BroadcastHandler implements PeerManager.Listener {
     private static final long BASE_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(120);
+    // Messages up to that size are pushed inline even to peers supporting announcements, as the announcement and the
+    // request would not save much.
+    private static final int MAX_INLINE_PUSH_SIZE = 1000;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -69,7 +76,12 @@ public class BroadcastHandler implements PeerManager.Listener {
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
     private final ResultHandler resultHandler;
+    private final AnnouncedPayloadCache announcedPayloadCache;
     private final String uid;
+    // Requests which get announced by hash to peers supporting it
+    private final Map<Broadcaster.BroadcastRequest, AnnouncedPayloadCache.Announcement> announcementByRequest = new IdentityHashMap<>();
+    // Each message is serialized only once and the result is shared by all connections we send it to
+    private final Map<Broadcaster.BroadcastRequest, SerializedEnvelope> serializedEnvelopeByRequest = new IdentityHashMap<>();
 
     private boolean stopped, timeoutTriggered;
     private int numOfCompletedBroadcasts, numOfFailedBroadcasts, numPeersForBroadcast;
@@ -80,10 +92,14 @@ public class BroadcastHandler implements PeerManager.Listener {
     // Constructor
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    BroadcastHandler(NetworkNode networkNode, PeerManager peerManager, ResultHandler resultHandler) {
+    BroadcastHandler(NetworkNode networkNode,
+                     PeerManager peerManager,
+                     ResultHandler resultHandler,
+                     AnnouncedPayloadCache announcedPayloadCache) {
         this.networkNode = networkNode;
         this.peerManager = peerManager;
         this.resultHandler = resultHandler;
+        this.announcedPayloadCache = announcedPayloadCache;
         uid = UUID.randomUUID().toString();
 
         peerManager.addListener(this);
@@ -116,6 +132,11 @@ public class BroadcastHandler implements PeerManager.Listener {
             }
         }
 
+        // At shutdown we want to deliver fast, so we do not announce
+        if (!shutDownRequested && confirmedConnections.stream().anyMatch(BroadcastHandler::supportsAnnouncements)) {
+            prepareAnnouncements(broadcastRequests);
+        }
+
         setupTimeoutHandler(broadcastRequests, delay, shutDownRequested);
 
         int iterations = numPeersForBroadcast;
@@ -195,6 +216,25 @@ public class BroadcastHandler implements PeerManager.Listener {
         return broadcastRequests.stream().anyMatch(e -> myAddress.equals(e.getSender()));
     }
 
+    private static boolean supportsAnnouncements(Connection connection) {
+        return connection.getCapabilities().containsAll(new Capabilities(Capability.INVENTORY_ANNOUNCE));
+    }
+
+    // Messages we have originated are pushed inline as we want them to be broadcast as fast and reliable as possible.
+    // Most relayed messages are already known by the receiving peers, so we only announce them if they are not small.
+    private void prepareAnnouncements(List<Broadcaster.BroadcastRequest> broadcastRequests) {
+        NodeAddress myAddress = networkNode.getNodeAddress();
+        broadcastRequests.stream()
+                .filter(broadcastRequest -> myAddress == null || !myAddress.equals(broadcastRequest.getSender()))
+                .forEach(broadcastRequest -> {
+                    AnnouncedPayloadCache.Announcement announcement = AnnouncedPayloadCache.toAnnouncement(broadcastRequest.getMessage());
+                    if (announcement != null && announcement.getSize() > MAX_INLINE_PUSH_SIZE) {
+                        announcementByRequest.put(broadcastRequest, announcement);
+                        announcedPayloadCache.put(announcement, broadcastRequest.getMessage());
+                    }
+                });
+    }
+
     private void setupTimeoutHandler(List<Broadcaster.BroadcastRequest> broadcastRequests,
                                      int delay,
                                      boolean shutDownRequested) {
@@ -236,9 +276,9 @@ public class BroadcastHandler implements PeerManager.Listener {
     }
 
     private void sendToPeer(Connection connection, List<Broadcaster.BroadcastRequest> broadcastRequestsForConnection) {
-        // Can be BundleOfEnvelopes or a single BroadcastMessage
-        BroadcastMessage broadcastMessage = getMessage(broadcastRequestsForConnection);
-        SettableFuture<Connection> future = networkNode.sendMessage(connection, broadcastMessage);
+        // Can be BundleOfEnvelopes or a single message
+        SerializedEnvelope serializedEnvelope = getMessage(connection, broadcastRequestsForConnection);
+        SettableFuture<Connection> future = networkNode.sendMessage(connection, serializedEnvelope);
 
         Futures.addCallback(future, new FutureCallback<>() {
             @Override
@@ -269,14 +309,34 @@ public class BroadcastHandler implements PeerManager.Listener {
         }, MoreExecutors.directExecutor());
     }
 
-    private BroadcastMessage getMessage(List<Broadcaster.BroadcastRequest> broadcastRequests) {
-        if (broadcastRequests.size() == 1) {
+    private SerializedEnvelope getMessage(Connection connection, List<Broadcaster.BroadcastRequest> broadcastRequests) {
+        List<SerializedEnvelope> envelopes = new ArrayList<>();
+        List<byte[]> announcedHashes = new ArrayList<>();
+        List<Integer> announcedSequenceNumbers = new ArrayList<>();
+        long announcedBytes = 0;
+        boolean announce = !announcementByRequest.isEmpty() && supportsAnnouncements(connection);
+        for (Broadcaster.BroadcastRequest broadcastRequest : broadcastRequests) {
+            AnnouncedPayloadCache.Announcement announcement = announce ? announcementByRequest.get(broadcastRequest) : null;
+            if (announcement != null && announcedHashes.size() < PayloadAnnouncementMessage.MAX_HASHES) {
+                announcedHashes.add(announcement.getHash().bytes);
+                announcedSequenceNumbers.add(announcement.getSequenceNumber());
+                announcedBytes += announcement.getSize();
+            } else {
+                envelopes.add(serializedEnvelopeByRequest.computeIfAbsent(broadcastRequest,
+                        request -> SerializedEnvelope.from(request.getMessage())));
+            }
+        }
+        if (!announcedHashes.isEmpty()) {
+            envelopes.add(SerializedEnvelope.from(new PayloadAnnouncementMessage(announcedHashes, announcedSequenceNumbers)));
+            connection.getConnectionStatistics().addAnnouncedBytes(announcedBytes);
+        }
+
+        if (envelopes.size() == 1) {
             // If we only have 1 message we avoid the overhead of the BundleOfEnvelopes and send the message directly
-            return broadcastRequests.get(0).getMessage();
+            return envelopes.get(0);
         } else {
-            return new BundleOfEnvelopes(broadcastRequests.stream()
-                    .map(Broadcaster.BroadcastRequest::getMessage)
-                    .collect(Collectors.toList()));
+            // The bundle is composed from the serialized messages, so they are not serialized again
+            return SerializedEnvelope.bundle(envelopes);
         }
     }
 
@@ -314,6 +374,7 @@ public class BroadcastHandler implements PeerManager.Listener {
 
     private void cleanup() {
         stopped = true;
+        serializedEnvelopeByRequest.clear();
         if (timeoutTimer != null) {
             timeoutTimer.stop();
             timeoutTimer = null;
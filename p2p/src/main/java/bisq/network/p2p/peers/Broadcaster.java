@@ -17,12 +17,19 @@
 
 package bisq.network.p2p.peers;
 
+import bisq.network.p2p.BundleOfEnvelopes;
 import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.network.Connection;
+import bisq.network.p2p.network.MessageListener;
 import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.messages.BroadcastMessage;
+import bisq.network.p2p.storage.messages.GetAnnouncedPayloadsRequest;
+import bisq.network.p2p.storage.messages.PayloadAnnouncementMessage;
 
 import bisq.common.Timer;
 import bisq.common.UserThread;
+import bisq.common.proto.network.NetworkEnvelope;
 
 import javax.inject.Inject;
 
@@ -39,13 +46,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.Nullable;
 
 @Slf4j
-public class Broadcaster implements BroadcastHandler.ResultHandler {
+public class Broadcaster implements BroadcastHandler.ResultHandler, MessageListener {
     private static final long BROADCAST_INTERVAL_MS = 2000;
 
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
     private final Set<BroadcastHandler> broadcastHandlers = new CopyOnWriteArraySet<>();
     private final List<BroadcastRequest> broadcastRequests = new ArrayList<>();
+    private final AnnouncedPayloadCache announcedPayloadCache = new AnnouncedPayloadCache();
     private Timer timer;
     private boolean shutDownRequested;
     private Runnable shutDownResultHandler;
@@ -59,6 +67,8 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
     public Broadcaster(NetworkNode networkNode, PeerManager peerManager) {
         this.networkNode = networkNode;
         this.peerManager = peerManager;
+
+        networkNode.addMessageListener(this);
     }
 
     public void shutDown(Runnable resultHandler) {
@@ -115,7 +125,7 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
             log.debug("Broadcast bundled requests of {} messages. Message types: {}",
                     broadcastRequests.size(),
                     broadcastRequests.stream().map(e -> e.getMessage().getClass().getSimpleName()).collect(Collectors.toList()));
-            BroadcastHandler broadcastHandler = new BroadcastHandler(networkNode, peerManager, this);
+            BroadcastHandler broadcastHandler = new BroadcastHandler(networkNode, peerManager, this, announcedPayloadCache);
             broadcastHandlers.add(broadcastHandler);
             broadcastHandler.broadcast(new ArrayList<>(broadcastRequests), shutDownRequested);
             broadcastRequests.clear();
@@ -125,6 +135,45 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
     }
 
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // MessageListener implementation
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onMessage(NetworkEnvelope networkEnvelope, Connection connection) {
+        if (!(networkEnvelope instanceof GetAnnouncedPayloadsRequest)) {
+            return;
+        }
+
+        List<byte[]> hashes = ((GetAnnouncedPayloadsRequest) networkEnvelope).getHashes();
+        if (hashes.size() > PayloadAnnouncementMessage.MAX_HASHES) {
+            log.warn("We got a GetAnnouncedPayloadsRequest with {} hashes from {}. We ignore it.",
+                    hashes.size(), connection.getPeersNodeAddressOptional());
+            return;
+        }
+
+        List<NetworkEnvelope> messages = new ArrayList<>();
+        long size = 0;
+        for (byte[] hash : hashes) {
+            AnnouncedPayloadCache.CacheEntry entry = announcedPayloadCache.get(new P2PDataStorage.ByteArray(hash));
+            if (entry != null) {
+                messages.add(entry.getMessage());
+                size += entry.getSize();
+            }
+        }
+        if (messages.size() < hashes.size()) {
+            log.debug("{} of {} requested payloads are not in our announcement cache anymore.",
+                    hashes.size() - messages.size(), hashes.size());
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        connection.getConnectionStatistics().addRequestedAnnouncedBytes(size);
+        networkNode.sendMessage(connection, messages.size() == 1 ? messages.get(0) : new BundleOfEnvelopes(messages));
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // BroadcastHandler.ResultHandler implementation
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -33,6 +33,8 @@ import bisq.network.p2p.storage.messages.AddDataMessage;
 import bisq.network.p2p.storage.messages.AddOncePayload;
 import bisq.network.p2p.storage.messages.AddPersistableNetworkPayloadMessage;
 import bisq.network.p2p.storage.messages.BroadcastMessage;
+import bisq.network.p2p.storage.messages.GetAnnouncedPayloadsRequest;
+import bisq.network.p2p.storage.messages.PayloadAnnouncementMessage;
 import bisq.network.p2p.storage.messages.RefreshOfferMessage;
 import bisq.network.p2p.storage.messages.RemoveDataMessage;
 import bisq.network.p2p.storage.messages.RemoveMailboxDataMessage;
@@ -58,15 +60,18 @@ import bisq.network.p2p.storage.persistence.SequenceNumberMap;
 import bisq.common.Timer;
 import bisq.common.UserThread;
 import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
 import bisq.common.crypto.CryptoException;
 import bisq.common.crypto.Hash;
 import bisq.common.crypto.Sig;
+import bisq.common.metrics.MetricsRegistry;
 import bisq.common.persistence.PersistenceManager;
 import bisq.common.proto.network.NetworkEnvelope;
 import bisq.common.proto.network.NetworkPayload;
 import bisq.common.proto.persistable.PersistablePayload;
 import bisq.common.proto.persistable.PersistedDataHost;
 import bisq.common.util.Hex;
+import bisq.common.util.MemoryGovernor;
 import bisq.common.util.Tuple2;
 import bisq.common.util.Utilities;
 
@@ -77,6 +82,7 @@ import com.google.inject.name.Named;
 import javax.inject.Inject;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import org.fxmisc.easybind.EasyBind;
@@ -90,14 +96,17 @@ import java.security.PublicKey;
 
 import java.time.Clock;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -106,6 +115,7 @@ import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import lombok.EqualsAndHashCode;
@@ -126,16 +136,32 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     @VisibleForTesting
     public static final int CHECK_TTL_INTERVAL_SEC = 60;
 
+    // If we do not get an announced payload in that time we request it from the next peer announcing it
+    private static final long ANNOUNCED_PAYLOAD_REQUEST_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final long CHECK_ANNOUNCED_PAYLOAD_REQUESTS_INTERVAL_MS = TimeUnit.SECONDS.toMillis(5);
+    // A peer cannot make us track more pending requests for payloads it announced first, further ones are dropped
+    @VisibleForTesting
+    static final int MAX_PENDING_ANNOUNCED_PAYLOAD_REQUESTS_PER_PEER = PayloadAnnouncementMessage.MAX_HASHES;
+    // Number of other peers we request a payload from if none of the peers which announced it delivered it
+    private static final int NUM_FALLBACK_PEERS = 2;
+
     private boolean initialRequestApplied = false;
 
+    private final NetworkNode networkNode;
     private final Broadcaster broadcaster;
     private final AppendOnlyDataStoreService appendOnlyDataStoreService;
     private final ProtectedDataStoreService protectedDataStoreService;
     private final ResourceDataStoreService resourceDataStoreService;
 
+    // Must only be mutated by putEntry and removeEntry, which keep it in sync with mapByPayloadType
     @Getter
     private final Map<ByteArray, ProtectedStorageEntry> map = new ConcurrentHashMap<>();
+    // The entries of map partitioned by the class of their payload, so consumers can access only their own payloads
+    private final Map<Class<? extends ProtectedStoragePayload>, Map<ByteArray, ProtectedStorageEntry>> mapByPayloadType =
+            new ConcurrentHashMap<>();
     private final Set<HashMapChangedListener> hashMapChangedListeners = new CopyOnWriteArraySet<>();
+    private final Map<Class<? extends ProtectedStoragePayload>, Set<HashMapChangedListener>> hashMapChangedListenersByPayloadType =
+            new ConcurrentHashMap<>();
     private Timer removeExpiredEntriesTimer;
 
     private final PersistenceManager<SequenceNumberMap> persistenceManager;
@@ -144,6 +170,10 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     final SequenceNumberMap sequenceNumberMap = new SequenceNumberMap();
 
     private final Set<AppendOnlyDataStoreListener> appendOnlyDataStoreListeners = new CopyOnWriteArraySet<>();
+    // Announced payloads we have requested, with the peers which announced them as well
+    private final Map<ByteArray, AnnouncedPayloadRequest> announcedPayloadRequests = new HashMap<>();
+    private final Map<Connection, Integer> numAnnouncedPayloadRequestsByFirstAnnouncer = new HashMap<>();
+    private Timer announcedPayloadRequestsTimer;
     private final RemovedPayloadsService removedPayloadsService;
     private final Clock clock;
 
@@ -169,6 +199,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                           RemovedPayloadsService removedPayloadsService,
                           Clock clock,
                           @Named("MAX_SEQUENCE_NUMBER_MAP_SIZE_BEFORE_PURGE") int maxSequenceNumberBeforePurge) {
+        this.networkNode = networkNode;
         this.broadcaster = broadcaster;
         this.appendOnlyDataStoreService = appendOnlyDataStoreService;
         this.protectedDataStoreService = protectedDataStoreService;
@@ -182,6 +213,16 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         networkNode.addConnectionListener(this);
 
         this.persistenceManager.initialize(sequenceNumberMap, PersistenceManager.Source.PRIVATE_LOW_PRIO);
+
+        MemoryGovernor.registerStore("P2PDataStorage",
+                () -> MemoryGovernor.estimateFootprint(map.values(), entry -> entry.toProtoMessage().getSerializedSize()));
+        // Under critical pressure we do not wait until the sequence number map reaches its max size before we purge it.
+        MemoryGovernor.addPressureHandler(MemoryGovernor.Pressure.CRITICAL, this::purgeSequenceNumberMap);
+
+        MetricsRegistry.getInstance().gauge("p2p_protected_storage_entries",
+                "Number of protected storage entries", map::size);
+        MetricsRegistry.getInstance().gauge("p2p_sequence_number_map_entries",
+                "Number of entries in the sequence number map", sequenceNumberMap::size);
     }
 
 
@@ -225,7 +266,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         appendOnlyDataStoreService.readFromResources(postFix, () -> appendOnlyDataStoreServiceReady.set(true));
         protectedDataStoreService.readFromResources(postFix, () -> {
-            map.putAll(protectedDataStoreService.getMap());
+            protectedDataStoreService.getMap().forEach(this::putEntry);
             protectedDataStoreServiceReady.set(true);
         });
         resourceDataStoreService.readFromResources(postFix, () -> resourceDataStoreServiceReady.set(true));
@@ -238,7 +279,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         protectedDataStoreService.readFromResourcesSync(postFix);
         resourceDataStoreService.readFromResourcesSync(postFix);
 
-        map.putAll(protectedDataStoreService.getMap());
+        protectedDataStoreService.getMap().forEach(this::putEntry);
     }
 
     // We get added mailbox message data from MailboxMessageService. We want to add those early so we can get it added
@@ -246,7 +287,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public void addProtectedMailboxStorageEntryToMap(ProtectedStorageEntry protectedStorageEntry) {
         ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
         ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
-        map.put(hashOfPayload, protectedStorageEntry);
+        putEntry(hashOfPayload, protectedStorageEntry);
         log.trace("## addProtectedMailboxStorageEntryToMap hashOfPayload={}, map={}", hashOfPayload, printMap());
     }
 
@@ -495,6 +536,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         });
         log.info("Processing {} protectedStorageEntries took {} ms.", dataSet.size(), this.clock.millis() - ts2);
+        MetricsRegistry.getInstance().histogram("p2p_get_data_response_processing_ms",
+                "Time for processing the data of a GetDataResponse", "data", "ProtectedStorageEntry")
+                .record(this.clock.millis() - ts2);
 
         ts2 = this.clock.millis();
         persistableNetworkPayloadSet.forEach(e -> {
@@ -517,6 +561,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         });
         log.info("Processing {} persistableNetworkPayloads took {} ms.",
                 persistableNetworkPayloadSet.size(), this.clock.millis() - ts2);
+        MetricsRegistry.getInstance().histogram("p2p_get_data_response_processing_ms",
+                "Time for processing the data of a GetDataResponse", "data", "PersistableNetworkPayload")
+                .record(this.clock.millis() - ts2);
 
         // We only process PersistableNetworkPayloads implementing ProcessOncePersistableNetworkPayload once. It can cause performance
         // issues and since the data is rarely out of sync it is not worth it to apply them from multiple peers during
@@ -531,6 +578,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public void shutDown() {
         if (removeExpiredEntriesTimer != null)
             removeExpiredEntriesTimer.stop();
+        if (announcedPayloadRequestsTimer != null)
+            announcedPayloadRequestsTimer.stop();
     }
 
     @VisibleForTesting
@@ -556,7 +605,14 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         removeFromMapAndDataStore(toRemoveList);
 
         if (sequenceNumberMap.size() > this.maxSequenceNumberMapSizeBeforePurge) {
-            sequenceNumberMap.setMap(getPurgedSequenceNumberMap(sequenceNumberMap.getMap()));
+            purgeSequenceNumberMap();
+        }
+    }
+
+    private void purgeSequenceNumberMap() {
+        int sizeBefore = sequenceNumberMap.size();
+        sequenceNumberMap.setMap(getPurgedSequenceNumberMap(sequenceNumberMap.getMap()));
+        if (sequenceNumberMap.size() != sizeBefore) {
             requestPersistence();
         }
     }
@@ -579,7 +635,10 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
     @Override
     public void onMessage(NetworkEnvelope networkEnvelope, Connection connection) {
-        if (networkEnvelope instanceof BroadcastMessage) {
+        if (networkEnvelope instanceof PayloadAnnouncementMessage) {
+            onPayloadAnnouncement((PayloadAnnouncementMessage) networkEnvelope, connection);
+        } else if (networkEnvelope instanceof BroadcastMessage) {
+            maybeTrackDuplicate((BroadcastMessage) networkEnvelope, connection);
             connection.getPeersNodeAddressOptional().ifPresent(peersNodeAddress -> {
                 if (networkEnvelope instanceof AddDataMessage) {
                     addProtectedStorageEntry(((AddDataMessage) networkEnvelope).getProtectedStorageEntry(), peersNodeAddress, null, true);
@@ -597,6 +656,169 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         }
     }
 
+    // We request the announced payloads we do not have and have not requested from another peer already. If another
+    // peer has been requested, we remember the announcing peer to request the payload from it if that request fails.
+    private void onPayloadAnnouncement(PayloadAnnouncementMessage message, Connection connection) {
+        List<byte[]> hashes = message.getHashes();
+        if (hashes.size() > PayloadAnnouncementMessage.MAX_HASHES) {
+            log.warn("We got a PayloadAnnouncementMessage with {} hashes from {}. We ignore it.",
+                    hashes.size(), connection.getPeersNodeAddressOptional());
+            return;
+        }
+
+        long now = clock.millis();
+        List<byte[]> missingHashes = new ArrayList<>();
+        int numPendingRequests = numAnnouncedPayloadRequestsByFirstAnnouncer.getOrDefault(connection, 0);
+        int numDroppedHashes = 0;
+        for (int i = 0; i < hashes.size(); i++) {
+            ByteArray hash = new ByteArray(hashes.get(i));
+            if (isKnownPayload(hash, message.getSequenceNumbers().get(i))) {
+                continue;
+            }
+            AnnouncedPayloadRequest request = announcedPayloadRequests.get(hash);
+            if (request != null) {
+                request.addAnnouncer(connection);
+            } else if (numPendingRequests < MAX_PENDING_ANNOUNCED_PAYLOAD_REQUESTS_PER_PEER) {
+                announcedPayloadRequests.put(hash, new AnnouncedPayloadRequest(connection, now));
+                numPendingRequests++;
+                missingHashes.add(hash.bytes);
+            } else {
+                numDroppedHashes++;
+            }
+        }
+        if (numPendingRequests > 0) {
+            numAnnouncedPayloadRequestsByFirstAnnouncer.put(connection, numPendingRequests);
+        }
+        if (numDroppedHashes > 0) {
+            log.warn("{} has {} pending requests for payloads it announced. We ignore {} more announced hashes.",
+                    connection.getPeersNodeAddressOptional(), numPendingRequests, numDroppedHashes);
+        }
+        if (!missingHashes.isEmpty()) {
+            networkNode.sendMessage(connection, new GetAnnouncedPayloadsRequest(missingHashes));
+            if (announcedPayloadRequestsTimer == null) {
+                announcedPayloadRequestsTimer = UserThread.runPeriodically(this::checkAnnouncedPayloadRequests,
+                        CHECK_ANNOUNCED_PAYLOAD_REQUESTS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    void checkAnnouncedPayloadRequests() {
+        long now = clock.millis();
+        retryAnnouncedPayloadRequests(request -> now - request.requestTime > ANNOUNCED_PAYLOAD_REQUEST_TIMEOUT_MS);
+        if (announcedPayloadRequests.isEmpty() && announcedPayloadRequestsTimer != null) {
+            announcedPayloadRequestsTimer.stop();
+            announcedPayloadRequestsTimer = null;
+        }
+    }
+
+    private void onAnnouncerDisconnected(Connection connection) {
+        announcedPayloadRequests.values().forEach(request -> request.announcers.remove(connection));
+        retryAnnouncedPayloadRequests(request -> request.requestedConnection == connection);
+    }
+
+    // Requests the payloads of the failed requests from the next peer which announced them. If no announcing peer is
+    // left, we give up on payloads announced by a single peer, as that peer might have made up the hash. Payloads
+    // announced by several peers we request from a few other peers supporting announcements. Peers answer from the
+    // messages they have relayed recently, so peers which relayed the payload to others but not to us can push it to us.
+    private void retryAnnouncedPayloadRequests(Predicate<AnnouncedPayloadRequest> failed) {
+        long now = clock.millis();
+        Map<Connection, List<byte[]>> hashesByConnection = new HashMap<>();
+        List<Connection> fallbackPeers = null;
+        Iterator<Map.Entry<ByteArray, AnnouncedPayloadRequest>> iterator = announcedPayloadRequests.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<ByteArray, AnnouncedPayloadRequest> entry = iterator.next();
+            AnnouncedPayloadRequest request = entry.getValue();
+            if (!failed.test(request)) {
+                continue;
+            }
+            Connection nextAnnouncer = request.announcers.poll();
+            if (nextAnnouncer != null) {
+                request.requestedConnection = nextAnnouncer;
+                request.requestTime = now;
+                hashesByConnection.computeIfAbsent(nextAnnouncer, k -> new ArrayList<>()).add(entry.getKey().bytes);
+                continue;
+            }
+
+            iterator.remove();
+            onAnnouncedPayloadRequestRemoved(request);
+            if (request.allAnnouncers.size() < 2) {
+                continue;
+            }
+            if (fallbackPeers == null) {
+                fallbackPeers = getFallbackPeers();
+            }
+            fallbackPeers.stream()
+                    .filter(connection -> !request.allAnnouncers.contains(connection))
+                    .limit(NUM_FALLBACK_PEERS)
+                    .forEach(connection -> hashesByConnection.computeIfAbsent(connection, k -> new ArrayList<>())
+                            .add(entry.getKey().bytes));
+        }
+
+        hashesByConnection.forEach(this::requestAnnouncedPayloads);
+    }
+
+    private List<Connection> getFallbackPeers() {
+        Capabilities requiredCapabilities = new Capabilities(Capability.INVENTORY_ANNOUNCE);
+        List<Connection> connections = networkNode.getConfirmedConnections().stream()
+                .filter(connection -> connection.getCapabilities().containsAll(requiredCapabilities))
+                .collect(Collectors.toList());
+        Collections.shuffle(connections);
+        return connections;
+    }
+
+    private void onAnnouncedPayloadRequestRemoved(AnnouncedPayloadRequest request) {
+        numAnnouncedPayloadRequestsByFirstAnnouncer.computeIfPresent(request.firstAnnouncer,
+                (connection, numRequests) -> numRequests > 1 ? numRequests - 1 : null);
+    }
+
+    @VisibleForTesting
+    int getNumPendingAnnouncedPayloadRequests() {
+        return announcedPayloadRequests.size();
+    }
+
+    private void requestAnnouncedPayloads(Connection connection, List<byte[]> hashes) {
+        Lists.partition(hashes, PayloadAnnouncementMessage.MAX_HASHES).forEach(chunk ->
+                networkNode.sendMessage(connection, new GetAnnouncedPayloadsRequest(new ArrayList<>(chunk))));
+    }
+
+    private void maybeTrackDuplicate(BroadcastMessage message, Connection connection) {
+        ByteArray hash;
+        int sequenceNumber;
+        if (message instanceof AddDataMessage) {
+            ProtectedStorageEntry protectedStorageEntry = ((AddDataMessage) message).getProtectedStorageEntry();
+            hash = get32ByteHashAsByteArray(protectedStorageEntry.getProtectedStoragePayload());
+            sequenceNumber = protectedStorageEntry.getSequenceNumber();
+        } else if (message instanceof AddPersistableNetworkPayloadMessage) {
+            hash = new ByteArray(((AddPersistableNetworkPayloadMessage) message).getPersistableNetworkPayload().getHash());
+            sequenceNumber = 0;
+        } else {
+            return;
+        }
+
+        AnnouncedPayloadRequest request = announcedPayloadRequests.remove(hash);
+        if (request != null) {
+            onAnnouncedPayloadRequestRemoved(request);
+        }
+        if (isKnownPayload(hash, sequenceNumber)) {
+            connection.onDuplicatePayloadReceived(message);
+        }
+    }
+
+    // A ProtectedStorageEntry is known if we have it with the same or a higher sequence number or if we have seen a
+    // more recent operation for it.
+    private boolean isKnownPayload(ByteArray hash, int sequenceNumber) {
+        if (appendOnlyDataStoreService.containsKey(hash)) {
+            return true;
+        }
+        ProtectedStorageEntry storedEntry = map.get(hash);
+        if (storedEntry != null && storedEntry.getSequenceNumber() >= sequenceNumber) {
+            return true;
+        }
+        MapValue sequenceNumberMapValue = sequenceNumberMap.get(hash);
+        return sequenceNumberMapValue != null && sequenceNumberMapValue.sequenceNr > sequenceNumber;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // ConnectionListener implementation
@@ -608,6 +830,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
     @Override
     public void onDisconnect(CloseConnectionReason closeConnectionReason, Connection connection) {
+        onAnnouncerDisconnected(connection);
+
         if (closeConnectionReason.isIntended)
             return;
 
@@ -676,7 +900,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         }
 
         ByteArray hashAsByteArray = new ByteArray(payload.getHash());
-        boolean payloadHashAlreadyInStore = appendOnlyDataStoreService.getMap().containsKey(hashAsByteArray);
+        boolean payloadHashAlreadyInStore = appendOnlyDataStoreService.containsKey(hashAsByteArray);
 
         // Store already knows about this payload. Ignore it unless the caller specifically requests a republish.
         if (payloadHashAlreadyInStore && !reBroadcast) {
@@ -788,8 +1012,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         }
 
         // This is an updated entry. Record it and signal listeners.
-        map.put(hashOfPayload, protectedStorageEntry);
-        hashMapChangedListeners.forEach(e -> e.onAdded(Collections.singletonList(protectedStorageEntry)));
+        putEntry(hashOfPayload, protectedStorageEntry);
+        notifyAdded(protectedStorageEntry);
 
         // Record the updated sequence number and persist it. Higher delay so we can batch more items.
         sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
@@ -877,7 +1101,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             return false;
 
         // Update the hash map with the updated entry
-        map.put(hashOfPayload, updatedEntry);
+        putEntry(hashOfPayload, updatedEntry);
 
         // Record the latest sequence number and persist it
         sequenceNumberMap.put(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
@@ -994,8 +1218,31 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         hashMapChangedListeners.add(hashMapChangedListener);
     }
 
+    // The listener is only called for entries with a payload of exactly that class
+    public void addHashMapChangedListener(Class<? extends ProtectedStoragePayload> payloadClass,
+                                          HashMapChangedListener hashMapChangedListener) {
+        hashMapChangedListenersByPayloadType.computeIfAbsent(payloadClass, e -> new CopyOnWriteArraySet<>())
+                .add(hashMapChangedListener);
+    }
+
     public void removeHashMapChangedListener(HashMapChangedListener hashMapChangedListener) {
         hashMapChangedListeners.remove(hashMapChangedListener);
+        hashMapChangedListenersByPayloadType.values().forEach(listeners -> listeners.remove(hashMapChangedListener));
+    }
+
+    // Returns an unmodifiable live view of the entries with a payload of exactly that class
+    public Collection<ProtectedStorageEntry> getProtectedStorageEntries(Class<? extends ProtectedStoragePayload> payloadClass) {
+        return Collections.unmodifiableCollection(getEntriesOfType(payloadClass).values());
+    }
+
+    public Map<Class<? extends ProtectedStoragePayload>, Integer> getNumEntriesByPayloadType() {
+        Map<Class<? extends ProtectedStoragePayload>, Integer> result = new HashMap<>();
+        mapByPayloadType.forEach((payloadClass, entriesOfType) -> {
+            if (!entriesOfType.isEmpty()) {
+                result.put(payloadClass, entriesOfType.size());
+            }
+        });
+        return result;
     }
 
     public void addAppendOnlyDataStoreListener(AppendOnlyDataStoreListener listener) {
@@ -1024,7 +1271,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             ProtectedStorageEntry protectedStorageEntry = entry.getValue();
 
             log.trace("## removeFromMapAndDataStore: hashOfPayload={}, map before remove={}", hashOfPayload, printMap());
-            map.remove(hashOfPayload);
+            removeEntry(hashOfPayload);
             log.trace("## removeFromMapAndDataStore: map after remove={}", printMap());
 
             // We inform listeners even the entry was not found in our map
@@ -1038,7 +1285,63 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             }
         });
 
-        hashMapChangedListeners.forEach(e -> e.onRemoved(removedProtectedStorageEntries));
+        notifyRemoved(removedProtectedStorageEntries);
+    }
+
+    private void putEntry(ByteArray hashOfPayload, ProtectedStorageEntry protectedStorageEntry) {
+        map.put(hashOfPayload, protectedStorageEntry);
+        // The hash is derived from the payload, so an entry with the same hash has a payload of the same class
+        getEntriesOfType(protectedStorageEntry.getProtectedStoragePayload().getClass()).put(hashOfPayload, protectedStorageEntry);
+    }
+
+    private void removeEntry(ByteArray hashOfPayload) {
+        ProtectedStorageEntry removed = map.remove(hashOfPayload);
+        if (removed != null) {
+            Map<ByteArray, ProtectedStorageEntry> entriesOfType = mapByPayloadType.get(removed.getProtectedStoragePayload().getClass());
+            if (entriesOfType != null) {
+                entriesOfType.remove(hashOfPayload);
+            }
+        }
+    }
+
+    private Map<ByteArray, ProtectedStorageEntry> getEntriesOfType(Class<? extends ProtectedStoragePayload> payloadClass) {
+        return mapByPayloadType.computeIfAbsent(payloadClass, this::newEntriesOfType);
+    }
+
+    private Map<ByteArray, ProtectedStorageEntry> newEntriesOfType(Class<? extends ProtectedStoragePayload> payloadClass) {
+        Map<ByteArray, ProtectedStorageEntry> entriesOfType = new ConcurrentHashMap<>();
+        MetricsRegistry.getInstance().gauge("p2p_protected_storage_entries_by_type",
+                "Number of protected storage entries per payload type", entriesOfType::size,
+                "type", payloadClass.getSimpleName());
+        return entriesOfType;
+    }
+
+    private void notifyAdded(ProtectedStorageEntry protectedStorageEntry) {
+        List<ProtectedStorageEntry> addedEntries = Collections.singletonList(protectedStorageEntry);
+        hashMapChangedListeners.forEach(e -> e.onAdded(addedEntries));
+
+        Set<HashMapChangedListener> listeners = hashMapChangedListenersByPayloadType.get(protectedStorageEntry.getProtectedStoragePayload().getClass());
+        if (listeners != null) {
+            listeners.forEach(e -> e.onAdded(addedEntries));
+        }
+    }
+
+    private void notifyRemoved(List<ProtectedStorageEntry> removedEntries) {
+        hashMapChangedListeners.forEach(e -> e.onRemoved(removedEntries));
+
+        if (hashMapChangedListenersByPayloadType.isEmpty()) {
+            return;
+        }
+
+        // Listeners for a payload type only get the removed entries of their type and are not called if there are none
+        removedEntries.stream()
+                .collect(Collectors.groupingBy(e -> e.getProtectedStoragePayload().getClass()))
+                .forEach((payloadClass, removedEntriesOfType) -> {
+                    Set<HashMapChangedListener> listeners = hashMapChangedListenersByPayloadType.get(payloadClass);
+                    if (listeners != null) {
+                        listeners.forEach(e -> e.onRemoved(removedEntriesOfType));
+                    }
+                });
     }
 
     private boolean hasSequenceNrIncreased(int newSequenceNumber, ByteArray hashOfData) {
@@ -1143,6 +1446,33 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     }
 
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // AnnouncedPayloadRequest class
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static class AnnouncedPayloadRequest {
+        private final Connection firstAnnouncer;
+        private final Set<Connection> allAnnouncers = new HashSet<>();
+        // The peers which announced the payload and were not requested yet, in the order of their announcements
+        private final Deque<Connection> announcers = new ArrayDeque<>();
+        private Connection requestedConnection;
+        private long requestTime;
+
+        private AnnouncedPayloadRequest(Connection firstAnnouncer, long requestTime) {
+            this.firstAnnouncer = firstAnnouncer;
+            this.requestedConnection = firstAnnouncer;
+            this.requestTime = requestTime;
+            allAnnouncers.add(firstAnnouncer);
+        }
+
+        private void addAnnouncer(Connection connection) {
+            if (allAnnouncers.add(connection)) {
+                announcers.add(connection);
+            }
+        }
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Static class
     ///////////////////////////////////////////////////////////////////////////////////////////
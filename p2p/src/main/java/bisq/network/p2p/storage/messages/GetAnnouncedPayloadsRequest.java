@@ -0,0 +1,86 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.storage.messages;
+
+import bisq.network.p2p.storage.payload.CapabilityRequiringPayload;
+
+import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
+import bisq.common.app.Version;
+import bisq.common.proto.network.NetworkEnvelope;
+import bisq.common.util.Utilities;
+
+import com.google.protobuf.ByteString;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+
+/**
+ * Requests the payloads of a PayloadAnnouncementMessage we are missing. The peer responds with the
+ * AddDataMessages and AddPersistableNetworkPayloadMessages it has announced.
+ */
+@EqualsAndHashCode(callSuper = true)
+@Value
+public final class GetAnnouncedPayloadsRequest extends NetworkEnvelope implements CapabilityRequiringPayload {
+    private final List<byte[]> hashes;
+
+    public GetAnnouncedPayloadsRequest(List<byte[]> hashes) {
+        this(hashes, Version.getP2PMessageVersion());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private GetAnnouncedPayloadsRequest(List<byte[]> hashes, String messageVersion) {
+        super(messageVersion);
+        this.hashes = hashes;
+    }
+
+    @Override
+    public protobuf.NetworkEnvelope toProtoNetworkEnvelope() {
+        return getNetworkEnvelopeBuilder()
+                .setGetAnnouncedPayloadsRequest(protobuf.GetAnnouncedPayloadsRequest.newBuilder()
+                        .addAllHashes(hashes.stream().map(ByteString::copyFrom).collect(Collectors.toList())))
+                .build();
+    }
+
+    public static GetAnnouncedPayloadsRequest fromProto(protobuf.GetAnnouncedPayloadsRequest proto, String messageVersion) {
+        return new GetAnnouncedPayloadsRequest(proto.getHashesList().stream()
+                .map(ByteString::toByteArray)
+                .collect(Collectors.toList()),
+                messageVersion);
+    }
+
+    @Override
+    public Capabilities getRequiredCapabilities() {
+        return new Capabilities(Capability.INVENTORY_ANNOUNCE);
+    }
+
+    @Override
+    public String toString() {
+        return "GetAnnouncedPayloadsRequest{" +
+                "\n     hashes=" + hashes.stream().map(Utilities::bytesAsHexString).collect(Collectors.toList()) +
+                "\n} " + super.toString();
+    }
+}
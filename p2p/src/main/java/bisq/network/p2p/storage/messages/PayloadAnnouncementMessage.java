@@ -0,0 +1,98 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.storage.messages;
+
+import bisq.network.p2p.storage.payload.CapabilityRequiringPayload;
+
+import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
+import bisq.common.app.Version;
+import bisq.common.proto.network.NetworkEnvelope;
+import bisq.common.util.Utilities;
+
+import com.google.protobuf.ByteString;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Announces AddDataMessage and AddPersistableNetworkPayloadMessage payloads by their hash instead of sending them.
+ * The peer requests the payloads it is missing with a GetAnnouncedPayloadsRequest.
+ */
+@EqualsAndHashCode(callSuper = true)
+@Value
+public final class PayloadAnnouncementMessage extends NetworkEnvelope implements CapabilityRequiringPayload {
+    // We ignore announcements exceeding that number of hashes
+    public static final int MAX_HASHES = 1000;
+
+    private final List<byte[]> hashes;
+    // The sequence number of a ProtectedStorageEntry or 0 for a PersistableNetworkPayload
+    private final List<Integer> sequenceNumbers;
+
+    public PayloadAnnouncementMessage(List<byte[]> hashes, List<Integer> sequenceNumbers) {
+        this(hashes, sequenceNumbers, Version.getP2PMessageVersion());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private PayloadAnnouncementMessage(List<byte[]> hashes, List<Integer> sequenceNumbers, String messageVersion) {
+        super(messageVersion);
+        checkArgument(hashes.size() == sequenceNumbers.size(), "Each hash must have a sequence number");
+        this.hashes = hashes;
+        this.sequenceNumbers = sequenceNumbers;
+    }
+
+    @Override
+    public protobuf.NetworkEnvelope toProtoNetworkEnvelope() {
+        return getNetworkEnvelopeBuilder()
+                .setPayloadAnnouncementMessage(protobuf.PayloadAnnouncementMessage.newBuilder()
+                        .addAllHashes(hashes.stream().map(ByteString::copyFrom).collect(Collectors.toList()))
+                        .addAllSequenceNumbers(sequenceNumbers))
+                .build();
+    }
+
+    public static PayloadAnnouncementMessage fromProto(protobuf.PayloadAnnouncementMessage proto, String messageVersion) {
+        return new PayloadAnnouncementMessage(proto.getHashesList().stream()
+                .map(ByteString::toByteArray)
+                .collect(Collectors.toList()),
+                proto.getSequenceNumbersList(),
+                messageVersion);
+    }
+
+    @Override
+    public Capabilities getRequiredCapabilities() {
+        return new Capabilities(Capability.INVENTORY_ANNOUNCE);
+    }
+
+    @Override
+    public String toString() {
+        return "PayloadAnnouncementMessage{" +
+                "\n     hashes=" + hashes.stream().map(Utilities::bytesAsHexString).collect(Collectors.toList()) +
+                ",\n     sequenceNumbers=" + sequenceNumbers +
+                "\n} " + super.toString();
+    }
+}
@@ -20,14 +20,20 @@ package bisq.network.p2p.storage.persistence;
 import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 
+import bisq.common.persistence.PersistedDataLoader;
+import bisq.common.util.MemoryGovernor;
+
 import javax.inject.Inject;
 
 import com.google.common.annotations.VisibleForTesting;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import lombok.Getter;
@@ -40,6 +46,9 @@ import lombok.extern.slf4j.Slf4j;
 public class AppendOnlyDataStoreService {
     @Getter
     private final List<MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload>> services = new ArrayList<>();
+    private final Set<MapStoreService<?, PersistableNetworkPayload>> deferredServices = new HashSet<>();
+    private final Set<MapStoreService<?, PersistableNetworkPayload>> loadedServices = new HashSet<>();
+    private final Map<MapStoreService<?, PersistableNetworkPayload>, List<Runnable>> loadedHandlers = new HashMap<>();
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -50,46 +59,107 @@ public class AppendOnlyDataStoreService {
     public AppendOnlyDataStoreService() {
     }
 
+    // Deferred services are not needed at startup. They get read after all other services are loaded, so they do
+    // not delay the startup.
+    public void addDeferredService(MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload> service) {
+        deferredServices.add(service);
+        addService(service);
+    }
+
     public void addService(MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload> service) {
         services.add(service);
+        // Only the live data is on the heap, historical data is memory mapped.
+        MemoryGovernor.registerStore(service.getFileName(),
+                () -> MemoryGovernor.estimateFootprint(getLiveMapOfService(service).values(),
+                        payload -> payload.toProtoMessage().getSerializedSize()));
     }
 
     public void readFromResources(String postFix, Runnable completeHandler) {
-        if (services.isEmpty()) {
-            completeHandler.run();
-            return;
-        }
-        AtomicInteger remaining = new AtomicInteger(services.size());
+        PersistedDataLoader loader = new PersistedDataLoader("Append-only data stores");
         services.forEach(service -> {
-            service.readFromResources(postFix, () -> {
-                if (remaining.decrementAndGet() == 0) {
-                    completeHandler.run();
-                }
+            Consumer<Runnable> read = handler -> service.readFromResources(postFix, () -> {
+                onServiceLoaded(service);
+                handler.run();
             });
+            if (deferredServices.contains(service)) {
+                loader.addDeferred(service.getFileName(), read);
+            } else {
+                loader.add(service.getFileName(), read);
+            }
         });
+        loader.load(completeHandler);
     }
 
     // Uses synchronous execution on the userThread. Only used by tests. The async methods should be used by app code.
     @VisibleForTesting
     public void readFromResourcesSync(String postFix) {
-        services.forEach(service -> service.readFromResourcesSync(postFix));
+        services.forEach(service -> {
+            service.readFromResourcesSync(postFix);
+            onServiceLoaded(service);
+        });
+    }
+
+    /**
+     * Runs the handler once the store of the service is loaded. For deferred services that is after the other
+     * services are loaded.
+     */
+    public void runWhenLoaded(MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload> service,
+                              Runnable handler) {
+        synchronized (loadedServices) {
+            if (!loadedServices.contains(service)) {
+                loadedHandlers.computeIfAbsent(service, e -> new ArrayList<>()).add(handler);
+                return;
+            }
+        }
+        handler.run();
     }
 
 
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMap() {
         return services.stream()
-                .flatMap(service -> {
-                    Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = service instanceof HistoricalDataStoreService ?
-                            ((HistoricalDataStoreService) service).getMapOfAllData() :
-                            service.getMap();
-                    return map.entrySet().stream();
-                })
+                .flatMap(service -> getMapOfService(service).entrySet().stream())
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     }
 
+    // Does not copy the data of the services, so prefer that over getMap().containsKey.
+    public boolean containsKey(P2PDataStorage.ByteArray hash) {
+        return services.stream().anyMatch(service -> getMapOfService(service).containsKey(hash));
+    }
+
     public void put(P2PDataStorage.ByteArray hashAsByteArray, PersistableNetworkPayload payload) {
         services.stream()
                 .filter(service -> service.canHandle(payload))
+                // A deferred store would get replaced once it is read
+                .filter(service -> !deferredServices.contains(service) || isLoaded(service))
                 .forEach(service -> service.putIfAbsent(hashAsByteArray, payload));
     }
+
+    private void onServiceLoaded(MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload> service) {
+        List<Runnable> handlers;
+        synchronized (loadedServices) {
+            loadedServices.add(service);
+            handlers = loadedHandlers.remove(service);
+        }
+        if (handlers != null) {
+            handlers.forEach(Runnable::run);
+        }
+    }
+
+    private boolean isLoaded(MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload> service) {
+        synchronized (loadedServices) {
+            return loadedServices.contains(service);
+        }
+    }
+
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfService(MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload> service) {
+        return service instanceof HistoricalDataStoreService ?
+                ((HistoricalDataStoreService<?>) service).getMapOfAllDataView() :
+                service.getMap();
+    }
+
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getLiveMapOfService(MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload> service) {
+        return service instanceof HistoricalDataStoreService ?
+                ((HistoricalDataStoreService<?>) service).getMapOfLiveData() :
+                service.getMap();
+    }
 }
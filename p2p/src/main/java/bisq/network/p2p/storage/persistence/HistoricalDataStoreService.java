@@ -20,20 +20,28 @@ package bisq.network.p2p.storage.persistence;
 import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 
+import bisq.common.UserThread;
 import bisq.common.app.DevEnv;
 import bisq.common.app.Version;
 import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.ProtoResolver;
 
 import com.google.common.collect.ImmutableMap;
 
 import java.io.File;
+import java.io.IOException;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 /**
  * Manages historical data stores tagged with the release versions.
  * New data is added to the default map in the store (live data). Historical data is created from resource files.
@@ -42,9 +50,11 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public abstract class HistoricalDataStoreService<T extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> extends MapStoreService<T, PersistableNetworkPayload> {
-    private ImmutableMap<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion;
-    // Cache to avoid that we have to recreate the historical data at each request
-    private ImmutableMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads;
+    private static final String MAPPED_FILE_SUFFIX = ".mapped";
+
+    private ImmutableMap<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion;
+    // Read-only view over all historical stores. The stores are memory-mapped if possible, so they do not use heap.
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -87,7 +97,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                             requestersVersion, storeVersion, details);
                     return newVersion;
                 })
-                .map(e -> e.getValue().getMap())
+                .map(Map.Entry::getValue)
                 .forEach(result::putAll);
 
         log.info("We found {} entries since requesters version {}",
@@ -99,10 +109,18 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         return store.getMap();
     }
 
+    // Returns a copy of live and historical data. Prefer getMapOfAllDataView if the result is only read.
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfAllData() {
-        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(getMapOfLiveData());
-        result.putAll(allHistoricalPayloads);
-        return result;
+        return new HashMap<>(getMapOfAllDataView());
+    }
+
+    /**
+     * Returns a read-only view over live and historical data which does not copy any data. Historical payloads are
+     * decoded on access, so callers iterating over the values repeatedly should keep their own collection instead.
+     */
+    public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfAllDataView() {
+        // Live data is pruned of historical data, so the maps are disjoint.
+        return Collections.unmodifiableMap(new ReadOnlyUnionMap<>(List.of(getMapOfLiveData(), allHistoricalPayloads), true));
     }
 
 
@@ -149,18 +167,22 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                     getFileName(), getMapOfLiveData().size());
 
             // Now we add our historical data stores.
-            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads = new HashMap<>();
-            Map<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion = new HashMap<>();
+            Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion = new HashMap<>();
             AtomicInteger numFiles = new AtomicInteger(Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.size());
             Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.forEach(version -> readHistoricalStoreFromResources(version,
                     postFix,
-                    allHistoricalPayloads,
                     storesByVersion,
                     () -> {
                         if (numFiles.decrementAndGet() == 0) {
                             // At last iteration we set the immutable map
-                            this.allHistoricalPayloads = ImmutableMap.copyOf(allHistoricalPayloads);
                             this.storesByVersion = ImmutableMap.copyOf(storesByVersion);
+                            List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> stores = Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.stream()
+                                    .filter(storesByVersion::containsKey)
+                                    .map(storesByVersion::get)
+                                    .collect(Collectors.toList());
+                            this.allHistoricalPayloads = stores.size() == 1 ?
+                                    stores.get(0) :
+                                    new ReadOnlyUnionMap<>(stores, false);
                             completeHandler.run();
                         }
                     }));
@@ -174,29 +196,73 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
 
     private void readHistoricalStoreFromResources(String version,
                                                   String postFix,
-                                                  Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads,
-                                                  Map<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion,
+                                                  Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion,
                                                   Runnable completeHandler) {
 
         String fileName = getFileName() + "_" + version;
-        boolean wasCreatedFromResources = makeFileFromResourceFile(fileName, postFix);
+        makeFileFromResourceFile(fileName, postFix);
 
         // If resource file does not exist we do not create a new store as it would never get filled.
-        persistenceManager.readPersisted(fileName, persisted -> {
-                    storesByVersion.put(version, persisted);
-                    allHistoricalPayloads.putAll(persisted.getMap());
-                    log.info("We have read from {} {} historical items.", fileName, persisted.getMap().size());
-                    pruneStore(persisted, version);
-                    completeHandler.run();
-                },
-                completeHandler::run);
+        PersistenceManager.getReadExecutor().execute(() -> {
+            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalStore = readHistoricalStore(fileName);
+            UserThread.execute(() -> {
+                if (historicalStore != null) {
+                    storesByVersion.put(version, historicalStore);
+                    log.info("We have read from {} {} historical items.", fileName, historicalStore.size());
+                    pruneStore(historicalStore, version);
+                }
+                completeHandler.run();
+            });
+        });
+    }
+
+    // We map the historical store file created from the resource file. At the first start after an update the resource
+    // file is parsed once and converted to the mapped format. If that fails we keep the parsed store on the heap.
+    @Nullable
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> readHistoricalStore(String fileName) {
+        File sourceFile = new File(absolutePathOfStorageDir, fileName);
+        if (!sourceFile.exists()) {
+            return null;
+        }
+
+        File mappedFile = new File(absolutePathOfStorageDir, fileName + MAPPED_FILE_SUFFIX);
+        ProtoResolver protoResolver = persistenceManager.getPersistenceProtoResolver();
+        long sourceFingerprint;
+        try {
+            sourceFingerprint = MappedPayloadStore.getSourceFingerprint(sourceFile);
+        } catch (IOException e) {
+            log.warn("Could not read the fingerprint of {}. We keep the historical data in memory.", fileName, e);
+            T persisted = persistenceManager.getPersisted(fileName);
+            return persisted != null ? persisted.getMap() : null;
+        }
+        MappedPayloadStore mappedStore = MappedPayloadStore.open(mappedFile, sourceFingerprint, protoResolver);
+        if (mappedStore != null) {
+            return mappedStore;
+        }
+
+        T persisted = persistenceManager.getPersisted(fileName);
+        if (persisted == null) {
+            return null;
+        }
+        try {
+            long ts = System.currentTimeMillis();
+            MappedPayloadStore.write(mappedFile, persisted.getMap(), sourceFingerprint);
+            mappedStore = MappedPayloadStore.open(mappedFile, sourceFingerprint, protoResolver);
+            if (mappedStore != null) {
+                log.info("Converting {} to a mapped store took {} ms", fileName, System.currentTimeMillis() - ts);
+                return mappedStore;
+            }
+        } catch (IOException e) {
+            log.warn("Could not create mapped store for {}. We keep the historical data in memory.", fileName, e);
+        }
+        return persisted.getMap();
     }
 
-    private void pruneStore(PersistableNetworkPayloadStore<? extends PersistableNetworkPayload> historicalStore,
+    private void pruneStore(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalStore,
                             String version) {
         Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> mapOfLiveData = getMapOfLiveData();
         int preLive = mapOfLiveData.size();
-        mapOfLiveData.keySet().removeAll(historicalStore.getMap().keySet());
+        mapOfLiveData.keySet().removeIf(historicalStore::containsKey);
         int postLive = mapOfLiveData.size();
         if (preLive > postLive) {
             log.info("We pruned data from our live data store which are already contained in the historical data store with version {}. " +
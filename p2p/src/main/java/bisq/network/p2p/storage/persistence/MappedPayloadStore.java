@@ -0,0 +1,369 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import bisq.common.proto.ProtoResolver;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Read-only map of PersistableNetworkPayloads backed by a memory-mapped file. Used for the historical data stores
+ * which never change after a release, so that they cost page cache rather than heap.
+ *
+ * The file starts with a header (magic, fingerprint of the source file it was created from, number of entries and key
+ * length) followed by an index of fixed size slots (key, data offset, data length) sorted by key, followed by the
+ * serialized protobuf.PersistableNetworkPayload messages. Lookups by hash are binary searches over the index and
+ * payloads are only decoded when they are accessed. Iterating over the key set does not decode any payload.
+ *
+ * All hashes in a store must have the same length, which is the case for all historical payload types.
+ */
+@Slf4j
+public class MappedPayloadStore extends AbstractMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+    private static final byte[] MAGIC = "HVNOMAP2".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = MAGIC.length + 8 + 4 + 4;
+    // Number of bytes at the start and at the end of the source file which are part of its fingerprint
+    private static final int FINGERPRINT_SAMPLE_SIZE = 64 * 1024;
+
+    private final MappedByteBuffer buffer;
+    private final ProtoResolver protoResolver;
+    private final int count;
+    private final int keyLength;
+    private final int slotSize;
+
+    private MappedPayloadStore(MappedByteBuffer buffer, ProtoResolver protoResolver) {
+        this.buffer = buffer;
+        this.protoResolver = protoResolver;
+        count = buffer.getInt(MAGIC.length + 8);
+        keyLength = buffer.getInt(MAGIC.length + 12);
+        slotSize = keyLength + 8 + 4;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Writing and opening
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns a cheap fingerprint of the file a mapped store is created from. It covers the length, the last modified
+     * time and the first and last bytes of the file, as hashing the whole file would cost about as much as parsing it.
+     */
+    public static long getSourceFingerprint(File sourceFile) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(sourceFile, "r")) {
+            long length = file.length();
+            Hasher hasher = Hashing.sipHash24().newHasher()
+                    .putLong(length)
+                    .putLong(sourceFile.lastModified());
+            byte[] sample = new byte[(int) Math.min(length, FINGERPRINT_SAMPLE_SIZE)];
+            file.readFully(sample);
+            hasher.putBytes(sample);
+            file.seek(length - sample.length);
+            file.readFully(sample);
+            hasher.putBytes(sample);
+            return hasher.hash().asLong();
+        }
+    }
+
+    /**
+     * Writes the payloads to the given file in the mapped store format.
+     *
+     * @param sourceFingerprint Fingerprint of the file the payloads have been read from, see
+     *                          {@link #getSourceFingerprint(File)}. Used to detect if the mapped file is outdated.
+     */
+    public static void write(File file,
+                             Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> payloads,
+                             long sourceFingerprint) throws IOException {
+        List<Map.Entry<P2PDataStorage.ByteArray, byte[]>> entries = new ArrayList<>(payloads.size());
+        int keyLength = -1;
+        for (Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> entry : payloads.entrySet()) {
+            byte[] key = entry.getKey().bytes;
+            if (keyLength == -1) {
+                keyLength = key.length;
+            } else if (keyLength != key.length) {
+                throw new IOException("All hashes must have the same length to be stored in a mapped store");
+            }
+            entries.add(new SimpleImmutableEntry<>(entry.getKey(),
+                    entry.getValue().toProtoMessage().toByteArray()));
+        }
+        entries.sort((o1, o2) -> compare(o1.getKey().bytes, o2.getKey().bytes));
+        keyLength = Math.max(keyLength, 0);
+
+        long offset = HEADER_SIZE + (long) entries.size() * (keyLength + 8 + 4);
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.write(MAGIC);
+            out.writeLong(sourceFingerprint);
+            out.writeInt(entries.size());
+            out.writeInt(keyLength);
+            for (Map.Entry<P2PDataStorage.ByteArray, byte[]> entry : entries) {
+                out.write(entry.getKey().bytes);
+                out.writeLong(offset);
+                out.writeInt(entry.getValue().length);
+                offset += entry.getValue().length;
+            }
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Mapped store would exceed the maximum size of a mapped buffer");
+            }
+            for (Map.Entry<P2PDataStorage.ByteArray, byte[]> entry : entries) {
+                out.write(entry.getValue());
+            }
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+            throw e;
+        }
+        // On Windows renameTo fails if the target exists, so we delete an outdated mapped store first.
+        if (file.exists() && !file.delete()) {
+            log.warn("Could not delete outdated mapped store {}", file);
+        }
+        if (!tempFile.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+            throw new IOException("Could not rename " + tempFile + " to " + file);
+        }
+    }
+
+    /**
+     * Maps the given file. Returns null if the file does not exist, is not a mapped store or was created from a source
+     * file with a different fingerprint.
+     */
+    @Nullable
+    public static MappedPayloadStore open(File file, long sourceFingerprint, ProtoResolver protoResolver) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                log.warn("Mapped store {} has an invalid size of {} bytes", file, size);
+                return null;
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            byte[] magic = new byte[MAGIC.length];
+            buffer.duplicate().get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                log.warn("File {} is not a mapped store", file);
+                return null;
+            }
+            if (buffer.getLong(MAGIC.length) != sourceFingerprint) {
+                log.info("Mapped store {} was created from a different source file", file);
+                return null;
+            }
+            MappedPayloadStore store = new MappedPayloadStore(buffer, protoResolver);
+            if ((long) HEADER_SIZE + (long) store.count * store.slotSize > size) {
+                log.warn("Mapped store {} is truncated", file);
+                return null;
+            }
+            return store;
+        } catch (IOException e) {
+            log.warn("Could not map {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Map
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof P2PDataStorage.ByteArray && indexOf(((P2PDataStorage.ByteArray) key).bytes) >= 0;
+    }
+
+    @Override
+    public PersistableNetworkPayload get(Object key) {
+        if (!(key instanceof P2PDataStorage.ByteArray)) {
+            return null;
+        }
+        int index = indexOf(((P2PDataStorage.ByteArray) key).bytes);
+        return index >= 0 ? decode(index) : null;
+    }
+
+    @Override
+    public Set<P2PDataStorage.ByteArray> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<P2PDataStorage.ByteArray> iterator() {
+                return new IndexIterator<>() {
+                    @Override
+                    P2PDataStorage.ByteArray get(int index) {
+                        return getKey(index);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> iterator() {
+                return new IndexIterator<>() {
+                    @Override
+                    Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> get(int index) {
+                        return new SimpleImmutableEntry<>(getKey(index), decode(index));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private abstract class IndexIterator<E> implements Iterator<E> {
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+            return next < count;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return get(next++);
+        }
+
+        abstract E get(int index);
+    }
+
+    private int indexOf(byte[] key) {
+        if (key.length != keyLength) {
+            return -1;
+        }
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKeyAt(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compareKeyAt(int index, byte[] key) {
+        int position = HEADER_SIZE + index * slotSize;
+        for (int i = 0; i < keyLength; i++) {
+            int cmp = Integer.compare(buffer.get(position + i) & 0xff, key[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private P2PDataStorage.ByteArray getKey(int index) {
+        byte[] key = new byte[keyLength];
+        ByteBuffer slot = buffer.duplicate();
+        slot.position(HEADER_SIZE + index * slotSize);
+        slot.get(key);
+        return new P2PDataStorage.ByteArray(key);
+    }
+
+    private PersistableNetworkPayload decode(int index) {
+        int position = HEADER_SIZE + index * slotSize + keyLength;
+        int offset = (int) buffer.getLong(position);
+        int length = buffer.getInt(position + 8);
+        ByteBuffer data = buffer.duplicate();
+        data.position(offset);
+        data.limit(offset + length);
+        try {
+            return (PersistableNetworkPayload) protoResolver.fromProto(
+                    protobuf.PersistableNetworkPayload.parseFrom(data));
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Corrupted entry in mapped store at index " + index, e);
+        }
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            int cmp = Integer.compare(a[i] & 0xff, b[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.storage.persistence;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Read-only view over several maps which does not copy them. If a key is contained in several maps the value of the
+ * first map is used.
+ *
+ * If the maps are disjoint, size() is the sum of their sizes and iteration does not check for duplicates. Otherwise
+ * the maps must not change as the number of distinct keys is counted once at construction.
+ */
+class ReadOnlyUnionMap<K, V> extends AbstractMap<K, V> {
+    private final List<? extends Map<K, V>> maps;
+    private final boolean disjoint;
+    private final int distinctSize;
+
+    ReadOnlyUnionMap(List<? extends Map<K, V>> maps, boolean disjoint) {
+        this.maps = maps;
+        this.disjoint = disjoint;
+        if (disjoint) {
+            distinctSize = -1;
+        } else {
+            int size = 0;
+            for (Iterator<K> iterator = keySet().iterator(); iterator.hasNext(); iterator.next()) {
+                size++;
+            }
+            distinctSize = size;
+        }
+    }
+
+    @Override
+    public int size() {
+        if (!disjoint) {
+            return distinctSize;
+        }
+        int size = 0;
+        for (Map<K, V> map : maps) {
+            size += map.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return maps.stream().allMatch(Map::isEmpty);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        for (Map<K, V> map : maps) {
+            if (map.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V get(Object key) {
+        for (Map<K, V> map : maps) {
+            V value = map.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<K> iterator() {
+                return new UnionIterator<>(map -> map.keySet().iterator(), key -> key);
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return ReadOnlyUnionMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new UnionIterator<>(map -> map.entrySet().iterator(), Entry::getKey);
+            }
+
+            @Override
+            public int size() {
+                return ReadOnlyUnionMap.this.size();
+            }
+        };
+    }
+
+    private class UnionIterator<E> implements Iterator<E> {
+        private final Function<Map<K, V>, Iterator<E>> iteratorFunction;
+        private final Function<E, K> keyFunction;
+        private int mapIndex = -1;
+        private Iterator<E> current;
+        private E next;
+
+        UnionIterator(Function<Map<K, V>, Iterator<E>> iteratorFunction, Function<E, K> keyFunction) {
+            this.iteratorFunction = iteratorFunction;
+            this.keyFunction = keyFunction;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            E result = next;
+            advance();
+            return result;
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null) {
+                while (current == null || !current.hasNext()) {
+                    if (++mapIndex >= maps.size()) {
+                        return;
+                    }
+                    current = iteratorFunction.apply(maps.get(mapIndex));
+                }
+                E candidate = current.next();
+                if (disjoint || !isInEarlierMap(keyFunction.apply(candidate))) {
+                    next = candidate;
+                }
+            }
+        }
+
+        private boolean isInEarlierMap(K key) {
+            for (int i = 0; i < mapIndex; i++) {
+                if (maps.get(i).containsKey(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
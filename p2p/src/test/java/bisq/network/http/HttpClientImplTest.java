@@ -0,0 +1,147 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import java.nio.charset.StandardCharsets;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HttpClientImplTest {
+    private static final String RESPONSE = "{\"data\":[]}";
+    private static final String ETAG = "\"v1\"";
+
+    private HttpServer server;
+    private HttpClientImpl httpClient;
+    // If-None-Match header of each request received by the server
+    private final List<String> receivedETags = new CopyOnWriteArrayList<>();
+    private final CountDownLatch releaseResponses = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        httpClient = new HttpClientImpl("http://localhost:" + server.getAddress().getPort() + "/");
+    }
+
+    @After
+    public void tearDown() {
+        releaseResponses.countDown();
+        httpClient.shutDown();
+        server.stop(0);
+    }
+
+    @Test
+    public void testConditionalRequest() throws IOException {
+        releaseResponses.countDown();
+        assertEquals(RESPONSE, httpClient.get("prices", null, null));
+        assertEquals(RESPONSE, httpClient.get("prices", null, null));
+
+        assertEquals(2, receivedETags.size());
+        assertNull(receivedETags.get(0));
+        // The second response is a 304 without content, the cached response is returned.
+        assertEquals(ETAG, receivedETags.get(1));
+    }
+
+    @Test
+    public void testIdenticalConcurrentRequestsShareResponse() throws Exception {
+        AtomicReference<String> firstResponse = new AtomicReference<>();
+        AtomicReference<String> secondResponse = new AtomicReference<>();
+        Thread first = new Thread(() -> firstResponse.set(get("prices")));
+        first.start();
+        waitUntil(() -> receivedETags.size() == 1);
+        assertTrue(httpClient.hasPendingRequest());
+
+        Thread second = new Thread(() -> secondResponse.set(get("prices")));
+        second.start();
+        // The second request waits for the response of the first one instead of being sent.
+        waitUntil(() -> second.getState() == Thread.State.WAITING);
+
+        releaseResponses.countDown();
+        first.join(TimeUnit.SECONDS.toMillis(10));
+        second.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertEquals(RESPONSE, firstResponse.get());
+        assertEquals(RESPONSE, secondResponse.get());
+        assertEquals(1, receivedETags.size());
+        assertFalse(httpClient.hasPendingRequest());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String eTag = exchange.getRequestHeaders().getFirst("If-None-Match");
+            receivedETags.add(eTag);
+            releaseResponses.await(10, TimeUnit.SECONDS);
+
+            exchange.getResponseHeaders().set("ETag", ETAG);
+            if (ETAG.equals(eTag)) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                byte[] response = RESPONSE.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, response.length);
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(response);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String get(String param) {
+        try {
+            return httpClient.get(param, null, null);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue("Condition not met in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.NodeAddress;
+
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConnectionRegistryTest {
+    private final ConnectionRegistry registry = new ConnectionRegistry();
+    private final Map<Connection, ObjectProperty<NodeAddress>> addressProperties = new HashMap<>();
+
+    @Test
+    public void testLookupByNodeAddress() {
+        NodeAddress nodeAddress = new NodeAddress("localhost", 9001);
+        OutboundConnection outbound = mockConnection(OutboundConnection.class);
+        InboundConnection inbound = mockConnection(InboundConnection.class);
+        setPeersNodeAddress(outbound, nodeAddress);
+
+        registry.add(outbound);
+        registry.add(inbound);
+        assertSame(outbound, registry.getOutboundConnection(nodeAddress));
+        assertNull(registry.getInboundConnection(nodeAddress));
+        assertEquals(2, registry.getAllConnectionsView().size());
+        assertEquals(1, registry.getConfirmedConnectionsView().size());
+
+        // The address of an inbound connection gets set once we receive it from the peer
+        setPeersNodeAddress(inbound, nodeAddress);
+        assertSame(inbound, registry.getInboundConnection(nodeAddress));
+        assertSame(outbound, registry.getConnection(nodeAddress));
+        assertEquals(2, registry.getConfirmedConnectionsView().size());
+        assertEquals(1, registry.getNodeAddressesOfConfirmedConnections().size());
+
+        registry.remove(outbound);
+        assertNull(registry.getOutboundConnection(nodeAddress));
+        assertSame(inbound, registry.getConnection(nodeAddress));
+
+        registry.remove(inbound);
+        assertNull(registry.getConnection(nodeAddress));
+        assertTrue(registry.getAllConnectionsView().isEmpty());
+        assertTrue(registry.getNodeAddressesOfConfirmedConnections().isEmpty());
+    }
+
+    @Test
+    public void testFallbackToOtherConnectionOfSamePeer() {
+        NodeAddress nodeAddress = new NodeAddress("localhost", 9001);
+        InboundConnection first = mockConnection(InboundConnection.class);
+        InboundConnection second = mockConnection(InboundConnection.class);
+        setPeersNodeAddress(first, nodeAddress);
+        setPeersNodeAddress(second, nodeAddress);
+        registry.add(first);
+        registry.add(second);
+
+        registry.remove(registry.getInboundConnection(nodeAddress));
+        assertNotNull(registry.getInboundConnection(nodeAddress));
+        assertEquals(1, registry.getNodeAddressesOfConfirmedConnections().size());
+    }
+
+    @Test
+    public void testAddressSetAfterRemoveIsNotIndexed() {
+        NodeAddress nodeAddress = new NodeAddress("localhost", 9001);
+        InboundConnection inbound = mockConnection(InboundConnection.class);
+        registry.add(inbound);
+        registry.remove(inbound);
+        setPeersNodeAddress(inbound, nodeAddress);
+        assertNull(registry.getInboundConnection(nodeAddress));
+        assertTrue(registry.getConfirmedConnectionsView().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentChurn() throws Exception {
+        int numThreads = 8;
+        int connectionsPerThread = 500;
+        List<NodeAddress> nodeAddresses = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            nodeAddresses.add(new NodeAddress("localhost", 9000 + i));
+        }
+        // Mocks are created upfront as stubbing is not thread safe
+        List<List<Connection>> connectionsByThread = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            List<Connection> connections = new ArrayList<>();
+            for (int j = 0; j < connectionsPerThread; j++) {
+                connections.add(j % 2 == 0 ?
+                        mockConnection(InboundConnection.class) :
+                        mockConnection(OutboundConnection.class));
+            }
+            connectionsByThread.add(connections);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        List<Future<List<Connection>>> futures = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            List<Connection> connections = connectionsByThread.get(i);
+            Random random = new Random(i);
+            futures.add(executor.submit(() -> {
+                List<Connection> remaining = new ArrayList<>();
+                for (Connection connection : connections) {
+                    NodeAddress nodeAddress = nodeAddresses.get(random.nextInt(nodeAddresses.size()));
+                    registry.add(connection);
+                    setPeersNodeAddress(connection, nodeAddress);
+                    if (random.nextBoolean()) {
+                        registry.remove(connection);
+                    } else {
+                        remaining.add(connection);
+                    }
+                }
+                return remaining;
+            }));
+        }
+        List<Connection> remaining = new ArrayList<>();
+        for (Future<List<Connection>> future : futures) {
+            remaining.addAll(future.get());
+        }
+        executor.shutdown();
+
+        assertEquals(remaining.size(), registry.getAllConnectionsView().size());
+        assertEquals(remaining.size(), registry.getConfirmedConnectionsView().size());
+        for (Connection connection : remaining) {
+            NodeAddress nodeAddress = connection.getPeersNodeAddressOptional().orElseThrow();
+            Connection indexed = connection instanceof InboundConnection ?
+                    registry.getInboundConnection(nodeAddress) :
+                    registry.getOutboundConnection(nodeAddress);
+            assertNotNull(indexed);
+            assertTrue(registry.getAllConnectionsView().contains(indexed));
+        }
+
+        remaining.forEach(registry::remove);
+        assertTrue(registry.getAllConnectionsView().isEmpty());
+        assertTrue(registry.getConfirmedConnectionsView().isEmpty());
+        assertTrue(registry.getNodeAddressesOfConfirmedConnections().isEmpty());
+    }
+
+    private <T extends Connection> T mockConnection(Class<T> type) {
+        T connection = mock(type);
+        ObjectProperty<NodeAddress> property = new SimpleObjectProperty<>();
+        when(connection.getPeersNodeAddressProperty()).thenReturn(property);
+        when(connection.getPeersNodeAddressOptional()).thenAnswer(invocation -> Optional.ofNullable(property.get()));
+        addressProperties.put(connection, property);
+        return connection;
+    }
+
+    private void setPeersNodeAddress(Connection connection, NodeAddress nodeAddress) {
+        addressProperties.get(connection).set(nodeAddress);
+    }
+}
@@ -17,11 +17,16 @@
 
 package bisq.network.p2p.network;
 
+import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.TestUtils;
+import bisq.network.p2p.peers.keepalive.messages.Ping;
 
 import java.io.IOException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +34,10 @@ import org.slf4j.LoggerFactory;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
 // TorNode created. Took 6 sec.
 // Hidden service created. Took 40-50 sec.
 // Connection establishment takes about 4 sec.
@@ -104,4 +113,72 @@ public class LocalhostNetworkNodeTest {
         node2.shutDown(shutDownLatch::countDown);
         shutDownLatch.await();
     }
+
+    // Opens and closes connections from several nodes to one node and checks that the connection registry of the
+    // nodes stays consistent
+    @Test
+    public void testConnectionChurn() throws InterruptedException {
+        LocalhostNetworkNode.setSimulateTorDelayTorNode(0);
+        LocalhostNetworkNode.setSimulateTorDelayHiddenService(0);
+        LocalhostNetworkNode server = startNode(9010);
+        NodeAddress serverAddress = new NodeAddress("localhost", 9010);
+
+        for (int round = 0; round < 10; round++) {
+            List<LocalhostNetworkNode> clients = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                clients.add(startNode(9020 + i));
+            }
+            CountDownLatch sentLatch = new CountDownLatch(clients.size());
+            clients.forEach(client -> client.sendMessage(serverAddress, new Ping(1, 0))
+                    .addListener(sentLatch::countDown, Runnable::run));
+            assertTrue(sentLatch.await(10, TimeUnit.SECONDS));
+
+            for (LocalhostNetworkNode client : clients) {
+                assertEquals(1, client.getOutboundConnectionCount());
+                assertNotNull(client.findPeersCapabilities(serverAddress).orElse(null));
+                assertTrue(client.getNodeAddressesOfConfirmedConnections().contains(serverAddress));
+            }
+
+            CountDownLatch shutDownLatch = new CountDownLatch(clients.size());
+            clients.forEach(client -> client.shutDown(shutDownLatch::countDown));
+            assertTrue(shutDownLatch.await(10, TimeUnit.SECONDS));
+            for (LocalhostNetworkNode client : clients) {
+                assertTrue(client.getAllConnections().isEmpty());
+            }
+            long timeout = System.currentTimeMillis() + 10_000;
+            while (!server.getAllConnections().isEmpty() && System.currentTimeMillis() < timeout) {
+                Thread.sleep(50);
+            }
+            assertTrue(server.getAllConnections().isEmpty());
+        }
+
+        CountDownLatch shutDownLatch = new CountDownLatch(1);
+        server.shutDown(shutDownLatch::countDown);
+        shutDownLatch.await();
+    }
+
+    private static LocalhostNetworkNode startNode(int port) throws InterruptedException {
+        LocalhostNetworkNode node = new LocalhostNetworkNode(port, TestUtils.getNetworkProtoResolver(), null);
+        CountDownLatch startupLatch = new CountDownLatch(1);
+        node.start(new SetupListener() {
+            @Override
+            public void onTorNodeReady() {
+            }
+
+            @Override
+            public void onHiddenServicePublished() {
+                startupLatch.countDown();
+            }
+
+            @Override
+            public void onSetupFailed(Throwable throwable) {
+            }
+
+            @Override
+            public void onRequestCustomBridges() {
+            }
+        });
+        startupLatch.await();
+        return node;
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.BundleOfEnvelopes;
+import bisq.network.p2p.peers.keepalive.messages.Ping;
+import bisq.network.p2p.peers.keepalive.messages.Pong;
+
+import bisq.common.proto.network.NetworkEnvelope;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SerializedEnvelopeTest {
+
+    @Test
+    public void testSingleEnvelopeIsEncodedLikeProto() throws IOException {
+        Ping ping = new Ping(1, 2);
+        SerializedEnvelope serializedEnvelope = SerializedEnvelope.from(ping);
+
+        assertSame(ping, serializedEnvelope.getNetworkEnvelope());
+        assertEquals(ping.toProtoNetworkEnvelope().getSerializedSize(), serializedEnvelope.getSerializedSize());
+        assertArrayEquals(writeDelimited(ping.toProtoNetworkEnvelope()), writeDelimited(serializedEnvelope));
+    }
+
+    @Test
+    public void testBundleIsEncodedLikeBundleOfEnvelopes() throws IOException {
+        // Enough envelopes to need multi byte length prefixes
+        List<NetworkEnvelope> envelopes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            envelopes.add(i % 2 == 0 ? new Ping(i, i * 1000) : new Pong(i));
+        }
+        SerializedEnvelope bundle = SerializedEnvelope.bundle(envelopes.stream()
+                .map(SerializedEnvelope::from)
+                .collect(Collectors.toList()));
+        protobuf.NetworkEnvelope expected = new BundleOfEnvelopes(new ArrayList<>(envelopes)).toProtoNetworkEnvelope();
+
+        assertEquals(envelopes, ((BundleOfEnvelopes) bundle.getNetworkEnvelope()).getEnvelopes());
+        assertEquals(expected.getSerializedSize(), bundle.getSerializedSize());
+        assertArrayEquals(writeDelimited(expected), writeDelimited(bundle));
+    }
+
+    @Test
+    public void testSerializedEnvelopeCanBeWrittenRepeatedly() throws IOException {
+        SerializedEnvelope serializedEnvelope = SerializedEnvelope.from(new Pong(42));
+        assertArrayEquals(writeDelimited(serializedEnvelope), writeDelimited(serializedEnvelope));
+    }
+
+    private static byte[] writeDelimited(protobuf.NetworkEnvelope proto) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        proto.writeDelimitedTo(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] writeDelimited(SerializedEnvelope serializedEnvelope) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializedEnvelope.writeDelimitedTo(outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.peers;
+
+import bisq.network.p2p.BundleOfEnvelopes;
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.network.ConnectionStatistics;
+import bisq.network.p2p.network.LocalhostNetworkNode;
+import bisq.network.p2p.network.SetupListener;
+import bisq.network.p2p.peers.peerexchange.messages.GetPeersRequest;
+import bisq.network.p2p.peers.peerexchange.messages.GetPeersResponse;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.messages.AddPersistableNetworkPayloadMessage;
+import bisq.network.p2p.storage.messages.GetAnnouncedPayloadsRequest;
+import bisq.network.p2p.storage.messages.PayloadAnnouncementMessage;
+import bisq.network.p2p.storage.mocks.AppendOnlyDataStoreServiceFake;
+import bisq.network.p2p.storage.mocks.ClockFake;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+import bisq.network.p2p.storage.persistence.ProtectedDataStoreService;
+import bisq.network.p2p.storage.persistence.RemovedPayloadsService;
+import bisq.network.p2p.storage.persistence.ResourceDataStoreService;
+
+import bisq.common.UserThread;
+import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
+import bisq.common.crypto.Hash;
+import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.ProtobufferException;
+import bisq.common.proto.network.NetworkEnvelope;
+import bisq.common.proto.network.NetworkPayload;
+import bisq.common.proto.network.NetworkProtoResolver;
+import bisq.common.proto.persistable.PersistablePayload;
+import bisq.common.util.Utilities;
+
+import com.google.protobuf.ByteString;
+
+import java.time.Clock;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Simulates the broadcast of payloads in a fully connected network of LocalhostNetworkNodes, once with payloads pushed
+ * to all peers and once with payloads announced to peers supporting Capability.INVENTORY_ANNOUNCE, and logs the
+ * bytes sent in both modes.
+ */
+@Slf4j
+@Ignore("Opens local ports and takes about a minute. Run manually.")
+public class PayloadAnnouncementSimulation {
+    private static final int NUM_NODES = 8;
+    private static final int NUM_PAYLOADS = 20;
+    private static final int PAYLOAD_SIZE = 2000;
+
+    @Test
+    public void testAnnouncementsSaveBandwidth() throws Exception {
+        UserThread.setExecutor(Executors.newSingleThreadExecutor());
+        LocalhostNetworkNode.setSimulateTorDelayTorNode(1);
+        LocalhostNetworkNode.setSimulateTorDelayHiddenService(1);
+
+        Result pushResult = simulate(new Capabilities(Capability.TRADE_STATISTICS_3), 9300);
+        Result announceResult = simulate(new Capabilities(Capability.TRADE_STATISTICS_3, Capability.INVENTORY_ANNOUNCE), 9400);
+
+        log.info("Push:     {}", pushResult);
+        log.info("Announce: {}", announceResult);
+        log.info("Saved {} ({}%)",
+                Utilities.readableFileSize(pushResult.sentBytes - announceResult.sentBytes),
+                100 * (pushResult.sentBytes - announceResult.sentBytes) / pushResult.sentBytes);
+        assertTrue(announceResult.sentBytes < pushResult.sentBytes);
+        assertTrue(announceResult.duplicateReceivedBytes < pushResult.duplicateReceivedBytes);
+    }
+
+    private Result simulate(Capabilities capabilities, int basePort) throws Exception {
+        Capabilities.app.set(capabilities);
+
+        List<SimulatedNode> nodes = new ArrayList<>();
+        CountDownLatch startedLatch = new CountDownLatch(NUM_NODES);
+        for (int i = 0; i < NUM_NODES; i++) {
+            SimulatedNode node = new SimulatedNode(basePort + i);
+            nodes.add(node);
+            node.start(startedLatch);
+        }
+        assertTrue(startedLatch.await(10, TimeUnit.SECONDS));
+
+        // We connect each node with each other node. The GetPeersRequest and response carry the node address and
+        // the capabilities of the peers.
+        for (int i = 0; i < NUM_NODES; i++) {
+            for (int j = i + 1; j < NUM_NODES; j++) {
+                nodes.get(i).networkNode.sendMessage(nodes.get(j).nodeAddress,
+                        new GetPeersRequest(nodes.get(i).nodeAddress, new Random().nextInt(), new HashSet<>()));
+            }
+        }
+        waitFor(() -> nodes.stream().allMatch(node -> node.networkNode.getConfirmedConnections().size() == NUM_NODES - 1));
+
+        CountDownLatch receivedLatch = new CountDownLatch(NUM_NODES * NUM_PAYLOADS);
+        nodes.forEach(node -> node.p2PDataStorage.addAppendOnlyDataStoreListener(payload -> receivedLatch.countDown()));
+        // Each node publishes some payloads which get relayed by the other nodes
+        Random random = new Random(basePort);
+        for (int i = 0; i < NUM_PAYLOADS; i++) {
+            SimulatedNode node = nodes.get(i % NUM_NODES);
+            byte[] data = new byte[PAYLOAD_SIZE];
+            random.nextBytes(data);
+            UserThread.execute(() -> node.p2PDataStorage.addPersistableNetworkPayload(new SimulatedPayload(data), node.nodeAddress, false));
+        }
+        assertTrue(receivedLatch.await(60, TimeUnit.SECONDS));
+        // We give the relays time to complete
+        Thread.sleep(10_000);
+
+        Result result = new Result();
+        nodes.forEach(node -> node.networkNode.getAllConnections().forEach(connection -> {
+            ConnectionStatistics statistics = connection.getConnectionStatistics();
+            result.sentBytes += statistics.getSentBytes();
+            result.duplicateReceivedBytes += statistics.getDuplicateReceivedBytes();
+            result.announcedBytes += statistics.getAnnouncedBytes();
+            result.requestedAnnouncedBytes += statistics.getRequestedAnnouncedBytes();
+        }));
+
+        CountDownLatch shutDownLatch = new CountDownLatch(NUM_NODES);
+        nodes.forEach(node -> UserThread.execute(() -> node.networkNode.shutDown(shutDownLatch::countDown)));
+        shutDownLatch.await(10, TimeUnit.SECONDS);
+        return result;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(20);
+        while (!condition.getAsBoolean()) {
+            assertTrue("Condition not met in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(100);
+        }
+    }
+
+    private static class Result {
+        long sentBytes;
+        long duplicateReceivedBytes;
+        long announcedBytes;
+        long requestedAnnouncedBytes;
+
+        @Override
+        public String toString() {
+            return "sent=" + Utilities.readableFileSize(sentBytes) +
+                    ", duplicates received=" + Utilities.readableFileSize(duplicateReceivedBytes) +
+                    ", announced=" + Utilities.readableFileSize(announcedBytes) +
+                    ", requested=" + Utilities.readableFileSize(requestedAnnouncedBytes);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static class SimulatedNode {
+        final NodeAddress nodeAddress;
+        final LocalhostNetworkNode networkNode;
+        final P2PDataStorage p2PDataStorage;
+
+        SimulatedNode(int port) {
+            nodeAddress = new NodeAddress("localhost", port);
+            networkNode = new LocalhostNetworkNode(port, new SimulationProtoResolver(), null);
+            Broadcaster broadcaster = new Broadcaster(networkNode, mock(PeerManager.class));
+            ProtectedDataStoreService protectedDataStoreService = new ProtectedDataStoreService();
+            p2PDataStorage = new P2PDataStorage(networkNode,
+                    broadcaster,
+                    new AppendOnlyDataStoreServiceFake(),
+                    protectedDataStoreService,
+                    mock(ResourceDataStoreService.class),
+                    mock(PersistenceManager.class),
+                    mock(RemovedPayloadsService.class),
+                    new ClockFake(),
+                    1000);
+
+            // We answer the GetPeersRequest so the requesting node learns our capabilities
+            networkNode.addMessageListener((networkEnvelope, connection) -> {
+                if (networkEnvelope instanceof GetPeersRequest) {
+                    networkNode.sendMessage(connection,
+                            new GetPeersResponse(((GetPeersRequest) networkEnvelope).getNonce(), new HashSet<>()));
+                }
+            });
+        }
+
+        void start(CountDownLatch startedLatch) {
+            networkNode.start(new SetupListener() {
+                @Override
+                public void onTorNodeReady() {
+                }
+
+                @Override
+                public void onHiddenServicePublished() {
+                    startedLatch.countDown();
+                }
+
+                @Override
+                public void onSetupFailed(Throwable throwable) {
+                    log.error("Setup failed", throwable);
+                }
+
+                @Override
+                public void onRequestCustomBridges() {
+                }
+            });
+        }
+    }
+
+    // Uses the TradeStatistics3 proto as container for the data of the payload
+    private static class SimulatedPayload implements PersistableNetworkPayload {
+        private final byte[] data;
+        private final byte[] hash;
+
+        SimulatedPayload(byte[] data) {
+            this.data = data;
+            this.hash = Hash.getSha256Hash(data);
+        }
+
+        @Override
+        public protobuf.PersistableNetworkPayload toProtoMessage() {
+            return protobuf.PersistableNetworkPayload.newBuilder()
+                    .setTradeStatistics3(protobuf.TradeStatistics3.newBuilder()
+                            .setHash(ByteString.copyFrom(hash))
+                            .putExtraData("data", Utilities.encodeToHex(data)))
+                    .build();
+        }
+
+        static SimulatedPayload fromProto(protobuf.TradeStatistics3 proto) {
+            return new SimulatedPayload(Utilities.decodeFromHex(proto.getExtraDataMap().get("data")));
+        }
+
+        @Override
+        public byte[] getHash() {
+            return hash;
+        }
+
+        @Override
+        public boolean verifyHashSize() {
+            return hash.length == 32;
+        }
+    }
+
+    private static class SimulationProtoResolver implements NetworkProtoResolver {
+        @Override
+        public NetworkEnvelope fromProto(protobuf.NetworkEnvelope proto) throws ProtobufferException {
+            String messageVersion = proto.getMessageVersion();
+            switch (proto.getMessageCase()) {
+                case GET_PEERS_REQUEST:
+                    return GetPeersRequest.fromProto(proto.getGetPeersRequest(), messageVersion);
+                case GET_PEERS_RESPONSE:
+                    return GetPeersResponse.fromProto(proto.getGetPeersResponse(), messageVersion);
+                case ADD_PERSISTABLE_NETWORK_PAYLOAD_MESSAGE:
+                    return AddPersistableNetworkPayloadMessage.fromProto(proto.getAddPersistableNetworkPayloadMessage(), this, messageVersion);
+                case BUNDLE_OF_ENVELOPES:
+                    return BundleOfEnvelopes.fromProto(proto.getBundleOfEnvelopes(), this, messageVersion);
+                case PAYLOAD_ANNOUNCEMENT_MESSAGE:
+                    return PayloadAnnouncementMessage.fromProto(proto.getPayloadAnnouncementMessage(), messageVersion);
+                case GET_ANNOUNCED_PAYLOADS_REQUEST:
+                    return GetAnnouncedPayloadsRequest.fromProto(proto.getGetAnnouncedPayloadsRequest(), messageVersion);
+                default:
+                    throw new ProtobufferException("Unsupported message in simulation: " + proto.getMessageCase());
+            }
+        }
+
+        @Override
+        public PersistablePayload fromProto(protobuf.PersistableNetworkPayload proto) {
+            return SimulatedPayload.fromProto(proto.getTradeStatistics3());
+        }
+
+        @Override
+        public NetworkPayload fromProto(protobuf.StoragePayload proto) {
+            return null;
+        }
+
+        @Override
+        public NetworkPayload fromProto(protobuf.StorageEntryWrapper proto) {
+            return null;
+        }
+
+        @Override
+        public bisq.common.Payload fromProto(protobuf.PaymentAccountPayload proto) {
+            return null;
+        }
+
+        @Override
+        public Clock getClock() {
+            return Clock.systemDefaultZone();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.storage;
+
+import bisq.network.p2p.network.CloseConnectionReason;
+import bisq.network.p2p.network.Connection;
+import bisq.network.p2p.storage.messages.AddPersistableNetworkPayloadMessage;
+import bisq.network.p2p.storage.messages.GetAnnouncedPayloadsRequest;
+import bisq.network.p2p.storage.messages.PayloadAnnouncementMessage;
+import bisq.network.p2p.storage.mocks.PersistableNetworkPayloadStub;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
+import bisq.common.proto.network.NetworkEnvelope;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.ArgumentCaptor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the handling of PayloadAnnouncementMessages and the tracking of duplicate payloads in P2PDataStorage.
+ */
+public class P2PDataStoragePayloadAnnouncementTest {
+    private TestState testState;
+    private Connection mockedConnection;
+
+    @Before
+    public void setup() {
+        testState = new TestState();
+        mockedConnection = mock(Connection.class);
+        when(mockedConnection.getPeersNodeAddressOptional()).thenReturn(Optional.of(TestState.getTestNodeAddress()));
+    }
+
+    private static PayloadAnnouncementMessage announce(byte[] hash) {
+        return new PayloadAnnouncementMessage(Collections.singletonList(hash), Collections.singletonList(0));
+    }
+
+    @Test
+    public void missingPayloadIsRequested() {
+        byte[] hash = new byte[]{1};
+        testState.mockedStorage.onMessage(announce(hash), mockedConnection);
+
+        ArgumentCaptor<NetworkEnvelope> captor = ArgumentCaptor.forClass(NetworkEnvelope.class);
+        verify(testState.mockNetworkNode).sendMessage(any(Connection.class), captor.capture());
+        List<byte[]> requestedHashes = ((GetAnnouncedPayloadsRequest) captor.getValue()).getHashes();
+        assertEquals(1, requestedHashes.size());
+        assertArrayEquals(hash, requestedHashes.get(0));
+    }
+
+    @Test
+    public void knownPayloadIsNotRequested() {
+        PersistableNetworkPayload payload = new PersistableNetworkPayloadStub(new byte[]{1});
+        testState.mockedStorage.addPersistableNetworkPayload(payload, TestState.getTestNodeAddress(), false);
+
+        testState.mockedStorage.onMessage(announce(payload.getHash()), mockedConnection);
+
+        verify(testState.mockNetworkNode, never()).sendMessage(any(Connection.class), any(NetworkEnvelope.class));
+    }
+
+    @Test
+    public void pendingPayloadIsNotRequestedTwice() {
+        byte[] hash = new byte[]{1};
+        testState.mockedStorage.onMessage(announce(hash), mockedConnection);
+        testState.mockedStorage.onMessage(announce(hash), mock(Connection.class));
+
+        verify(testState.mockNetworkNode).sendMessage(any(Connection.class), any(NetworkEnvelope.class));
+    }
+
+    @Test
+    public void timedOutRequestIsSentToNextAnnouncer() {
+        byte[] hash = new byte[]{1};
+        Connection otherConnection = mock(Connection.class);
+        testState.mockedStorage.onMessage(announce(hash), mockedConnection);
+        testState.mockedStorage.onMessage(announce(hash), otherConnection);
+
+        testState.mockedStorage.checkAnnouncedPayloadRequests();
+        verify(testState.mockNetworkNode, never()).sendMessage(eq(otherConnection), any(NetworkEnvelope.class));
+
+        testState.clockFake.increment(TimeUnit.SECONDS.toMillis(31));
+        testState.mockedStorage.checkAnnouncedPayloadRequests();
+        verifyRequested(otherConnection, hash);
+    }
+
+    @Test
+    public void disconnectedAnnouncerIsReplacedByNextAnnouncer() {
+        byte[] hash = new byte[]{1};
+        Connection otherConnection = mock(Connection.class);
+        testState.mockedStorage.onMessage(announce(hash), mockedConnection);
+        testState.mockedStorage.onMessage(announce(hash), otherConnection);
+
+        testState.mockedStorage.onDisconnect(CloseConnectionReason.SOCKET_CLOSED, mockedConnection);
+        verifyRequested(otherConnection, hash);
+    }
+
+    @Test
+    public void payloadIsRequestedFromFewPeersIfNoAnnouncerIsLeft() {
+        byte[] hash = new byte[]{1};
+        Connection otherConnection = mock(Connection.class);
+        List<Connection> peersWithAnnouncements = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Connection peer = mock(Connection.class);
+            when(peer.getCapabilities()).thenReturn(new Capabilities(Capability.INVENTORY_ANNOUNCE));
+            peersWithAnnouncements.add(peer);
+        }
+        Connection peerWithoutAnnouncements = mock(Connection.class);
+        when(peerWithoutAnnouncements.getCapabilities()).thenReturn(new Capabilities());
+        Set<Connection> confirmedConnections = new HashSet<>(peersWithAnnouncements);
+        confirmedConnections.add(peerWithoutAnnouncements);
+        when(testState.mockNetworkNode.getConfirmedConnections()).thenReturn(confirmedConnections);
+        testState.mockedStorage.onMessage(announce(hash), mockedConnection);
+        testState.mockedStorage.onMessage(announce(hash), otherConnection);
+
+        testState.mockedStorage.onDisconnect(CloseConnectionReason.SOCKET_CLOSED, mockedConnection);
+        testState.mockedStorage.onDisconnect(CloseConnectionReason.SOCKET_CLOSED, otherConnection);
+        verify(testState.mockNetworkNode, times(2)).sendMessage(argThat((Connection peer) -> peersWithAnnouncements.contains(peer)),
+                any(NetworkEnvelope.class));
+        verify(testState.mockNetworkNode, never()).sendMessage(eq(peerWithoutAnnouncements), any(NetworkEnvelope.class));
+        assertEquals(0, testState.mockedStorage.getNumPendingAnnouncedPayloadRequests());
+
+        // The requests are not repeated
+        testState.clockFake.increment(TimeUnit.SECONDS.toMillis(31));
+        testState.mockedStorage.checkAnnouncedPayloadRequests();
+        verify(testState.mockNetworkNode, times(2)).sendMessage(argThat((Connection peer) -> peersWithAnnouncements.contains(peer)),
+                any(NetworkEnvelope.class));
+    }
+
+    @Test
+    public void payloadAnnouncedBySinglePeerIsNotRequestedFromOtherPeers() {
+        Connection peerWithAnnouncements = mock(Connection.class);
+        when(peerWithAnnouncements.getCapabilities()).thenReturn(new Capabilities(Capability.INVENTORY_ANNOUNCE));
+        when(testState.mockNetworkNode.getConfirmedConnections()).thenReturn(Set.of(peerWithAnnouncements));
+        testState.mockedStorage.onMessage(announce(new byte[]{1}), mockedConnection);
+
+        testState.clockFake.increment(TimeUnit.SECONDS.toMillis(31));
+        testState.mockedStorage.checkAnnouncedPayloadRequests();
+        verify(testState.mockNetworkNode, never()).sendMessage(eq(peerWithAnnouncements), any(NetworkEnvelope.class));
+        assertEquals(0, testState.mockedStorage.getNumPendingAnnouncedPayloadRequests());
+    }
+
+    @Test
+    public void bogusAnnouncementsOfUnresponsivePeerAreBounded() {
+        Connection peerWithAnnouncements = mock(Connection.class);
+        when(peerWithAnnouncements.getCapabilities()).thenReturn(new Capabilities(Capability.INVENTORY_ANNOUNCE));
+        when(testState.mockNetworkNode.getConfirmedConnections()).thenReturn(Set.of(peerWithAnnouncements));
+
+        // The peer announces made up hashes and never delivers them
+        for (int round = 0; round < 2; round++) {
+            List<byte[]> hashes = new ArrayList<>();
+            List<Integer> sequenceNumbers = new ArrayList<>();
+            for (int i = 0; i < PayloadAnnouncementMessage.MAX_HASHES; i++) {
+                hashes.add(new byte[]{(byte) round, (byte) (i >> 8), (byte) i});
+                sequenceNumbers.add(0);
+            }
+            testState.mockedStorage.onMessage(new PayloadAnnouncementMessage(hashes, sequenceNumbers), mockedConnection);
+        }
+        assertEquals(P2PDataStorage.MAX_PENDING_ANNOUNCED_PAYLOAD_REQUESTS_PER_PEER,
+                testState.mockedStorage.getNumPendingAnnouncedPayloadRequests());
+        verify(testState.mockNetworkNode).sendMessage(eq(mockedConnection), any(NetworkEnvelope.class));
+
+        // After the timeout we do not ask other peers and do not keep any state for the hashes
+        testState.clockFake.increment(TimeUnit.SECONDS.toMillis(31));
+        testState.mockedStorage.checkAnnouncedPayloadRequests();
+        verify(testState.mockNetworkNode, never()).sendMessage(eq(peerWithAnnouncements), any(NetworkEnvelope.class));
+        assertEquals(0, testState.mockedStorage.getNumPendingAnnouncedPayloadRequests());
+    }
+
+    @Test
+    public void duplicatePayloadIsReported() {
+        PersistableNetworkPayload payload = new PersistableNetworkPayloadStub(new byte[]{1});
+        AddPersistableNetworkPayloadMessage message = new AddPersistableNetworkPayloadMessage(payload);
+
+        testState.mockedStorage.onMessage(message, mockedConnection);
+        verify(mockedConnection, never()).onDuplicatePayloadReceived(any(NetworkEnvelope.class));
+
+        testState.mockedStorage.onMessage(message, mockedConnection);
+        verify(mockedConnection).onDuplicatePayloadReceived(message);
+    }
+
+    private void verifyRequested(Connection connection, byte[] hash) {
+        ArgumentCaptor<NetworkEnvelope> captor = ArgumentCaptor.forClass(NetworkEnvelope.class);
+        verify(testState.mockNetworkNode).sendMessage(eq(connection), captor.capture());
+        List<byte[]> requestedHashes = ((GetAnnouncedPayloadsRequest) captor.getValue()).getHashes();
+        assertEquals(1, requestedHashes.size());
+        assertArrayEquals(hash, requestedHashes.get(0));
+    }
+}
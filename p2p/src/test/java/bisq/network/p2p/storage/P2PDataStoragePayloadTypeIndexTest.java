@@ -0,0 +1,116 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.storage;
+
+import bisq.network.p2p.TestUtils;
+import bisq.network.p2p.storage.mocks.ExpirableProtectedStoragePayloadStub;
+import bisq.network.p2p.storage.mocks.ProtectedStoragePayloadStub;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import bisq.common.app.Version;
+import bisq.common.crypto.CryptoException;
+
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests of the P2PDataStore entries partitioned by payload type and the listeners registered for a payload type.
+ */
+public class P2PDataStoragePayloadTypeIndexTest {
+    private TestState testState;
+    private HashMapChangedListener expirableListener;
+    private ProtectedStorageEntry entry;
+    private ProtectedStorageEntry expirableEntry;
+
+    @Before
+    public void setUp() throws NoSuchAlgorithmException, CryptoException {
+        this.testState = new TestState();
+
+        // Deep in the bowels of protobuf we grab the messageID from the version module. This is required to hash the
+        // full MailboxStoragePayload so make sure it is initialized.
+        Version.setBaseCryptoNetworkId(1);
+
+        expirableListener = mock(HashMapChangedListener.class);
+        this.testState.mockedStorage.addHashMapChangedListener(ExpirableProtectedStoragePayloadStub.class, expirableListener);
+
+        KeyPair ownerKeys = TestUtils.generateKeyPair();
+        entry = this.testState.mockedStorage.getProtectedStorageEntry(new ProtectedStoragePayloadStub(ownerKeys.getPublic()), ownerKeys);
+        expirableEntry = this.testState.mockedStorage.getProtectedStorageEntry(new ExpirableProtectedStoragePayloadStub(ownerKeys.getPublic(), 0), ownerKeys);
+        Assert.assertTrue(this.testState.mockedStorage.addProtectedStorageEntry(entry, TestState.getTestNodeAddress(), null));
+        Assert.assertTrue(this.testState.mockedStorage.addProtectedStorageEntry(expirableEntry, TestState.getTestNodeAddress(), null));
+    }
+
+    // TESTCASE: Entries are accessible by the exact class of their payload
+    @Test
+    public void getProtectedStorageEntries() {
+        Assert.assertEquals(Collections.singletonList(entry),
+                List.copyOf(this.testState.mockedStorage.getProtectedStorageEntries(ProtectedStoragePayloadStub.class)));
+        Assert.assertEquals(Collections.singletonList(expirableEntry),
+                List.copyOf(this.testState.mockedStorage.getProtectedStorageEntries(ExpirableProtectedStoragePayloadStub.class)));
+        Assert.assertEquals(Map.of(ProtectedStoragePayloadStub.class, 1, ExpirableProtectedStoragePayloadStub.class, 1),
+                this.testState.mockedStorage.getNumEntriesByPayloadType());
+        Assert.assertEquals(2, this.testState.mockedStorage.getMap().size());
+    }
+
+    // TESTCASE: Listeners for a payload type only get added entries of that type
+    @Test
+    public void typedListener_onAdded() {
+        verify(expirableListener).onAdded(Collections.singletonList(expirableEntry));
+        verify(expirableListener, never()).onAdded(Collections.singletonList(entry));
+    }
+
+    // TESTCASE: Removed entries are removed from the index and only typed listeners of their type are called
+    @Test
+    public void typedListener_onRemoved() {
+        HashMapChangedListener listener = mock(HashMapChangedListener.class);
+        this.testState.mockedStorage.addHashMapChangedListener(ProtectedStoragePayloadStub.class, listener);
+
+        this.testState.incrementClock();
+        this.testState.mockedStorage.removeExpiredEntries();
+
+        verify(expirableListener).onRemoved(Collections.singletonList(expirableEntry));
+        verify(listener, never()).onRemoved(any());
+        Assert.assertTrue(this.testState.mockedStorage.getProtectedStorageEntries(ExpirableProtectedStoragePayloadStub.class).isEmpty());
+        Assert.assertEquals(Map.of(ProtectedStoragePayloadStub.class, 1), this.testState.mockedStorage.getNumEntriesByPayloadType());
+    }
+
+    // TESTCASE: Removed typed listeners are not called anymore
+    @Test
+    public void removeHashMapChangedListener() {
+        this.testState.mockedStorage.removeHashMapChangedListener(expirableListener);
+
+        this.testState.incrementClock();
+        this.testState.mockedStorage.removeExpiredEntries();
+
+        verify(expirableListener, never()).onRemoved(any());
+    }
+}
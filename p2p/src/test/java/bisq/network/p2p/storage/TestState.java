@@ -67,6 +67,7 @@ public class TestState {
 
     P2PDataStorage mockedStorage;
     final Broadcaster mockBroadcaster;
+    final NetworkNode mockNetworkNode;
 
     final AppendOnlyDataStoreListener appendOnlyDataStoreListener;
     private final HashMapChangedListener hashMapChangedListener;
@@ -77,6 +78,7 @@ public class TestState {
 
     TestState() {
         this.mockBroadcaster = mock(Broadcaster.class);
+        this.mockNetworkNode = mock(NetworkNode.class);
         this.mockSeqNrPersistenceManager = mock(PersistenceManager.class);
         this.removedPayloadsService = mock(RemovedPayloadsService.class);
         this.clockFake = new ClockFake();
@@ -96,6 +98,7 @@ public class TestState {
         this.protectedDataStoreService.addService(new MapStoreServiceFake());
 
         this.mockedStorage = createP2PDataStorageForTest(
+                this.mockNetworkNode,
                 this.mockBroadcaster,
                 this.protectedDataStoreService,
                 this.mockSeqNrPersistenceManager,
@@ -117,6 +120,7 @@ public class TestState {
     void simulateRestart() {
         this.removedPayloadsService = mock(RemovedPayloadsService.class);
         this.mockedStorage = createP2PDataStorageForTest(
+                this.mockNetworkNode,
                 this.mockBroadcaster,
                 this.protectedDataStoreService,
                 this.mockSeqNrPersistenceManager,
@@ -130,6 +134,7 @@ public class TestState {
     }
 
     private static P2PDataStorage createP2PDataStorageForTest(
+            NetworkNode networkNode,
             Broadcaster broadcaster,
             ProtectedDataStoreService protectedDataStoreService,
             PersistenceManager<SequenceNumberMap> sequenceNrMapPersistenceManager,
@@ -138,7 +143,7 @@ public class TestState {
             AppendOnlyDataStoreListener appendOnlyDataStoreListener,
             RemovedPayloadsService removedPayloadsService) {
 
-        P2PDataStorage p2PDataStorage = new P2PDataStorage(mock(NetworkNode.class),
+        P2PDataStorage p2PDataStorage = new P2PDataStorage(networkNode,
                 broadcaster,
                 new AppendOnlyDataStoreServiceFake(),
                 protectedDataStoreService,
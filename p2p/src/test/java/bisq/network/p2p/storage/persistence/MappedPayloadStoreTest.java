@@ -0,0 +1,180 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import bisq.common.proto.ProtoResolver;
+
+import com.google.protobuf.ByteString;
+
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MappedPayloadStoreTest {
+    private File dir;
+    private File file;
+    private ProtoResolver protoResolver;
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> payloads;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("mapped-store").toFile();
+        file = new File(dir, "store.mapped");
+        protoResolver = mock(ProtoResolver.class);
+        when(protoResolver.fromProto(any(protobuf.PersistableNetworkPayload.class)))
+                .thenAnswer(invocation -> {
+                    protobuf.AccountAgeWitness proto = invocation.<protobuf.PersistableNetworkPayload>getArgument(0).getAccountAgeWitness();
+                    return new Payload(proto.getHash().toByteArray(), proto.getDate());
+                });
+        payloads = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            Payload payload = new Payload(new byte[]{(byte) (i * 37), (byte) i, 0, (byte) -i}, i);
+            payloads.put(new P2PDataStorage.ByteArray(payload.getHash()), payload);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                //noinspection ResultOfMethodCallIgnored
+                f.delete();
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        dir.delete();
+    }
+
+    @Test
+    public void testWriteAndOpen() throws IOException {
+        MappedPayloadStore.write(file, payloads, 123);
+        MappedPayloadStore store = MappedPayloadStore.open(file, 123, protoResolver);
+
+        assertEquals(payloads.size(), store.size());
+        assertEquals(payloads.keySet(), store.keySet());
+        payloads.forEach((hash, payload) -> {
+            assertTrue(store.containsKey(hash));
+            assertEquals(((Payload) payload).date, ((Payload) store.get(hash)).date);
+        });
+        assertFalse(store.containsKey(new P2PDataStorage.ByteArray(new byte[]{9, 9, 9, 9})));
+        assertNull(store.get(new P2PDataStorage.ByteArray(new byte[]{9, 9, 9, 9})));
+        assertEquals(payloads.size(), store.entrySet().size());
+    }
+
+    @Test
+    public void testOpenWithOtherSourceFingerprintReturnsNull() throws IOException {
+        MappedPayloadStore.write(file, payloads, 123);
+        assertNull(MappedPayloadStore.open(file, 124, protoResolver));
+        assertNull(MappedPayloadStore.open(new File(dir, "missing"), 123, protoResolver));
+    }
+
+    @Test
+    public void testSourceFingerprint() throws IOException {
+        File sourceFile = new File(dir, "source");
+        byte[] bytes = new byte[200_000];
+        Files.write(sourceFile.toPath(), bytes);
+        long lastModified = sourceFile.lastModified();
+        long fingerprint = MappedPayloadStore.getSourceFingerprint(sourceFile);
+        MappedPayloadStore.write(file, payloads, fingerprint);
+        assertEquals(fingerprint, MappedPayloadStore.getSourceFingerprint(sourceFile));
+        assertNotNull(MappedPayloadStore.open(file, fingerprint, protoResolver));
+
+        // Same length and last modified time but other content
+        bytes[bytes.length - 1] = 1;
+        Files.write(sourceFile.toPath(), bytes);
+        assertTrue(sourceFile.setLastModified(lastModified));
+        assertNull(MappedPayloadStore.open(file, MappedPayloadStore.getSourceFingerprint(sourceFile), protoResolver));
+
+        // Same content but other last modified time
+        bytes[bytes.length - 1] = 0;
+        Files.write(sourceFile.toPath(), bytes);
+        assertTrue(sourceFile.setLastModified(lastModified + 2000));
+        assertNull(MappedPayloadStore.open(file, MappedPayloadStore.getSourceFingerprint(sourceFile), protoResolver));
+    }
+
+    @Test
+    public void testUnionViewOverLiveAndMappedData() throws IOException {
+        MappedPayloadStore.write(file, payloads, 123);
+        MappedPayloadStore store = MappedPayloadStore.open(file, 123, protoResolver);
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> live = new HashMap<>();
+        Payload livePayload = new Payload(new byte[]{9, 9, 9, 9}, 1000);
+        live.put(new P2PDataStorage.ByteArray(livePayload.getHash()), livePayload);
+
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> view = new ReadOnlyUnionMap<>(List.of(live, store), true);
+        assertEquals(payloads.size() + 1, view.size());
+        assertEquals(payloads.size() + 1, new HashMap<>(view).size());
+        assertTrue(view.containsKey(new P2PDataStorage.ByteArray(livePayload.getHash())));
+
+        // Overlapping maps are only counted once
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> union = new ReadOnlyUnionMap<>(List.of(payloads, store), false);
+        assertEquals(payloads.size(), union.size());
+        assertEquals(payloads.size(), union.keySet().stream().count());
+    }
+
+    private static class Payload implements PersistableNetworkPayload {
+        private final byte[] hash;
+        private final long date;
+
+        Payload(byte[] hash, long date) {
+            this.hash = hash;
+            this.date = date;
+        }
+
+        @Override
+        public protobuf.PersistableNetworkPayload toProtoMessage() {
+            return protobuf.PersistableNetworkPayload.newBuilder()
+                    .setAccountAgeWitness(protobuf.AccountAgeWitness.newBuilder()
+                            .setHash(ByteString.copyFrom(hash))
+                            .setDate(date))
+                    .build();
+        }
+
+        @Override
+        public byte[] getHash() {
+            return hash;
+        }
+
+        @Override
+        public boolean verifyHashSize() {
+            return true;
+        }
+    }
+}
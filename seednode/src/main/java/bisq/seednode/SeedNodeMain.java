@@ -37,6 +37,7 @@ import bisq.common.app.DevEnv;
 import bisq.common.config.BaseCurrencyNetwork;
 import bisq.common.config.Config;
 import bisq.common.handlers.ResultHandler;
+import bisq.common.metrics.MetricsHttpServer;
 
 import com.google.inject.Key;
 import com.google.inject.name.Names;
@@ -49,6 +50,7 @@ public class SeedNodeMain extends ExecutableForAppWithP2p {
     private static final String VERSION = "0.0.1";
     private SeedNode seedNode;
     private Timer checkConnectionLossTime;
+    private MetricsHttpServer metricsHttpServer;
 
     public SeedNodeMain() {
         super("Bisq Seednode", "bisq-seednode", "bisq_seednode", VERSION);
@@ -120,6 +122,8 @@ public class SeedNodeMain extends ExecutableForAppWithP2p {
             }
         });
 
+        metricsHttpServer = MetricsHttpServer.maybeStart(config.metricsPort);
+
         seedNode.startApplication();
 
         injector.getInstance(P2PService.class).addP2PServiceListener(new P2PServiceListener() {
@@ -195,6 +199,8 @@ public class SeedNodeMain extends ExecutableForAppWithP2p {
     @Override
     public void gracefulShutDown(ResultHandler resultHandler) {
         seedNode.shutDown();
+        if (metricsHttpServer != null)
+            metricsHttpServer.shutDown();
         super.gracefulShutDown(resultHandler);
     }
 }